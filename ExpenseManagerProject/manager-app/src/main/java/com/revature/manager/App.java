@@ -1,45 +1,194 @@
 package com.revature.manager;
 
+import com.revature.manager.dao.ApprovalDao;
+import com.revature.manager.dao.ArchiveDao;
+import com.revature.manager.dao.BudgetDao;
+import com.revature.manager.dao.ChangeDao;
+import com.revature.manager.dao.DuplicateDao;
 import com.revature.manager.dao.ExpenseDao;
+import com.revature.manager.dao.ExpenseRepository;
+import com.revature.manager.dao.ImportDao;
+import com.revature.manager.dao.MaintenanceDao;
+import com.revature.manager.dao.ShardedExpenseDao;
+import com.revature.manager.dao.ShardedUserDao;
+import com.revature.manager.dao.SpendRollupDao;
+import com.revature.manager.dao.UserCache;
 import com.revature.manager.dao.UserDao;
+import com.revature.manager.dao.UserRepository;
 import com.revature.manager.db.Database;
+import com.revature.manager.importer.ExpenseImporter;
+import com.revature.manager.service.ArchiveService;
 import com.revature.manager.service.AuthService;
+import com.revature.manager.service.AutoReviewService;
+import com.revature.manager.service.BudgetService;
+import com.revature.manager.service.DuplicateService;
 import com.revature.manager.service.ExpenseService;
+import com.revature.manager.service.MaintenanceScheduler;
+import com.revature.manager.service.ReportService;
 import com.revature.manager.ui.Menu;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
+import java.util.stream.Stream;
 
 public class App {
     private static final Logger logger = Logger.getLogger(App.class.getName());
     private static final String DEFAULT_DB = "revature_expense_manager.db";
     private static final String LOG_FILE = "manager_app.log";
+    private static final String DEFAULT_RULES_FILE = "auto-review.rules";
 
     public static void main(String[] args) {
         configureLogging();
 
-        Path dbPath = resolveDbPath();
-        Database database = new Database(dbPath);
-        database.initSchema();
+        List<Path> dbPaths = resolveShardPaths();
+        List<Database> databases = new ArrayList<>(dbPaths.size());
+        if (dbPaths.size() == 1) {
+            databases.add(new Database(dbPaths.get(0), resolveArchivePath(dbPaths.get(0))));
+        } else {
+            dbPaths.forEach(path -> databases.add(new Database(path)));
+        }
 
-        Menu menu = createMenu(database);
+        MaintenanceScheduler maintenanceScheduler = createMaintenanceScheduler(databases);
+        Menu menu = createMenu(databases, maintenanceScheduler);
 
-        logger.log(Level.INFO, () -> "Launching Manager App using database at " + dbPath);
+        logger.log(Level.INFO, () -> "Launching Manager App using database(s) at " + dbPaths);
+        maintenanceScheduler.start();
         menu.start();
+        maintenanceScheduler.close();
         logger.log(Level.INFO, () -> "Manager App shut down");
     }
 
-    private static Menu createMenu(Database database) {
-        UserDao userDao = new UserDao(database);
-        ExpenseDao expenseDao = new ExpenseDao(database);
+    /**
+     * With several databases, users and expenses are read through the sharded DAOs, and the audit trail and archive
+     * cover every database. The change feed and bulk import work against the first (primary) database only, so the
+     * menu does not offer them then.
+     */
+    private static Menu createMenu(List<Database> databases, MaintenanceScheduler maintenanceScheduler) {
+        Database primary = databases.get(0);
+        List<ArchiveDao> archiveDaos = new ArrayList<>();
+        databases.forEach(database -> archiveDaos.add(new ArchiveDao(database)));
+
+        UserRepository userDao;
+        UserCache userCache;
+        ExpenseRepository expenseDao;
+        List<ExpenseDao> shardExpenseDaos = new ArrayList<>();
+        if (databases.size() == 1) {
+            userDao = new UserDao(primary);
+            userCache = new UserCache(userDao);
+            ExpenseDao primaryExpenseDao = new ExpenseDao(primary, userCache, archiveDaos.get(0));
+            shardExpenseDaos.add(primaryExpenseDao);
+            expenseDao = primaryExpenseDao;
+        } else {
+            List<UserDao> shardUserDaos = new ArrayList<>();
+            databases.forEach(database -> shardUserDaos.add(new UserDao(database)));
+            ShardedUserDao shardedUserDao = new ShardedUserDao(shardUserDaos);
+            userDao = shardedUserDao;
+            userCache = new UserCache(userDao);
+
+            for (int i = 0; i < databases.size(); i++) {
+                shardExpenseDaos.add(new ExpenseDao(databases.get(i), userCache, archiveDaos.get(i)));
+            }
+            expenseDao = new ShardedExpenseDao(shardExpenseDaos, shardedUserDao);
+        }
+        warmUp(databases, userCache);
+
+        List<ApprovalDao> approvalDaos = new ArrayList<>();
+        for (int i = 0; i < databases.size(); i++) {
+            approvalDaos.add(new ApprovalDao(databases.get(i), archiveDaos.get(i)));
+        }
+        ChangeDao changeDao = new ChangeDao(primary);
         AuthService authService = new AuthService(userDao);
-        ExpenseService expenseService = new ExpenseService(expenseDao, userDao);
-        return new Menu(authService, expenseService);
+        // Budget limits live in the primary database; each database counts the spending of its own rows.
+        List<BudgetDao> budgetDaos = new ArrayList<>();
+        databases.forEach(database -> budgetDaos.add(new BudgetDao(database)));
+        BudgetService budgetService = new BudgetService(budgetDaos, userCache);
+        ExpenseService expenseService = new ExpenseService(expenseDao, userCache, approvalDaos, changeDao,
+            budgetService);
+        ArchiveService archiveService = new ArchiveService(archiveDaos, expenseDao, resolveArchiveAgeDays());
+        ExpenseImporter expenseImporter = new ExpenseImporter(new ImportDao(primary), userCache);
+        AutoReviewService autoReviewService = new AutoReviewService(expenseDao, resolveRulesPath());
+        // Each database keeps its own monthly rollups next to its rows; the report service merges them.
+        List<SpendRollupDao> rollupDaos = new ArrayList<>();
+        for (int i = 0; i < databases.size(); i++) {
+            rollupDaos.add(new SpendRollupDao(databases.get(i), shardExpenseDaos.get(i)));
+        }
+        ReportService reportService = new ReportService(rollupDaos, userCache);
+        // A user's expenses all live in one database, so each is checked for duplicates on its own.
+        List<DuplicateDao> duplicateDaos = new ArrayList<>();
+        databases.forEach(database -> duplicateDaos.add(new DuplicateDao(database)));
+        DuplicateService duplicateService = new DuplicateService(duplicateDaos);
+        return new Menu(authService, expenseService, archiveService, expenseImporter, autoReviewService,
+            reportService, budgetService, duplicateService, maintenanceScheduler);
+    }
+
+    /**
+     * Every database file gets its own maintenance and backup; the archive files are left alone.
+     */
+    private static MaintenanceScheduler createMaintenanceScheduler(List<Database> databases) {
+        List<MaintenanceDao> maintenanceDaos = new ArrayList<>();
+        databases.forEach(database -> maintenanceDaos.add(
+            new MaintenanceDao(database, resolveBackupPath(database.getDbPath()))));
+        return new MaintenanceScheduler(maintenanceDaos);
+    }
+
+    /**
+     * Nothing above touches the database files, so the login prompt appears before the SQLite driver is loaded. This
+     * background thread opens each database (checking its schema) and fills the user cache while the manager types;
+     * anything that needs a connection sooner simply does that work itself on first use.
+     */
+    private static void warmUp(List<Database> databases, UserCache userCache) {
+        Thread thread = new Thread(() -> {
+            databases.forEach(Database::ensureSchema);
+            userCache.preload();
+        }, "db-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * {@code EXPENSE_DB_FILES} (comma-separated) or {@code EXPENSE_DB_DIR} (every *.db file except archives and backups)
+     * select one database per region; otherwise the single {@code EXPENSE_DB_FILE} is used.
+     */
+    private static List<Path> resolveShardPaths() {
+        String files = System.getenv("EXPENSE_DB_FILES");
+        if (files != null && !files.isBlank()) {
+            List<Path> paths = new ArrayList<>();
+            for (String file : files.split(",")) {
+                if (!file.isBlank()) {
+                    paths.add(Path.of(file.trim()));
+                }
+            }
+            if (!paths.isEmpty()) {
+                return paths;
+            }
+        }
+
+        String dir = System.getenv("EXPENSE_DB_DIR");
+        if (dir != null && !dir.isBlank()) {
+            try (Stream<Path> entries = Files.list(Path.of(dir))) {
+                List<Path> paths = entries
+                    .filter(path -> path.getFileName().toString().endsWith(".db"))
+                    .filter(path -> !path.getFileName().toString().endsWith("_archive.db"))
+                    .filter(path -> !path.getFileName().toString().endsWith("_backup.db"))
+                    .sorted()
+                    .toList();
+                if (!paths.isEmpty()) {
+                    return paths;
+                }
+                logger.warning("No .db files found in EXPENSE_DB_DIR " + dir);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Unable to list EXPENSE_DB_DIR " + dir, e);
+            }
+        }
+        return List.of(resolveDbPath());
     }
 
     private static Path resolveDbPath() {
@@ -58,6 +207,46 @@ public class App {
         return local;
     }
 
+    private static Path resolveArchivePath(Path dbPath) {
+        String envPath = System.getenv("EXPENSE_ARCHIVE_DB_FILE");
+        if (envPath != null && !envPath.isBlank()) {
+            return Path.of(envPath);
+        }
+        return Database.defaultArchivePath(dbPath);
+    }
+
+    /**
+     * {@code EXPENSE_BACKUP_DIR}, or the database's own directory.
+     */
+    private static Path resolveBackupPath(Path dbPath) {
+        String envDir = System.getenv("EXPENSE_BACKUP_DIR");
+        if (envDir != null && !envDir.isBlank()) {
+            return Database.defaultBackupPath(dbPath, Path.of(envDir));
+        }
+        return Database.defaultBackupPath(dbPath, dbPath.toAbsolutePath().getParent());
+    }
+
+    private static int resolveArchiveAgeDays() {
+        String value = System.getenv("EXPENSE_ARCHIVE_AFTER_DAYS");
+        if (value == null || value.isBlank()) {
+            return ArchiveService.DEFAULT_AGE_DAYS;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warning("Ignoring invalid EXPENSE_ARCHIVE_AFTER_DAYS value " + value);
+            return ArchiveService.DEFAULT_AGE_DAYS;
+        }
+    }
+
+    private static Path resolveRulesPath() {
+        String envPath = System.getenv("EXPENSE_RULES_FILE");
+        if (envPath != null && !envPath.isBlank()) {
+            return Path.of(envPath);
+        }
+        return Path.of(DEFAULT_RULES_FILE);
+    }
+
     private static void configureLogging() {
         Logger rootLogger = Logger.getLogger("");
         rootLogger.setLevel(Level.INFO);
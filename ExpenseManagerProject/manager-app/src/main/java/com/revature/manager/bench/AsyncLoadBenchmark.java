@@ -0,0 +1,207 @@
+package com.revature.manager.bench;
+
+import com.revature.manager.dao.ApprovalDao;
+import com.revature.manager.dao.ArchiveDao;
+import com.revature.manager.dao.BudgetDao;
+import com.revature.manager.dao.ChangeDao;
+import com.revature.manager.dao.ExpenseDao;
+import com.revature.manager.dao.UserCache;
+import com.revature.manager.dao.UserDao;
+import com.revature.manager.db.Database;
+import com.revature.manager.model.ExpenseCriteria;
+import com.revature.manager.service.AsyncExpenseService;
+import com.revature.manager.service.BudgetService;
+import com.revature.manager.service.ExpenseService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test for {@link AsyncExpenseService}. Every client sends a stream of reviewer-sized reads (one employee's
+ * latest expenses, mostly) and waits for each answer. At each level the same number of clients call the synchronous
+ * API directly and then go through the async facade. Prints throughput and latency percentiles per level, then checks
+ * that timed-out calls are abandoned without leaking permits.
+ *
+ * <pre>java -cp target/manager-app-0.1.0-SNAPSHOT.jar com.revature.manager.bench.AsyncLoadBenchmark [rows] [requests] [clients,...]</pre>
+ */
+public final class AsyncLoadBenchmark {
+    private static final String[] CATEGORIES = {"Travel", "Meals", "Lodging", "Supplies", "Training"};
+    private static final String[] STATUSES = {"pending", "approved", "denied"};
+    private static final int USERS = 500;
+
+    private AsyncLoadBenchmark() {
+        // Command-line entry point only.
+    }
+
+    public static void main(String[] args) throws IOException, SQLException, InterruptedException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int[] levels = args.length > 2
+            ? Arrays.stream(args[2].split(",")).mapToInt(Integer::parseInt).toArray()
+            : new int[] {1, 4, 16, 64, 256};
+        Path dir = Files.createTempDirectory("async-load-bench");
+        Database database = new Database(dir.resolve("expenses.db"));
+        database.initSchema();
+        seed(database, rows);
+
+        UserCache userCache = new UserCache(new UserDao(database));
+        ArchiveDao archiveDao = new ArchiveDao(database);
+        ExpenseDao expenseDao = new ExpenseDao(database, userCache, archiveDao);
+        ExpenseService service = new ExpenseService(expenseDao, userCache, new ApprovalDao(database, archiveDao),
+            new ChangeDao(database), new BudgetService(List.of(new BudgetDao(database)), userCache));
+
+        System.out.printf("%,d expenses, %,d requests per level, pool of %d connections%n",
+            rows, requests, database.getPoolSize());
+        System.out.printf("%-16s %10s %10s %10s%n", "clients", "req/s", "p50 ms", "p99 ms");
+        try (AsyncExpenseService async = new AsyncExpenseService(service, database)) {
+            // One untimed pass per API at the busiest level warms the JIT and the virtual thread scheduler.
+            int busiest = Arrays.stream(levels).max().orElse(1);
+            run(requests, busiest, true, i -> service.listExpenses(request(i)));
+            run(requests, busiest, false, i -> async.listExpenses(request(i)).join());
+
+            for (int clients : levels) {
+                report("sync x" + clients, run(requests, clients, true, i -> service.listExpenses(request(i))));
+                report("async x" + clients,
+                    run(requests, clients, false, i -> async.listExpenses(request(i)).join()));
+            }
+            checkTimeouts(service, database.getPoolSize());
+        } finally {
+            database.close();
+        }
+    }
+
+    /**
+     * Sends {@code requests} calls from {@code clients} threads and returns the sorted latencies in nanoseconds with
+     * the wall time appended last. Synchronous callers get a platform thread each, as in a thread-per-request server;
+     * async callers only park, so virtual threads are enough.
+     */
+    private static long[] run(int requests, int clients, boolean platform, Call call) {
+        long[] latencies = new long[requests + 1];
+        AtomicInteger next = new AtomicInteger();
+        long started = System.nanoTime();
+        try (ExecutorService executor = platform
+            ? Executors.newFixedThreadPool(clients)
+            : Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        long begin = System.nanoTime();
+                        call.invoke(i);
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                });
+            }
+        }
+        long wall = System.nanoTime() - started;
+        Arrays.sort(latencies, 0, requests);
+        latencies[requests] = wall;
+        return latencies;
+    }
+
+    private static void report(String label, long[] latencies) {
+        int requests = latencies.length - 1;
+        double seconds = latencies[requests] / 1e9;
+        System.out.printf("%-16s %,10.0f %10.2f %10.2f%n", label, requests / seconds,
+            latencies[requests / 2] / 1e6, latencies[(int) (requests * 0.99)] / 1e6);
+    }
+
+    /**
+     * Floods a facade with a tiny timeout: every call must finish or time out, and once the dust settles no call may
+     * still hold a permit.
+     */
+    private static void checkTimeouts(ExpenseService service, int permits) throws InterruptedException {
+        try (AsyncExpenseService strict = new AsyncExpenseService(service, permits, Duration.ofMillis(5))) {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                int index = i;
+                futures.add(strict.submit(() -> service.listExpenses(request(index)).size()));
+            }
+            int timedOut = 0;
+            for (CompletableFuture<Integer> future : futures) {
+                try {
+                    future.join();
+                } catch (RuntimeException e) {
+                    if (e.getCause() instanceof TimeoutException) {
+                        timedOut++;
+                    }
+                }
+            }
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (strict.getActiveCalls() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            boolean passed = timedOut > 0 && strict.getActiveCalls() == 0;
+            System.out.printf("timeouts: %d of %d calls timed out, %d permits held afterwards -> %s%n",
+                timedOut, futures.size(), strict.getActiveCalls(), passed ? "PASS" : "FAIL");
+            if (!passed) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Four in five requests read one employee's 25 latest expenses; the rest read one employee's
+     * largest expenses in a quarter.
+     */
+    private static ExpenseCriteria request(int i) {
+        String user = "u" + Math.floorMod(i * 7919, USERS);
+        if (i % 5 != 0) {
+            return ExpenseCriteria.builder().userId(user).limit(25).build();
+        }
+        LocalDate from = LocalDate.now().minusDays(90 + Math.floorMod(i, 900));
+        return ExpenseCriteria.builder().userId(user).dateRange(from, from.plusDays(90))
+            .sort(ExpenseCriteria.Sort.AMOUNT_DESC).limit(10).build();
+    }
+
+    private static void seed(Database database, int rows) throws SQLException {
+        Random random = new Random(7);
+        LocalDate firstDay = LocalDate.now().minusDays(1000);
+        try (Connection conn = database.getConnection();
+             PreparedStatement users = conn.prepareStatement("INSERT INTO users VALUES (?, ?, 'pw', 'Employee')");
+             PreparedStatement expenses = conn.prepareStatement(
+                 "INSERT INTO expenses (id, user_id, category, amount, description, date, status) "
+                     + "VALUES (?, ?, ?, ?, 'seed', ?, ?)")) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < USERS; i++) {
+                users.setString(1, "u" + i);
+                users.setString(2, "user" + i);
+                users.executeUpdate();
+            }
+            for (int i = 0; i < rows; i++) {
+                expenses.setString(1, "s" + i);
+                expenses.setString(2, "u" + random.nextInt(USERS));
+                expenses.setString(3, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                expenses.setDouble(4, 5 + random.nextInt(500));
+                expenses.setString(5, firstDay.plusDays(random.nextInt(1000)).toString());
+                expenses.setString(6, STATUSES[random.nextInt(STATUSES.length)]);
+                expenses.addBatch();
+                if (i % 10_000 == 9_999) {
+                    expenses.executeBatch();
+                }
+            }
+            expenses.executeBatch();
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void invoke(int request);
+    }
+}
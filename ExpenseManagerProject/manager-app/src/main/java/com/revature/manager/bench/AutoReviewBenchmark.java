@@ -0,0 +1,107 @@
+package com.revature.manager.bench;
+
+import com.revature.manager.dao.ArchiveDao;
+import com.revature.manager.dao.ExpenseDao;
+import com.revature.manager.dao.UserCache;
+import com.revature.manager.dao.UserDao;
+import com.revature.manager.db.Database;
+import com.revature.manager.model.AutoReviewReport;
+import com.revature.manager.model.User;
+import com.revature.manager.rules.AutoReviewRule;
+import com.revature.manager.rules.RuleCompiler;
+import com.revature.manager.service.AutoReviewPlan;
+import com.revature.manager.service.AutoReviewService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds a database with a large pending queue plus some review history, then times a dry run of the rules and
+ * applying the matches.
+ *
+ * <pre>java -cp target/manager-app-0.1.0-SNAPSHOT.jar com.revature.manager.bench.AutoReviewBenchmark [pendingRows]</pre>
+ */
+public final class AutoReviewBenchmark {
+    private static final String[] CATEGORIES = {"Travel", "Meals", "Lodging", "Supplies", "Training"};
+    private static final int USERS = 500;
+    private static final int REVIEWED_ROWS = 50_000;
+    private static final List<String> RULES = List.of(
+        "small-meals | approve | category = Meals and amount < 25 and history.denied = 0",
+        "routine-supplies | approve | category in (Supplies, Training) and amount <= 50 and history.approved >= 5"
+            + " and history.denial_rate < 0.1",
+        "stale-claims | deny | age_days > 1000"
+    );
+
+    private AutoReviewBenchmark() {
+        // Command-line entry point only.
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = Files.createTempDirectory("auto-review-bench");
+        Database database = new Database(dir.resolve("expenses.db"));
+        database.initSchema();
+        seed(database, rows);
+
+        UserCache userCache = new UserCache(new UserDao(database));
+        userCache.preload();
+        ExpenseDao expenseDao = new ExpenseDao(database, userCache, new ArchiveDao(database));
+        AutoReviewService service = new AutoReviewService(expenseDao, dir.resolve("unused.rules"));
+        List<AutoReviewRule> rules = RuleCompiler.compile(RULES, LocalDate.now());
+
+        AutoReviewPlan plan = service.plan(rules);
+        System.out.printf("dry run: %d pending scanned, %d matched in %d ms (%.0f rows/s)%n",
+            plan.getScanned(), plan.getDecisionCount(), plan.getElapsedMillis(), plan.getRowsPerSecond());
+        for (int i = 0; i < rules.size(); i++) {
+            System.out.printf("  %-16s %d%n", rules.get(i).getName(), plan.getMatchCount(i));
+        }
+
+        User reviewer = userCache.findById("u0").orElseThrow();
+        AutoReviewReport report = service.apply(plan, reviewer);
+        System.out.printf("apply: %d approved, %d denied in %d batches, %d ms (%.0f rows/s)%n",
+            report.getApproved(), report.getDenied(), report.getBatches(), report.getElapsedMillis(),
+            report.getRowsPerSecond());
+        database.close();
+    }
+
+    private static void seed(Database database, int pendingRows) throws SQLException {
+        Random random = new Random(7);
+        LocalDate firstDay = LocalDate.now().minusDays(1200);
+        try (Connection conn = database.getConnection();
+             PreparedStatement users = conn.prepareStatement("INSERT INTO users VALUES (?, ?, 'pw', 'Employee')");
+             PreparedStatement expenses = conn.prepareStatement(
+                 "INSERT INTO expenses (id, user_id, category, amount, description, date, status) "
+                     + "VALUES (?, ?, ?, ?, 'benchmark', ?, ?)")) {
+            conn.setAutoCommit(false);
+            for (int u = 0; u < USERS; u++) {
+                users.setString(1, "u" + u);
+                users.setString(2, "user" + u);
+                users.addBatch();
+            }
+            users.executeBatch();
+            int total = pendingRows + REVIEWED_ROWS;
+            for (int i = 0; i < total; i++) {
+                boolean reviewed = i < REVIEWED_ROWS;
+                expenses.setString(1, "e" + i);
+                expenses.setString(2, "u" + random.nextInt(USERS));
+                expenses.setString(3, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                expenses.setDouble(4, Math.round(random.nextDouble() * 20_000) / 100.0);
+                expenses.setString(5, firstDay.plusDays(random.nextInt(1200)).toString());
+                expenses.setString(6, reviewed ? (random.nextInt(40) == 0 ? "denied" : "approved") : "pending");
+                expenses.addBatch();
+                if (i % 10_000 == 9_999) {
+                    expenses.executeBatch();
+                }
+            }
+            expenses.executeBatch();
+            conn.commit();
+        }
+    }
+}
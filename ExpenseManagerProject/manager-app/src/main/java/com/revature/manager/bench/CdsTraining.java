@@ -0,0 +1,89 @@
+package com.revature.manager.bench;
+
+import com.revature.manager.App;
+import com.revature.manager.db.Database;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.NoSuchElementException;
+
+/**
+ * Training run for the AppCDS archive built by the {@code cds} Maven profile. It seeds a small database at
+ * {@code EXPENSE_DB_FILE}, then drives {@link App} through a scripted session (login, the pending queue and the
+ * reports) so the archive holds the classes a real session loads.
+ */
+public final class CdsTraining {
+    private static final String SCRIPT = String.join("\n",
+        "trainer", "pw",
+        "1",
+        "11",
+        "14", "", "", "",
+        "15", "", "", "", "",
+        "16", "",
+        "17", "", "pending", "", "", "", "", "", "3", "20",
+        "18",
+        "19", "n",
+        "20") + "\n";
+
+    private CdsTraining() {
+        // Command-line entry point only.
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        String dbFile = System.getenv("EXPENSE_DB_FILE");
+        if (dbFile == null || dbFile.isBlank()) {
+            throw new IllegalStateException("Set EXPENSE_DB_FILE to the training database path");
+        }
+        Path dbPath = Path.of(dbFile);
+        Files.deleteIfExists(dbPath);
+        Files.deleteIfExists(Database.defaultArchivePath(dbPath));
+        seed(dbPath);
+
+        System.setIn(new ByteArrayInputStream(SCRIPT.getBytes(StandardCharsets.UTF_8)));
+        try {
+            App.main(args);
+        } catch (NoSuchElementException e) {
+            // The menu changed and the script ran out early; the classes loaded so far are still archived.
+        }
+    }
+
+    private static void seed(Path dbPath) throws SQLException {
+        Database database = new Database(dbPath);
+        String[] categories = {"Travel", "Meals", "Lodging"};
+        String[] statuses = {"pending", "approved", "denied"};
+        try (Connection conn = database.getConnection();
+             PreparedStatement users = conn.prepareStatement("INSERT INTO users VALUES (?, ?, 'pw', ?)");
+             PreparedStatement expenses = conn.prepareStatement(
+                 "INSERT INTO expenses (id, user_id, category, amount, description, date, status) "
+                     + "VALUES (?, 'e1', ?, ?, 'training', ?, ?)")) {
+            conn.setAutoCommit(false);
+            users.setString(1, "m1");
+            users.setString(2, "trainer");
+            users.setString(3, "Manager");
+            users.executeUpdate();
+            users.setString(1, "e1");
+            users.setString(2, "employee");
+            users.setString(3, "Employee");
+            users.executeUpdate();
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < 300; i++) {
+                expenses.setString(1, "t" + i);
+                expenses.setString(2, categories[i % categories.length]);
+                expenses.setDouble(3, 10 + (i * 37) % 400);
+                expenses.setString(4, today.minusDays(i).toString());
+                expenses.setString(5, statuses[i % statuses.length]);
+                expenses.addBatch();
+            }
+            expenses.executeBatch();
+            conn.commit();
+        }
+        database.close();
+    }
+}
@@ -0,0 +1,256 @@
+package com.revature.manager.bench;
+
+import com.revature.manager.dao.DuplicateDao;
+import com.revature.manager.db.Database;
+import com.revature.manager.model.DuplicateMatch;
+import com.revature.manager.model.DuplicateScanReport;
+import com.revature.manager.model.Expense;
+import com.revature.manager.service.DuplicateService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeds a history with one percent resubmitted receipts (same text with different case and punctuation) and one
+ * percent edited ones (a word added, dropped or swapped, sometimes a day later), then times the history scan and
+ * counts how many of them it found and how many other pairs it flagged. Finally times checking single incoming
+ * expenses, both stored ones picked up by {@code sync()} and unsaved ones through {@code check()}.
+ *
+ * <pre>java -cp target/manager-app-0.1.0-SNAPSHOT.jar com.revature.manager.bench.DuplicateScanBenchmark [rows]</pre>
+ */
+public final class DuplicateScanBenchmark {
+    private static final String[] CATEGORIES = {"Travel", "Meals", "Lodging", "Supplies", "Training"};
+    private static final String[] WORDS = {
+        "uber", "taxi", "airport", "hotel", "night", "dinner", "lunch", "client", "team", "conference", "ticket",
+        "train", "parking", "fuel", "rental", "car", "office", "supplies", "printer", "paper", "books", "course",
+        "registration", "flight", "baggage", "fee", "breakfast", "coffee", "meeting", "chicago", "boston", "denver",
+        "seattle", "austin", "monitor", "keyboard", "cable", "workshop", "tolls", "shuttle"
+    };
+    private static final int USERS = 1_000;
+    private static final int DAYS = 730;
+    private static final int INCOMING = 1_000;
+    private static final double MIN_EXACT_RECALL = 1.0;
+    private static final double MIN_SIMILAR_RECALL = 0.85;
+    private static final double MAX_FALSE_POSITIVE_RATE = 0.001;
+    private static final long MAX_MEDIAN_MICROS = 1_000;
+
+    private DuplicateScanBenchmark() {
+        // Command-line entry point only.
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path dir = Files.createTempDirectory("duplicate-bench");
+        Database database = new Database(dir.resolve("expenses.db"));
+        database.initSchema();
+        Random random = new Random(41);
+        Map<String, String> injected = new HashMap<>();
+        int exactInjected = seed(database, rows, random, injected);
+        int similarInjected = injected.size() - exactInjected;
+
+        DuplicateService service = new DuplicateService(List.of(new DuplicateDao(database)));
+        DuplicateScanReport report = service.scanHistory();
+        System.out.printf("scan: %d expenses signed, %d exact and %d similar matches in %d ms (%.0f rows/s)%n",
+            report.getExpensesSigned(), report.getExactMatches(), report.getSimilarMatches(),
+            report.getElapsedMillis(), report.getExpensesSigned() * 1000.0 / Math.max(1, report.getElapsedMillis()));
+
+        int exactFound = 0;
+        int similarFound = 0;
+        long unexpected = report.getExactMatches() + report.getSimilarMatches();
+        Map<String, List<DuplicateMatch>> matches = service.matchesFor(injected.keySet());
+        for (Map.Entry<String, String> pair : injected.entrySet()) {
+            for (DuplicateMatch match : matches.getOrDefault(pair.getKey(), List.of())) {
+                if (match.otherThan(pair.getKey()).equals(pair.getValue())) {
+                    if (pair.getKey().startsWith("x")) {
+                        exactFound++;
+                    } else {
+                        similarFound++;
+                    }
+                    unexpected--;
+                    break;
+                }
+            }
+        }
+        double exactRecall = (double) exactFound / Math.max(1, exactInjected);
+        double similarRecall = (double) similarFound / Math.max(1, similarInjected);
+        double falsePositiveRate = (double) unexpected / rows;
+        System.out.printf("recall: exact %d/%d (%.1f%%), similar %d/%d (%.1f%%); other pairs flagged: %d%n",
+            exactFound, exactInjected, exactRecall * 100, similarFound, similarInjected, similarRecall * 100,
+            unexpected);
+
+        long[] syncMicros = timeIncomingSync(database, service, random);
+        long[] checkMicros = timeCheck(service, random);
+        System.out.printf("incoming via sync(): p50 %d us, p99 %d us%n",
+            percentile(syncMicros, 0.50), percentile(syncMicros, 0.99));
+        System.out.printf("incoming via check(): p50 %d us, p99 %d us%n",
+            percentile(checkMicros, 0.50), percentile(checkMicros, 0.99));
+
+        boolean pass = exactRecall >= MIN_EXACT_RECALL && similarRecall >= MIN_SIMILAR_RECALL
+            && falsePositiveRate <= MAX_FALSE_POSITIVE_RATE && percentile(checkMicros, 0.50) <= MAX_MEDIAN_MICROS;
+        System.out.println(pass ? "PASS" : "FAIL");
+        database.close();
+    }
+
+    /**
+     * Inserts {@code rows} expenses, one percent of them exact and one percent near copies of an earlier one. Records
+     * each copy's id against its original and returns how many of them are exact.
+     */
+    private static int seed(Database database, int rows, Random random, Map<String, String> injected)
+        throws SQLException {
+        LocalDate firstDay = LocalDate.now().minusDays(DAYS);
+        List<Object[]> originals = new ArrayList<>();
+        int exact = 0;
+        try (Connection conn = database.getConnection();
+             PreparedStatement users = conn.prepareStatement("INSERT INTO users VALUES (?, ?, 'pw', 'Employee')");
+             PreparedStatement expenses = conn.prepareStatement(
+                 "INSERT INTO expenses (id, user_id, category, amount, description, date, status) "
+                     + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            conn.setAutoCommit(false);
+            for (int u = 0; u < USERS; u++) {
+                users.setString(1, "u" + u);
+                users.setString(2, "user" + u);
+                users.addBatch();
+            }
+            users.executeBatch();
+            for (int i = 0; i < rows; i++) {
+                String id;
+                Object[] row;
+                int kind = originals.isEmpty() ? 2 : random.nextInt(100);
+                if (kind < 2) {
+                    Object[] original = originals.get(random.nextInt(originals.size()));
+                    boolean copy = kind == 0;
+                    id = (copy ? "x" : "s") + i;
+                    String date = copy ? (String) original[4]
+                        : LocalDate.parse((String) original[4]).plusDays(random.nextInt(2)).toString();
+                    String description = copy ? recase((String) original[3], random) : edit((String) original[3], random);
+                    row = new Object[] {original[0], original[1], original[2], description, date};
+                    injected.put(id, (String) original[5]);
+                    if (copy) {
+                        exact++;
+                    }
+                } else {
+                    id = "e" + i;
+                    row = new Object[] {
+                        "u" + random.nextInt(USERS),
+                        CATEGORIES[random.nextInt(CATEGORIES.length)],
+                        Math.round(random.nextDouble() * 50_000) / 100.0,
+                        description(random),
+                        firstDay.plusDays(random.nextInt(DAYS)).toString(),
+                        id
+                    };
+                    originals.add(row);
+                }
+                expenses.setString(1, id);
+                expenses.setString(2, (String) row[0]);
+                expenses.setString(3, (String) row[1]);
+                expenses.setDouble(4, (Double) row[2]);
+                expenses.setString(5, (String) row[3]);
+                expenses.setString(6, (String) row[4]);
+                expenses.setString(7, random.nextInt(10) == 0 ? "pending" : "approved");
+                expenses.addBatch();
+                if (i % 10_000 == 9_999) {
+                    expenses.executeBatch();
+                }
+            }
+            expenses.executeBatch();
+            conn.commit();
+        }
+        return exact;
+    }
+
+    /**
+     * Inserts new pending expenses one at a time, half of them copies of stored ones, and times the
+     * {@code sync()} that signs and checks each.
+     */
+    private static long[] timeIncomingSync(Database database, DuplicateService service, Random random)
+        throws SQLException {
+        long[] micros = new long[INCOMING];
+        try (Connection conn = database.getConnection();
+             PreparedStatement insert = conn.prepareStatement(
+                 "INSERT INTO expenses (id, user_id, category, amount, description, date, status) "
+                     + "SELECT ?, user_id, category, amount, coalesce(?, description), date, 'pending' FROM expenses "
+                     + "WHERE id = ?")) {
+            for (int i = 0; i < INCOMING; i++) {
+                insert.setString(1, "n" + i);
+                insert.setString(2, i % 2 == 0 ? null : description(random));
+                insert.setString(3, "e" + (1 + random.nextInt(100)));
+                insert.executeUpdate();
+                long started = System.nanoTime();
+                service.sync();
+                micros[i] = (System.nanoTime() - started) / 1_000;
+            }
+        }
+        return micros;
+    }
+
+    /**
+     * Times {@code check()} on unsaved expenses; only the last of five passes is kept, the rest warm up.
+     */
+    private static long[] timeCheck(DuplicateService service, Random random) {
+        long[] micros = new long[INCOMING];
+        for (int pass = 0; pass < 5; pass++) {
+            for (int i = 0; i < INCOMING; i++) {
+                Expense probe = new Expense("probe" + i, "u" + random.nextInt(USERS), null,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], Math.round(random.nextDouble() * 50_000) / 100.0,
+                    description(random), LocalDate.now().minusDays(random.nextInt(DAYS)).toString(), "pending",
+                    null, null, null);
+                long started = System.nanoTime();
+                service.check(probe);
+                micros[i] = (System.nanoTime() - started) / 1_000;
+            }
+        }
+        return micros;
+    }
+
+    private static String description(Random random) {
+        int words = 2 + random.nextInt(4);
+        StringBuilder description = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                description.append(' ');
+            }
+            description.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return description.toString();
+    }
+
+    private static String recase(String description, Random random) {
+        String changed = random.nextBoolean() ? description.toUpperCase(Locale.ROOT) : description.replace(' ', '-');
+        return changed + (random.nextBoolean() ? "." : "");
+    }
+
+    private static String edit(String description, Random random) {
+        List<String> words = new ArrayList<>(Arrays.asList(description.split(" ")));
+        int at = random.nextInt(words.size());
+        switch (random.nextInt(3)) {
+            case 0 -> words.add(at, WORDS[random.nextInt(WORDS.length)]);
+            case 1 -> {
+                if (words.size() > 2) {
+                    words.remove(at);
+                } else {
+                    words.add(WORDS[random.nextInt(WORDS.length)]);
+                }
+            }
+            default -> words.set(at, words.get(at) + "s");
+        }
+        return String.join(" ", words);
+    }
+
+    private static long percentile(long[] values, double fraction) {
+        long[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy[Math.min(copy.length - 1, (int) (fraction * copy.length))];
+    }
+}
@@ -0,0 +1,82 @@
+package com.revature.manager.bench;
+
+import com.revature.manager.dao.ImportDao;
+import com.revature.manager.dao.UserCache;
+import com.revature.manager.dao.UserDao;
+import com.revature.manager.db.Database;
+import com.revature.manager.importer.ExpenseImporter;
+import com.revature.manager.model.ImportReport;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Generates a CSV file with a sprinkling of invalid lines and times a bulk import of it into a fresh database.
+ *
+ * <pre>java -cp target/manager-app-0.1.0-SNAPSHOT.jar com.revature.manager.bench.ImportBenchmark [rows]</pre>
+ */
+public final class ImportBenchmark {
+    private static final String[] CATEGORIES = {"Travel", "Meals", "Lodging", "Supplies", "Training"};
+    private static final String[] STATUSES = {"pending", "approved", "denied"};
+    private static final int USERS = 200;
+    private static final int INVALID_EVERY = 1_000;
+
+    private ImportBenchmark() {
+        // Command-line entry point only.
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = Files.createTempDirectory("import-bench");
+        Path csv = dir.resolve("expenses.csv");
+        writeCsv(csv, rows);
+
+        Database database = new Database(dir.resolve("expenses.db"));
+        database.initSchema();
+        seedUsers(database);
+        UserCache userCache = new UserCache(new UserDao(database));
+        userCache.preload();
+
+        ImportReport report = new ExpenseImporter(new ImportDao(database), userCache).importFile(csv, false);
+        System.out.printf("%d lines, %d MB%n", rows, Files.size(csv) >> 20);
+        System.out.printf("imported %d, rejected %d in %d ms: %.0f rows/s%n",
+            report.getImported(), report.getRejected(), report.getElapsedMillis(), report.getRowsPerSecond());
+        database.close();
+    }
+
+    private static void writeCsv(Path csv, int rows) throws IOException {
+        Random random = new Random(42);
+        LocalDate firstDay = LocalDate.of(2021, 1, 1);
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write("username,category,amount,description,date,status\n");
+            for (int i = 0; i < rows; i++) {
+                String amount = i % INVALID_EVERY == 0 ? "-1" : Double.toString(random.nextInt(50_000) / 100.0 + 1);
+                out.write("bench" + random.nextInt(USERS) + ","
+                    + CATEGORIES[random.nextInt(CATEGORIES.length)] + ","
+                    + amount + ",\"Imported, line " + i + "\","
+                    + firstDay.plusDays(random.nextInt(1460)) + ","
+                    + STATUSES[random.nextInt(STATUSES.length)] + "\n");
+            }
+        }
+    }
+
+    private static void seedUsers(Database database) throws SQLException {
+        try (Connection conn = database.getConnection();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO users VALUES (?, ?, 'pw', 'Employee')")) {
+            for (int u = 0; u < USERS; u++) {
+                ps.setString(1, "bu" + u);
+                ps.setString(2, "bench" + u);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
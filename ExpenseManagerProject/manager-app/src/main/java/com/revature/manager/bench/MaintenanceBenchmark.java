@@ -0,0 +1,398 @@
+package com.revature.manager.bench;
+
+import com.revature.manager.dao.MaintenanceDao;
+import com.revature.manager.db.Database;
+import com.revature.manager.model.MaintenanceJob;
+import com.revature.manager.model.MaintenanceReport;
+import com.revature.manager.service.MaintenanceScheduler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bloats a database the way archiving does (a large share of the rows deleted), then runs maintenance passes: one
+ * while nothing else uses the database, and one while a reviewer thread keeps approving expenses through the pool.
+ * It reports both passes, the reviewer's latency with and without maintenance running, and whether the backup opens
+ * with every row present. It then leaves schedulers with a short idle period to their own ticks, to check what starts
+ * an idle pass and when an idle pass may take the backup, and lets one convert a file created without incremental
+ * auto-vacuum.
+ *
+ * <pre>java -cp target/manager-app-0.1.0-SNAPSHOT.jar com.revature.manager.bench.MaintenanceBenchmark [rows]</pre>
+ */
+public final class MaintenanceBenchmark {
+    private static final String[] CATEGORIES = {"Travel", "Meals", "Lodging", "Supplies", "Training"};
+    private static final int USERS = 200;
+    private static final long REVIEW_PAUSE_MILLIS = 5;
+    private static final long BASELINE_MILLIS = 3_000;
+    private static final long MAX_REVIEW_P99_MILLIS = 250;
+    private static final Duration IDLE_AFTER = Duration.ofSeconds(1);
+    private static final long PASS_WAIT_MILLIS = 15_000;
+    private static final long QUIET_MILLIS = 4_000;
+
+    private MaintenanceBenchmark() {
+        // Command-line entry point only.
+    }
+
+    public static void main(String[] args) throws IOException, SQLException, InterruptedException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path dir = Files.createTempDirectory("maintenance-bench");
+        Database database = new Database(dir.resolve("expenses.db"));
+        database.initSchema();
+        seed(database, rows);
+        deleteShare(database, 0);
+        MaintenanceDao dao = new MaintenanceDao(database, Database.defaultBackupPath(database.getDbPath(), dir));
+
+        boolean pass = true;
+        try (MaintenanceScheduler scheduler = new MaintenanceScheduler(List.of(dao))) {
+            System.out.println("== idle pass ==");
+            MaintenanceReport idle = scheduler.runNow().get(0);
+            print(idle);
+            pass &= idle.getFreelistPages() < idle.getFreelistPagesBefore() / 10
+                && idle.getFileBytes() < idle.getFileBytesBefore();
+            pass &= verifyBackup(database, dao.getBackupPath());
+
+            deleteShare(database, 1);
+            long[] baseline = review(database, null);
+            System.out.println("\n== pass while reviewing ==");
+            MaintenanceReport[] busy = new MaintenanceReport[1];
+            long[] during = review(database, () -> busy[0] = scheduler.runNow().get(0));
+            print(busy[0]);
+            pass &= verifyBackup(database, dao.getBackupPath());
+
+            System.out.printf("%nreviews without maintenance: %d, p50 %.1f ms, p99 %.1f ms%n", baseline.length,
+                percentile(baseline, 0.50) / 1e6, percentile(baseline, 0.99) / 1e6);
+            System.out.printf("reviews during maintenance:  %d, p50 %.1f ms, p99 %.1f ms%n", during.length,
+                percentile(during, 0.50) / 1e6, percentile(during, 0.99) / 1e6);
+            pass &= percentile(during, 0.99) / 1_000_000 <= MAX_REVIEW_P99_MILLIS;
+        }
+        pass &= idleTrigger(database, dao);
+        pass &= idleBackup(database, dao);
+        pass &= conversion(dir);
+        System.out.println(pass ? "PASS" : "FAIL");
+        database.close();
+    }
+
+    private static void seed(Database database, int rows) throws SQLException {
+        Random random = new Random(42);
+        LocalDate firstDay = LocalDate.now().minusDays(1000);
+        try (Connection conn = database.getConnection();
+             PreparedStatement users = conn.prepareStatement("INSERT INTO users VALUES (?, ?, 'pw', 'Employee')");
+             PreparedStatement expenses = conn.prepareStatement(
+                 "INSERT INTO expenses (id, user_id, category, amount, description, date, status) "
+                     + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            conn.setAutoCommit(false);
+            for (int u = 0; u < USERS; u++) {
+                users.setString(1, "u" + u);
+                users.setString(2, "user" + u);
+                users.addBatch();
+            }
+            users.executeBatch();
+            for (int i = 0; i < rows; i++) {
+                expenses.setString(1, "e" + i);
+                expenses.setString(2, "u" + random.nextInt(USERS));
+                expenses.setString(3, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                expenses.setDouble(4, Math.round(random.nextDouble() * 50_000) / 100.0);
+                expenses.setString(5, "Receipt " + Long.toHexString(random.nextLong()) + " for a client visit");
+                expenses.setString(6, firstDay.plusDays(random.nextInt(1000)).toString());
+                expenses.setString(7, random.nextInt(4) == 0 ? "pending" : "approved");
+                expenses.addBatch();
+                if (i % 10_000 == 9_999) {
+                    expenses.executeBatch();
+                }
+            }
+            expenses.executeBatch();
+            conn.commit();
+        }
+    }
+
+    /**
+     * Deletes the reviewed expenses in one of every three blocks of a thousand ids, so whole pages free up; each
+     * {@code block} picks a different third.
+     */
+    private static void deleteShare(Database database, int block) throws SQLException {
+        try (Connection conn = database.getConnection(); Statement stmt = conn.createStatement()) {
+            int deleted = stmt.executeUpdate("DELETE FROM expenses WHERE status <> 'pending'"
+                + " AND (CAST(substr(id, 2) AS INTEGER) / 1000) % 3 = " + block);
+            System.out.println("deleted " + deleted + " reviewed expenses");
+        }
+    }
+
+    /**
+     * Approves pending expenses one at a time through the pool, pausing briefly between them, while {@code work}
+     * runs; with no work, for a fixed time. Returns each review's latency in nanoseconds.
+     */
+    private static long[] review(Database database, Runnable work) throws SQLException, InterruptedException {
+        List<String> pending = new ArrayList<>();
+        try (Connection conn = database.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM expenses WHERE status = 'pending' LIMIT 100000")) {
+            while (rs.next()) {
+                pending.add(rs.getString(1));
+            }
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[][] latencies = {new long[pending.size()]};
+        int[] count = {0};
+        Thread reviewer = new Thread(() -> {
+            try {
+                while (running.get() && count[0] < pending.size()) {
+                    long started = System.nanoTime();
+                    try (Connection conn = database.getConnection();
+                         PreparedStatement ps = conn.prepareStatement(
+                             "UPDATE expenses SET status = 'approved', reviewer = 'bench', review_date = date('now')"
+                                 + " WHERE id = ?")) {
+                        ps.setString(1, pending.get(count[0]));
+                        ps.executeUpdate();
+                    }
+                    latencies[0][count[0]++] = System.nanoTime() - started;
+                    Thread.sleep(REVIEW_PAUSE_MILLIS);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "bench-reviewer");
+        reviewer.start();
+        if (work == null) {
+            Thread.sleep(BASELINE_MILLIS);
+        } else {
+            work.run();
+        }
+        running.set(false);
+        reviewer.join();
+        return Arrays.copyOf(latencies[0], count[0]);
+    }
+
+    private static boolean verifyBackup(Database database, Path backup) throws SQLException {
+        long expected;
+        try (Connection conn = database.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT count(*) FROM expenses")) {
+            expected = rs.next() ? rs.getLong(1) : -1;
+        }
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + backup.toAbsolutePath());
+             Statement stmt = conn.createStatement()) {
+            String check;
+            try (ResultSet rs = stmt.executeQuery("PRAGMA quick_check")) {
+                check = rs.next() ? rs.getString(1) : "no result";
+            }
+            long copied;
+            try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM expenses")) {
+                copied = rs.next() ? rs.getLong(1) : -1;
+            }
+            // The reviewer only updates rows, so the count is the same whenever the copy was taken.
+            System.out.println("backup: quick_check " + check + ", " + copied + " of " + expected + " expenses");
+            return "ok".equals(check) && copied == expected;
+        }
+    }
+
+    /**
+     * With no time box, an idle pass must start the first time the database has been left alone, skip the missing
+     * backup, and then wait: no pass while nothing happens, one after a commit by another connection (seen through
+     * {@code data_version}), one after a pooled read that commits nothing (seen through {@code lastUsedNanos}).
+     */
+    private static boolean idleTrigger(Database database, MaintenanceDao dao)
+        throws IOException, SQLException, InterruptedException {
+        System.out.println("\n== idle trigger ==");
+        Files.deleteIfExists(dao.getBackupPath());
+        boolean pass = true;
+        try (MaintenanceScheduler scheduler = new MaintenanceScheduler(List.of(dao), IDLE_AFTER, Duration.ZERO)) {
+            scheduler.start();
+            MaintenanceReport last = awaitPass(scheduler, null, PASS_WAIT_MILLIS);
+            pass &= check("first idle pass", last != null);
+            if (last == null) {
+                return false;
+            }
+            pass &= check("backup skipped outside the time box", outcome(last, "backup")
+                == MaintenanceJob.Outcome.SKIPPED && !Files.exists(dao.getBackupPath()));
+            pass &= check("no pass while untouched", awaitPass(scheduler, last, QUIET_MILLIS) == null);
+
+            try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + database.getDbPath().toAbsolutePath());
+                 Statement stmt = other.createStatement()) {
+                stmt.executeUpdate("UPDATE expenses SET description = description || '.'"
+                    + " WHERE id = (SELECT min(id) FROM expenses)");
+            }
+            MaintenanceReport next = awaitPass(scheduler, last, PASS_WAIT_MILLIS);
+            pass &= check("pass after another connection's commit", next != null);
+            last = next == null ? last : next;
+
+            try (Connection conn = database.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.executeQuery("SELECT count(*) FROM users").close();
+            }
+            next = awaitPass(scheduler, last, PASS_WAIT_MILLIS);
+            pass &= check("pass after a pooled read", next != null);
+        }
+        return pass;
+    }
+
+    /**
+     * With room in the time box, the first idle pass must take the missing backup and the next one skip it as fresh.
+     */
+    private static boolean idleBackup(Database database, MaintenanceDao dao)
+        throws IOException, SQLException, InterruptedException {
+        System.out.println("\n== idle backup ==");
+        Files.deleteIfExists(dao.getBackupPath());
+        boolean pass = true;
+        try (MaintenanceScheduler scheduler = new MaintenanceScheduler(List.of(dao), IDLE_AFTER,
+            MaintenanceScheduler.DEFAULT_TIME_BOX)) {
+            scheduler.start();
+            MaintenanceReport first = awaitPass(scheduler, null, PASS_WAIT_MILLIS);
+            pass &= check("backup taken inside the time box", first != null
+                && outcome(first, "backup") == MaintenanceJob.Outcome.DONE);
+            if (first == null) {
+                return false;
+            }
+            pass &= verifyBackup(database, dao.getBackupPath());
+            try (Connection conn = database.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.executeQuery("SELECT count(*) FROM users").close();
+            }
+            MaintenanceReport second = awaitPass(scheduler, first, PASS_WAIT_MILLIS);
+            pass &= check("fresh backup skipped", second != null
+                && outcome(second, "backup") == MaintenanceJob.Outcome.SKIPPED);
+        }
+        return pass;
+    }
+
+    /**
+     * Files that already had tables before the app switched on incremental auto-vacuum: the schema check must leave
+     * them alone and record their fingerprint. An idle pass must convert a small one, and leave a large one (whose
+     * VACUUM would keep the employee app from writing for too long) reported as pending for a manual pass.
+     */
+    private static boolean conversion(Path dir) throws SQLException, InterruptedException {
+        System.out.println("\n== conversion to incremental auto-vacuum ==");
+        boolean pass = true;
+        Database small = legacyDatabase(dir.resolve("legacy-small.db"), 10_000);
+        try {
+            pass &= leftAlone(small);
+            MaintenanceReport report = awaitIdlePass(small);
+            pass &= check("idle pass converts a small file", report != null
+                && outcome(report, "incremental vacuum") == MaintenanceJob.Outcome.DONE
+                && !report.isConversionPending() && readPragma(small, "auto_vacuum") == 2);
+        } finally {
+            small.close();
+        }
+
+        Database large = legacyDatabase(dir.resolve("legacy-large.db"), 200_000);
+        try {
+            pass &= leftAlone(large);
+            MaintenanceDao dao = new MaintenanceDao(large, null);
+            MaintenanceReport report = awaitIdlePass(large);
+            pass &= check("idle pass leaves a large file pending", report != null
+                && outcome(report, "incremental vacuum") == MaintenanceJob.Outcome.SKIPPED
+                && report.isConversionPending() && readPragma(large, "auto_vacuum") == 0);
+            try (MaintenanceScheduler scheduler = new MaintenanceScheduler(List.of(dao))) {
+                MaintenanceReport manual = scheduler.runNow().get(0);
+                print(manual);
+                pass &= check("manual pass converts it", !manual.isConversionPending()
+                    && readPragma(large, "auto_vacuum") == 2);
+            }
+        } finally {
+            large.close();
+        }
+        return pass;
+    }
+
+    /**
+     * A file with {@code rows} rows of about 200 bytes, created the way SQLite creates files by default, then opened
+     * through {@link Database}.
+     */
+    private static Database legacyDatabase(Path file, int rows) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE legacy (id INTEGER PRIMARY KEY, note TEXT)");
+            stmt.execute("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < " + rows + ")"
+                + " INSERT INTO legacy (note) SELECT hex(randomblob(100)) FROM n");
+        }
+        Database legacy = new Database(file);
+        legacy.initSchema();
+        return legacy;
+    }
+
+    private static boolean leftAlone(Database legacy) throws SQLException {
+        return check("schema check leaves " + legacy.getDbPath().getFileName() + " as it is",
+            readPragma(legacy, "auto_vacuum") == 0 && readPragma(legacy, "user_version") != 0);
+    }
+
+    private static MaintenanceReport awaitIdlePass(Database database) throws InterruptedException {
+        try (MaintenanceScheduler scheduler = new MaintenanceScheduler(
+            List.of(new MaintenanceDao(database, null)), IDLE_AFTER, MaintenanceScheduler.DEFAULT_TIME_BOX)) {
+            scheduler.start();
+            MaintenanceReport report = awaitPass(scheduler, null, PASS_WAIT_MILLIS);
+            if (report != null) {
+                print(report);
+            }
+            return report;
+        }
+    }
+
+    /**
+     * Waits for the scheduler's own ticks to finish a pass other than {@code previous}; null if none comes in time.
+     */
+    private static MaintenanceReport awaitPass(MaintenanceScheduler scheduler, MaintenanceReport previous,
+                                               long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        while (System.nanoTime() - deadline < 0) {
+            List<MaintenanceReport> reports = scheduler.getLastReports();
+            if (!reports.isEmpty() && reports.get(0) != previous) {
+                return reports.get(0);
+            }
+            Thread.sleep(50);
+        }
+        return null;
+    }
+
+    private static MaintenanceJob.Outcome outcome(MaintenanceReport report, String job) {
+        return report.getJobs().stream().filter(candidate -> candidate.getName().equals(job))
+            .map(MaintenanceJob::getOutcome).findFirst().orElse(null);
+    }
+
+    /**
+     * Reads on a new connection: a pooled one answers {@code PRAGMA auto_vacuum} from the header it read last.
+     */
+    private static long readPragma(Database database, String name) throws SQLException {
+        try (Connection conn = database.newConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    private static boolean check(String label, boolean passed) {
+        System.out.println("  " + label + ": " + (passed ? "ok" : "FAILED"));
+        return passed;
+    }
+
+    private static void print(MaintenanceReport report) {
+        double megabyte = 1024.0 * 1024.0;
+        System.out.printf(Locale.ROOT, "file %.1f MB -> %.1f MB, WAL %.1f MB, free pages %d -> %d, %d ms%n",
+            report.getFileBytesBefore() / megabyte, report.getFileBytes() / megabyte,
+            report.getWalBytes() / megabyte, report.getFreelistPagesBefore(), report.getFreelistPages(),
+            report.getElapsedMillis());
+        for (MaintenanceJob job : report.getJobs()) {
+            System.out.printf("  %-18s %-8s %6d ms  %s%n", job.getName(), job.getOutcome(), job.getElapsedMillis(),
+                job.getDetail());
+        }
+    }
+
+    private static long percentile(long[] values, double fraction) {
+        if (values.length == 0) {
+            return 0;
+        }
+        long[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy[Math.min(copy.length - 1, (int) (fraction * copy.length))];
+    }
+}
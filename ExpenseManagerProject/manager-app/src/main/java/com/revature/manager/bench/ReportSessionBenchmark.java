@@ -0,0 +1,208 @@
+package com.revature.manager.bench;
+
+import com.revature.manager.dao.ApprovalDao;
+import com.revature.manager.dao.ArchiveDao;
+import com.revature.manager.dao.BudgetDao;
+import com.revature.manager.dao.ChangeDao;
+import com.revature.manager.dao.ExpenseDao;
+import com.revature.manager.dao.UserCache;
+import com.revature.manager.dao.UserDao;
+import com.revature.manager.db.Database;
+import com.revature.manager.model.ExpenseTotals;
+import com.revature.manager.service.BudgetService;
+import com.revature.manager.service.ExpenseService;
+import com.revature.manager.service.ReportSession;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks that report sessions stay consistent while another connection keeps inserting and approving expenses. Each
+ * round reads the totals by status, the totals by category and the pending list; outside a session the three drift
+ * apart, inside one they must agree with each other and with every other round. Exits with status 1 on a mismatch.
+ *
+ * <pre>java -cp target/manager-app-0.1.0-SNAPSHOT.jar com.revature.manager.bench.ReportSessionBenchmark [rows] [rounds]</pre>
+ */
+public final class ReportSessionBenchmark {
+    private static final String[] CATEGORIES = {"Travel", "Meals", "Lodging", "Supplies", "Training"};
+    private static final String[] STATUSES = {"pending", "approved", "denied"};
+    private static final int USERS = 200;
+
+    private ReportSessionBenchmark() {
+        // Command-line entry point only.
+    }
+
+    public static void main(String[] args) throws IOException, SQLException, InterruptedException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path dir = Files.createTempDirectory("report-session-bench");
+        Database database = new Database(dir.resolve("expenses.db"));
+        database.initSchema();
+        seed(database, rows);
+
+        UserCache userCache = new UserCache(new UserDao(database));
+        ArchiveDao archiveDao = new ArchiveDao(database);
+        ExpenseDao expenseDao = new ExpenseDao(database, userCache, archiveDao);
+        ExpenseService service = new ExpenseService(expenseDao, userCache, new ApprovalDao(database, archiveDao),
+            new ChangeDao(database), new BudgetService(List.of(new BudgetDao(database)), userCache));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong written = new AtomicLong();
+        Thread writer = new Thread(() -> write(database, running, written), "bench-writer");
+        writer.start();
+
+        boolean passed;
+        try {
+            int drifted = 0;
+            for (int i = 0; i < rounds; i++) {
+                Round round = new Round(service.getTotalsByStatus(), service.getTotalsByCategory(),
+                    service.getPendingByRisk(0).size());
+                if (!round.consistent()) {
+                    drifted++;
+                }
+            }
+            System.out.printf("without a session: %d of %d rounds inconsistent (%d writes so far)%n",
+                drifted, rounds, written.get());
+
+            long writesBefore = written.get();
+            Round first = null;
+            int mismatched = 0;
+            long started = System.nanoTime();
+            try (ReportSession session = service.openReportSession(ReportSession.Limits.UNLIMITED)) {
+                for (int i = 0; i < rounds; i++) {
+                    Round round = new Round(session.getTotalsByStatus(), session.getTotalsByCategory(),
+                        session.getPendingByRisk(0).size());
+                    if (first == null) {
+                        first = round;
+                    }
+                    if (!round.consistent() || !round.equals(first)) {
+                        mismatched++;
+                    }
+                }
+            }
+            System.out.printf("in one session:    %d of %d rounds inconsistent in %d ms (%d writes meanwhile)%n",
+                mismatched, rounds, (System.nanoTime() - started) / 1_000_000, written.get() - writesBefore);
+
+            int refreshes;
+            boolean moved;
+            try (ReportSession session = service.openReportSession(
+                new ReportSession.Limits(Duration.ofSeconds(2), 0))) {
+                long before = countOf(session.getTotalsByStatus());
+                Thread.sleep(2_500);
+                long after = countOf(session.getTotalsByStatus());
+                refreshes = session.getRefreshCount();
+                moved = after != before;
+            }
+            System.out.printf("staleness limit:   %d refresh(es), totals %s%n", refreshes,
+                moved ? "moved forward" : "did not move");
+
+            passed = mismatched == 0 && written.get() > writesBefore && refreshes == 1 && moved;
+        } finally {
+            running.set(false);
+            writer.join();
+            database.close();
+        }
+        System.out.println(passed ? "PASS" : "FAIL");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static long countOf(List<ExpenseTotals> totals) {
+        return totals.stream().mapToLong(ExpenseTotals::getCount).sum();
+    }
+
+    /**
+     * Inserts a pending expense and approves an older one per transaction, until told to stop.
+     */
+    private static void write(Database database, AtomicBoolean running, AtomicLong written) {
+        Random random = new Random(11);
+        try (Connection conn = database.getConnection();
+             PreparedStatement insert = conn.prepareStatement(
+                 "INSERT INTO expenses (id, user_id, category, amount, description, date, status) "
+                     + "VALUES (?, ?, ?, ?, 'bench', ?, 'pending')");
+             PreparedStatement approve = conn.prepareStatement(
+                 "UPDATE expenses SET status = 'approved' WHERE id = (SELECT id FROM expenses "
+                     + "WHERE status = 'pending' ORDER BY date LIMIT 1)")) {
+            while (running.get()) {
+                conn.setAutoCommit(false);
+                insert.setString(1, UUID.randomUUID().toString());
+                insert.setString(2, "u" + random.nextInt(USERS));
+                insert.setString(3, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                insert.setDouble(4, 5 + random.nextInt(500));
+                insert.setString(5, LocalDate.now().toString());
+                insert.executeUpdate();
+                approve.executeUpdate();
+                conn.commit();
+                conn.setAutoCommit(true);
+                written.incrementAndGet();
+                Thread.sleep(1);
+            }
+        } catch (SQLException | InterruptedException e) {
+            throw new IllegalStateException("Writer stopped", e);
+        }
+    }
+
+    private static void seed(Database database, int rows) throws SQLException {
+        Random random = new Random(7);
+        LocalDate firstDay = LocalDate.now().minusDays(1000);
+        try (Connection conn = database.getConnection();
+             PreparedStatement users = conn.prepareStatement("INSERT INTO users VALUES (?, ?, 'pw', 'Employee')");
+             PreparedStatement expenses = conn.prepareStatement(
+                 "INSERT INTO expenses (id, user_id, category, amount, description, date, status) "
+                     + "VALUES (?, ?, ?, ?, 'seed', ?, ?)")) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < USERS; i++) {
+                users.setString(1, "u" + i);
+                users.setString(2, "user" + i);
+                users.executeUpdate();
+            }
+            for (int i = 0; i < rows; i++) {
+                expenses.setString(1, "s" + i);
+                expenses.setString(2, "u" + random.nextInt(USERS));
+                expenses.setString(3, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                expenses.setDouble(4, 5 + random.nextInt(500));
+                expenses.setString(5, firstDay.plusDays(random.nextInt(1000)).toString());
+                expenses.setString(6, STATUSES[random.nextInt(STATUSES.length)]);
+                expenses.addBatch();
+                if (i % 10_000 == 9_999) {
+                    expenses.executeBatch();
+                }
+            }
+            expenses.executeBatch();
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * The grand totals of one round's two tables and its pending list length. Amounts are whole dollars, so the sums
+     * compare exactly.
+     */
+    private record Round(long count, long categoryCount, long amount, long categoryAmount, long pending,
+                         long listed) {
+        Round(List<ExpenseTotals> byStatus, List<ExpenseTotals> byCategory, int listed) {
+            this(countOf(byStatus), countOf(byCategory),
+                Math.round(byStatus.stream().mapToDouble(ExpenseTotals::getAmount).sum()),
+                Math.round(byCategory.stream().mapToDouble(ExpenseTotals::getAmount).sum()),
+                byStatus.stream().filter(row -> "pending".equals(row.getKey()))
+                    .mapToLong(ExpenseTotals::getCount).sum(),
+                listed);
+        }
+
+        boolean consistent() {
+            return count == categoryCount && amount == categoryAmount && pending == listed;
+        }
+    }
+}
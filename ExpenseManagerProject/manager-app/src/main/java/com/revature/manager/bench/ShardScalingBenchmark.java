@@ -0,0 +1,122 @@
+package com.revature.manager.bench;
+
+import com.revature.manager.dao.ArchiveDao;
+import com.revature.manager.dao.ExpenseDao;
+import com.revature.manager.dao.ExpenseRepository;
+import com.revature.manager.dao.ShardedExpenseDao;
+import com.revature.manager.dao.ShardedUserDao;
+import com.revature.manager.dao.UserCache;
+import com.revature.manager.dao.UserDao;
+import com.revature.manager.db.Database;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Measures cross-shard report latency as the same data set is spread over more database files.
+ *
+ * <pre>java -cp target/manager-app-0.1.0-SNAPSHOT.jar com.revature.manager.bench.ShardScalingBenchmark [rows] [shardCounts]</pre>
+ */
+public final class ShardScalingBenchmark {
+    private static final String[] CATEGORIES = {"Travel", "Meals", "Lodging", "Supplies", "Training"};
+    private static final String[] STATUSES = {"pending", "approved", "denied"};
+    private static final int USERS_PER_SHARD = 50;
+    private static final int RUNS = 3;
+
+    private ShardScalingBenchmark() {
+        // Command-line entry point only.
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 400_000;
+        String shardCounts = args.length > 1 ? args[1] : "1,2,4,8";
+
+        System.out.printf("%d expenses in total, best of %d runs (ms)%n", rows, RUNS);
+        System.out.printf("%6s | %10s | %10s | %10s | %10s%n", "shards", "approved", "category", "year", "totals");
+        for (String count : shardCounts.split(",")) {
+            int shards = Integer.parseInt(count.trim());
+            Path dir = Files.createTempDirectory("shard-bench");
+            ExpenseRepository dao = buildShards(dir, shards, rows);
+            long approved = best(() -> dao.listByStatus("approved").size());
+            long category = best(() -> dao.listByCategory("Travel").size());
+            long year = best(() -> dao.listByDateRange("2023-01-01", "2023-12-31").size());
+            long totals = best(() -> dao.totalsByCategory().size());
+            System.out.printf("%6d | %10d | %10d | %10d | %10d%n", shards, approved, category, year, totals);
+        }
+    }
+
+    private static ExpenseRepository buildShards(Path dir, int shardCount, int rows) throws SQLException {
+        List<Database> databases = new ArrayList<>();
+        List<UserDao> userDaos = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            Database database = new Database(dir.resolve("region" + i + ".db"));
+            database.initSchema();
+            seed(database, i, rows / shardCount);
+            databases.add(database);
+            userDaos.add(new UserDao(database));
+        }
+
+        if (shardCount == 1) {
+            UserCache cache = new UserCache(userDaos.get(0));
+            cache.preload();
+            return new ExpenseDao(databases.get(0), cache, new ArchiveDao(databases.get(0)));
+        }
+        ShardedUserDao shardedUsers = new ShardedUserDao(userDaos);
+        UserCache cache = new UserCache(shardedUsers);
+        cache.preload();
+        List<ExpenseDao> shardDaos = new ArrayList<>();
+        databases.forEach(database -> shardDaos.add(new ExpenseDao(database, cache, new ArchiveDao(database))));
+        return new ShardedExpenseDao(shardDaos, shardedUsers);
+    }
+
+    private static void seed(Database database, int shard, int rows) throws SQLException {
+        Random random = new Random(shard);
+        LocalDate firstDay = LocalDate.of(2021, 1, 1);
+        try (Connection conn = database.getConnection();
+             PreparedStatement users = conn.prepareStatement("INSERT INTO users VALUES (?, ?, 'pw', 'Employee')");
+             PreparedStatement expenses = conn.prepareStatement(
+                 "INSERT INTO expenses (id, user_id, category, amount, description, date, status) "
+                     + "VALUES (?, ?, ?, ?, 'benchmark', ?, ?)")) {
+            conn.setAutoCommit(false);
+            for (int u = 0; u < USERS_PER_SHARD; u++) {
+                users.setString(1, "s" + shard + "u" + u);
+                users.setString(2, "user" + shard + "_" + u);
+                users.addBatch();
+            }
+            users.executeBatch();
+            for (int i = 0; i < rows; i++) {
+                expenses.setString(1, "s" + shard + "e" + i);
+                expenses.setString(2, "s" + shard + "u" + random.nextInt(USERS_PER_SHARD));
+                expenses.setString(3, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                expenses.setDouble(4, Math.round(random.nextDouble() * 50_000) / 100.0);
+                expenses.setString(5, firstDay.plusDays(random.nextInt(1460)).toString());
+                expenses.setString(6, STATUSES[random.nextInt(STATUSES.length)]);
+                expenses.addBatch();
+                if (i % 10_000 == 9_999) {
+                    expenses.executeBatch();
+                }
+            }
+            expenses.executeBatch();
+            conn.commit();
+        }
+    }
+
+    private static long best(Supplier<Integer> query) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long started = System.nanoTime();
+            query.get();
+            best = Math.min(best, (System.nanoTime() - started) / 1_000_000);
+        }
+        return best;
+    }
+}
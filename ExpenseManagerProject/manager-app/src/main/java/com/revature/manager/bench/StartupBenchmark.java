@@ -0,0 +1,154 @@
+package com.revature.manager.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Launches the manager app as a child JVM and times how long it takes to show the login prompt, and to log in and
+ * exit. "Cold" launches open a database this version has never seen, so the schema DDL runs; "warm" launches reopen
+ * the same database, so the stored schema fingerprint lets them skip it. With an AppCDS archive argument every
+ * measurement is repeated with {@code -XX:SharedArchiveFile}.
+ *
+ * <pre>java -cp target/manager-app-0.1.0-SNAPSHOT.jar com.revature.manager.bench.StartupBenchmark [runs] [archive.jsa]</pre>
+ */
+public final class StartupBenchmark {
+    private static final String PROMPT = "Username: ";
+    private static final String SCRIPT = "bench\npw\n";
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private StartupBenchmark() {
+        // Command-line entry point only.
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, SQLException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Path dir = Files.createTempDirectory("startup-bench");
+        Path template = dir.resolve("template.db");
+        createTemplate(template);
+
+        List<List<String>> configurations = new ArrayList<>();
+        configurations.add(List.of());
+        if (args.length > 1) {
+            configurations.add(List.of("-XX:SharedArchiveFile=" + Path.of(args[1]).toAbsolutePath()));
+        }
+
+        // One untimed launch so the OS caches the JDK and jar for every configuration alike.
+        launch(List.of(), dir, copyTemplate(template, dir.resolve("untimed.db")));
+        for (List<String> jvmOptions : configurations) {
+            String label = jvmOptions.isEmpty() ? "default" : "AppCDS";
+            long[][] cold = new long[runs][];
+            for (int i = 0; i < runs; i++) {
+                cold[i] = launch(jvmOptions, dir, copyTemplate(template, dir.resolve("cold-" + label + i + ".db")));
+            }
+            Path warmDb = copyTemplate(template, dir.resolve("warm-" + label + ".db"));
+            launch(jvmOptions, dir, warmDb);
+            long[][] warm = new long[runs][];
+            for (int i = 0; i < runs; i++) {
+                warm[i] = launch(jvmOptions, dir, warmDb);
+            }
+            report(label + " cold", cold);
+            report(label + " warm", warm);
+        }
+    }
+
+    /**
+     * A database holding only the users table and one manager, as the employee app would leave it.
+     */
+    private static void createTemplate(Path template) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + template.toAbsolutePath());
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (id TEXT PRIMARY KEY, username TEXT UNIQUE NOT NULL,"
+                + " password TEXT NOT NULL, role TEXT NOT NULL)");
+            stmt.execute("INSERT INTO users VALUES ('m1', 'bench', 'pw', 'Manager')");
+        }
+    }
+
+    private static Path copyTemplate(Path template, Path target) throws IOException {
+        Files.copy(template, target);
+        return target;
+    }
+
+    /**
+     * Returns the milliseconds until the login prompt appeared and until the process exited after logging in (the
+     * closed input ends the menu loop).
+     */
+    private static long[] launch(List<String> jvmOptions, Path dir, Path db) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(absoluteClassPath());
+        command.add("com.revature.manager.App");
+
+        ProcessBuilder builder = new ProcessBuilder(command).directory(dir.toFile())
+            .redirectError(ProcessBuilder.Redirect.DISCARD);
+        builder.environment().put("EXPENSE_DB_FILE", db.toAbsolutePath().toString());
+        builder.environment().remove("EXPENSE_DB_FILES");
+        builder.environment().remove("EXPENSE_DB_DIR");
+
+        long started = System.nanoTime();
+        Process process = builder.start();
+        waitFor(process.getInputStream(), PROMPT);
+        long prompt = System.nanoTime() - started;
+        try (OutputStream in = process.getOutputStream()) {
+            in.write(SCRIPT.getBytes(StandardCharsets.UTF_8));
+        }
+        process.getInputStream().transferTo(OutputStream.nullOutputStream());
+        if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("App did not exit within " + TIMEOUT_SECONDS + " s");
+        }
+        long exited = System.nanoTime() - started;
+        return new long[] {prompt / 1_000_000, exited / 1_000_000};
+    }
+
+    /**
+     * The child runs in the temporary directory, so relative class path entries would not resolve there.
+     */
+    private static String absoluteClassPath() {
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            entries.add(Path.of(entry).toAbsolutePath().toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static void waitFor(InputStream out, String marker) throws IOException {
+        StringBuilder seen = new StringBuilder();
+        int next;
+        while ((next = out.read()) != -1) {
+            seen.append((char) next);
+            if (seen.length() >= marker.length()
+                && seen.substring(seen.length() - marker.length()).equals(marker)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("App exited before showing the login prompt: " + seen);
+    }
+
+    private static void report(String label, long[][] samples) {
+        long[] prompt = new long[samples.length];
+        long[] exit = new long[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            prompt[i] = samples[i][0];
+            exit[i] = samples[i][1];
+        }
+        Arrays.sort(prompt);
+        Arrays.sort(exit);
+        System.out.printf("%-14s prompt median %4d ms (min %4d)   login+exit median %4d ms (min %4d)%n",
+            label, prompt[prompt.length / 2], prompt[0], exit[exit.length / 2], exit[0]);
+    }
+}
@@ -0,0 +1,245 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.db.Database;
+import com.revature.manager.model.Approval;
+import com.revature.manager.model.ReviewerStats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read side of the approvals audit trail. Every query is served by one of the approvals indexes
+ * created in {@link Database#initSchema()} and rows are handed to the caller as they are read. Once expenses have
+ * been archived, the queries read the archived approvals too, through the same indexes in cold storage.
+ */
+public class ApprovalDao {
+    private static final Logger logger = Logger.getLogger(ApprovalDao.class.getName());
+    private static final int FETCH_SIZE = 256;
+
+    private final Database database;
+    private final ArchiveDao archiveDao;
+
+    public ApprovalDao(Database database, ArchiveDao archiveDao) {
+        this.database = database;
+        this.archiveDao = archiveDao;
+    }
+
+    /**
+     * Streams every decision recorded for expenses whose id starts with the given prefix, oldest first.
+     * A full expense id matches exactly one expense.
+     */
+    public void streamByExpense(String expenseIdPrefix, Consumer<Approval> sink) {
+        // GLOB with a literal prefix is rewritten by SQLite into a range scan on idx_approvals_expense.
+        streamApprovals("WHERE a.expense_id GLOB ? ORDER BY a.expense_id, a.review_date ASC", sink,
+            escapeGlob(expenseIdPrefix) + "*");
+    }
+
+    /**
+     * Streams the decisions made by a reviewer between two dates (inclusive), newest first.
+     */
+    public void streamByReviewer(String reviewerId, String startDateInclusive, String endDateInclusive,
+                                 Consumer<Approval> sink) {
+        streamApprovals("WHERE a.reviewer = ? AND a.review_date >= ? AND a.review_date < date(?, '+1 day') "
+                + "ORDER BY a.review_date DESC",
+            sink, reviewerId, startDateInclusive, endDateInclusive);
+    }
+
+    public Optional<ReviewerStats> reviewerStats(String reviewerId) {
+        return reviewerStats(List.of(this), reviewerId);
+    }
+
+    /**
+     * The reviewer's stats over every database: counts add up, and the active hours and the median turnaround are
+     * taken over all the decisions together rather than combined from per-database figures.
+     */
+    public static Optional<ReviewerStats> reviewerStats(List<ApprovalDao> shards, String reviewerId) {
+        ReviewerTotals totals = new ReviewerTotals();
+        for (ApprovalDao shard : shards) {
+            try {
+                shard.addReviewerStats(reviewerId, totals);
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error computing stats for reviewer " + reviewerId, e);
+                return Optional.empty();
+            }
+        }
+        if (totals.decisions == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new ReviewerStats(reviewerId, totals.decisions, totals.approved, totals.denied,
+            totals.activeHours.size(), median(totals.hours, totals.count), totals.first, totals.last));
+    }
+
+    private void addReviewerStats(String reviewerId, ReviewerTotals totals) throws SQLException {
+        boolean includeArchive = hasArchivedRows();
+        String source = "FROM " + approvalSource(includeArchive) + "\nWHERE a.reviewer = ?";
+        String countsSql = """
+                SELECT count(*) AS decisions,
+                       coalesce(sum(status = 'approved'), 0) AS approved,
+                       coalesce(sum(status = 'denied'), 0) AS denied,
+                       min(review_date) AS first_decision,
+                       max(review_date) AS last_decision
+                """ + source;
+        String activeHoursSql = "SELECT DISTINCT substr(a.review_date, 1, 13) AS active_hour " + source;
+        // An approval is archived together with its expense, so each side joins within its own file.
+        String turnaroundSql = turnaroundQuery("main")
+            + (includeArchive ? "\nUNION ALL\n" + turnaroundQuery("archive") : "");
+
+        try (Connection conn = connectionFor(includeArchive)) {
+            long decisions;
+            try (PreparedStatement ps = conn.prepareStatement(countsSql)) {
+                ps.setString(1, reviewerId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next() || rs.getLong("decisions") == 0) {
+                        return;
+                    }
+                    decisions = rs.getLong("decisions");
+                    totals.decisions += decisions;
+                    totals.approved += rs.getLong("approved");
+                    totals.denied += rs.getLong("denied");
+                    totals.addRange(rs.getString("first_decision"), rs.getString("last_decision"));
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(activeHoursSql)) {
+                ps.setString(1, reviewerId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        totals.activeHours.add(rs.getString("active_hour"));
+                    }
+                }
+            }
+
+            totals.reserve(decisions);
+            try (PreparedStatement ps = conn.prepareStatement(turnaroundSql)) {
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setString(1, reviewerId);
+                if (includeArchive) {
+                    ps.setString(2, reviewerId);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next() && totals.count < totals.hours.length) {
+                        double value = rs.getDouble("hours");
+                        if (!rs.wasNull()) {
+                            totals.hours[totals.count++] = value;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void streamApprovals(String clause, Consumer<Approval> sink, Object... args) {
+        boolean includeArchive = hasArchivedRows();
+        String sql = """
+                SELECT a.id, a.expense_id, a.status, a.reviewer, a.comment, a.review_date
+                """ + "FROM " + approvalSource(includeArchive) + "\n" + clause;
+
+        try (Connection conn = connectionFor(includeArchive);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(mapApproval(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error querying approvals", e);
+        }
+    }
+
+    private boolean hasArchivedRows() {
+        return archiveDao.archivedThrough().isPresent();
+    }
+
+    /**
+     * Hot approvals, or hot and archived ones together. SQLite pushes the WHERE clause into both arms of the UNION
+     * ALL, so each side still uses its own indexes.
+     */
+    private static String approvalSource(boolean includeArchive) {
+        return includeArchive
+            ? "(SELECT " + ArchiveDao.APPROVAL_COLUMNS + " FROM main.approvals UNION ALL SELECT "
+                + ArchiveDao.APPROVAL_COLUMNS + " FROM archive.approvals) a"
+            : "approvals a";
+    }
+
+    private static String turnaroundQuery(String schema) {
+        return "SELECT (julianday(a.review_date) - julianday(e.date)) * 24.0 AS hours FROM " + schema
+            + ".approvals a JOIN " + schema + ".expenses e ON e.id = a.expense_id WHERE a.reviewer = ?";
+    }
+
+    private Connection connectionFor(boolean includeArchive) throws SQLException {
+        return includeArchive ? database.getArchiveConnection() : database.getConnection();
+    }
+
+    private static double median(double[] values, int count) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        Arrays.sort(values, 0, count);
+        int middle = count / 2;
+        return count % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2.0;
+    }
+
+    private static String escapeGlob(String value) {
+        return value.replace("[", "[[]").replace("*", "[*]").replace("?", "[?]");
+    }
+
+    private Approval mapApproval(ResultSet rs) throws SQLException {
+        return new Approval(
+            rs.getString("id"),
+            rs.getString("expense_id"),
+            rs.getString("status"),
+            rs.getString("reviewer"),
+            rs.getString("comment"),
+            rs.getString("review_date")
+        );
+    }
+
+    /**
+     * Running totals of one reviewer's decisions as each database is read.
+     */
+    private static final class ReviewerTotals {
+        private static final int MAX_HOURS = Integer.MAX_VALUE - 8;
+
+        private long decisions;
+        private long approved;
+        private long denied;
+        private final Set<String> activeHours = new HashSet<>();
+        private double[] hours = new double[0];
+        private int count;
+        private String first;
+        private String last;
+
+        private void addRange(String shardFirst, String shardLast) {
+            if (first == null || (shardFirst != null && shardFirst.compareTo(first) < 0)) {
+                first = shardFirst;
+            }
+            if (last == null || (shardLast != null && shardLast.compareTo(last) > 0)) {
+                last = shardLast;
+            }
+        }
+
+        /**
+         * Makes room for up to {@code more} further turnaround values.
+         */
+        private void reserve(long more) {
+            int capacity = (int) Math.min(count + more, MAX_HOURS);
+            if (capacity > hours.length) {
+                hours = Arrays.copyOf(hours, capacity);
+            }
+        }
+    }
+}
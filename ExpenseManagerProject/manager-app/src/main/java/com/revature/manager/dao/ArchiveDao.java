@@ -0,0 +1,186 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.db.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves reviewed expenses and their approvals rows from the hot database into the attached archive file and
+ * tracks the newest expense date that has been archived.
+ */
+public class ArchiveDao {
+    private static final Logger logger = Logger.getLogger(ArchiveDao.class.getName());
+
+    static final String EXPENSE_COLUMNS =
+        "id, user_id, category, amount, description, date, status, reviewer, comment, review_date";
+    static final String APPROVAL_COLUMNS = "id, expense_id, status, reviewer, comment, review_date";
+    private static final String WATERMARK_KEY = "archived_through";
+    private static final String IN_BATCH = "IN (SELECT id FROM temp.archive_batch)";
+
+    private final Database database;
+    private volatile Optional<String> archivedThrough;
+
+    public ArchiveDao(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Newest expense date held in cold storage, or empty when nothing has been archived. Report queries whose
+     * range starts after this date never need to attach the archive.
+     */
+    public Optional<String> archivedThrough() {
+        Optional<String> cached = archivedThrough;
+        if (cached == null) {
+            cached = database.hasArchive() ? readWatermark() : Optional.empty();
+            archivedThrough = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Moves up to {@code chunkSize} of the oldest reviewed expenses dated before {@code cutoffDate} in one
+     * transaction. The copy is checked (row count and amount total) before the hot rows are deleted; on any mismatch
+     * the whole chunk is rolled back.
+     */
+    public Chunk moveChunk(String cutoffDate, int chunkSize) throws SQLException {
+        try (Connection conn = database.getArchiveConnection(); Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            try {
+                stmt.execute("CREATE TEMP TABLE IF NOT EXISTS archive_batch (id TEXT PRIMARY KEY)");
+                stmt.execute("DELETE FROM temp.archive_batch");
+                try (PreparedStatement ps = conn.prepareStatement("""
+                        INSERT INTO temp.archive_batch
+                        SELECT id FROM main.expenses
+                        WHERE status IN ('approved', 'denied') AND date < ?
+                        ORDER BY date
+                        LIMIT ?
+                        """)) {
+                    ps.setString(1, cutoffDate);
+                    ps.setInt(2, chunkSize);
+                    if (ps.executeUpdate() == 0) {
+                        conn.rollback();
+                        return new Chunk(0, 0);
+                    }
+                }
+
+                Totals hot = totals(stmt, "main.expenses");
+                stmt.executeUpdate("INSERT INTO archive.expenses (" + EXPENSE_COLUMNS + ") SELECT " + EXPENSE_COLUMNS
+                    + " FROM main.expenses WHERE id " + IN_BATCH);
+                int approvals = stmt.executeUpdate("INSERT INTO archive.approvals (" + APPROVAL_COLUMNS + ") SELECT "
+                    + APPROVAL_COLUMNS + " FROM main.approvals WHERE expense_id " + IN_BATCH);
+                Totals cold = totals(stmt, "archive.expenses");
+                if (!hot.equals(cold)) {
+                    throw new SQLException("Archive copy mismatch: hot " + hot + " vs archive " + cold);
+                }
+
+                stmt.executeUpdate("DELETE FROM main.approvals WHERE expense_id " + IN_BATCH);
+                long logged = lastLoggedChange(stmt);
+                // executeUpdate counts the change_log rows written by the delete trigger, so re-check instead.
+                stmt.executeUpdate("DELETE FROM main.expenses WHERE id " + IN_BATCH);
+                Totals remaining = totals(stmt, "main.expenses");
+                if (remaining.rows() != 0) {
+                    throw new SQLException(remaining.rows() + " archived rows are still present in hot storage");
+                }
+                // The delete trigger logged each row as deleted; change-feed readers must see a move instead.
+                try (PreparedStatement ps = conn.prepareStatement("UPDATE main.change_log SET op = ?"
+                    + " WHERE seq > ? AND op = 'delete' AND expense_id " + IN_BATCH)) {
+                    ps.setString(1, ChangeDao.ARCHIVE_OP);
+                    ps.setLong(2, logged);
+                    ps.executeUpdate();
+                }
+
+                try (PreparedStatement ps = conn.prepareStatement("""
+                        INSERT INTO archive.archive_meta (key, value) VALUES (?, ?)
+                        ON CONFLICT(key) DO UPDATE SET value = max(value, excluded.value)
+                        """)) {
+                    ps.setString(1, WATERMARK_KEY);
+                    ps.setString(2, hot.maxDate());
+                    ps.executeUpdate();
+                }
+
+                conn.commit();
+                archivedThrough = null;
+                return new Chunk((int) hot.rows(), approvals);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Cross-checks hot and cold storage and returns a description of every inconsistency found.
+     */
+    public List<String> verify() {
+        List<String> problems = new ArrayList<>();
+        if (!database.hasArchive()) {
+            return problems;
+        }
+        try (Connection conn = database.getArchiveConnection(); Statement stmt = conn.createStatement()) {
+            check(stmt, problems, "expenses present in both hot and archive storage",
+                "SELECT count(*) FROM archive.expenses a JOIN main.expenses m ON m.id = a.id");
+            check(stmt, problems, "pending expenses in archive storage",
+                "SELECT count(*) FROM archive.expenses WHERE status = 'pending'");
+            check(stmt, problems, "archived approvals whose expense is not archived",
+                "SELECT count(*) FROM archive.approvals a WHERE NOT EXISTS "
+                    + "(SELECT 1 FROM archive.expenses e WHERE e.id = a.expense_id)");
+            check(stmt, problems, "hot approvals whose expense was archived",
+                "SELECT count(*) FROM main.approvals a WHERE a.expense_id IN (SELECT id FROM archive.expenses)");
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Archive verification failed", e);
+            problems.add("verification query failed: " + e.getMessage());
+        }
+        return problems;
+    }
+
+    private void check(Statement stmt, List<String> problems, String label, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            long count = rs.next() ? rs.getLong(1) : 0L;
+            if (count > 0) {
+                problems.add(count + " " + label);
+            }
+        }
+    }
+
+    private Totals totals(Statement stmt, String table) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(
+            "SELECT count(*), total(amount), max(date) FROM " + table + " WHERE id " + IN_BATCH)) {
+            rs.next();
+            return new Totals(rs.getLong(1), Math.round(rs.getDouble(2) * 100), rs.getString(3));
+        }
+    }
+
+    private long lastLoggedChange(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT coalesce(max(seq), 0) FROM main.change_log")) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    private Optional<String> readWatermark() {
+        try (Connection conn = database.getArchiveConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT value FROM archive.archive_meta WHERE key = ?")) {
+            ps.setString(1, WATERMARK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.ofNullable(rs.getString(1)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading archive watermark", e);
+            return Optional.empty();
+        }
+    }
+
+    public record Chunk(int expenses, int approvals) {
+    }
+
+    private record Totals(long rows, long amountCents, String maxDate) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.db.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Monthly budget limits and the trigger-maintained budget_counters of one database. Counters are keyed by month
+ * first, so a whole month loads with one primary-key range scan.
+ */
+public class BudgetDao {
+    private static final Logger logger = Logger.getLogger(BudgetDao.class.getName());
+
+    private final Database database;
+    private final ChangeDao changeDao;
+
+    public BudgetDao(Database database) {
+        this.database = database;
+        this.changeDao = new ChangeDao(database);
+    }
+
+    public Map<Key, Double> limits() {
+        Map<Key, Double> limits = new HashMap<>();
+        try (Connection conn = database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT scope, key, monthly_limit FROM budgets")) {
+            while (rs.next()) {
+                limits.put(new Key(rs.getString("scope"), rs.getString("key")), rs.getDouble("monthly_limit"));
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error loading budget limits", e);
+        }
+        return limits;
+    }
+
+    public boolean setLimit(Key key, double monthlyLimit) {
+        String sql = """
+                INSERT INTO budgets (scope, key, monthly_limit) VALUES (?, ?, ?)
+                ON CONFLICT (scope, key) DO UPDATE SET monthly_limit = excluded.monthly_limit
+                """;
+        try (Connection conn = database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, key.scope());
+            ps.setString(2, key.key());
+            ps.setDouble(3, monthlyLimit);
+            ps.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to set the budget for " + key, e);
+            return false;
+        }
+    }
+
+    public boolean removeLimit(Key key) {
+        try (Connection conn = database.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM budgets WHERE scope = ? AND key = ?")) {
+            ps.setString(1, key.scope());
+            ps.setString(2, key.key());
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to remove the budget for " + key, e);
+            return false;
+        }
+    }
+
+    /**
+     * Every user and category counter of the month. Keys with no approved or pending expenses are absent.
+     */
+    public Map<Key, Counters> countersForMonth(YearMonth month) {
+        String sql = """
+                SELECT scope, key, approved_count, approved_amount, pending_count, pending_amount
+                FROM budget_counters
+                WHERE month = ?
+                """;
+        Map<Key, Counters> counters = new HashMap<>();
+        try (Connection conn = database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, month.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    counters.put(new Key(rs.getString("scope"), rs.getString("key")), mapCounters(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error loading budget counters for " + month, e);
+        }
+        return counters;
+    }
+
+    /**
+     * One counter by primary key, or {@link Counters#ZERO} when the key has nothing in the month.
+     */
+    public Counters counters(Key key, YearMonth month) {
+        String sql = """
+                SELECT approved_count, approved_amount, pending_count, pending_amount
+                FROM budget_counters
+                WHERE month = ? AND scope = ? AND key = ?
+                """;
+        try (Connection conn = database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, month.toString());
+            ps.setString(2, key.scope());
+            ps.setString(3, key.key());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapCounters(rs) : Counters.ZERO;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error loading the budget counter for " + key + " in " + month, e);
+            return Counters.ZERO;
+        }
+    }
+
+    /**
+     * The change-log position of this database; see {@link ChangeDao#currentSequence()}.
+     */
+    public long changeSequence() {
+        return changeDao.currentSequence();
+    }
+
+    public Map<String, ChangeDao.Change> changesSince(long afterSeq) {
+        return changeDao.changesSince(afterSeq);
+    }
+
+    public boolean isPruned(long afterSeq) {
+        return changeDao.isPruned(afterSeq);
+    }
+
+    private Counters mapCounters(ResultSet rs) throws SQLException {
+        return new Counters(rs.getLong("approved_count"), rs.getDouble("approved_amount"),
+            rs.getLong("pending_count"), rs.getDouble("pending_amount"));
+    }
+
+    /**
+     * A budget's scope ({@code user} or {@code category}) and key (user id, or lower-cased category name).
+     */
+    public record Key(String scope, String key) {
+    }
+
+    public record Counters(long approvedCount, double approvedAmount, long pendingCount, double pendingAmount) {
+        public static final Counters ZERO = new Counters(0, 0, 0, 0);
+
+        public Counters plus(Counters other) {
+            return new Counters(approvedCount + other.approvedCount, approvedAmount + other.approvedAmount,
+                pendingCount + other.pendingCount, pendingAmount + other.pendingAmount);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.db.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads the trigger-maintained change_log table. The maintenance pass prunes old entries (see
+ * {@link MaintenanceDao.Session#pruneChangeLog(long, int)}), so sequence numbers come from {@code sqlite_sequence},
+ * which keeps counting however much of the log is gone.
+ */
+public class ChangeDao {
+    private static final Logger logger = Logger.getLogger(ChangeDao.class.getName());
+    /**
+     * The op archiving writes over the delete trigger's entries, so readers can tell a move from a delete.
+     */
+    static final String ARCHIVE_OP = "archive";
+    /**
+     * The highest sequence number ever written, or 0 before the first change.
+     */
+    static final String SEQUENCE_SQL =
+        "SELECT coalesce((SELECT seq FROM sqlite_sequence WHERE name = 'change_log'), 0)";
+
+    private final Database database;
+
+    public ChangeDao(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Highest sequence number written so far, or 0 when nothing has been logged.
+     */
+    public long currentSequence() {
+        try (Connection conn = database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SEQUENCE_SQL)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading change sequence", e);
+            return 0L;
+        }
+    }
+
+    /**
+     * True when entries after {@code afterSeq} have been pruned already, so {@link #changesSince(long)} can no longer
+     * list everything that changed since then.
+     */
+    public boolean isPruned(long afterSeq) {
+        try (Connection conn = database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT coalesce((SELECT min(seq) FROM change_log), (" + SEQUENCE_SQL + ") + 1) - 1")) {
+            return rs.next() && afterSeq < rs.getLong(1);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading the change log's oldest entry", e);
+            return false;
+        }
+    }
+
+    /**
+     * Collapses every change after {@code afterSeq} to the last operation per expense id, in sequence order.
+     * The returned map is empty when nothing changed; {@link #lastSequence(Map, long)} gives the new token.
+     */
+    public Map<String, Change> changesSince(long afterSeq) {
+        String sql = "SELECT seq, expense_id, op FROM change_log WHERE seq > ? ORDER BY seq";
+        Map<String, Change> latest = new LinkedHashMap<>();
+        try (Connection conn = database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, afterSeq);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String expenseId = rs.getString("expense_id");
+                    latest.remove(expenseId);
+                    String op = rs.getString("op");
+                    latest.put(expenseId, new Change(rs.getLong("seq"), "delete".equals(op), ARCHIVE_OP.equals(op)));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading changes after " + afterSeq, e);
+        }
+        return latest;
+    }
+
+    public static long lastSequence(Map<String, Change> changes, long fallback) {
+        long last = fallback;
+        for (Change change : changes.values()) {
+            last = Math.max(last, change.seq());
+        }
+        return last;
+    }
+
+    /**
+     * Opens a long-lived connection whose {@code PRAGMA data_version} only moves when another connection commits.
+     * Polling it reads no table pages, so an idle poller costs next to nothing.
+     */
+    public Watch openWatch() throws SQLException {
+        return new Watch(database.newConnection());
+    }
+
+    /**
+     * {@code archived} marks an expense moved to cold storage unchanged; it was not deleted.
+     */
+    public record Change(long seq, boolean deleted, boolean archived) {
+    }
+
+    public static final class Watch implements AutoCloseable {
+        private final Connection connection;
+        private long lastVersion;
+
+        private Watch(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.lastVersion = readVersion();
+        }
+
+        /**
+         * Returns true when some other connection has committed since the previous call.
+         */
+        public boolean hasChanged() throws SQLException {
+            long version = readVersion();
+            if (version == lastVersion) {
+                return false;
+            }
+            lastVersion = version;
+            return true;
+        }
+
+        private long readVersion() throws SQLException {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA data_version")) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.db.ConnectionPool;
+import com.revature.manager.db.Database;
+import com.revature.manager.model.DuplicateMatch;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Duplicate-detection signatures and matches of one database. Probes and writes for a group of expenses go through
+ * one {@link Batch}, so each expense sees the signatures written before it in the same batch.
+ */
+public class DuplicateDao {
+    private static final Logger logger = Logger.getLogger(DuplicateDao.class.getName());
+    private static final int MAX_IDS_PER_QUERY = 500;
+    static final String SIGNED_THROUGH_KEY = "signed_through";
+    private static final String SIGNATURE_COLUMNS = "expense_id, user_id, amount_cents, date, fingerprint, minhash";
+    private static final String ROW_COLUMNS = "id, user_id, amount, date, description";
+
+    private final Database database;
+    private final ChangeDao changeDao;
+
+    public DuplicateDao(Database database) {
+        this.database = database;
+        this.changeDao = new ChangeDao(database);
+    }
+
+    public long changeSequence() {
+        return changeDao.currentSequence();
+    }
+
+    public Map<String, ChangeDao.Change> changesSince(long afterSeq) {
+        return changeDao.changesSince(afterSeq);
+    }
+
+    /**
+     * Change-log sequence up to which every expense change has been signed, or -1 before the first sync.
+     */
+    public long signedThrough() {
+        try (Connection conn = database.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT value FROM duplicate_meta WHERE key = ?")) {
+            ps.setString(1, SIGNED_THROUGH_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1L;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading the duplicate signing watermark", e);
+            return -1L;
+        }
+    }
+
+    /**
+     * The fields signatures are computed from, for the given expenses in hot storage.
+     */
+    public List<Row> rows(Collection<String> expenseIds) {
+        List<String> ids = new ArrayList<>(expenseIds);
+        List<Row> rows = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY));
+            String sql = "SELECT " + ROW_COLUMNS + " FROM expenses WHERE id IN ("
+                + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            try (Connection conn = database.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    ps.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapRow(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error loading expenses to sign", e);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Which of the given ids live on in cold storage. Archiving deletes hot rows, but an archived (usually approved)
+     * expense is exactly what a resubmission should still be matched against.
+     */
+    public Set<String> archived(Collection<String> expenseIds) {
+        Set<String> archived = new HashSet<>();
+        if (expenseIds.isEmpty() || !database.hasArchive()) {
+            return archived;
+        }
+        List<String> ids = new ArrayList<>(expenseIds);
+        try (Connection conn = database.getArchiveConnection()) {
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                List<String> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY));
+                String sql = "SELECT id FROM archive.expenses WHERE id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            archived.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error checking archived expenses", e);
+        }
+        return archived;
+    }
+
+    /**
+     * Streams expenses that have no signature yet: pending ones only, or every hot and archived one.
+     */
+    public void streamUnsigned(boolean pendingOnly, Consumer<Row> sink) {
+        String unsigned = "NOT EXISTS (SELECT 1 FROM main.expense_signatures s WHERE s.expense_id = e.id)";
+        if (pendingOnly) {
+            streamRows(false, "SELECT " + ROW_COLUMNS + " FROM main.expenses e WHERE e.status = 'pending' AND "
+                + unsigned, sink);
+            return;
+        }
+        streamRows(false, "SELECT " + ROW_COLUMNS + " FROM main.expenses e WHERE " + unsigned, sink);
+        if (database.hasArchive()) {
+            streamRows(true, "SELECT " + ROW_COLUMNS + " FROM archive.expenses e WHERE " + unsigned, sink);
+        }
+    }
+
+    /**
+     * Streams every set of two or more signatures sharing a fingerprint, each ordered by date then id.
+     */
+    public void streamFingerprintGroups(Consumer<List<Signature>> sink) {
+        String sql = "SELECT " + SIGNATURE_COLUMNS + ", fingerprint AS grp FROM expense_signatures"
+            + " WHERE fingerprint IN (SELECT fingerprint FROM expense_signatures GROUP BY fingerprint"
+            + " HAVING count(*) > 1) ORDER BY fingerprint, date, expense_id";
+        streamGroups(sql, "grp", sink);
+    }
+
+    /**
+     * Streams every LSH bucket holding two or more of one user's expenses, each ordered by date then id. The shared
+     * buckets come from one pass over the primary key, so only their members are joined to their signatures.
+     */
+    public void streamBucketGroups(Consumer<List<Signature>> sink) {
+        String sql = """
+                WITH shared AS (
+                    SELECT user_id, bucket FROM expense_lsh GROUP BY user_id, bucket HAVING count(*) > 1
+                )
+                SELECT s.expense_id, s.user_id, s.amount_cents, s.date, s.fingerprint, s.minhash,
+                       sh.user_id || ':' || sh.bucket AS grp
+                FROM shared sh
+                JOIN expense_lsh l ON l.user_id = sh.user_id AND l.bucket = sh.bucket
+                JOIN expense_signatures s ON s.expense_id = l.expense_id
+                ORDER BY sh.user_id, sh.bucket, s.date, s.expense_id
+                """;
+        streamGroups(sql, "grp", sink);
+    }
+
+    /**
+     * Recorded matches with any of the given expenses on either side, each returned once. A seek per id on the
+     * primary key finds the expense side and one on {@code idx_duplicate_matches_of} the other, so the cost follows
+     * the ids asked for, not the number of matches recorded.
+     */
+    public List<DuplicateMatch> matchesFor(Collection<String> expenseIds) {
+        List<String> ids = new ArrayList<>(expenseIds);
+        Map<List<String>, DuplicateMatch> matches = new LinkedHashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT expense_id, duplicate_of, kind, similarity FROM duplicate_matches"
+                + " WHERE expense_id IN (" + placeholders + ") OR duplicate_of IN (" + placeholders + ")";
+            try (Connection conn = database.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    ps.setString(i + 1, chunk.get(i));
+                    ps.setString(chunk.size() + i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        DuplicateMatch match = new DuplicateMatch(rs.getString("expense_id"),
+                            rs.getString("duplicate_of"), DuplicateMatch.Kind.valueOf(rs.getString("kind")),
+                            rs.getDouble("similarity"));
+                        // A pair whose two sides fall in different chunks comes back twice.
+                        matches.putIfAbsent(List.of(match.getExpenseId(), match.getDuplicateOfId()), match);
+                    }
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error loading duplicate matches", e);
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    /**
+     * Opens a batch on its own transaction. Nothing is written unless {@link Batch#commit()} is called.
+     */
+    public Batch openBatch() throws SQLException {
+        Connection conn = database.getConnection();
+        try {
+            conn.setAutoCommit(false);
+            return new Batch(conn);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    private void streamRows(boolean attachArchive, String sql, Consumer<Row> sink) {
+        try (Connection conn = attachArchive ? database.getArchiveConnection() : database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setFetchSize(1_000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading expenses to sign", e);
+        }
+    }
+
+    private void streamGroups(String sql, String groupColumn, Consumer<List<Signature>> sink) {
+        try (Connection conn = database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setFetchSize(1_000);
+            try (ResultSet rs = ps.executeQuery()) {
+                Object group = null;
+                List<Signature> members = new ArrayList<>();
+                while (rs.next()) {
+                    Object next = rs.getObject(groupColumn);
+                    if (!next.equals(group) && !members.isEmpty()) {
+                        sink.accept(members);
+                        members = new ArrayList<>();
+                    }
+                    group = next;
+                    members.add(mapSignature(rs));
+                }
+                if (!members.isEmpty()) {
+                    sink.accept(members);
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading duplicate candidates", e);
+        }
+    }
+
+    private static Row mapRow(ResultSet rs) throws SQLException {
+        return new Row(rs.getString("id"), rs.getString("user_id"), rs.getDouble("amount"), rs.getString("date"),
+            rs.getString("description"));
+    }
+
+    private static Signature mapSignature(ResultSet rs) throws SQLException {
+        return new Signature(rs.getString("expense_id"), rs.getString("user_id"), rs.getLong("amount_cents"),
+            rs.getString("date"), rs.getLong("fingerprint"), rs.getBytes("minhash"));
+    }
+
+    /**
+     * An expense as far as duplicate detection cares.
+     */
+    public record Row(String id, String userId, double amount, String date, String description) {
+    }
+
+    /**
+     * What is stored per expense: the exact-match fingerprint over user, amount, date and normalized description,
+     * and the description's MinHash values (empty when it has no text to compare).
+     */
+    public record Signature(String expenseId, String userId, long amountCents, String date, long fingerprint,
+                            byte[] minhash) {
+    }
+
+    /**
+     * Probes and writes on one pooled connection inside one transaction. Statements come from the connection's
+     * statement cache, so a probe is a few index seeks with no parsing. Closing without committing rolls back.
+     */
+    public static final class Batch implements AutoCloseable {
+        private final Connection conn;
+
+        private Batch(Connection conn) {
+            this.conn = conn;
+        }
+
+        public Map<String, Signature> signatures(Collection<String> expenseIds) throws SQLException {
+            Map<String, Signature> result = new HashMap<>();
+            try (PreparedStatement ps = ConnectionPool.prepareCached(conn,
+                "SELECT " + SIGNATURE_COLUMNS + " FROM expense_signatures WHERE expense_id = ?")) {
+                for (String id : expenseIds) {
+                    ps.setString(1, id);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            result.put(id, mapSignature(rs));
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Ids of the expenses with this fingerprint; the fingerprint covers the user, so they are all the same
+         * user's.
+         */
+        public List<String> withFingerprint(long fingerprint) throws SQLException {
+            List<String> ids = new ArrayList<>();
+            try (PreparedStatement ps = ConnectionPool.prepareCached(conn,
+                "SELECT expense_id FROM expense_signatures WHERE fingerprint = ?")) {
+                ps.setLong(1, fingerprint);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getString(1));
+                    }
+                }
+            }
+            return ids;
+        }
+
+        /**
+         * Ids of the user's expenses sharing at least one of the LSH buckets.
+         */
+        public Set<String> inBuckets(String userId, long[] buckets) throws SQLException {
+            Set<String> ids = new HashSet<>();
+            try (PreparedStatement ps = ConnectionPool.prepareCached(conn,
+                "SELECT expense_id FROM expense_lsh WHERE user_id = ? AND bucket = ?")) {
+                ps.setString(1, userId);
+                for (long bucket : buckets) {
+                    ps.setLong(2, bucket);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+            return ids;
+        }
+
+        public void put(Signature signature, long[] buckets) throws SQLException {
+            try (PreparedStatement ps = ConnectionPool.prepareCached(conn,
+                "INSERT OR REPLACE INTO expense_signatures (" + SIGNATURE_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)")) {
+                ps.setString(1, signature.expenseId());
+                ps.setString(2, signature.userId());
+                ps.setLong(3, signature.amountCents());
+                ps.setString(4, signature.date());
+                ps.setLong(5, signature.fingerprint());
+                ps.setBytes(6, signature.minhash());
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = ConnectionPool.prepareCached(conn,
+                "INSERT OR IGNORE INTO expense_lsh (user_id, bucket, expense_id) VALUES (?, ?, ?)")) {
+                ps.setString(1, signature.userId());
+                ps.setString(3, signature.expenseId());
+                for (long bucket : buckets) {
+                    ps.setLong(2, bucket);
+                    ps.executeUpdate();
+                }
+            }
+        }
+
+        /**
+         * Drops a signature, its LSH rows (found from the buckets it was stored under) and every match it is part of.
+         */
+        public void remove(Signature signature, long[] buckets) throws SQLException {
+            try (PreparedStatement ps = ConnectionPool.prepareCached(conn,
+                "DELETE FROM expense_signatures WHERE expense_id = ?")) {
+                ps.setString(1, signature.expenseId());
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = ConnectionPool.prepareCached(conn,
+                "DELETE FROM expense_lsh WHERE user_id = ? AND bucket = ? AND expense_id = ?")) {
+                ps.setString(1, signature.userId());
+                ps.setString(3, signature.expenseId());
+                for (long bucket : buckets) {
+                    ps.setLong(2, bucket);
+                    ps.executeUpdate();
+                }
+            }
+            try (PreparedStatement ps = ConnectionPool.prepareCached(conn,
+                "DELETE FROM duplicate_matches WHERE expense_id = ?1 OR duplicate_of = ?1")) {
+                ps.setString(1, signature.expenseId());
+                ps.executeUpdate();
+            }
+        }
+
+        /**
+         * Records a match; returns false when it was already known.
+         */
+        public boolean addMatch(DuplicateMatch match) throws SQLException {
+            try (PreparedStatement ps = ConnectionPool.prepareCached(conn,
+                "INSERT OR IGNORE INTO duplicate_matches (expense_id, duplicate_of, kind, similarity)"
+                    + " VALUES (?, ?, ?, ?)")) {
+                ps.setString(1, match.getExpenseId());
+                ps.setString(2, match.getDuplicateOfId());
+                ps.setString(3, match.getKind().name());
+                ps.setDouble(4, match.getSimilarity());
+                return ps.executeUpdate() > 0;
+            }
+        }
+
+        public void setSignedThrough(long sequence) throws SQLException {
+            try (PreparedStatement ps = ConnectionPool.prepareCached(conn,
+                "INSERT INTO duplicate_meta (key, value) VALUES (?, ?)"
+                    + " ON CONFLICT (key) DO UPDATE SET value = excluded.value")) {
+                ps.setString(1, SIGNED_THROUGH_KEY);
+                ps.setLong(2, sequence);
+                ps.executeUpdate();
+            }
+        }
+
+        public void commit() throws SQLException {
+            conn.commit();
+        }
+
+        @Override
+        public void close() {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.log(Level.FINE, "Error closing duplicate batch connection", e);
+            }
+        }
+    }
+}
@@ -1,90 +1,292 @@
 package com.revature.manager.dao;
 
+import com.revature.manager.db.ConnectionPool;
 import com.revature.manager.db.Database;
+import com.revature.manager.model.DailyTotals;
 import com.revature.manager.model.Expense;
+import com.revature.manager.model.ExpenseCriteria;
+import com.revature.manager.model.ExpenseTotals;
+import com.revature.manager.model.RunningStats;
+import com.revature.manager.model.SpendingStats;
+import com.revature.manager.model.UserReviewHistory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class ExpenseDao {
+public class ExpenseDao implements ExpenseRepository {
     private static final Logger logger = Logger.getLogger(ExpenseDao.class.getName());
+    private static final int MAX_IDS_PER_QUERY = 500;
+    private static final int FETCH_SIZE = 256;
+    /**
+     * Review times always carry seconds, so the stored strings sort and compare as text.
+     */
+    static final DateTimeFormatter REVIEW_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final String REVIEW_SQL = """
+            UPDATE expenses
+            SET status = ?, reviewer = ?, comment = ?, review_date = ?
+            WHERE id = ? AND status = 'pending'
+            """;
+    /**
+     * {@link #REVIEW_SQL} that also leaves the expense alone once its submitter, category, amount or date has been
+     * edited since the decision was made.
+     */
+    private static final String BATCH_REVIEW_SQL = """
+            UPDATE expenses
+            SET status = ?, reviewer = ?, comment = ?, review_date = ?
+            WHERE id = ? AND status = 'pending' AND user_id = ? AND category IS ? AND amount = ? AND date IS ?
+            """;
+    private static final String APPROVAL_SQL = """
+            INSERT INTO approvals (id, expense_id, status, reviewer, comment, review_date)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final Map<String, String> CRITERIA_SQL = new ConcurrentHashMap<>();
 
     private final Database database;
+    private final UserCache userCache;
+    private final ArchiveDao archiveDao;
 
-    public ExpenseDao(Database database) {
+    public ExpenseDao(Database database, UserCache userCache, ArchiveDao archiveDao) {
         this.database = database;
+        this.userCache = userCache;
+        this.archiveDao = archiveDao;
+    }
+
+    /**
+     * The stream variants hand rows to the sink straight off the cursor.
+     */
+    @Override
+    public void streamPending(Consumer<Expense> sink) {
+        streamExpenseQuery(false, "WHERE e.status = 'pending' ORDER BY e.date ASC", sink);
     }
 
-    public List<Expense> listPending() {
-        return runExpenseQuery("WHERE e.status = 'pending' ORDER BY e.date ASC");
+    @Override
+    public void streamByUser(String userId, Consumer<Expense> sink) {
+        streamExpenseQuery(hasArchivedRows(), "WHERE e.user_id = ? ORDER BY e.date DESC", sink, userId);
     }
 
-    public List<Expense> listByUser(String userId) {
-        return runExpenseQuery("WHERE e.user_id = ? ORDER BY e.date DESC", userId);
+    @Override
+    public void streamByStatus(String status, Consumer<Expense> sink) {
+        streamExpenseQuery(mayHaveArchivedStatus(status), "WHERE e.status = ? ORDER BY e.date DESC", sink, status);
     }
 
-    public List<Expense> listByStatus(String status) {
-        return runExpenseQuery("WHERE e.status = ? ORDER BY e.date DESC", status);
+    @Override
+    public void streamByCategory(String category, Consumer<Expense> sink) {
+        streamExpenseQuery(hasArchivedRows(), "WHERE lower(e.category) = lower(?) ORDER BY e.date DESC", sink,
+            category);
     }
 
-    public List<Expense> listByCategory(String category) {
-        return runExpenseQuery("WHERE lower(e.category) = lower(?) ORDER BY e.date DESC", category);
+    @Override
+    public void streamByDateRange(String startDateInclusive, String endDateInclusive, Consumer<Expense> sink) {
+        boolean includeArchive = archiveDao.archivedThrough()
+            .map(archivedThrough -> startDateInclusive.compareTo(archivedThrough) <= 0)
+            .orElse(false);
+        streamExpenseQuery(includeArchive, "WHERE e.date BETWEEN ? AND ? ORDER BY e.date ASC", sink,
+            startDateInclusive, endDateInclusive);
     }
 
-    public List<Expense> listByDateRange(String startDateInclusive, String endDateInclusive) {
-        return runExpenseQuery("WHERE e.date BETWEEN ? AND ? ORDER BY e.date ASC", startDateInclusive, endDateInclusive);
+    @Override
+    public void streamByStatusAndDateRange(String status, String startDateInclusive, String endDateInclusive,
+                                           Consumer<Expense> sink) {
+        boolean includeArchive = mayHaveArchivedStatus(status) && archiveDao.archivedThrough()
+            .map(archivedThrough -> startDateInclusive.compareTo(archivedThrough) <= 0)
+            .orElse(false);
+        streamExpenseQuery(includeArchive, "WHERE e.status = ? AND e.date BETWEEN ? AND ? ORDER BY e.date ASC", sink,
+            status, startDateInclusive, endDateInclusive);
     }
 
     /**
-     * Changes the status of the expense and adds an approvals row in one transaction.
+     * Runs every filter set in the criteria as one statement. Criteria with the same filters set (whatever their
+     * values), sort and limit share one generated SQL text, and so one cached prepared statement per pooled
+     * connection. A user filter (or else a status filter) and the date range are served by the (user_id, date) or
+     * (status, date) index; the remaining filters are checked on the rows the index returns.
      */
-    public boolean updateStatus(String expenseId, String status, String reviewer, String comment) {
-        String updateSql = """
-                UPDATE expenses
-                SET status = ?, reviewer = ?, comment = ?, review_date = ?
-                WHERE id = ?
-                """;
-        String approvalSql = """
-                INSERT INTO approvals (id, expense_id, status, reviewer, comment, review_date)
-                VALUES (?, ?, ?, ?, ?, ?)
-                """;
+    @Override
+    public void streamMatching(ExpenseCriteria criteria, Consumer<Expense> sink) {
+        boolean includeArchive = hasArchivedRows()
+            && !criteria.getStatus().map("pending"::equals).orElse(false)
+            && criteria.getDateFrom()
+                .map(from -> archiveDao.archivedThrough().map(through -> from.toString().compareTo(through) <= 0)
+                    .orElse(false))
+                .orElse(true);
 
-        try (Connection conn = database.getConnection();
-             PreparedStatement updateStmt = conn.prepareStatement(updateSql);
-             PreparedStatement approvalStmt = conn.prepareStatement(approvalSql)) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder shape = new StringBuilder();
+        criteria.getUserId().ifPresent(value -> addCriterion(shape, 'u', args, value));
+        criteria.getStatus().ifPresent(value -> addCriterion(shape, 's', args, value));
+        criteria.getCategory().ifPresent(value -> addCriterion(shape, 'c', args, value));
+        criteria.getDateFrom().ifPresent(value -> addCriterion(shape, 'f', args, value.toString()));
+        criteria.getDateTo().ifPresent(value -> addCriterion(shape, 't', args, value.toString()));
+        criteria.getMinAmount().ifPresent(value -> addCriterion(shape, 'a', args, value));
+        criteria.getMaxAmount().ifPresent(value -> addCriterion(shape, 'b', args, value));
+        shape.append('/').append(criteria.getSort().name());
+        if (criteria.getLimit() > 0) {
+            shape.append("/limit");
+            args.add(criteria.getLimit());
+        }
+        String clause = CRITERIA_SQL.computeIfAbsent(shape.toString(), key -> criteriaClause(criteria));
+        streamExpenseQuery(includeArchive, clause, sink, args.toArray());
+    }
 
-            conn.setAutoCommit(false);
+    private static void addCriterion(StringBuilder shape, char code, List<Object> args, Object value) {
+        shape.append(code);
+        args.add(value);
+    }
+
+    /**
+     * WHERE, ORDER BY and LIMIT for the criteria's shape, with placeholders in the order
+     * {@link #streamMatching(ExpenseCriteria, Consumer)} binds them.
+     */
+    private static String criteriaClause(ExpenseCriteria criteria) {
+        List<String> conditions = new ArrayList<>();
+        criteria.getUserId().ifPresent(value -> conditions.add("e.user_id = ?"));
+        // With a user given, the unary + keeps SQLite off the (status, date) index: without ANALYZE statistics it
+        // cannot tell that three statuses select far more rows than one user does.
+        boolean byUser = criteria.getUserId().isPresent();
+        criteria.getStatus().ifPresent(value -> conditions.add(byUser ? "+e.status = ?" : "e.status = ?"));
+        criteria.getCategory().ifPresent(value -> conditions.add("lower(e.category) = lower(?)"));
+        criteria.getDateFrom().ifPresent(value -> conditions.add("e.date >= ?"));
+        criteria.getDateTo().ifPresent(value -> conditions.add("e.date <= ?"));
+        criteria.getMinAmount().ifPresent(value -> conditions.add("e.amount >= ?"));
+        criteria.getMaxAmount().ifPresent(value -> conditions.add("e.amount <= ?"));
+
+        StringBuilder clause = new StringBuilder();
+        if (!conditions.isEmpty()) {
+            clause.append("WHERE ").append(String.join(" AND ", conditions)).append('\n');
+        }
+        clause.append(switch (criteria.getSort()) {
+            case DATE_ASC -> "ORDER BY e.date ASC";
+            case DATE_DESC -> "ORDER BY e.date DESC";
+            case AMOUNT_ASC -> "ORDER BY e.amount ASC, e.date ASC";
+            case AMOUNT_DESC -> "ORDER BY e.amount DESC, e.date DESC";
+        });
+        if (criteria.getLimit() > 0) {
+            clause.append("\nLIMIT ?");
+        }
+        return clause.toString();
+    }
 
-            String reviewDate = LocalDate.now().toString();
-            updateStmt.setString(1, status);
-            updateStmt.setString(2, reviewer);
-            updateStmt.setString(3, comment);
-            updateStmt.setString(4, reviewDate);
-            updateStmt.setString(5, expenseId);
+    @Override
+    public List<ExpenseTotals> totalsByStatus() {
+        return totalsBy("status");
+    }
 
-            int updatedRows = updateStmt.executeUpdate();
-            if (updatedRows == 0) {
+    @Override
+    public List<ExpenseTotals> totalsByCategory() {
+        return totalsBy("category");
+    }
+
+    /**
+     * Per-day totals in the date range, one row per day, status and category that has expenses, in no particular
+     * order. With archived rows in range, hot and cold storage each contribute their own rows for the same day.
+     */
+    @Override
+    public List<DailyTotals> dailyTotals(String startDateInclusive, String endDateInclusive) {
+        boolean includeArchive = archiveDao.archivedThrough()
+            .map(archivedThrough -> startDateInclusive.compareTo(archivedThrough) <= 0)
+            .orElse(false);
+        List<String> tables = includeArchive ? List.of("main.expenses", "archive.expenses") : List.of("expenses");
+
+        List<DailyTotals> result = new ArrayList<>();
+        try (Connection conn = connectionFor(includeArchive)) {
+            for (String table : tables) {
+                // Grouped in index order on the covering (date, status, category, amount) index: no table lookups
+                // and no sort, so the cost is one range scan of the index.
+                String sql = "SELECT date, status, category, count(*) AS expenses, total(amount) AS amount FROM "
+                    + table + " WHERE date BETWEEN ? AND ? GROUP BY date, status, category";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setString(1, startDateInclusive);
+                    ps.setString(2, endDateInclusive);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            result.add(new DailyTotals(rs.getString("date"), rs.getString("status"),
+                                rs.getString("category"), rs.getLong("expenses"), rs.getDouble("amount")));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error totalling expenses by day", e);
+        }
+        return result;
+    }
+
+    /**
+     * Opens a read-only view of the expenses pinned to a single snapshot: every report run through
+     * {@link ExpenseSnapshot#getDao()} sees the same committed state, however much is written meanwhile. Only the
+     * read methods of the view may be used, from one thread at a time. Close the snapshot to release it.
+     */
+    @Override
+    public ExpenseSnapshot openSnapshot() throws SQLException {
+        Connection conn = database.openSnapshot();
+        try {
+            long changeSequence = ExpenseSnapshot.changeSequence(conn);
+            // Fix the archive watermark too, so an archive run during the session cannot point the view at rows
+            // (or an attached file) its snapshot does not have.
+            Optional<String> watermark = database.hasArchive() ? archiveDao.archivedThrough() : Optional.empty();
+            ArchiveDao pinnedArchive = new ArchiveDao(database) {
+                @Override
+                public Optional<String> archivedThrough() {
+                    return watermark;
+                }
+            };
+            Connection pinned = ExpenseSnapshot.keepOpen(conn);
+            ExpenseDao view = new ExpenseDao(database, userCache, pinnedArchive) {
+                @Override
+                Connection connectionFor(boolean includeArchive) {
+                    return pinned;
+                }
+            };
+            return new ExpenseSnapshot(view, List.of(new ExpenseSnapshot.Pin(database, conn, changeSequence)));
+        } catch (SQLException | RuntimeException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Expense> findByIds(Collection<String> expenseIds) {
+        List<String> ids = new ArrayList<>(expenseIds);
+        List<Expense> result = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            result.addAll(runExpenseQuery(false, "WHERE e.id IN (" + placeholders + ")", chunk.toArray()));
+        }
+        return result;
+    }
+
+    /**
+     * Changes the status of a pending expense and adds its approvals row in one transaction. Returns false when the
+     * expense does not exist or was reviewed already.
+     */
+    @Override
+    public boolean updateStatus(String expenseId, String status, String reviewer, String comment) {
+        try (Connection conn = database.getConnection();
+             PreparedStatement updateStmt = conn.prepareStatement(REVIEW_SQL);
+             PreparedStatement approvalStmt = conn.prepareStatement(APPROVAL_SQL)) {
+
+            conn.setAutoCommit(false);
+            if (!review(updateStmt, approvalStmt, expenseId, status, reviewer, comment, LocalDateTime.now())) {
                 conn.rollback();
                 conn.setAutoCommit(true);
                 return false;
             }
-
-            approvalStmt.setString(1, UUID.randomUUID().toString());
-            approvalStmt.setString(2, expenseId);
-            approvalStmt.setString(3, status);
-            approvalStmt.setString(4, reviewer);
-            approvalStmt.setString(5, comment);
-            approvalStmt.setString(6, reviewDate);
-            approvalStmt.executeUpdate();
-
             conn.commit();
             conn.setAutoCommit(true);
             return true;
@@ -94,36 +296,203 @@ public class ExpenseDao {
         }
     }
 
-    private List<Expense> runExpenseQuery(String clause, Object... args) {
+    /**
+     * Applies many decisions in one transaction, reusing one pair of prepared statements. As with
+     * {@link #updateStatus(String, String, String, String)}, only expenses that are still pending are changed, so a
+     * decision made in the meantime by a reviewer is never overwritten; nor is an expense whose submitter, category,
+     * amount or date was edited after the decision was made. Returns the number of expenses changed, or 0 if the
+     * transaction failed.
+     */
+    @Override
+    public int updateStatusBatch(List<StatusChange> changes, String reviewer) {
+        try (Connection conn = database.getConnection();
+             PreparedStatement updateStmt = conn.prepareStatement(BATCH_REVIEW_SQL);
+             PreparedStatement approvalStmt = conn.prepareStatement(APPROVAL_SQL)) {
+
+            conn.setAutoCommit(false);
+            LocalDateTime now = LocalDateTime.now();
+            int updated = 0;
+            for (StatusChange change : changes) {
+                updateStmt.setString(6, change.userId());
+                updateStmt.setString(7, change.category());
+                updateStmt.setDouble(8, change.amount());
+                updateStmt.setString(9, change.date());
+                if (review(updateStmt, approvalStmt, change.expenseId(), change.status(), reviewer, change.comment(),
+                    now)) {
+                    updated++;
+                }
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+            return updated;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to apply a batch of " + changes.size() + " status changes", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Reviews one pending expense with the statements for {@link #REVIEW_SQL} (or {@link #BATCH_REVIEW_SQL}, with its
+     * extra conditions bound already) and {@link #APPROVAL_SQL}; the caller owns the transaction.
+     * Returns false, writing nothing, when the statement matches no expense.
+     */
+    private static boolean review(PreparedStatement updateStmt, PreparedStatement approvalStmt, String expenseId,
+                                  String status, String reviewer, String comment, LocalDateTime now)
+        throws SQLException {
+        updateStmt.setString(1, status);
+        updateStmt.setString(2, reviewer);
+        updateStmt.setString(3, comment);
+        updateStmt.setString(4, now.toLocalDate().toString());
+        updateStmt.setString(5, expenseId);
+        // The count includes the change_log trigger's insert, so only zero versus non-zero is meaningful.
+        if (updateStmt.executeUpdate() == 0) {
+            return false;
+        }
+        approvalStmt.setString(1, UUID.randomUUID().toString());
+        approvalStmt.setString(2, expenseId);
+        approvalStmt.setString(3, status);
+        approvalStmt.setString(4, reviewer);
+        approvalStmt.setString(5, comment);
+        // The audit trail keeps the time of day so reviewer throughput can be measured per hour.
+        approvalStmt.setString(6, REVIEW_TIME.format(now));
+        approvalStmt.executeUpdate();
+        return true;
+    }
+
+    /**
+     * Counts each user's approved and denied expenses, including archived ones. Users without reviewed expenses
+     * are absent from the map.
+     */
+    @Override
+    public Map<String, UserReviewHistory> reviewHistoryByUser() {
+        boolean includeArchive = hasArchivedRows();
+        // IN rather than <> 'pending' so the (status, date) index can skip the pending rows.
+        String sql = "SELECT e.user_id, total(e.status = 'approved') AS approved, total(e.status = 'denied') AS denied"
+            + " FROM " + expenseSource(includeArchive) + " WHERE e.status IN ('approved', 'denied') GROUP BY e.user_id";
+
+        Map<String, UserReviewHistory> result = new HashMap<>();
+        try (Connection conn = connectionFor(includeArchive);
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                result.put(rs.getString("user_id"),
+                    new UserReviewHistory(rs.getLong("approved"), rs.getLong("denied")));
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error loading review history", e);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the trigger-maintained amount statistics; one row per user and category, no history scan.
+     */
+    @Override
+    public SpendingStats spendingStats() {
+        Map<String, RunningStats> byUser = new HashMap<>();
+        Map<String, RunningStats> byCategory = new HashMap<>();
+        RunningStats overall = null;
+        try (Connection conn = connectionFor(false);
+             PreparedStatement ps = conn.prepareStatement("SELECT scope, key, n, mean, m2 FROM expense_stats");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                RunningStats stats = new RunningStats(rs.getLong("n"), rs.getDouble("mean"), rs.getDouble("m2"));
+                switch (rs.getString("scope")) {
+                    case "user" -> byUser.put(rs.getString("key"), stats);
+                    case "category" -> byCategory.put(rs.getString("key"), stats);
+                    default -> overall = stats;
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error loading spending statistics", e);
+        }
+        return new SpendingStats(byUser, byCategory, overall);
+    }
+
+    private boolean hasArchivedRows() {
+        return archiveDao.archivedThrough().isPresent();
+    }
+
+    private boolean mayHaveArchivedStatus(String status) {
+        // Only reviewed expenses are ever archived.
+        return !"pending".equalsIgnoreCase(status) && hasArchivedRows();
+    }
+
+    private String expenseSource(boolean includeArchive) {
+        return includeArchive
+            ? "(SELECT " + ArchiveDao.EXPENSE_COLUMNS + " FROM main.expenses UNION ALL SELECT "
+                + ArchiveDao.EXPENSE_COLUMNS + " FROM archive.expenses) e"
+            : "expenses e";
+    }
+
+    /**
+     * Connection for a read; snapshot views override this to return their pinned connection.
+     */
+    Connection connectionFor(boolean includeArchive) throws SQLException {
+        return includeArchive ? database.getArchiveConnection() : database.getConnection();
+    }
+
+    private List<ExpenseTotals> totalsBy(String column) {
+        boolean includeArchive = hasArchivedRows();
+        String sql = "SELECT e." + column + " AS key, count(*) AS expenses, total(e.amount) AS amount FROM "
+            + expenseSource(includeArchive) + " GROUP BY e." + column + " ORDER BY e." + column;
+
+        List<ExpenseTotals> result = new ArrayList<>();
+        try (Connection conn = connectionFor(includeArchive);
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                result.add(new ExpenseTotals(rs.getString("key"), rs.getLong("expenses"), rs.getDouble("amount")));
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error totalling expenses by " + column, e);
+        }
+        return result;
+    }
+
+    private List<Expense> runExpenseQuery(boolean includeArchive, String clause, Object... args) {
+        List<Expense> result = new ArrayList<>();
+        streamExpenseQuery(includeArchive, clause, result::add, args);
+        return result;
+    }
+
+    /**
+     * Runs the clause against hot storage, or against hot and cold storage together when {@code includeArchive} is
+     * set. SQLite pushes the WHERE clause into both arms of the UNION ALL, so each side still uses its own indexes.
+     * On pooled connections the statement comes from the connection's statement cache.
+     */
+    private void streamExpenseQuery(boolean includeArchive, String clause, Consumer<Expense> sink, Object... args) {
         String sql = """
                 SELECT e.id, e.user_id, e.amount, e.description, e.date, e.status,
-                       e.reviewer, e.comment, e.review_date, e.category, u.username
-                FROM expenses e
-                LEFT JOIN users u ON e.user_id = u.id
-                """ + clause;
+                       e.reviewer, e.comment, e.review_date, e.category
+                """ + "FROM " + expenseSource(includeArchive) + "\n" + clause;
 
-        List<Expense> result = new ArrayList<>();
-        try (Connection conn = database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connectionFor(includeArchive);
+             PreparedStatement ps = ConnectionPool.prepareCached(conn, sql)) {
+            ps.setFetchSize(FETCH_SIZE);
             for (int i = 0; i < args.length; i++) {
                 ps.setObject(i + 1, args[i]);
             }
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    result.add(mapExpense(rs));
+                    sink.accept(mapExpense(rs, conn));
                 }
             }
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error querying expenses", e);
         }
-        return result;
     }
 
-    private Expense mapExpense(ResultSet rs) throws SQLException {
+    /**
+     * Usernames are resolved on the query's own connection; borrowing another while the cursor is open could wait
+     * forever once every pooled connection is held by a query doing the same.
+     */
+    private Expense mapExpense(ResultSet rs, Connection conn) throws SQLException {
+        String userId = rs.getString("user_id");
         return new Expense(
             rs.getString("id"),
-            rs.getString("user_id"),
-            rs.getString("username"),
+            userId,
+            userCache.usernameOf(userId, conn),
             rs.getString("category"),
             rs.getDouble("amount"),
             rs.getString("description"),
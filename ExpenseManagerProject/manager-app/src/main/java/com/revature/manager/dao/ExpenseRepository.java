@@ -0,0 +1,125 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.model.DailyTotals;
+import com.revature.manager.model.Expense;
+import com.revature.manager.model.ExpenseCriteria;
+import com.revature.manager.model.ExpenseTotals;
+import com.revature.manager.model.SpendingStats;
+import com.revature.manager.model.UserReviewHistory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Expense reads and review decisions, served by one database file ({@link ExpenseDao}) or by one per region
+ * ({@link ShardedExpenseDao}).
+ */
+public interface ExpenseRepository {
+
+    default List<Expense> listPending() {
+        List<Expense> result = new ArrayList<>();
+        streamPending(result::add);
+        return result;
+    }
+
+    default List<Expense> listByUser(String userId) {
+        List<Expense> result = new ArrayList<>();
+        streamByUser(userId, result::add);
+        return result;
+    }
+
+    default List<Expense> listByStatus(String status) {
+        List<Expense> result = new ArrayList<>();
+        streamByStatus(status, result::add);
+        return result;
+    }
+
+    default List<Expense> listByCategory(String category) {
+        List<Expense> result = new ArrayList<>();
+        streamByCategory(category, result::add);
+        return result;
+    }
+
+    default List<Expense> listByDateRange(String startDateInclusive, String endDateInclusive) {
+        List<Expense> result = new ArrayList<>();
+        streamByDateRange(startDateInclusive, endDateInclusive, result::add);
+        return result;
+    }
+
+    default List<Expense> listMatching(ExpenseCriteria criteria) {
+        List<Expense> result = new ArrayList<>();
+        streamMatching(criteria, result::add);
+        return result;
+    }
+
+    /**
+     * The stream variants hand rows to the sink as they are read, in the same order as the list variants: pending
+     * expenses oldest first, date ranges ascending, everything else newest first.
+     */
+    void streamPending(Consumer<Expense> sink);
+
+    void streamByUser(String userId, Consumer<Expense> sink);
+
+    void streamByStatus(String status, Consumer<Expense> sink);
+
+    void streamByCategory(String category, Consumer<Expense> sink);
+
+    void streamByDateRange(String startDateInclusive, String endDateInclusive, Consumer<Expense> sink);
+
+    void streamByStatusAndDateRange(String status, String startDateInclusive, String endDateInclusive,
+                                    Consumer<Expense> sink);
+
+    /**
+     * Rows matching every filter set in the criteria, in the criteria's sort order and up to its limit.
+     */
+    void streamMatching(ExpenseCriteria criteria, Consumer<Expense> sink);
+
+    List<ExpenseTotals> totalsByStatus();
+
+    List<ExpenseTotals> totalsByCategory();
+
+    /**
+     * Per-day totals in the date range by status and category, in no particular order. The same day, status and
+     * category may appear more than once (once per file holding such rows); callers add them up.
+     */
+    List<DailyTotals> dailyTotals(String startDateInclusive, String endDateInclusive);
+
+    /**
+     * Opens a read-only view pinned to one committed state; see {@link ExpenseDao#openSnapshot()}.
+     */
+    ExpenseSnapshot openSnapshot() throws SQLException;
+
+    /**
+     * Loads the current state of the given expenses, in no particular order. Ids that no longer exist are skipped.
+     */
+    List<Expense> findByIds(Collection<String> expenseIds);
+
+    /**
+     * Records one review decision and its approvals row. Returns false if nothing was changed.
+     */
+    boolean updateStatus(String expenseId, String status, String reviewer, String comment);
+
+    /**
+     * Applies many decisions to expenses that are still pending and still have the submitter, category, amount and
+     * date each decision was made on. Returns the number of expenses changed.
+     */
+    int updateStatusBatch(List<StatusChange> changes, String reviewer);
+
+    /**
+     * Each user's approved and denied counts, including archived expenses.
+     */
+    Map<String, UserReviewHistory> reviewHistoryByUser();
+
+    SpendingStats spendingStats();
+
+    /**
+     * A decision for one expense, with the fields of the expense it was made on.
+     */
+    record StatusChange(String expenseId, String userId, String category, double amount, String date, String status,
+                        String comment) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.db.Database;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A read view of the expenses pinned to one read transaction per database (one per shard when sharded). See
+ * {@link ExpenseDao#openSnapshot()}.
+ */
+public class ExpenseSnapshot implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ExpenseSnapshot.class.getName());
+
+    private final ExpenseRepository dao;
+    private final List<Pin> pins;
+    private final LocalDateTime openedAt = LocalDateTime.now();
+    private final long openedNanos = System.nanoTime();
+
+    ExpenseSnapshot(ExpenseRepository dao, List<Pin> pins) {
+        this.dao = dao;
+        this.pins = List.copyOf(pins);
+    }
+
+    /**
+     * Combines per-shard snapshots under a view that reads through all of them.
+     */
+    static ExpenseSnapshot combine(ExpenseRepository dao, List<ExpenseSnapshot> parts) {
+        List<Pin> pins = new ArrayList<>();
+        parts.forEach(part -> pins.addAll(part.pins));
+        return new ExpenseSnapshot(dao, pins);
+    }
+
+    public ExpenseRepository getDao() {
+        return dao;
+    }
+
+    public LocalDateTime getOpenedAt() {
+        return openedAt;
+    }
+
+    public Duration getAge() {
+        return Duration.ofNanos(System.nanoTime() - openedNanos);
+    }
+
+    /**
+     * Number of expense and approval changes committed since the snapshot was taken, over all pinned databases. Runs
+     * one small query per database outside the snapshot.
+     */
+    public long changesBehind() {
+        long behind = 0;
+        for (Pin pin : pins) {
+            try (Connection conn = pin.database().getConnection()) {
+                behind += Math.max(0, changeSequence(conn) - pin.changeSequence());
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Unable to read the change sequence of " + pin.database().getDbPath(), e);
+            }
+        }
+        return behind;
+    }
+
+    /**
+     * Ends the read transactions so the WAL can be checkpointed past them.
+     */
+    @Override
+    public void close() {
+        for (Pin pin : pins) {
+            try (Connection conn = pin.connection()) {
+                conn.rollback();
+            } catch (SQLException e) {
+                logger.log(Level.FINE, "Error releasing snapshot connection", e);
+            }
+        }
+    }
+
+    static long changeSequence(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(ChangeDao.SEQUENCE_SQL)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    /**
+     * Wraps the pinned connection so the DAO's try-with-resources blocks do not close it after each query.
+     */
+    static Connection keepOpen(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if ("close".equals(method.getName())) {
+                    return null;
+                }
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    record Pin(Database database, Connection connection, long changeSequence) {
+    }
+}
@@ -0,0 +1,240 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.db.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write side of the bulk importer: multi-row inserts into expenses and approvals plus the per-source checkpoint that
+ * makes an interrupted import resumable. All methods take the caller's dedicated connection so a chunk and its
+ * checkpoint commit together.
+ */
+public class ImportDao {
+    private static final Logger logger = Logger.getLogger(ImportDao.class.getName());
+    /** Rows per INSERT statement; at 9 parameters per row this stays well below SQLite's bound-parameter limit. */
+    static final int ROWS_PER_STATEMENT = 500;
+    private static final String INSERT_EXPENSES = "INSERT INTO expenses"
+        + " (id, user_id, category, amount, description, date, status, comment, review_date) VALUES ";
+    private static final String EXPENSE_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_APPROVALS =
+        "INSERT INTO approvals (id, expense_id, status, comment, review_date) VALUES ";
+    private static final String APPROVAL_PLACEHOLDERS = "(?, ?, ?, ?, ?)";
+
+    private final Database database;
+
+    public ImportDao(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Opens an unpooled connection tuned for a long write-heavy session.
+     */
+    public Connection openImportConnection() throws SQLException {
+        Connection conn = database.newConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA cache_size = -65536");
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            stmt.execute("PRAGMA threads = 4");
+        }
+        return conn;
+    }
+
+    public long countExpenses(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT count(*) FROM expenses")) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    public void dropExpenseIndexes(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            database.dropExpenseIndexes(stmt);
+        }
+    }
+
+    public void createExpenseIndexes(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            database.createExpenseIndexes(stmt);
+        }
+    }
+
+    /**
+     * Inserts the rows, and an approvals row (without a reviewer) for each one already approved or denied, in the
+     * caller's transaction. The insert triggers stand aside for the chunk and their bookkeeping is applied set-wise
+     * at the end; see {@link Database#beginBulkLoad(Statement)}.
+     */
+    public void insertRows(Connection conn, List<Row> rows, String comment) throws SQLException {
+        if (conn.getAutoCommit()) {
+            throw new SQLException("Bulk inserts must run inside the caller's transaction");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String reviewDate = now.toLocalDate().toString();
+        String reviewTime = ExpenseDao.REVIEW_TIME.format(now);
+        List<Row> reviewed = rows.stream().filter(row -> row.approvalId() != null).toList();
+        try (Statement stmt = conn.createStatement()) {
+            long expensesAfter = maxRowid(stmt, "expenses");
+            long approvalsAfter = maxRowid(stmt, "approvals");
+            database.beginBulkLoad(stmt);
+            insertAll(conn, INSERT_EXPENSES, EXPENSE_PLACEHOLDERS, rows, (ps, index, row) -> {
+                boolean pending = row.approvalId() == null;
+                ps.setString(index++, row.id());
+                ps.setString(index++, row.userId());
+                ps.setString(index++, row.category());
+                ps.setDouble(index++, row.amount());
+                ps.setString(index++, row.description());
+                ps.setString(index++, row.date());
+                ps.setString(index++, row.status());
+                ps.setString(index++, pending ? null : comment);
+                ps.setString(index++, pending ? null : reviewDate);
+                return index;
+            });
+            insertAll(conn, INSERT_APPROVALS, APPROVAL_PLACEHOLDERS, reviewed, (ps, index, row) -> {
+                ps.setString(index++, row.approvalId());
+                ps.setString(index++, row.id());
+                ps.setString(index++, row.status());
+                ps.setString(index++, comment);
+                ps.setString(index++, reviewTime);
+                return index;
+            });
+            database.finishBulkLoad(conn, expensesAfter, approvalsAfter);
+        }
+    }
+
+    public Optional<Checkpoint> loadCheckpoint(String source) {
+        String sql = """
+                SELECT file_size, last_line, imported, rejected, quarantine_bytes, completed
+                FROM import_progress WHERE source = ?
+                """;
+        try (Connection conn = database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, source);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(new Checkpoint(source, rs.getLong("file_size"), rs.getLong("last_line"),
+                        rs.getLong("imported"), rs.getLong("rejected"), rs.getLong("quarantine_bytes"),
+                        rs.getInt("completed") != 0));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading import checkpoint for " + source, e);
+        }
+        return Optional.empty();
+    }
+
+    public void saveCheckpoint(Connection conn, Checkpoint checkpoint) throws SQLException {
+        String sql = """
+                INSERT INTO import_progress
+                    (source, file_size, last_line, imported, rejected, quarantine_bytes, completed, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                ON CONFLICT(source) DO UPDATE SET
+                    file_size = excluded.file_size,
+                    last_line = excluded.last_line,
+                    imported = excluded.imported,
+                    rejected = excluded.rejected,
+                    quarantine_bytes = excluded.quarantine_bytes,
+                    completed = excluded.completed,
+                    updated_at = excluded.updated_at
+                """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, checkpoint.source());
+            ps.setLong(2, checkpoint.fileSize());
+            ps.setLong(3, checkpoint.lastLine());
+            ps.setLong(4, checkpoint.imported());
+            ps.setLong(5, checkpoint.rejected());
+            ps.setLong(6, checkpoint.quarantineBytes());
+            ps.setInt(7, checkpoint.completed() ? 1 : 0);
+            ps.setString(8, LocalDateTime.now().toString());
+            ps.executeUpdate();
+        }
+    }
+
+    public void clearCheckpoint(String source) {
+        try (Connection conn = database.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM import_progress WHERE source = ?")) {
+            ps.setString(1, source);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error clearing import checkpoint for " + source, e);
+        }
+    }
+
+    private static long maxRowid(Statement stmt, String table) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT coalesce(max(rowid), 0) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    /**
+     * Inserts the rows using full {@link #ROWS_PER_STATEMENT}-row statements and one shorter statement for the tail.
+     */
+    private static void insertAll(Connection conn, String prefix, String placeholders, List<Row> rows,
+                                  RowBinder binder) throws SQLException {
+        int full = rows.size() / ROWS_PER_STATEMENT;
+        int offset = 0;
+        if (full > 0) {
+            try (PreparedStatement ps = conn.prepareStatement(insertSql(prefix, placeholders, ROWS_PER_STATEMENT))) {
+                for (int statement = 0; statement < full; statement++) {
+                    bind(ps, rows, offset, ROWS_PER_STATEMENT, binder);
+                    ps.executeUpdate();
+                    offset += ROWS_PER_STATEMENT;
+                }
+            }
+        }
+        int remaining = rows.size() - offset;
+        if (remaining > 0) {
+            try (PreparedStatement ps = conn.prepareStatement(insertSql(prefix, placeholders, remaining))) {
+                bind(ps, rows, offset, remaining, binder);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private static String insertSql(String prefix, String placeholders, int rows) {
+        StringBuilder sql = new StringBuilder(prefix.length() + rows * (placeholders.length() + 2));
+        sql.append(prefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholders);
+        }
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement ps, List<Row> rows, int offset, int count,
+                             RowBinder binder) throws SQLException {
+        int index = 1;
+        for (int i = offset; i < offset + count; i++) {
+            index = binder.bind(ps, index, rows.get(i));
+        }
+    }
+
+    /**
+     * An imported expense. {@code approvalId} names the approvals row of an expense imported as approved or denied,
+     * and is null for a pending one.
+     */
+    public record Row(String id, String userId, String category, double amount, String description, String date,
+                      String status, String approvalId) {
+    }
+
+    /**
+     * Binds one row's values from {@code index} on and returns the next free index.
+     */
+    @FunctionalInterface
+    private interface RowBinder {
+        int bind(PreparedStatement ps, int index, Row row) throws SQLException;
+    }
+
+    public record Checkpoint(String source, long fileSize, long lastLine, long imported, long rejected,
+                             long quarantineBytes, boolean completed) {
+    }
+}
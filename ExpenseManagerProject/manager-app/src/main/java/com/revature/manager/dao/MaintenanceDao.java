@@ -0,0 +1,366 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.db.Database;
+import org.sqlite.SQLiteConnection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Housekeeping statements for one database file. Apart from {@link #optimize(int)}, everything runs through a
+ * {@link Session} on a dedicated connection, so the pool's activity tracking only sees the app's own work.
+ */
+public class MaintenanceDao {
+    private static final Logger logger = Logger.getLogger(MaintenanceDao.class.getName());
+    private static final String ANALYZED_THROUGH_KEY = "analyzed_through";
+    private static final String CONVERSION_FAILED_AT_KEY = "incremental_conversion_failed_at";
+    private static final int BACKUP_BUSY_RETRY_MILLIS = 100;
+    private static final int BACKUP_BUSY_RETRIES = 50;
+
+    private final Database database;
+    private final Path backupPath;
+    private final ChangeDao changeDao;
+
+    /**
+     * {@code backupPath} may be null, which turns the online backup off.
+     */
+    public MaintenanceDao(Database database, Path backupPath) {
+        this.database = database;
+        this.backupPath = backupPath;
+        this.changeDao = new ChangeDao(database);
+    }
+
+    public Path getDatabasePath() {
+        return database.getDbPath();
+    }
+
+    public Path getBackupPath() {
+        return backupPath;
+    }
+
+    /**
+     * When this app last used the database through its pool; see {@link Database#lastUsedNanos()}.
+     */
+    public long lastUsedNanos() {
+        return database.lastUsedNanos();
+    }
+
+    /**
+     * A watch on commits by any other connection, the employee app's included.
+     */
+    public ChangeDao.Watch openWatch() throws SQLException {
+        return changeDao.openWatch();
+    }
+
+    /**
+     * Runs {@code PRAGMA optimize} on a pooled connection: SQLite re-analyzes the tables whose statistics that
+     * connection's own queries found out of date, reading at most about {@code analysisLimit} rows per index.
+     */
+    public void optimize(int analysisLimit) throws SQLException {
+        try (Connection conn = database.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA analysis_limit = " + analysisLimit);
+            stmt.execute("PRAGMA optimize");
+        }
+    }
+
+    public Session openSession() throws SQLException {
+        return new Session(database.newConnection());
+    }
+
+    /**
+     * Sizes in bytes; {@code autoVacuum} is SQLite's mode number (2 is incremental).
+     */
+    public record FileStats(long fileBytes, long walBytes, int pageSize, long pageCount, long freelistPages,
+                            int autoVacuum) {
+    }
+
+    public enum CheckpointMode {
+        /**
+         * Copies what it can without waiting for any reader or writer.
+         */
+        PASSIVE,
+        /**
+         * Waits (up to the busy timeout) for the writer and for readers on old snapshots, then empties the WAL file.
+         */
+        TRUNCATE
+    }
+
+    /**
+     * {@code walFrames} is -1 and {@code busy} true when the checkpoint could not start.
+     */
+    public record Checkpoint(boolean busy, int walFrames, int checkpointedFrames) {
+        public boolean isComplete() {
+            return !busy && walFrames == checkpointedFrames;
+        }
+    }
+
+    /**
+     * Called on the backup thread after each step; sleeping in it throttles the copy.
+     */
+    @FunctionalInterface
+    public interface BackupThrottle {
+        void afterStep(int remainingPages, int totalPages);
+    }
+
+    /**
+     * A dedicated connection for one maintenance pass. Close it to release the connection.
+     */
+    public final class Session implements AutoCloseable {
+        private final Connection connection;
+
+        private Session(Connection connection) {
+            this.connection = connection;
+        }
+
+        public FileStats fileStats() throws SQLException {
+            Path dbPath = database.getDbPath();
+            return new FileStats(sizeOf(dbPath), sizeOf(dbPath.resolveSibling(dbPath.getFileName() + "-wal")),
+                (int) readLong("PRAGMA page_size"), readLong("PRAGMA page_count"), readLong("PRAGMA freelist_count"),
+                (int) readLong("PRAGMA auto_vacuum"));
+        }
+
+        /**
+         * Changes ever written to change_log. Unlike {@code max(seq)} this keeps counting after the log is pruned.
+         */
+        public long changeCount() throws SQLException {
+            return readLong(ChangeDao.SEQUENCE_SQL);
+        }
+
+        /**
+         * The highest change_log entry no reader still needs: everything but the newest {@code retain} changes, and
+         * nothing duplicate detection has yet to sign. Readers that keep their position in memory (budgets, the
+         * live tail, async clients) rely on the retained tail.
+         */
+        public long changeLogPruneFloor(long retain) throws SQLException {
+            long floor = changeCount() - retain;
+            try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT value FROM duplicate_meta WHERE key = ?")) {
+                ps.setString(1, DuplicateDao.SIGNED_THROUGH_KEY);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        floor = Math.min(floor, rs.getLong(1));
+                    }
+                }
+            }
+            return floor;
+        }
+
+        /**
+         * Deletes up to {@code limit} of the oldest change_log entries at or below {@code throughSeq}, in one write
+         * transaction. Returns the entries deleted.
+         */
+        public int pruneChangeLog(long throughSeq, int limit) throws SQLException {
+            try (PreparedStatement ps = connection.prepareStatement("""
+                    DELETE FROM change_log
+                    WHERE seq IN (SELECT seq FROM change_log WHERE seq <= ? ORDER BY seq LIMIT ?)
+                    """)) {
+                ps.setLong(1, throughSeq);
+                ps.setInt(2, limit);
+                return ps.executeUpdate();
+            }
+        }
+
+        /**
+         * The {@link #changeCount()} at the last ANALYZE run here, or -1 if there was none.
+         */
+        public long analyzedThrough() throws SQLException {
+            return readMeta(ANALYZED_THROUGH_KEY);
+        }
+
+        /**
+         * Rows the expenses table had when it was last analyzed, or 0 without statistics.
+         */
+        public long analyzedExpenseRows() throws SQLException {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT stat FROM sqlite_stat1 WHERE tbl = 'expenses' LIMIT 1")) {
+                if (!rs.next() || rs.getString(1) == null) {
+                    return 0L;
+                }
+                String stat = rs.getString(1);
+                int space = stat.indexOf(' ');
+                try {
+                    return Long.parseLong(space < 0 ? stat : stat.substring(0, space));
+                } catch (NumberFormatException e) {
+                    return 0L;
+                }
+            }
+        }
+
+        /**
+         * Refreshes the planner statistics of every table and index, sampling about {@code analysisLimit} rows per
+         * index, and records {@code changeCount} as the point they were taken at. Pooled connections only load the
+         * new statistics once reopened, so their idle connections are dropped.
+         */
+        public void analyze(int analysisLimit, long changeCount) throws SQLException {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA analysis_limit = " + analysisLimit);
+                stmt.execute("ANALYZE");
+            }
+            writeMeta(ANALYZED_THROUGH_KEY, changeCount);
+            database.reopenPooledConnections();
+        }
+
+        /**
+         * Switches the file to incremental auto-vacuum. A file that already has tables only takes the new mode through
+         * a full {@code VACUUM}, which rewrites it in one write transaction that cannot be stopped half way; other
+         * connections can read meanwhile but not write. A failure is recorded for
+         * {@link #incrementalConversionFailedAt()} and rethrown.
+         */
+        public void convertToIncrementalVacuum() throws SQLException {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+                stmt.execute("VACUUM");
+            } catch (SQLException e) {
+                try {
+                    writeMeta(CONVERSION_FAILED_AT_KEY, System.currentTimeMillis());
+                } catch (SQLException recordFailure) {
+                    e.addSuppressed(recordFailure);
+                }
+                throw e;
+            }
+            try (PreparedStatement ps = connection.prepareStatement("DELETE FROM maintenance_meta WHERE key = ?")) {
+                ps.setString(1, CONVERSION_FAILED_AT_KEY);
+                ps.executeUpdate();
+            }
+        }
+
+        /**
+         * When the last {@link #convertToIncrementalVacuum()} failed, in epoch milliseconds, or -1 if none has.
+         */
+        public long incrementalConversionFailedAt() throws SQLException {
+            return readMeta(CONVERSION_FAILED_AT_KEY);
+        }
+
+        /**
+         * Moves up to {@code pages} free pages to the end of the file and cuts them off, in one write transaction.
+         * The file itself only shrinks once the change is checkpointed. Returns the pages released.
+         */
+        public long incrementalVacuum(int pages) throws SQLException {
+            long before = readLong("PRAGMA freelist_count");
+            long steps = Math.min(pages, before);
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = connection.prepareStatement("PRAGMA incremental_vacuum")) {
+                    // The driver steps a statement without result columns only once, which releases a single page.
+                    for (long i = 0; i < steps; i++) {
+                        ps.execute();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return before - readLong("PRAGMA freelist_count");
+        }
+
+        public Checkpoint checkpoint(CheckpointMode mode, int busyTimeoutMillis) throws SQLException {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+                try (ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode.name() + ")")) {
+                    if (!rs.next()) {
+                        return new Checkpoint(true, -1, 0);
+                    }
+                    return new Checkpoint(rs.getInt(1) != 0, rs.getInt(2), rs.getInt(3));
+                }
+            }
+        }
+
+        /**
+         * Copies the database to the backup path through SQLite's online backup API, {@code pagesPerStep} pages at a
+         * time. The whole copy reads from one snapshot held open on this connection: other connections keep
+         * committing (under WAL a reader never blocks a writer), the copy never has to start over because of them,
+         * and it holds exactly one committed state. The WAL cannot be checkpointed past that snapshot until the copy
+         * ends. The copy is written next to the target and renamed over it at the end, so an interrupted backup never
+         * replaces a good one. Returns the pages copied.
+         */
+        public int backup(int pagesPerStep, BackupThrottle throttle) throws SQLException {
+            if (backupPath == null) {
+                throw new SQLException("No backup location configured");
+            }
+            Path partial = backupPath.resolveSibling(backupPath.getFileName() + ".partial");
+            Path partialJournal = partial.resolveSibling(partial.getFileName() + "-journal");
+            int[] total = {0};
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                Files.createDirectories(backupPath.toAbsolutePath().getParent());
+                Files.deleteIfExists(partial);
+                // BEGIN is deferred; this read takes the snapshot that every backup step then reuses.
+                stmt.executeQuery("SELECT count(*) FROM sqlite_master").close();
+                int rc = connection.unwrap(SQLiteConnection.class).getDatabase().backup("main",
+                    partial.toAbsolutePath().toString(), (remaining, pageCount) -> {
+                        total[0] = pageCount;
+                        throttle.afterStep(remaining, pageCount);
+                    }, BACKUP_BUSY_RETRY_MILLIS, BACKUP_BUSY_RETRIES, pagesPerStep);
+                if (rc != 0) {
+                    throw new SQLException("Backup of " + database.getDbPath() + " failed with SQLite code " + rc);
+                }
+                Files.move(partial, backupPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return total[0];
+            } catch (IOException e) {
+                throw new SQLException("Unable to write backup " + backupPath, e);
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+                try {
+                    Files.deleteIfExists(partial);
+                    Files.deleteIfExists(partialJournal);
+                } catch (IOException e) {
+                    logger.log(Level.FINE, "Unable to remove partial backup " + partial, e);
+                }
+            }
+        }
+
+        private long readMeta(String key) throws SQLException {
+            try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT value FROM maintenance_meta WHERE key = ?")) {
+                ps.setString(1, key);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : -1L;
+                }
+            }
+        }
+
+        private void writeMeta(String key, long value) throws SQLException {
+            try (PreparedStatement ps = connection.prepareStatement("""
+                    INSERT INTO maintenance_meta (key, value) VALUES (?, ?)
+                    ON CONFLICT (key) DO UPDATE SET value = excluded.value
+                    """)) {
+                ps.setString(1, key);
+                ps.setLong(2, value);
+                ps.executeUpdate();
+            }
+        }
+
+        private long readLong(String sql) throws SQLException {
+            try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+
+        private long sizeOf(Path file) {
+            try {
+                return Files.exists(file) ? Files.size(file) : 0L;
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Unable to read the size of " + file, e);
+                return 0L;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+}
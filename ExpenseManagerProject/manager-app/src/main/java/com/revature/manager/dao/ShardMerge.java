@@ -0,0 +1,115 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.model.Expense;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streaming k-way merge of per-shard cursors. Every shard query runs on its own thread and feeds a small bounded
+ * queue; the calling thread repeatedly emits the smallest head, so memory stays at k queues regardless of result size.
+ */
+final class ShardMerge {
+    private static final Logger logger = Logger.getLogger(ShardMerge.class.getName());
+    private static final int QUEUE_CAPACITY = 256;
+    private static final Object END = new Object();
+
+    private ShardMerge() {
+        // Utility class; no instances required.
+    }
+
+    static void mergeSorted(List<ExpenseRepository> shards,
+                            BiConsumer<ExpenseRepository, Consumer<Expense>> query,
+                            Comparator<Expense> order,
+                            Consumer<Expense> sink,
+                            ExecutorService executor) {
+        int k = shards.size();
+        List<BlockingQueue<Object>> queues = new ArrayList<>(k);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        for (int i = 0; i < k; i++) {
+            BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            queues.add(queue);
+            ExpenseRepository shard = shards.get(i);
+            executor.execute(() -> {
+                try {
+                    query.accept(shard, expense -> put(queue, expense, cancelled));
+                } catch (CancellationException e) {
+                    // The consumer stopped early; closing the cursor is all that is left to do.
+                } catch (RuntimeException e) {
+                    logger.log(Level.SEVERE, "Shard query failed during merge", e);
+                } finally {
+                    put(queue, END, cancelled);
+                }
+            });
+        }
+
+        // Ties keep shard order so the merge is deterministic.
+        Comparator<Head> headOrder = Comparator.<Head, Expense>comparing(head -> head.expense, order)
+            .thenComparingInt(head -> head.shard);
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, k), headOrder);
+        try {
+            for (int i = 0; i < k; i++) {
+                advance(queues, i, heads);
+            }
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                sink.accept(head.expense);
+                advance(queues, head.shard, heads);
+            }
+        } finally {
+            // No-op after a complete merge; after an early exit it releases producers blocked on full queues.
+            cancelled.set(true);
+            queues.forEach(BlockingQueue::clear);
+        }
+    }
+
+    private static void advance(List<BlockingQueue<Object>> queues, int shard, PriorityQueue<Head> heads) {
+        Object next = take(queues.get(shard));
+        if (next != END) {
+            heads.add(new Head((Expense) next, shard));
+        }
+    }
+
+    private static Object take(BlockingQueue<Object> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while merging shard results");
+        }
+    }
+
+    /**
+     * Blocks while the consumer is behind, but gives up once the merge has been abandoned.
+     */
+    private static void put(BlockingQueue<Object> queue, Object item, AtomicBoolean cancelled) {
+        try {
+            while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                if (cancelled.get()) {
+                    if (item == END) {
+                        return;
+                    }
+                    throw new CancellationException("Shard merge abandoned");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while producing shard results");
+        }
+    }
+
+    private record Head(Expense expense, int shard) {
+    }
+}
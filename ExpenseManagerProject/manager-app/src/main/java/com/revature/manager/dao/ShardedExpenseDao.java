@@ -0,0 +1,255 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.model.DailyTotals;
+import com.revature.manager.model.Expense;
+import com.revature.manager.model.ExpenseCriteria;
+import com.revature.manager.model.ExpenseTotals;
+import com.revature.manager.model.RunningStats;
+import com.revature.manager.model.SpendingStats;
+import com.revature.manager.model.UserReviewHistory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Expense data layer over one SQLite file per region. User-scoped reads go to the shard that owns the user; every
+ * other report runs on all shards in parallel (each shard bounded by its own connection pool) and is merged back into
+ * the single-database ORDER BY date order.
+ */
+public class ShardedExpenseDao implements ExpenseRepository {
+    private static final Comparator<Expense> BY_DATE = Comparator.comparing(Expense::getDate);
+
+    private final List<ExpenseRepository> shards;
+    private final ShardedUserDao userDao;
+    private final ExecutorService executor;
+
+    public ShardedExpenseDao(List<? extends ExpenseRepository> shards, ShardedUserDao userDao) {
+        this(shards, userDao, Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "shard-query");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Snapshot views share the query threads of the DAO they were opened from.
+     */
+    private ShardedExpenseDao(List<? extends ExpenseRepository> shards, ShardedUserDao userDao,
+                              ExecutorService executor) {
+        this.shards = List.copyOf(shards);
+        this.userDao = userDao;
+        this.executor = executor;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    @Override
+    public void streamPending(Consumer<Expense> sink) {
+        merge(ExpenseRepository::streamPending, BY_DATE, sink);
+    }
+
+    @Override
+    public void streamByUser(String userId, Consumer<Expense> sink) {
+        OptionalInt owner = userDao.shardOf(userId);
+        if (owner.isPresent()) {
+            shards.get(owner.getAsInt()).streamByUser(userId, sink);
+        } else {
+            merge((shard, shardSink) -> shard.streamByUser(userId, shardSink), BY_DATE.reversed(), sink);
+        }
+    }
+
+    @Override
+    public void streamByStatus(String status, Consumer<Expense> sink) {
+        merge((shard, shardSink) -> shard.streamByStatus(status, shardSink), BY_DATE.reversed(), sink);
+    }
+
+    @Override
+    public void streamByCategory(String category, Consumer<Expense> sink) {
+        merge((shard, shardSink) -> shard.streamByCategory(category, shardSink), BY_DATE.reversed(), sink);
+    }
+
+    @Override
+    public void streamByDateRange(String startDateInclusive, String endDateInclusive, Consumer<Expense> sink) {
+        merge((shard, shardSink) -> shard.streamByDateRange(startDateInclusive, endDateInclusive, shardSink),
+            BY_DATE, sink);
+    }
+
+    @Override
+    public void streamByStatusAndDateRange(String status, String startDateInclusive, String endDateInclusive,
+                                           Consumer<Expense> sink) {
+        merge((shard, shardSink) -> shard.streamByStatusAndDateRange(status, startDateInclusive, endDateInclusive,
+            shardSink), BY_DATE, sink);
+    }
+
+    /**
+     * Criteria naming a user run on that user's shard only. Otherwise every shard runs them (with the same limit) and
+     * the merge stops once the limit is reached.
+     */
+    @Override
+    public void streamMatching(ExpenseCriteria criteria, Consumer<Expense> sink) {
+        OptionalInt owner = criteria.getUserId().map(userDao::shardOf).orElse(OptionalInt.empty());
+        if (owner.isPresent()) {
+            shards.get(owner.getAsInt()).streamMatching(criteria, sink);
+            return;
+        }
+        int limit = criteria.getLimit();
+        int[] emitted = {0};
+        try {
+            merge((shard, shardSink) -> shard.streamMatching(criteria, shardSink), criteria.getSort().getOrder(),
+                expense -> {
+                    sink.accept(expense);
+                    if (limit > 0 && ++emitted[0] >= limit) {
+                        throw new CancellationException("Limit reached");
+                    }
+                });
+        } catch (CancellationException e) {
+            if (limit == 0 || emitted[0] < limit) {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public List<ExpenseTotals> totalsByStatus() {
+        return mergeTotals(ExpenseRepository::totalsByStatus);
+    }
+
+    @Override
+    public List<ExpenseTotals> totalsByCategory() {
+        return mergeTotals(ExpenseRepository::totalsByCategory);
+    }
+
+    /**
+     * Shard rows are concatenated; a day, status and category present on several shards appears once per shard.
+     */
+    @Override
+    public List<DailyTotals> dailyTotals(String startDateInclusive, String endDateInclusive) {
+        List<DailyTotals> result = new ArrayList<>();
+        fanOut(shard -> shard.dailyTotals(startDateInclusive, endDateInclusive)).forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * One snapshot per shard, taken one after another: each shard is consistent with itself, but a write landing on a
+     * second shard while the first is being pinned can be seen there and not on the first.
+     */
+    @Override
+    public ExpenseSnapshot openSnapshot() throws SQLException {
+        List<ExpenseSnapshot> parts = new ArrayList<>(shards.size());
+        try {
+            for (ExpenseRepository shard : shards) {
+                parts.add(shard.openSnapshot());
+            }
+        } catch (SQLException | RuntimeException e) {
+            parts.forEach(ExpenseSnapshot::close);
+            throw e;
+        }
+        List<ExpenseRepository> views = new ArrayList<>(parts.size());
+        parts.forEach(part -> views.add(part.getDao()));
+        return ExpenseSnapshot.combine(new ShardedExpenseDao(views, userDao, executor), parts);
+    }
+
+    @Override
+    public List<Expense> findByIds(Collection<String> expenseIds) {
+        List<Expense> result = new ArrayList<>();
+        fanOut(shard -> shard.findByIds(expenseIds)).forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * Expense ids are UUIDs, so at most one shard holds the row; the others update nothing and return false.
+     */
+    @Override
+    public boolean updateStatus(String expenseId, String status, String reviewer, String comment) {
+        for (ExpenseRepository shard : shards) {
+            if (shard.updateStatus(expenseId, status, reviewer, comment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Every shard sees the whole batch; the pending-only WHERE clause matches nothing on shards that do not hold an
+     * id, so the counts add up to the rows actually changed.
+     */
+    @Override
+    public int updateStatusBatch(List<StatusChange> changes, String reviewer) {
+        int updated = 0;
+        for (int count : fanOut(shard -> shard.updateStatusBatch(changes, reviewer))) {
+            updated += count;
+        }
+        return updated;
+    }
+
+    /**
+     * Users live on exactly one shard, so the per-shard maps never overlap.
+     */
+    @Override
+    public Map<String, UserReviewHistory> reviewHistoryByUser() {
+        Map<String, UserReviewHistory> merged = new HashMap<>();
+        fanOut(ExpenseRepository::reviewHistoryByUser).forEach(merged::putAll);
+        return merged;
+    }
+
+    /**
+     * User statistics are shard-local; category and overall statistics are combined across shards.
+     */
+    @Override
+    public SpendingStats spendingStats() {
+        Map<String, RunningStats> byUser = new HashMap<>();
+        Map<String, RunningStats> byCategory = new HashMap<>();
+        RunningStats overall = null;
+        for (SpendingStats shardStats : fanOut(ExpenseRepository::spendingStats)) {
+            byUser.putAll(shardStats.getByUser());
+            shardStats.getByCategory().forEach((category, stats) -> byCategory.merge(category, stats, RunningStats::merge));
+            overall = RunningStats.merge(overall, shardStats.getOverall());
+        }
+        return new SpendingStats(byUser, byCategory, overall);
+    }
+
+    private void merge(BiConsumer<ExpenseRepository, Consumer<Expense>> query, Comparator<Expense> order,
+                       Consumer<Expense> sink) {
+        ShardMerge.mergeSorted(shards, query, order, sink, executor);
+    }
+
+    private List<ExpenseTotals> mergeTotals(Function<ExpenseRepository, List<ExpenseTotals>> query) {
+        Map<String, long[]> counts = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        Map<String, Double> amounts = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (List<ExpenseTotals> shardTotals : fanOut(query)) {
+            for (ExpenseTotals totals : shardTotals) {
+                counts.computeIfAbsent(totals.getKey(), key -> new long[1])[0] += totals.getCount();
+                amounts.merge(totals.getKey(), totals.getAmount(), Double::sum);
+            }
+        }
+        List<ExpenseTotals> merged = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> merged.add(new ExpenseTotals(key, count[0], amounts.get(key))));
+        return merged;
+    }
+
+    private <T> List<T> fanOut(Function<ExpenseRepository, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (ExpenseRepository shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        futures.forEach(future -> results.add(future.join()));
+        return results;
+    }
+}
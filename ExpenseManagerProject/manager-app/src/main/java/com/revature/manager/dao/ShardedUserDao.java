@@ -0,0 +1,78 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Looks users up across every shard and remembers which shard owns each user id, so user-scoped expense queries can
+ * be routed to a single database.
+ */
+public class ShardedUserDao implements UserRepository {
+    private final List<UserRepository> shards;
+    private final Map<String, Integer> owners = new ConcurrentHashMap<>();
+
+    public ShardedUserDao(List<? extends UserRepository> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        for (int i = 0; i < shards.size(); i++) {
+            Optional<User> user = shards.get(i).findByUsername(username);
+            if (user.isPresent()) {
+                owners.put(user.get().getId(), i);
+                return user;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<User> findById(String id) {
+        Integer owner = owners.get(id);
+        if (owner != null) {
+            Optional<User> user = shards.get(owner).findById(id);
+            if (user.isPresent()) {
+                return user;
+            }
+            owners.remove(id, owner);
+        }
+        for (int i = 0; i < shards.size(); i++) {
+            Optional<User> user = shards.get(i).findById(id);
+            if (user.isPresent()) {
+                owners.put(id, i);
+                return user;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<User> listAll() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            for (User user : shards.get(i).listAll()) {
+                owners.put(user.getId(), i);
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Index of the shard holding the user, or empty when no shard knows the id.
+     */
+    public OptionalInt shardOf(String userId) {
+        Integer owner = owners.get(userId);
+        if (owner == null && findById(userId).isPresent()) {
+            owner = owners.get(userId);
+        }
+        return owner == null ? OptionalInt.empty() : OptionalInt.of(owner);
+    }
+}
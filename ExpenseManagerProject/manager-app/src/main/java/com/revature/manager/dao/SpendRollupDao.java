@@ -0,0 +1,212 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.db.Database;
+import com.revature.manager.model.MonthlySpend;
+import com.revature.manager.utils.KllSketch;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-month rollups of approved spending, cached in the report_month_* tables of one database. Months missing from
+ * the cache are rebuilt together in a single streaming pass over the approved expenses and written back; cached
+ * months are read as stored sketches and totals without touching the expenses table.
+ */
+public class SpendRollupDao {
+    private static final Logger logger = Logger.getLogger(SpendRollupDao.class.getName());
+
+    private final Database database;
+    private final ExpenseDao expenseDao;
+
+    public SpendRollupDao(Database database, ExpenseDao expenseDao) {
+        this.database = database;
+        this.expenseDao = expenseDao;
+    }
+
+    /**
+     * Returns one rollup per month from {@code from} to {@code to} inclusive, in month order.
+     */
+    public List<MonthlySpend> monthlySpend(YearMonth from, YearMonth to) {
+        Map<YearMonth, MonthlySpend> months = new TreeMap<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            months.put(month, null);
+        }
+
+        long changeSequence = 0;
+        try (Connection conn = database.getConnection()) {
+            changeSequence = currentChangeSequence(conn);
+            loadCached(conn, from, to, builtMonths(conn, from, to), months);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading cached spending rollups", e);
+            months.replaceAll((month, spend) -> null);
+        }
+
+        List<YearMonth> missing = new ArrayList<>();
+        months.forEach((month, spend) -> {
+            if (spend == null) {
+                missing.add(month);
+            }
+        });
+        if (!missing.isEmpty()) {
+            Map<YearMonth, MonthlySpend> built = build(missing);
+            months.putAll(built);
+            save(built, changeSequence);
+        }
+        return new ArrayList<>(months.values());
+    }
+
+    private Map<YearMonth, MonthlySpend> build(List<YearMonth> missing) {
+        Map<String, MonthlySpend> byKey = new LinkedHashMap<>();
+        for (YearMonth month : missing) {
+            byKey.put(month.toString(), new MonthlySpend(month));
+        }
+        YearMonth first = missing.get(0);
+        YearMonth last = missing.get(missing.size() - 1);
+        long started = System.nanoTime();
+        long[] rows = new long[1];
+        expenseDao.streamByStatusAndDateRange("approved", first.atDay(1).toString(), last.atEndOfMonth().toString(),
+            expense -> {
+                // The pass spans from the first to the last missing month; rows of cached months in between are
+                // skipped here rather than split into several queries.
+                MonthlySpend spend = byKey.get(expense.getDate().substring(0, 7));
+                if (spend != null) {
+                    spend.add(expense.getCategory(), expense.getUserId(), expense.getAmount());
+                    rows[0]++;
+                }
+            });
+        logger.info("Rebuilt " + missing.size() + " monthly spending rollups from " + rows[0] + " approved expenses in "
+            + (System.nanoTime() - started) / 1_000_000 + " ms");
+
+        Map<YearMonth, MonthlySpend> result = new TreeMap<>();
+        byKey.values().forEach(spend -> result.put(spend.getMonth(), spend));
+        return result;
+    }
+
+    /**
+     * Stores freshly built months, then un-marks any month whose approved expenses changed after
+     * {@code changeSequence} (while the pass was running), so a rollup that missed a concurrent approval is never
+     * served from the cache.
+     */
+    private void save(Map<YearMonth, MonthlySpend> built, long changeSequence) {
+        String builtAt = LocalDateTime.now().toString();
+        try (Connection conn = database.getConnection();
+             PreparedStatement clearCategories = conn.prepareStatement(
+                 "DELETE FROM report_month_category WHERE month = ?");
+             PreparedStatement clearUsers = conn.prepareStatement("DELETE FROM report_month_user WHERE month = ?");
+             PreparedStatement insertCategory = conn.prepareStatement(
+                 "INSERT INTO report_month_category (month, category, sketch) VALUES (?, ?, ?)");
+             PreparedStatement insertUser = conn.prepareStatement(
+                 "INSERT INTO report_month_user (month, user_id, expenses, amount) VALUES (?, ?, ?, ?)");
+             PreparedStatement markBuilt = conn.prepareStatement(
+                 "INSERT OR REPLACE INTO report_month_built (month, built_at) VALUES (?, ?)");
+             PreparedStatement unmarkChanged = conn.prepareStatement("""
+                 DELETE FROM report_month_built WHERE month IN (
+                     SELECT substr(e.date, 1, 7) FROM change_log c JOIN expenses e ON e.id = c.expense_id
+                     WHERE c.table_name = 'expenses' AND c.seq > ?)
+                 """)) {
+            conn.setAutoCommit(false);
+            for (MonthlySpend spend : built.values()) {
+                String month = spend.getMonth().toString();
+                clearCategories.setString(1, month);
+                clearCategories.executeUpdate();
+                clearUsers.setString(1, month);
+                clearUsers.executeUpdate();
+                for (Map.Entry<String, KllSketch> entry : spend.getSketchesByCategory().entrySet()) {
+                    insertCategory.setString(1, month);
+                    insertCategory.setString(2, entry.getKey());
+                    insertCategory.setBytes(3, entry.getValue().toBytes());
+                    insertCategory.addBatch();
+                }
+                insertCategory.executeBatch();
+                for (Map.Entry<String, MonthlySpend.UserSpend> entry : spend.getSpendByUser().entrySet()) {
+                    insertUser.setString(1, month);
+                    insertUser.setString(2, entry.getKey());
+                    insertUser.setLong(3, entry.getValue().getCount());
+                    insertUser.setDouble(4, entry.getValue().getAmount());
+                    insertUser.addBatch();
+                }
+                insertUser.executeBatch();
+                markBuilt.setString(1, month);
+                markBuilt.setString(2, builtAt);
+                markBuilt.executeUpdate();
+            }
+            unmarkChanged.setLong(1, changeSequence);
+            unmarkChanged.executeUpdate();
+            conn.commit();
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to cache spending rollups", e);
+        }
+    }
+
+    private long currentChangeSequence(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(ChangeDao.SEQUENCE_SQL)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    private Set<YearMonth> builtMonths(Connection conn, YearMonth from, YearMonth to) throws SQLException {
+        Set<YearMonth> built = new HashSet<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+            "SELECT month FROM report_month_built WHERE month BETWEEN ? AND ?")) {
+            ps.setString(1, from.toString());
+            ps.setString(2, to.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    built.add(YearMonth.parse(rs.getString("month")));
+                }
+            }
+        }
+        return built;
+    }
+
+    private void loadCached(Connection conn, YearMonth from, YearMonth to, Set<YearMonth> cached,
+                            Map<YearMonth, MonthlySpend> months) throws SQLException {
+        for (YearMonth month : cached) {
+            months.put(month, new MonthlySpend(month));
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+            "SELECT month, category, sketch FROM report_month_category WHERE month BETWEEN ? AND ?")) {
+            ps.setString(1, from.toString());
+            ps.setString(2, to.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    MonthlySpend spend = months.get(YearMonth.parse(rs.getString("month")));
+                    if (spend != null) {
+                        spend.getSketchesByCategory().put(rs.getString("category"),
+                            KllSketch.fromBytes(rs.getBytes("sketch")));
+                    }
+                }
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+            "SELECT month, user_id, expenses, amount FROM report_month_user WHERE month BETWEEN ? AND ?")) {
+            ps.setString(1, from.toString());
+            ps.setString(2, to.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    MonthlySpend spend = months.get(YearMonth.parse(rs.getString("month")));
+                    if (spend != null) {
+                        spend.getSpendByUser().put(rs.getString("user_id"),
+                            new MonthlySpend.UserSpend(rs.getLong("expenses"), rs.getDouble("amount")));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.model.User;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process cache of the users table keyed by id and by lower-cased username.
+ *
+ * <p>Misses read through to the {@link UserRepository} so users created by the Python app show up on first use. Rows
+ * that change underneath us (password or role edits, deletes) are picked up by {@link #invalidate(String)},
+ * {@link #invalidateAll()}, or automatically once the cache is older than its maximum age. Expiry reloads the table in
+ * one query and swaps the rows in place; lookups meanwhile keep being answered from the previous contents.</p>
+ */
+public class UserCache {
+    private static final Logger logger = Logger.getLogger(UserCache.class.getName());
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(5);
+
+    private final UserRepository userDao;
+    private final long maxAgeNanos;
+    private final Map<String, User> byId = new ConcurrentHashMap<>();
+    private final Map<String, User> byUsername = new ConcurrentHashMap<>();
+    private final Set<String> missingIds = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile long loadedAt;
+
+    public UserCache(UserRepository userDao) {
+        this(userDao, DEFAULT_MAX_AGE);
+    }
+
+    public UserCache(UserRepository userDao, Duration maxAge) {
+        this.userDao = userDao;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.loadedAt = System.nanoTime();
+    }
+
+    /**
+     * Replaces the cache contents with every row of the users table.
+     */
+    public void preload() {
+        reloadLock.lock();
+        try {
+            int loaded = reload();
+            logger.log(Level.INFO, () -> "Preloaded " + loaded + " users into cache");
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    public Optional<User> findById(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        expireIfStale();
+        User cached = byId.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (missingIds.contains(id)) {
+            return Optional.empty();
+        }
+        Optional<User> loaded = userDao.findById(id);
+        loaded.ifPresentOrElse(this::put, () -> missingIds.add(id));
+        return loaded;
+    }
+
+    public Optional<User> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        expireIfStale();
+        User cached = byUsername.get(key(username));
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<User> loaded = userDao.findByUsername(username);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    /**
+     * Resolves a user id to a username, or null when the user no longer exists.
+     */
+    public String usernameOf(String userId) {
+        return findById(userId).map(User::getUsername).orElse(null);
+    }
+
+    /**
+     * Resolves a user id while the caller holds {@code conn}, for instance with a cursor open on it: a miss is read
+     * on that same connection, and an expired cache is left for the next ordinary lookup to reload, so the call never
+     * waits for another connection. Returns null when the database behind {@code conn} has no such user.
+     */
+    String usernameOf(String userId, Connection conn) throws SQLException {
+        if (userId == null) {
+            return null;
+        }
+        User cached = byId.get(userId);
+        if (cached != null) {
+            return cached.getUsername();
+        }
+        if (missingIds.contains(userId)) {
+            return null;
+        }
+        // A miss here is not remembered: on a shard the user may simply live in another file.
+        Optional<User> loaded = UserDao.findById(conn, userId);
+        loaded.ifPresent(this::put);
+        return loaded.map(User::getUsername).orElse(null);
+    }
+
+    /**
+     * Drops a single user so the next lookup re-reads it from the database.
+     */
+    public void invalidate(String userId) {
+        User removed = byId.remove(userId);
+        if (removed != null) {
+            byUsername.remove(key(removed.getUsername()), removed);
+        }
+        missingIds.remove(userId);
+    }
+
+    /**
+     * Drops everything; call after users are modified outside this process.
+     */
+    public void invalidateAll() {
+        reloadLock.lock();
+        try {
+            clear();
+            loadedAt = System.nanoTime();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads the cache once it is older than its maximum age. Only one caller reloads; the others go on with the
+     * current contents rather than wait.
+     */
+    private void expireIfStale() {
+        if (System.nanoTime() - loadedAt <= maxAgeNanos || !reloadLock.tryLock()) {
+            return;
+        }
+        try {
+            if (System.nanoTime() - loadedAt > maxAgeNanos) {
+                int loaded = reload();
+                logger.log(Level.FINE, () -> "Refreshed " + loaded + " cached users");
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Puts every row of the users table and then drops the users that are gone, so no lookup ever finds the cache
+     * empty. A read that fails returns no rows; the current contents are kept then and retried after the next expiry.
+     */
+    private int reload() {
+        List<User> users = userDao.listAll();
+        loadedAt = System.nanoTime();
+        if (users.isEmpty()) {
+            return 0;
+        }
+        Set<String> ids = new HashSet<>();
+        for (User user : users) {
+            put(user);
+            ids.add(user.getId());
+        }
+        for (String id : List.copyOf(byId.keySet())) {
+            if (!ids.contains(id)) {
+                invalidate(id);
+            }
+        }
+        missingIds.clear();
+        return users.size();
+    }
+
+    private void put(User user) {
+        User previous = byId.put(user.getId(), user);
+        if (previous != null) {
+            byUsername.remove(key(previous.getUsername()), previous);
+        }
+        byUsername.put(key(user.getUsername()), user);
+        missingIds.remove(user.getId());
+    }
+
+    private void clear() {
+        byId.clear();
+        byUsername.clear();
+        missingIds.clear();
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,5 +1,6 @@
 package com.revature.manager.dao;
 
+import com.revature.manager.db.ConnectionPool;
 import com.revature.manager.db.Database;
 import com.revature.manager.model.User;
 
@@ -7,12 +8,15 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class UserDao {
+public class UserDao implements UserRepository {
     private static final Logger logger = Logger.getLogger(UserDao.class.getName());
+    private static final String SELECT_USERS = "SELECT id, username, password, role FROM users";
 
     private final Database database;
 
@@ -20,23 +24,67 @@ public class UserDao {
         this.database = database;
     }
 
+    /**
+     * The predicate matches the expression index idx_users_username_lower exactly,
+     * so SQLite searches the index instead of scanning users.
+     */
+    @Override
     public Optional<User> findByUsername(String username) {
-        String sql = "SELECT id, username, password, role FROM users WHERE lower(username) = lower(?)";
+        return findOne("WHERE lower(username) = lower(?)", username);
+    }
+
+    @Override
+    public Optional<User> findById(String id) {
+        return findOne("WHERE id = ?", id);
+    }
+
+    /**
+     * Loads every user in one pass.
+     */
+    @Override
+    public List<User> listAll() {
+        List<User> users = new ArrayList<>();
+        try (Connection conn = database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_USERS);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                users.add(mapUser(rs));
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error loading users", e);
+        }
+        return users;
+    }
+
+    /**
+     * Looks a user up on a connection the caller already holds, such as one with an expense cursor still open, so no
+     * second connection is borrowed.
+     */
+    static Optional<User> findById(Connection conn, String id) throws SQLException {
+        try (PreparedStatement ps = ConnectionPool.prepareCached(conn, SELECT_USERS + " WHERE id = ?")) {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.of(mapUser(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    private Optional<User> findOne(String clause, String value) {
         try (Connection conn = database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, username);
+             PreparedStatement ps = conn.prepareStatement(SELECT_USERS + " " + clause)) {
+            ps.setString(1, value);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     return Optional.of(mapUser(rs));
                 }
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Error looking up user " + username, e);
+            logger.log(Level.SEVERE, "Error looking up user " + value, e);
         }
         return Optional.empty();
     }
 
-    private User mapUser(ResultSet rs) throws SQLException {
+    private static User mapUser(ResultSet rs) throws SQLException {
         return new User(
             rs.getString("id"),
             rs.getString("username"),
@@ -0,0 +1,24 @@
+package com.revature.manager.dao;
+
+import com.revature.manager.model.User;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * User lookups, served by one database file ({@link UserDao}) or by one per region ({@link ShardedUserDao}).
+ */
+public interface UserRepository {
+
+    /**
+     * Case-insensitive lookup.
+     */
+    Optional<User> findByUsername(String username);
+
+    Optional<User> findById(String id);
+
+    /**
+     * Loads every user, used to warm the {@link UserCache}. Empty when the users could not be read.
+     */
+    List<User> listAll();
+}
@@ -0,0 +1,226 @@
+package com.revature.manager.db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fixed-size pool of SQLite connections. Borrowed connections are proxies whose {@code close()} hands the physical
+ * connection back to the pool, so DAOs keep using try-with-resources unchanged. Each physical connection also keeps
+ * a {@link StatementCache}, used through {@link #prepareCached(Connection, String)}.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final Database database;
+    private final int size;
+    private final Semaphore permits;
+    private final BlockingQueue<Connection> idle;
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private final ThreadLocal<AtomicInteger> heldByThread = ThreadLocal.withInitial(AtomicInteger::new);
+    private volatile boolean closed;
+    private volatile long lastUsedNanos = System.nanoTime();
+
+    public ConnectionPool(Database database, int size) {
+        this.database = database;
+        this.size = size;
+        this.permits = new Semaphore(size, true);
+        this.idle = new ArrayBlockingQueue<>(size);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Connections currently borrowed, not counting nested borrows.
+     */
+    public int getInUse() {
+        return size - permits.availablePermits();
+    }
+
+    /**
+     * {@link System#nanoTime()} of the last borrow or return.
+     */
+    public long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    /**
+     * Blocks until a connection is free. The caller must close the returned connection.
+     * <p>
+     * Code holding a connection should not borrow another: as many threads as there are connections could each hold
+     * one and wait forever for a second. The DAOs avoid it (expense queries resolve usernames on their own
+     * connection). As a safeguard, a thread that already holds a connection of this pool does not wait here; its
+     * nested borrow gets an idle or freshly opened connection without a permit.
+     * <p>
+     * That safeguard is per pool. With several databases, a thread holding a connection of one must not borrow from
+     * another's pool, or two threads doing so in opposite order can each wait on the other's pool forever.
+     * {@code ShardedExpenseDao} therefore runs each shard's query on its own thread, which holds connections of that
+     * shard only, and looks up which shard owns a user before borrowing anything.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        lastUsedNanos = System.nanoTime();
+        AtomicInteger held = heldByThread.get();
+        boolean nested = held.get() > 0;
+        if (!nested) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+        }
+        try {
+            Connection physical = idle.poll();
+            if (physical == null || physical.isClosed()) {
+                physical = database.openConnection();
+            }
+            Connection borrowed = wrap(physical, held, !nested);
+            held.incrementAndGet();
+            return borrowed;
+        } catch (SQLException | RuntimeException e) {
+            if (!nested) {
+                permits.release();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Prepares the SQL through the statement cache of the connection's physical connection when it was borrowed from
+     * a pool, so repeated queries of the same shape skip SQLite's parse and plan. Any other connection just prepares
+     * it. Either way the caller closes the statement as usual.
+     */
+    public static PreparedStatement prepareCached(Connection conn, String sql) throws SQLException {
+        if (conn instanceof Pooled pooled) {
+            return pooled.statementCache().prepare(sql);
+        }
+        return conn.prepareStatement(sql);
+    }
+
+    /**
+     * Cache hits and misses so far, summed over the pool's physical connections.
+     */
+    public CacheStats statementCacheStats() {
+        long hits = 0;
+        long misses = 0;
+        for (StatementCache cache : statementCaches.values()) {
+            hits += cache.getHits();
+            misses += cache.getMisses();
+        }
+        return new CacheStats(hits, misses);
+    }
+
+    private Connection wrap(Connection physical, AtomicInteger held, boolean permitted) {
+        boolean[] returned = {false};
+        StatementCache cache = statementCaches.computeIfAbsent(physical, StatementCache::new);
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPool.class.getClassLoader(),
+            new Class<?>[] {Connection.class, Pooled.class},
+            (proxy, method, args) -> {
+                String name = method.getName();
+                if ("statementCache".equals(name) && method.getDeclaringClass() == Pooled.class) {
+                    return cache;
+                }
+                if ("close".equals(name)) {
+                    if (!returned[0]) {
+                        returned[0] = true;
+                        held.decrementAndGet();
+                        giveBack(physical, permitted);
+                    }
+                    return null;
+                }
+                if ("isClosed".equals(name) && returned[0]) {
+                    return true;
+                }
+                if ("unwrap".equals(name) || "isWrapperFor".equals(name)) {
+                    return method.invoke(physical, args);
+                }
+                if (returned[0]) {
+                    throw new SQLException("Connection has already been returned to the pool");
+                }
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    private void giveBack(Connection physical, boolean permitted) {
+        lastUsedNanos = System.nanoTime();
+        try {
+            if (!physical.isClosed() && !physical.getAutoCommit()) {
+                // Never hand an open transaction to the next borrower.
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (closed || physical.isClosed() || !idle.offer(physical)) {
+                closeQuietly(physical);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Discarding pooled connection that could not be reset", e);
+            closeQuietly(physical);
+        } finally {
+            if (permitted) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Closes the idle connections so that later borrows open fresh ones, which read the schema and planner statistics
+     * anew. Borrowed connections are left alone.
+     */
+    public void discardIdle() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        StatementCache cache = statementCaches.remove(connection);
+        if (cache != null) {
+            cache.closeAll();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Error closing pooled connection", e);
+        }
+    }
+
+    public record CacheStats(long hits, long misses) {
+    }
+
+    /**
+     * Implemented by borrowed connection proxies only.
+     */
+    interface Pooled {
+        StatementCache statementCache();
+    }
+}
@@ -3,45 +3,248 @@ package com.revature.manager.db;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class Database {
     private static final Logger logger = Logger.getLogger(Database.class.getName());
 
+    public static final int DEFAULT_POOL_SIZE = 4;
+    /**
+     * Bump whenever the DDL in {@link #initSchema()} changes, so existing databases run it once more.
+     */
+    private static final int SCHEMA_REVISION = 6;
+    /**
+     * Condition on every AFTER INSERT trigger; see {@link #beginBulkLoad(Statement)}.
+     */
+    private static final String UNLESS_BULK_LOAD = "NOT EXISTS (SELECT 1 FROM bulk_load)";
+    private static final Map<String, String> EXPENSE_INDEXES = Map.of(
+        "idx_expenses_status_date", "expenses(status, date)",
+        "idx_expenses_date_totals", "expenses(date, status, category, amount)",
+        "idx_expenses_user_date", "expenses(user_id, date)"
+    );
+
     private final Path dbPath;
+    private final Path archivePath;
     private final String jdbcUrl;
+    private final ConnectionPool pool;
+    private volatile boolean schemaReady;
+    private volatile boolean archiveSchemaReady;
 
     public Database(Path dbPath) {
+        this(dbPath, defaultArchivePath(dbPath));
+    }
+
+    public Database(Path dbPath, Path archivePath) {
+        this(dbPath, archivePath, DEFAULT_POOL_SIZE);
+    }
+
+    public Database(Path dbPath, Path archivePath, int poolSize) {
         this.dbPath = dbPath;
+        this.archivePath = archivePath;
         this.jdbcUrl = "jdbc:sqlite:" + dbPath.toAbsolutePath();
+        this.pool = new ConnectionPool(this, poolSize);
     }
 
     public Path getDbPath() {
         return dbPath;
     }
 
+    public Path getArchivePath() {
+        return archivePath;
+    }
+
+    public boolean hasArchive() {
+        return archivePath.toFile().exists();
+    }
+
+    public int getPoolSize() {
+        return pool.getSize();
+    }
+
+    public ConnectionPool.CacheStats statementCacheStats() {
+        return pool.statementCacheStats();
+    }
+
+    /**
+     * {@link System#nanoTime()} of the last borrow or return of a pooled connection, or the current time while one is
+     * borrowed. Dedicated connections from {@link #newConnection()} are not tracked.
+     */
+    public long lastUsedNanos() {
+        return pool.getInUse() > 0 ? System.nanoTime() : pool.getLastUsedNanos();
+    }
+
+    /**
+     * Borrows a pooled connection; closing it returns it to the pool. The first connection of the process loads the
+     * driver and checks the schema.
+     */
     public Connection getConnection() throws SQLException {
+        ensureSchema();
+        return pool.borrow();
+    }
+
+    /**
+     * Opens a dedicated, unpooled connection for work that changes connection state (ATTACH, temp tables) or holds
+     * the connection for a long time.
+     */
+    public Connection newConnection() throws SQLException {
+        ensureSchema();
+        return openConnection();
+    }
+
+    /**
+     * Opens a physical connection without the schema check; the pool uses this so the check itself can borrow.
+     */
+    Connection openConnection() throws SQLException {
         return DriverManager.getConnection(jdbcUrl);
     }
 
     /**
-     * Ensures all required tables and columns exist before any DAO uses the database.
+     * Replaces the pool's idle connections on their next borrow; SQLite only loads planner statistics written by
+     * another connection's ANALYZE when a connection opens.
+     */
+    public void reopenPooledConnections() {
+        pool.discardIdle();
+    }
+
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * Opens a connection with the cold-storage file attached as schema {@code archive}, creating its tables on first
+     * use. Only queries that actually need archived rows should pay for the attach.
+     */
+    public Connection getArchiveConnection() throws SQLException {
+        Connection conn = newConnection();
+        try (PreparedStatement ps = conn.prepareStatement("ATTACH DATABASE ? AS archive")) {
+            ps.setString(1, archivePath.toAbsolutePath().toString());
+            ps.execute();
+            if (!archiveSchemaReady) {
+                try (Statement stmt = conn.createStatement()) {
+                    createArchiveSchema(stmt);
+                }
+                archiveSchemaReady = true;
+            }
+            return conn;
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a dedicated connection holding an open read transaction, so every query on it sees the database as it was
+     * at this call. Under WAL the transaction neither waits for writers nor makes them wait; it only keeps the WAL
+     * from being checkpointed past its snapshot, so it should not be held indefinitely. The cold-storage file is
+     * attached and pinned too when it exists. Close the connection to release the snapshot.
+     */
+    public Connection openSnapshot() throws SQLException {
+        boolean attachArchive = hasArchive();
+        Connection conn = attachArchive ? getArchiveConnection() : newConnection();
+        try {
+            conn.setAutoCommit(false);
+            // BEGIN is deferred; each file's snapshot is taken by the first read of it.
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeQuery("SELECT count(*) FROM main.sqlite_master").close();
+                if (attachArchive) {
+                    stmt.executeQuery("SELECT count(*) FROM archive.sqlite_master").close();
+                }
+            }
+            return conn;
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    public static Path defaultArchivePath(Path dbPath) {
+        return dbPath.resolveSibling(stem(dbPath) + "_archive.db");
+    }
+
+    /**
+     * Where the maintenance scheduler writes the online backup of {@code dbPath}, in {@code dir}.
+     */
+    public static Path defaultBackupPath(Path dbPath, Path dir) {
+        return dir.resolve(stem(dbPath) + "_backup.db");
+    }
+
+    private static String stem(Path dbPath) {
+        String fileName = dbPath.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    /**
+     * Runs {@link #initSchema()} unless it already ran in this process. Called on first use, so nothing touches the
+     * database file (or loads the native driver) until something needs it.
+     */
+    public void ensureSchema() {
+        if (!schemaReady) {
+            initSchema();
+        }
+    }
+
+    /**
+     * Ensures all required tables and columns exist before any DAO uses the database. The DDL is skipped when the
+     * fingerprint stored in {@code user_version} matches: it pairs {@link #SCHEMA_REVISION} with SQLite's
+     * {@code schema_version}, which every schema change (by this app or the employee app) increments.
      */
-    public void initSchema() {
-        try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
+    public synchronized void initSchema() {
+        if (schemaReady) {
+            return;
+        }
+        try (Connection conn = pool.borrow(); Statement stmt = conn.createStatement()) {
+            if (readPragma(stmt, "user_version") == schemaFingerprint(stmt)) {
+                logger.log(Level.FINE, () -> "Schema fingerprint matches at " + dbPath.toAbsolutePath());
+                schemaReady = true;
+                return;
+            }
+            // Takes effect at once on a new file; an existing one is converted by the maintenance scheduler's VACUUM.
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            // Persistent per file: readers see a snapshot and never block the writer, or the writer them.
+            stmt.execute("PRAGMA journal_mode = WAL");
             createUsersTable(stmt);
+            createUsernameIndex(stmt);
             createExpensesTable(stmt);
             addCategoryColumn(stmt);
+            createExpenseIndexes(stmt);
             createApprovalsTable(stmt);
+            createApprovalIndexes(stmt);
+            createBulkLoadTable(stmt);
+            createChangeLog(stmt);
+            createImportProgressTable(stmt);
+            createSpendingStats(stmt);
+            createReportCache(stmt);
+            createBudgets(stmt);
+            createDuplicateIndex(stmt);
+            createMaintenanceMeta(stmt);
+            stmt.execute("PRAGMA user_version = " + schemaFingerprint(stmt));
+            schemaReady = true;
             logger.log(Level.INFO, () -> "Database schema verified at " + dbPath.toAbsolutePath());
         } catch (SQLException e) {
+            // Left unset, so the next use tries again (a locked or briefly unavailable file must not stick).
             logger.log(Level.SEVERE, "Failed to initialize schema", e);
         }
     }
 
+    private int schemaFingerprint(Statement stmt) throws SQLException {
+        return (SCHEMA_REVISION << 24) | (readPragma(stmt, "schema_version") & 0xFFFFFF);
+    }
+
+    private int readPragma(Statement stmt, String name) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
     private void createUsersTable(Statement stmt) throws SQLException {
         stmt.execute("""
                 CREATE TABLE IF NOT EXISTS users (
@@ -53,6 +256,14 @@ public class Database {
                 """);
     }
 
+    /**
+     * Lookups compare lower(username), which the UNIQUE constraint's index cannot serve. An expression index on the
+     * same key is maintained by SQLite itself, so rows inserted by the Python employee app are covered too.
+     */
+    private void createUsernameIndex(Statement stmt) throws SQLException {
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_users_username_lower ON users(lower(username))");
+    }
+
     private void createExpensesTable(Statement stmt) throws SQLException {
         stmt.execute("""
                 CREATE TABLE IF NOT EXISTS expenses (
@@ -71,11 +282,34 @@ public class Database {
                 """);
     }
 
-    private void addCategoryColumn(Statement stmt) {
-        try {
-            stmt.execute("ALTER TABLE expenses ADD COLUMN category TEXT DEFAULT 'Uncategorized'");
-        } catch (SQLException e) {
-            logger.fine("Category column already exists on expenses table");
+    /**
+     * Databases created before categories existed lack the column; look it up rather than let ALTER TABLE fail.
+     */
+    private void addCategoryColumn(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(
+            "SELECT 1 FROM pragma_table_info('expenses') WHERE name = 'category'")) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        stmt.execute("ALTER TABLE expenses ADD COLUMN category TEXT DEFAULT 'Uncategorized'");
+    }
+
+    /**
+     * Creates the secondary indexes on expenses. Public so bulk loads can rebuild them after
+     * {@link #dropExpenseIndexes(Statement)}.
+     */
+    public void createExpenseIndexes(Statement stmt) throws SQLException {
+        // The plain date index is a prefix of idx_expenses_date_totals, which also covers the daily trend totals.
+        stmt.execute("DROP INDEX IF EXISTS idx_expenses_date");
+        for (Map.Entry<String, String> index : EXPENSE_INDEXES.entrySet()) {
+            stmt.execute("CREATE INDEX IF NOT EXISTS " + index.getKey() + " ON " + index.getValue());
+        }
+    }
+
+    public void dropExpenseIndexes(Statement stmt) throws SQLException {
+        for (String name : EXPENSE_INDEXES.keySet()) {
+            stmt.execute("DROP INDEX IF EXISTS " + name);
         }
     }
 
@@ -92,4 +326,439 @@ public class Database {
                 );
                 """);
     }
+
+    private void createApprovalIndexes(Statement stmt) throws SQLException {
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_approvals_expense ON approvals(expense_id, review_date)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_approvals_reviewer ON approvals(reviewer, review_date)");
+    }
+
+    /**
+     * Every insert, update or delete on expenses and every new approvals row appends to change_log. The triggers
+     * live in the database file, so writes from the Python employee app are captured as well.
+     */
+    private void createChangeLog(Statement stmt) throws SQLException {
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS change_log (
+                    seq INTEGER PRIMARY KEY AUTOINCREMENT,
+                    table_name TEXT NOT NULL,
+                    expense_id TEXT NOT NULL,
+                    op TEXT NOT NULL
+                );
+                """);
+        replaceTrigger(stmt, "trg_expenses_change_insert", "AFTER INSERT ON expenses WHEN " + UNLESS_BULK_LOAD + """
+
+                BEGIN
+                    INSERT INTO change_log (table_name, expense_id, op) VALUES ('expenses', NEW.id, 'insert');
+                END;
+                """);
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_expenses_change_update AFTER UPDATE ON expenses
+                BEGIN
+                    INSERT INTO change_log (table_name, expense_id, op) VALUES ('expenses', NEW.id, 'update');
+                END;
+                """);
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_expenses_change_delete AFTER DELETE ON expenses
+                BEGIN
+                    INSERT INTO change_log (table_name, expense_id, op) VALUES ('expenses', OLD.id, 'delete');
+                END;
+                """);
+        replaceTrigger(stmt, "trg_approvals_change_insert", "AFTER INSERT ON approvals WHEN " + UNLESS_BULK_LOAD + """
+
+                BEGIN
+                    INSERT INTO change_log (table_name, expense_id, op) VALUES ('approvals', NEW.expense_id, 'insert');
+                END;
+                """);
+    }
+
+    /**
+     * Creates the trigger, replacing an existing one: CREATE TRIGGER IF NOT EXISTS would keep a definition from an
+     * older schema revision.
+     */
+    private static void replaceTrigger(Statement stmt, String name, String definition) throws SQLException {
+        stmt.execute("DROP TRIGGER IF EXISTS " + name);
+        stmt.execute("CREATE TRIGGER " + name + " " + definition);
+    }
+
+    /**
+     * Holds a row only inside a bulk import's own transaction, so no other connection ever sees one.
+     */
+    private void createBulkLoadTable(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS bulk_load (started_at TEXT NOT NULL)");
+    }
+
+    /**
+     * Switches the AFTER INSERT triggers off for the rest of the caller's transaction. Per row they cost more than the
+     * insert itself; {@link #finishBulkLoad(Connection, long, long)} does the same bookkeeping for the whole chunk in a
+     * few set-wise statements. Must not be called outside a transaction.
+     */
+    public void beginBulkLoad(Statement stmt) throws SQLException {
+        stmt.execute("INSERT INTO bulk_load (started_at) VALUES (datetime('now'))");
+    }
+
+    /**
+     * Does for every expenses and approvals row above the given rowids what the insert triggers would have done (change
+     * log entries, spending statistics, report cache and budget counters), then switches the triggers back on.
+     */
+    public void finishBulkLoad(Connection conn, long expensesAfterRowid, long approvalsAfterRowid) throws SQLException {
+        List<String> expenseStatements = new ArrayList<>();
+        expenseStatements.add("INSERT INTO change_log (table_name, expense_id, op)"
+            + " SELECT 'expenses', id, 'insert' FROM expenses WHERE rowid > ? ORDER BY rowid");
+        String[][] statsScopes = {{"'user'", "user_id"}, {"'category'", "lower(category)"}, {"'all'", "''"}};
+        for (String[] scope : statsScopes) {
+            expenseStatements.add(bulkStatsMerge(scope[0], scope[1]));
+        }
+        expenseStatements.add("DELETE FROM report_month_built WHERE month IN"
+            + " (SELECT substr(date, 1, 7) FROM expenses WHERE rowid > ? AND status = 'approved')");
+        String[][] budgetScopes = {{"'user'", "user_id"}, {"'category'", "lower(category)"}};
+        for (String[] scope : budgetScopes) {
+            expenseStatements.add(bulkBudgetMerge(scope[0], scope[1]));
+        }
+        for (String sql : expenseStatements) {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setLong(1, expensesAfterRowid);
+                ps.executeUpdate();
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO change_log (table_name, expense_id, op)"
+            + " SELECT 'approvals', expense_id, 'insert' FROM approvals WHERE rowid > ? ORDER BY rowid")) {
+            ps.setLong(1, approvalsAfterRowid);
+            ps.executeUpdate();
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM bulk_load");
+        }
+    }
+
+    /**
+     * One checkpoint per import source, written in the same transaction as each imported chunk.
+     */
+    private void createImportProgressTable(Statement stmt) throws SQLException {
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS import_progress (
+                    source TEXT PRIMARY KEY,
+                    file_size INTEGER NOT NULL,
+                    last_line INTEGER NOT NULL,
+                    imported INTEGER NOT NULL,
+                    rejected INTEGER NOT NULL,
+                    quarantine_bytes INTEGER NOT NULL,
+                    completed INTEGER NOT NULL DEFAULT 0,
+                    updated_at TEXT NOT NULL
+                );
+                """);
+    }
+
+    /**
+     * Running count, mean and sum of squared deviations (Welford) of reviewed amounts per user, per category and
+     * overall. Triggers fold each expense in as it leaves the pending state, in the same transaction as the review,
+     * so scoring the pending queue never has to rescan history. A new table is seeded once from existing reviewed
+     * expenses.
+     */
+    private void createSpendingStats(Statement stmt) throws SQLException {
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS expense_stats (
+                    scope TEXT NOT NULL,
+                    key TEXT NOT NULL,
+                    n INTEGER NOT NULL,
+                    mean REAL NOT NULL,
+                    m2 REAL NOT NULL,
+                    PRIMARY KEY (scope, key)
+                );
+                """);
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_expenses_stats_review AFTER UPDATE OF status ON expenses"
+            + " WHEN OLD.status = 'pending' AND NEW.status <> 'pending'\nBEGIN\n" + statsUpserts() + "END;");
+        replaceTrigger(stmt, "trg_expenses_stats_insert", "AFTER INSERT ON expenses"
+            + " WHEN NEW.status <> 'pending' AND " + UNLESS_BULK_LOAD + "\nBEGIN\n" + statsUpserts() + "END;");
+
+        boolean empty;
+        try (ResultSet rs = stmt.executeQuery("SELECT NOT EXISTS (SELECT 1 FROM expense_stats)")) {
+            empty = rs.next() && rs.getBoolean(1);
+        }
+        if (empty) {
+            seedSpendingStats(stmt);
+        }
+    }
+
+    /**
+     * Per-month rollups of approved spending for the percentile and top-spender reports. A month counts as cached
+     * only while its report_month_built row exists; the triggers drop that row whenever an approved expense in the
+     * month appears or changes status, and the next report rebuilds just that month.
+     */
+    private void createReportCache(Statement stmt) throws SQLException {
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS report_month_built (
+                    month TEXT PRIMARY KEY,
+                    built_at TEXT NOT NULL
+                );
+                """);
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS report_month_category (
+                    month TEXT NOT NULL,
+                    category TEXT NOT NULL,
+                    sketch BLOB NOT NULL,
+                    PRIMARY KEY (month, category)
+                );
+                """);
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS report_month_user (
+                    month TEXT NOT NULL,
+                    user_id TEXT NOT NULL,
+                    expenses INTEGER NOT NULL,
+                    amount REAL NOT NULL,
+                    PRIMARY KEY (month, user_id)
+                );
+                """);
+        stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_expenses_report_review AFTER UPDATE OF status ON expenses
+                WHEN OLD.status = 'approved' OR NEW.status = 'approved'
+                BEGIN
+                    DELETE FROM report_month_built WHERE month = substr(NEW.date, 1, 7);
+                END;
+                """);
+        replaceTrigger(stmt, "trg_expenses_report_insert", "AFTER INSERT ON expenses"
+            + " WHEN NEW.status = 'approved' AND " + UNLESS_BULK_LOAD + """
+
+                BEGIN
+                    DELETE FROM report_month_built WHERE month = substr(NEW.date, 1, 7);
+                END;
+                """);
+    }
+
+    /**
+     * Signatures for duplicate detection, written by this app only (the hashes are computed in Java, so no trigger
+     * can keep them). expense_signatures holds each expense's exact-match fingerprint and MinHash values;
+     * expense_lsh holds one row per LSH band, keyed by user so a near-duplicate probe is a handful of index seeks;
+     * duplicate_matches records what was found; duplicate_meta keeps how far through the change log signing got.
+     */
+    private void createDuplicateIndex(Statement stmt) throws SQLException {
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS expense_signatures (
+                    expense_id TEXT PRIMARY KEY,
+                    user_id TEXT NOT NULL,
+                    amount_cents INTEGER NOT NULL,
+                    date TEXT NOT NULL,
+                    fingerprint INTEGER NOT NULL,
+                    minhash BLOB NOT NULL
+                ) WITHOUT ROWID;
+                """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_expense_signatures_fingerprint"
+            + " ON expense_signatures (fingerprint)");
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS expense_lsh (
+                    user_id TEXT NOT NULL,
+                    bucket INTEGER NOT NULL,
+                    expense_id TEXT NOT NULL,
+                    PRIMARY KEY (user_id, bucket, expense_id)
+                ) WITHOUT ROWID;
+                """);
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS duplicate_matches (
+                    expense_id TEXT NOT NULL,
+                    duplicate_of TEXT NOT NULL,
+                    kind TEXT NOT NULL,
+                    similarity REAL NOT NULL,
+                    PRIMARY KEY (expense_id, duplicate_of)
+                ) WITHOUT ROWID;
+                """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_duplicate_matches_of ON duplicate_matches (duplicate_of)");
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS duplicate_meta (
+                    key TEXT PRIMARY KEY,
+                    value INTEGER NOT NULL
+                );
+                """);
+    }
+
+    /**
+     * Bookkeeping for the maintenance scheduler, such as how far through the change log the last ANALYZE was. Also
+     * creates sqlite_stat1 up front: the first ANALYZE would otherwise create it, and the schema change would make the
+     * next start redo all of this.
+     */
+    private void createMaintenanceMeta(Statement stmt) throws SQLException {
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS maintenance_meta (
+                    key TEXT PRIMARY KEY,
+                    value INTEGER NOT NULL
+                );
+                """);
+        stmt.execute("ANALYZE sqlite_schema");
+    }
+
+    /**
+     * Monthly budget limits per user and per category, and the approved and pending totals they are checked against.
+     * The triggers keep budget_counters current in the same transaction as every insert, review or edit, so a
+     * remaining budget is two primary-key reads however much history a user has. Deleting an approved expense (as
+     * archiving does) leaves it counted; deleting a pending one removes it. A new table is seeded once from the
+     * existing expenses.
+     */
+    private void createBudgets(Statement stmt) throws SQLException {
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS budgets (
+                    scope TEXT NOT NULL,
+                    key TEXT NOT NULL,
+                    monthly_limit REAL NOT NULL,
+                    PRIMARY KEY (scope, key)
+                );
+                """);
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS budget_counters (
+                    month TEXT NOT NULL,
+                    scope TEXT NOT NULL,
+                    key TEXT NOT NULL,
+                    approved_count INTEGER NOT NULL,
+                    approved_amount REAL NOT NULL,
+                    pending_count INTEGER NOT NULL,
+                    pending_amount REAL NOT NULL,
+                    PRIMARY KEY (month, scope, key)
+                ) WITHOUT ROWID;
+                """);
+        replaceTrigger(stmt, "trg_expenses_budget_insert", "AFTER INSERT ON expenses"
+            + " WHEN NEW.status IN ('pending', 'approved') AND " + UNLESS_BULK_LOAD + "\nBEGIN\n"
+            + budgetUpserts("NEW", 1) + "END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_expenses_budget_update"
+            + " AFTER UPDATE OF status, amount, date, user_id, category ON expenses"
+            + " WHEN OLD.status IN ('pending', 'approved') OR NEW.status IN ('pending', 'approved')\nBEGIN\n"
+            + budgetUpserts("OLD", -1) + budgetUpserts("NEW", 1) + "END;");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_expenses_budget_delete AFTER DELETE ON expenses"
+            + " WHEN OLD.status = 'pending'\nBEGIN\n" + budgetUpserts("OLD", -1) + "END;");
+
+        boolean empty;
+        try (ResultSet rs = stmt.executeQuery("SELECT NOT EXISTS (SELECT 1 FROM budget_counters)")) {
+            empty = rs.next() && rs.getBoolean(1);
+        }
+        if (empty) {
+            seedBudgetCounters(stmt);
+        }
+    }
+
+    private static String budgetUpserts(String row, int sign) {
+        return budgetUpsert(row, sign, "'user'", row + ".user_id")
+            + budgetUpsert(row, sign, "'category'", "lower(" + row + ".category)");
+    }
+
+    /**
+     * Adds ({@code sign} 1) or removes ({@code sign} -1) one expense row's amount under its status and month.
+     */
+    private static String budgetUpsert(String row, int sign, String scope, String key) {
+        String approved = sign + " * (" + row + ".status = 'approved')";
+        String pending = sign + " * (" + row + ".status = 'pending')";
+        return "INSERT INTO budget_counters (month, scope, key, approved_count, approved_amount, pending_count,"
+            + " pending_amount)\n"
+            + "VALUES (substr(" + row + ".date, 1, 7), " + scope + ", " + key + ", " + approved + ", " + approved
+            + " * " + row + ".amount, " + pending + ", " + pending + " * " + row + ".amount)\n"
+            + "ON CONFLICT (month, scope, key) DO UPDATE SET\n"
+            + "    approved_count = approved_count + excluded.approved_count,\n"
+            + "    approved_amount = approved_amount + excluded.approved_amount,\n"
+            + "    pending_count = pending_count + excluded.pending_count,\n"
+            + "    pending_amount = pending_amount + excluded.pending_amount;\n";
+    }
+
+    private static String bulkBudgetMerge(String scope, String key) {
+        return "INSERT INTO budget_counters SELECT substr(date, 1, 7), " + scope + ", " + key
+            + ", sum(status = 'approved'), total(CASE WHEN status = 'approved' THEN amount END),"
+            + " sum(status = 'pending'), total(CASE WHEN status = 'pending' THEN amount END)"
+            + " FROM expenses WHERE rowid > ? AND status IN ('pending', 'approved') GROUP BY 1, 3\n"
+            + "ON CONFLICT (month, scope, key) DO UPDATE SET\n"
+            + "    approved_count = approved_count + excluded.approved_count,\n"
+            + "    approved_amount = approved_amount + excluded.approved_amount,\n"
+            + "    pending_count = pending_count + excluded.pending_count,\n"
+            + "    pending_amount = pending_amount + excluded.pending_amount";
+    }
+
+    private void seedBudgetCounters(Statement stmt) throws SQLException {
+        String[][] scopes = {{"'user'", "user_id"}, {"'category'", "lower(category)"}};
+        for (String[] scope : scopes) {
+            stmt.execute("INSERT INTO budget_counters SELECT substr(date, 1, 7), " + scope[0] + ", " + scope[1]
+                + ", sum(status = 'approved'), total(CASE WHEN status = 'approved' THEN amount END),"
+                + " sum(status = 'pending'), total(CASE WHEN status = 'pending' THEN amount END)"
+                + " FROM expenses WHERE status IN ('pending', 'approved') GROUP BY 1, 3");
+        }
+    }
+
+    private static String statsUpserts() {
+        return statsUpsert("'user'", "NEW.user_id")
+            + statsUpsert("'category'", "lower(NEW.category)")
+            + statsUpsert("'all'", "''");
+    }
+
+    /**
+     * One Welford step as an upsert; every right-hand side reads the row's old values.
+     */
+    private static String statsUpsert(String scope, String key) {
+        return "INSERT INTO expense_stats (scope, key, n, mean, m2) VALUES (" + scope + ", " + key
+            + ", 1, NEW.amount, 0)\n"
+            + "ON CONFLICT (scope, key) DO UPDATE SET\n"
+            + "    n = n + 1,\n"
+            + "    mean = mean + (excluded.mean - mean) / (n + 1),\n"
+            + "    m2 = m2 + (excluded.mean - mean) * (excluded.mean - mean - (excluded.mean - mean) / (n + 1));\n";
+    }
+
+    /**
+     * Folds the count, mean and squared deviations of the new reviewed rows into a scope's running statistics
+     * (Chan et al.'s pairwise update).
+     */
+    private static String bulkStatsMerge(String scope, String key) {
+        return "INSERT INTO expense_stats (scope, key, n, mean, m2) SELECT " + scope + ", " + key
+            + ", count(*), avg(amount), max(0, total(amount * amount) - count(*) * avg(amount) * avg(amount))"
+            + " FROM expenses WHERE rowid > ? AND status <> 'pending' GROUP BY " + key + "\n"
+            + "ON CONFLICT (scope, key) DO UPDATE SET\n"
+            + "    n = n + excluded.n,\n"
+            + "    mean = mean + (excluded.mean - mean) * excluded.n / (n + excluded.n),\n"
+            + "    m2 = m2 + excluded.m2 + (excluded.mean - mean) * (excluded.mean - mean) * n * excluded.n"
+            + " / (n + excluded.n)";
+    }
+
+    private void seedSpendingStats(Statement stmt) throws SQLException {
+        String[][] scopes = {{"'user'", "user_id"}, {"'category'", "lower(category)"}, {"'all'", "''"}};
+        for (String[] scope : scopes) {
+            stmt.execute("INSERT INTO expense_stats (scope, key, n, mean, m2) SELECT " + scope[0] + ", " + scope[1]
+                + ", count(*), avg(amount), max(0, total(amount * amount) - count(*) * avg(amount) * avg(amount))"
+                + " FROM expenses WHERE status <> 'pending' GROUP BY " + scope[1]);
+        }
+    }
+
+    /**
+     * Cold storage mirrors the hot expenses and approvals columns (in an explicit order, since hot tables created
+     * before the category column existed have it last) plus a small key/value table for the archive watermark.
+     */
+    private void createArchiveSchema(Statement stmt) throws SQLException {
+        stmt.execute("PRAGMA archive.journal_mode = WAL");
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS archive.expenses (
+                    id TEXT PRIMARY KEY,
+                    user_id TEXT NOT NULL,
+                    category TEXT NOT NULL,
+                    amount REAL NOT NULL,
+                    description TEXT NOT NULL,
+                    date TEXT NOT NULL,
+                    status TEXT NOT NULL,
+                    reviewer TEXT,
+                    comment TEXT,
+                    review_date TEXT
+                );
+                """);
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS archive.approvals (
+                    id TEXT PRIMARY KEY,
+                    expense_id TEXT NOT NULL,
+                    status TEXT NOT NULL,
+                    reviewer TEXT,
+                    comment TEXT,
+                    review_date TEXT NOT NULL
+                );
+                """);
+        stmt.execute("""
+                CREATE TABLE IF NOT EXISTS archive.archive_meta (
+                    key TEXT PRIMARY KEY,
+                    value TEXT
+                );
+                """);
+        stmt.execute("DROP INDEX IF EXISTS archive.idx_archive_expenses_date");
+        stmt.execute("CREATE INDEX IF NOT EXISTS archive.idx_archive_expenses_date_totals"
+            + " ON expenses(date, status, category, amount)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS archive.idx_archive_expenses_user ON expenses(user_id, date)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS archive.idx_archive_expenses_status ON expenses(status, date)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS archive.idx_archive_approvals_expense ON approvals(expense_id, review_date)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS archive.idx_archive_approvals_reviewer ON approvals(reviewer, review_date)");
+    }
 }
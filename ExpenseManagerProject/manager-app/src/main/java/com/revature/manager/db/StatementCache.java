@@ -0,0 +1,111 @@
+package com.revature.manager.db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prepared statements kept open on one pooled physical connection, keyed by SQL text and evicted least recently used
+ * first. Only the connection's current borrower touches it, so it needs no locking. A statement handed out is a proxy
+ * whose {@code close()} clears its parameters and keeps it for the next borrower; a second request for SQL that is
+ * still in use gets an ordinary, uncached statement.
+ */
+final class StatementCache {
+    private static final Logger logger = Logger.getLogger(StatementCache.class.getName());
+    static final int MAX_STATEMENTS = 32;
+
+    private final Connection physical;
+    private final Set<String> inUse = new HashSet<>();
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() <= MAX_STATEMENTS || inUse.contains(eldest.getKey())) {
+                return false;
+            }
+            closeQuietly(eldest.getValue());
+            return true;
+        }
+    };
+    private long hits;
+    private long misses;
+
+    StatementCache(Connection physical) {
+        this.physical = physical;
+    }
+
+    PreparedStatement prepare(String sql) throws SQLException {
+        if (!inUse.add(sql)) {
+            return physical.prepareStatement(sql);
+        }
+        try {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null || statement.isClosed()) {
+                misses++;
+                statement = physical.prepareStatement(sql);
+                statements.put(sql, statement);
+            } else {
+                hits++;
+            }
+            return borrowed(sql, statement);
+        } catch (SQLException | RuntimeException e) {
+            inUse.remove(sql);
+            throw e;
+        }
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getMisses() {
+        return misses;
+    }
+
+    void closeAll() {
+        statements.values().forEach(StatementCache::closeQuietly);
+        statements.clear();
+        inUse.clear();
+    }
+
+    private PreparedStatement borrowed(String sql, PreparedStatement statement) {
+        boolean[] returned = {false};
+        return (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(),
+            new Class<?>[] {PreparedStatement.class},
+            (proxy, method, args) -> {
+                String name = method.getName();
+                if ("close".equals(name)) {
+                    if (!returned[0]) {
+                        returned[0] = true;
+                        inUse.remove(sql);
+                        statement.clearParameters();
+                    }
+                    return null;
+                }
+                if ("isClosed".equals(name) && returned[0]) {
+                    return true;
+                }
+                try {
+                    return method.invoke(statement, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Error closing cached statement", e);
+        }
+    }
+}
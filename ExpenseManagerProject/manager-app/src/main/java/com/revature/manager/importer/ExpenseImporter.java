@@ -0,0 +1,307 @@
+package com.revature.manager.importer;
+
+import com.revature.manager.dao.ImportDao;
+import com.revature.manager.dao.UserCache;
+import com.revature.manager.exceptions.ValidationException;
+import com.revature.manager.model.ImportReport;
+import com.revature.manager.model.User;
+import com.revature.manager.utils.InputValidator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Three-stage bulk import of expenses from CSV or JSON Lines.
+ *
+ * <ol>
+ *     <li>a reader thread streams records from the file ({@link RecordReader}),</li>
+ *     <li>validates them with {@link InputValidator} and resolves users through the {@link UserCache},</li>
+ *     <li>and the calling thread writes each chunk with multi-row inserts in its own transaction.</li>
+ * </ol>
+ *
+ * <p>Rejected lines go to {@code <file>.rejected} with their line number and reason. Each chunk commits together
+ * with a checkpoint (last line, counters, quarantine file length), so rerunning an interrupted import continues
+ * after the last committed line. Rows imported as approved or denied get an approvals row without a reviewer,
+ * commented with the file name.</p>
+ */
+public class ExpenseImporter {
+    private static final Logger logger = Logger.getLogger(ExpenseImporter.class.getName());
+    private static final int CHUNK_ROWS = 20_000;
+    private static final int QUEUE_CHUNKS = 4;
+    /** Rough bytes per input line, used only to decide whether dropping indexes pays off. */
+    private static final int ESTIMATED_LINE_BYTES = 80;
+    private static final int MIN_ROWS_FOR_INDEX_DROP = 50_000;
+
+    private static final int USERNAME = 0;
+    private static final int USER_ID = 1;
+    private static final int CATEGORY = 2;
+    private static final int AMOUNT = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int DATE = 5;
+    private static final int STATUS = 6;
+
+    private final ImportDao importDao;
+    private final UserCache userCache;
+
+    public ExpenseImporter(ImportDao importDao, UserCache userCache) {
+        this.importDao = importDao;
+        this.userCache = userCache;
+    }
+
+    public static Path quarantinePathFor(Path source) {
+        return source.resolveSibling(source.getFileName() + ".rejected");
+    }
+
+    /**
+     * Imports the file, resuming from its checkpoint when an earlier run was interrupted. A file that already
+     * finished importing is not imported twice unless {@code restart} is set.
+     */
+    public ImportReport importFile(Path path, boolean restart) throws IOException, SQLException {
+        String source = path.toAbsolutePath().normalize().toString();
+        long fileSize = Files.size(path);
+        Path quarantinePath = quarantinePathFor(path);
+
+        if (restart) {
+            importDao.clearCheckpoint(source);
+        }
+        Optional<ImportDao.Checkpoint> saved = importDao.loadCheckpoint(source)
+            .filter(checkpoint -> checkpoint.fileSize() == fileSize);
+        if (saved.isPresent() && saved.get().completed()) {
+            ImportDao.Checkpoint done = saved.get();
+            return new ImportReport(source, 0, done.rejected(), done.lastLine(), true, 0, quarantinePath.toString());
+        }
+        ImportDao.Checkpoint start = saved.orElse(new ImportDao.Checkpoint(source, fileSize, 0, 0, 0, 0, false));
+
+        String comment = "Imported from " + path.getFileName();
+        long started = System.nanoTime();
+        long importedThisRun = 0;
+        long rejectedThisRun = 0;
+        try (Connection conn = importDao.openImportConnection();
+             FileChannel quarantineChannel = FileChannel.open(quarantinePath,
+                 StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Anything past the checkpointed length was written for a chunk that never committed.
+            quarantineChannel.truncate(start.quarantineBytes());
+            quarantineChannel.position(start.quarantineBytes());
+            OutputStream quarantine = new BufferedOutputStream(Channels.newOutputStream(quarantineChannel));
+
+            boolean dropIndexes = shouldDropIndexes(conn, fileSize, start);
+            if (dropIndexes) {
+                logger.info("Dropping expense indexes for bulk load of " + source);
+                importDao.dropExpenseIndexes(conn);
+            }
+
+            BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+            Thread producer = new Thread(() -> produce(path, start.lastLine(), chunks), "import-reader");
+            producer.setDaemon(true);
+            producer.start();
+
+            ImportDao.Checkpoint checkpoint = start;
+            try {
+                conn.setAutoCommit(false);
+                while (true) {
+                    Chunk chunk = takeChunk(chunks);
+                    if (chunk.failure != null) {
+                        throw chunk.failure;
+                    }
+                    long quarantineBytes = checkpoint.quarantineBytes() + writeRejects(quarantine, chunk.rejects);
+                    quarantine.flush();
+                    quarantineChannel.force(false);
+
+                    importDao.insertRows(conn, chunk.rows, comment);
+                    checkpoint = new ImportDao.Checkpoint(source, fileSize, chunk.lastLine,
+                        checkpoint.imported() + chunk.rows.size(), checkpoint.rejected() + chunk.rejects.size(),
+                        quarantineBytes, chunk.last);
+                    importDao.saveCheckpoint(conn, checkpoint);
+                    conn.commit();
+
+                    importedThisRun += chunk.rows.size();
+                    rejectedThisRun += chunk.rejects.size();
+                    if (chunk.last) {
+                        break;
+                    }
+                }
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                // Frees a reader blocked on the full queue when the writer stops early; a finished reader ignores it.
+                producer.interrupt();
+                conn.setAutoCommit(true);
+                if (dropIndexes) {
+                    logger.info("Rebuilding expense indexes after bulk load of " + source);
+                    importDao.createExpenseIndexes(conn);
+                }
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        long imported = importedThisRun;
+        logger.log(Level.INFO, () -> "Imported " + imported + " expenses from " + source + " in " + elapsedMillis + " ms");
+        return new ImportReport(source, importedThisRun, rejectedThisRun, start.lastLine(), false, elapsedMillis,
+            quarantinePath.toString());
+    }
+
+    /**
+     * Rebuilding indexes once is cheaper than maintaining them row by row when the load is at least as large as
+     * the existing table.
+     */
+    private boolean shouldDropIndexes(Connection conn, long fileSize, ImportDao.Checkpoint start) throws SQLException {
+        long estimatedRows = fileSize / ESTIMATED_LINE_BYTES - start.lastLine();
+        return estimatedRows >= MIN_ROWS_FOR_INDEX_DROP && estimatedRows >= importDao.countExpenses(conn);
+    }
+
+    private void produce(Path path, long skipThrough, BlockingQueue<Chunk> chunks) {
+        Map<String, Optional<String>> usernames = new HashMap<>();
+        IdSequence ids = new IdSequence(System.currentTimeMillis());
+        try (RecordReader reader = RecordReader.open(path)) {
+            reader.skipTo(skipThrough);
+            Chunk chunk = new Chunk();
+            RecordReader.Record record;
+            while ((record = reader.next()) != null) {
+                if (record.error() != null) {
+                    chunk.rejects.add(reject(record, record.error()));
+                } else {
+                    try {
+                        chunk.rows.add(validate(record.fields(), usernames, ids));
+                    } catch (ValidationException e) {
+                        chunk.rejects.add(reject(record, e.getMessage()));
+                    }
+                }
+                chunk.lastLine = record.lineNumber();
+                if (chunk.rows.size() + chunk.rejects.size() >= CHUNK_ROWS) {
+                    chunks.put(chunk);
+                    chunk = new Chunk();
+                    chunk.lastLine = record.lineNumber();
+                }
+            }
+            chunk.last = true;
+            chunks.put(chunk);
+        } catch (IOException e) {
+            putFailure(chunks, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            putFailure(chunks, new IOException("Import reader failed", e));
+        }
+    }
+
+    private ImportDao.Row validate(String[] fields, Map<String, Optional<String>> usernames, IdSequence ids) {
+        String userId = resolveUser(fields[USERNAME], fields[USER_ID], usernames);
+        String category = trim(fields[CATEGORY]);
+        InputValidator.requireNonEmpty(category, "Category");
+        double amount = InputValidator.parsePositiveAmount(fields[AMOUNT], "Amount");
+        String description = trim(fields[DESCRIPTION]);
+        InputValidator.requireNonEmpty(description, "Description");
+        InputValidator.requireNonEmpty(fields[DATE], "Date");
+        String date = InputValidator.parseIsoDate(fields[DATE].trim(), "Date").toString();
+        String status = trim(fields[STATUS]);
+        if (status == null || status.isEmpty()) {
+            status = "pending";
+        } else {
+            InputValidator.requireStatus(status);
+            status = status.toLowerCase(Locale.ROOT);
+        }
+        String approvalId = "pending".equals(status) ? null : ids.next();
+        return new ImportDao.Row(ids.next(), userId, category, amount, description, date, status, approvalId);
+    }
+
+    private String resolveUser(String username, String userId, Map<String, Optional<String>> usernames) {
+        if (username != null && !username.isBlank()) {
+            Optional<String> id = usernames.computeIfAbsent(username.trim().toLowerCase(Locale.ROOT),
+                key -> userCache.findByUsername(key).map(User::getId));
+            return id.orElseThrow(() -> new ValidationException("Unknown username " + username.trim()));
+        }
+        InputValidator.requireNonEmpty(userId, "Username or user_id");
+        return userCache.findById(userId.trim())
+            .map(User::getId)
+            .orElseThrow(() -> new ValidationException("Unknown user_id " + userId.trim()));
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private static String reject(RecordReader.Record record, String reason) {
+        return record.lineNumber() + "\t" + reason.replace('\t', ' ') + "\t" + record.line() + "\n";
+    }
+
+    private static long writeRejects(OutputStream out, List<String> rejects) throws IOException {
+        long written = 0;
+        for (String reject : rejects) {
+            byte[] bytes = reject.getBytes(StandardCharsets.UTF_8);
+            out.write(bytes);
+            written += bytes.length;
+        }
+        return written;
+    }
+
+    private static Chunk takeChunk(BlockingQueue<Chunk> chunks) throws IOException {
+        try {
+            return chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for import records", e);
+        }
+    }
+
+    private static void putFailure(BlockingQueue<Chunk> chunks, IOException failure) {
+        Chunk chunk = new Chunk();
+        chunk.failure = failure;
+        try {
+            chunks.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Time-ordered (version 7 layout) UUIDs: the import's start time in milliseconds, a sequence number and random
+     * bits. Consecutive ids sort together, so the primary-key index is appended to instead of split at random pages,
+     * and nothing contends on the SecureRandom behind {@link UUID#randomUUID()}.
+     */
+    private static final class IdSequence {
+        private final long epochMillis;
+        private long sequence;
+
+        private IdSequence(long epochMillis) {
+            this.epochMillis = epochMillis;
+        }
+
+        private String next() {
+            long value = sequence++;
+            long most = (epochMillis << 16) | 0x7000L | ((value >>> 18) & 0x0FFFL);
+            long least = 0x8000000000000000L | ((value & 0x3FFFFL) << 44)
+                | (ThreadLocalRandom.current().nextLong() & 0xFFFFFFFFFFFL);
+            return new UUID(most, least).toString();
+        }
+    }
+
+    private static final class Chunk {
+        private final List<ImportDao.Row> rows = new ArrayList<>(CHUNK_ROWS);
+        private final List<String> rejects = new ArrayList<>();
+        private long lastLine;
+        private boolean last;
+        private IOException failure;
+    }
+}
@@ -0,0 +1,255 @@
+package com.revature.manager.importer;
+
+import com.revature.manager.exceptions.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams an import file one record at a time. CSV files need a header row naming the columns; JSON Lines files hold
+ * one flat JSON object per line. Either way each record is mapped onto {@link #FIELDS}; unknown columns are ignored.
+ */
+public class RecordReader implements AutoCloseable {
+    public static final String[] FIELDS = {"username", "user_id", "category", "amount", "description", "date", "status"};
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final BufferedReader reader;
+    private final boolean json;
+    private int[] csvColumns;
+    private long lineNumber;
+
+    private RecordReader(BufferedReader reader, boolean json) {
+        this.reader = reader;
+        this.json = json;
+    }
+
+    public static RecordReader open(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean json = name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json");
+        BufferedReader reader = new BufferedReader(
+            Files.newBufferedReader(path, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RecordReader recordReader = new RecordReader(reader, json);
+        if (!json) {
+            recordReader.readHeader();
+        }
+        return recordReader;
+    }
+
+    /**
+     * Returns the next non-blank record, or null at end of file. Lines that cannot be parsed come back with
+     * {@link Record#error()} set so the caller can quarantine them.
+     */
+    public Record next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                return new Record(lineNumber, line, json ? parseJson(line) : parseCsv(line), null);
+            } catch (ValidationException e) {
+                return new Record(lineNumber, line, null, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Skips ahead so the next record returned is the one after {@code line}; used when resuming an import.
+     */
+    public void skipTo(long line) throws IOException {
+        while (lineNumber < line && reader.readLine() != null) {
+            lineNumber++;
+        }
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        lineNumber++;
+        if (header == null) {
+            throw new IOException("CSV file is empty");
+        }
+        List<String> names = splitCsv(header.replace("\uFEFF", ""));
+        csvColumns = new int[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            csvColumns[i] = fieldIndex(names.get(i).trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private String[] parseCsv(String line) {
+        List<String> values = splitCsv(line);
+        String[] fields = new String[FIELDS.length];
+        for (int i = 0; i < values.size() && i < csvColumns.length; i++) {
+            if (csvColumns[i] >= 0) {
+                fields[csvColumns[i]] = values.get(i);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * RFC 4180 style splitting: quoted fields may contain commas and doubled quotes, but not line breaks.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>(FIELDS.length);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ValidationException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    /**
+     * Minimal parser for one flat JSON object: string, number, boolean and null values only.
+     */
+    private static String[] parseJson(String line) {
+        String[] fields = new String[FIELDS.length];
+        int[] pos = {skipSpace(line, 0)};
+        expect(line, pos, '{');
+        pos[0] = skipSpace(line, pos[0]);
+        if (peek(line, pos[0]) == '}') {
+            return fields;
+        }
+        while (true) {
+            pos[0] = skipSpace(line, pos[0]);
+            String key = readJsonString(line, pos);
+            pos[0] = skipSpace(line, pos[0]);
+            expect(line, pos, ':');
+            pos[0] = skipSpace(line, pos[0]);
+            String value = peek(line, pos[0]) == '"' ? readJsonString(line, pos) : readJsonLiteral(line, pos);
+            int index = fieldIndex(key.toLowerCase(Locale.ROOT));
+            if (index >= 0) {
+                fields[index] = value;
+            }
+            pos[0] = skipSpace(line, pos[0]);
+            char c = peek(line, pos[0]);
+            pos[0]++;
+            if (c == '}') {
+                return fields;
+            }
+            if (c != ',') {
+                throw new ValidationException("Malformed JSON object at column " + pos[0]);
+            }
+        }
+    }
+
+    private static String readJsonString(String line, int[] pos) {
+        expect(line, pos, '"');
+        StringBuilder value = new StringBuilder();
+        while (pos[0] < line.length()) {
+            char c = line.charAt(pos[0]++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            char escaped = peek(line, pos[0]++);
+            switch (escaped) {
+                case 'n' -> value.append('\n');
+                case 't' -> value.append('\t');
+                case 'r' -> value.append('\r');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'u' -> {
+                    if (pos[0] + 4 > line.length()) {
+                        throw new ValidationException("Truncated unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(line.substring(pos[0], pos[0] + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new ValidationException("Invalid unicode escape");
+                    }
+                    pos[0] += 4;
+                }
+                default -> value.append(escaped);
+            }
+        }
+        throw new ValidationException("Unterminated JSON string");
+    }
+
+    private static String readJsonLiteral(String line, int[] pos) {
+        int start = pos[0];
+        while (pos[0] < line.length() && ",}".indexOf(line.charAt(pos[0])) < 0) {
+            pos[0]++;
+        }
+        String literal = line.substring(start, pos[0]).trim();
+        if (literal.isEmpty()) {
+            throw new ValidationException("Missing JSON value at column " + start);
+        }
+        if (literal.startsWith("{") || literal.startsWith("[")) {
+            throw new ValidationException("Nested JSON values are not supported");
+        }
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private static void expect(String line, int[] pos, char expected) {
+        if (peek(line, pos[0]) != expected) {
+            throw new ValidationException("Expected '" + expected + "' at column " + pos[0]);
+        }
+        pos[0]++;
+    }
+
+    private static char peek(String line, int pos) {
+        return pos < line.length() ? line.charAt(pos) : '\0';
+    }
+
+    private static int skipSpace(String line, int pos) {
+        while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int fieldIndex(String name) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (FIELDS[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * One input line; {@code fields} follows {@link #FIELDS} order and is null when {@code error} is set.
+     */
+    public record Record(long lineNumber, String line, String[] fields, String error) {
+    }
+}
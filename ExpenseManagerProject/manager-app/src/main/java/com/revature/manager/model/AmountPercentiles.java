@@ -0,0 +1,43 @@
+package com.revature.manager.model;
+
+public class AmountPercentiles {
+    private final String category;
+    private final long count;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double max;
+
+    public AmountPercentiles(String category, long count, double p50, double p90, double p99, double max) {
+        this.category = category;
+        this.count = count;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,48 @@
+package com.revature.manager.model;
+
+public class Approval {
+    private final String id;
+    private final String expenseId;
+    private final String status;
+    private final String reviewer;
+    private final String comment;
+    private final String reviewDate;
+
+    public Approval(String id, String expenseId, String status, String reviewer, String comment, String reviewDate) {
+        this.id = id;
+        this.expenseId = expenseId;
+        this.status = status;
+        this.reviewer = reviewer;
+        this.comment = comment;
+        this.reviewDate = reviewDate;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getExpenseId() {
+        return expenseId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getReviewer() {
+        return reviewer;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public String getReviewDate() {
+        return reviewDate;
+    }
+
+    @Override
+    public String toString() {
+        return reviewDate + " | " + expenseId + " | " + status + " | " + reviewer;
+    }
+}
@@ -0,0 +1,87 @@
+package com.revature.manager.model;
+
+import java.util.List;
+
+public class ArchiveReport {
+    private final String cutoffDate;
+    private final long expensesMoved;
+    private final long approvalsMoved;
+    private final int chunks;
+    private final long elapsedMillis;
+    private final List<String> problems;
+    private final long pendingQueryMillisBefore;
+    private final long pendingQueryMillisAfter;
+    private final long recentRangeMillisBefore;
+    private final long recentRangeMillisAfter;
+
+    public ArchiveReport(
+        String cutoffDate,
+        long expensesMoved,
+        long approvalsMoved,
+        int chunks,
+        long elapsedMillis,
+        List<String> problems,
+        long pendingQueryMillisBefore,
+        long pendingQueryMillisAfter,
+        long recentRangeMillisBefore,
+        long recentRangeMillisAfter
+    ) {
+        this.cutoffDate = cutoffDate;
+        this.expensesMoved = expensesMoved;
+        this.approvalsMoved = approvalsMoved;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+        this.problems = problems;
+        this.pendingQueryMillisBefore = pendingQueryMillisBefore;
+        this.pendingQueryMillisAfter = pendingQueryMillisAfter;
+        this.recentRangeMillisBefore = recentRangeMillisBefore;
+        this.recentRangeMillisAfter = recentRangeMillisAfter;
+    }
+
+    public String getCutoffDate() {
+        return cutoffDate;
+    }
+
+    public long getExpensesMoved() {
+        return expensesMoved;
+    }
+
+    public long getApprovalsMoved() {
+        return approvalsMoved;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Findings of the post-run verification; empty when hot and cold storage are consistent.
+     */
+    public List<String> getProblems() {
+        return problems;
+    }
+
+    public boolean isVerified() {
+        return problems.isEmpty();
+    }
+
+    public long getPendingQueryMillisBefore() {
+        return pendingQueryMillisBefore;
+    }
+
+    public long getPendingQueryMillisAfter() {
+        return pendingQueryMillisAfter;
+    }
+
+    public long getRecentRangeMillisBefore() {
+        return recentRangeMillisBefore;
+    }
+
+    public long getRecentRangeMillisAfter() {
+        return recentRangeMillisAfter;
+    }
+}
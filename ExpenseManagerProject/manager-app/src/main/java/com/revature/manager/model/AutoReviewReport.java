@@ -0,0 +1,46 @@
+package com.revature.manager.model;
+
+public class AutoReviewReport {
+    private final long approved;
+    private final long denied;
+    private final long skipped;
+    private final int batches;
+    private final long elapsedMillis;
+
+    public AutoReviewReport(long approved, long denied, long skipped, int batches, long elapsedMillis) {
+        this.approved = approved;
+        this.denied = denied;
+        this.skipped = skipped;
+        this.batches = batches;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getApproved() {
+        return approved;
+    }
+
+    public long getDenied() {
+        return denied;
+    }
+
+    /**
+     * Planned decisions that were not applied, because the expense was reviewed, or its submitter, category,
+     * amount or date edited, in the meantime.
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        long written = approved + denied;
+        return elapsedMillis == 0 ? written : written * 1000.0 / elapsedMillis;
+    }
+}
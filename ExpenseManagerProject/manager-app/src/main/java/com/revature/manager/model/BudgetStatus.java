@@ -0,0 +1,99 @@
+package com.revature.manager.model;
+
+import java.time.YearMonth;
+
+/**
+ * One monthly budget (for a user or a category) with the approved and pending spending counted against it.
+ */
+public class BudgetStatus {
+    public static final String USER = "user";
+    public static final String CATEGORY = "category";
+
+    private final String scope;
+    private final String key;
+    private final String label;
+    private final YearMonth month;
+    private final double limit;
+    private final long approvedCount;
+    private final double approvedAmount;
+    private final long pendingCount;
+    private final double pendingAmount;
+
+    public BudgetStatus(
+        String scope,
+        String key,
+        String label,
+        YearMonth month,
+        double limit,
+        long approvedCount,
+        double approvedAmount,
+        long pendingCount,
+        double pendingAmount
+    ) {
+        this.scope = scope;
+        this.key = key;
+        this.label = label;
+        this.month = month;
+        this.limit = limit;
+        this.approvedCount = approvedCount;
+        this.approvedAmount = approvedAmount;
+        this.pendingCount = pendingCount;
+        this.pendingAmount = pendingAmount;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * The user id, or the lower-cased category name.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * The username or category name as shown to managers.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public long getApprovedCount() {
+        return approvedCount;
+    }
+
+    public double getApprovedAmount() {
+        return approvedAmount;
+    }
+
+    public long getPendingCount() {
+        return pendingCount;
+    }
+
+    public double getPendingAmount() {
+        return pendingAmount;
+    }
+
+    /**
+     * Limit minus approved spending; negative once the budget is exceeded.
+     */
+    public double getRemaining() {
+        return limit - approvedAmount;
+    }
+
+    /**
+     * What would remain if every pending expense in the month were approved as well.
+     */
+    public double getRemainingIfAllApproved() {
+        return limit - approvedAmount - pendingAmount;
+    }
+}
@@ -0,0 +1,35 @@
+package com.revature.manager.model;
+
+import java.util.List;
+
+/**
+ * The expenses that changed after a change token, in their current state, plus the ids that were deleted.
+ * Pass {@link #getToken()} to the next call to continue from where this set ends.
+ */
+public class ChangeSet {
+    private final long token;
+    private final List<Expense> changed;
+    private final List<String> deletedIds;
+
+    public ChangeSet(long token, List<Expense> changed, List<String> deletedIds) {
+        this.token = token;
+        this.changed = changed;
+        this.deletedIds = deletedIds;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    public List<Expense> getChanged() {
+        return changed;
+    }
+
+    public List<String> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+}
@@ -0,0 +1,40 @@
+package com.revature.manager.model;
+
+/**
+ * Count and amount of the expenses on one day that share a status and category.
+ */
+public class DailyTotals {
+    private final String date;
+    private final String status;
+    private final String category;
+    private final long count;
+    private final double amount;
+
+    public DailyTotals(String date, String status, String category, long count, double amount) {
+        this.date = date;
+        this.status = status;
+        this.category = category;
+        this.count = count;
+        this.amount = amount;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,62 @@
+package com.revature.manager.model;
+
+/**
+ * One expense that looks like a resubmission of an earlier one by the same user. EXACT means the same amount, date
+ * and description once case, punctuation and spacing are ignored; SIMILAR means the same amount, dates at most a
+ * day apart and a description whose estimated similarity reaches the detector's threshold.
+ */
+public class DuplicateMatch {
+    public enum Kind {
+        EXACT,
+        SIMILAR
+    }
+
+    private final String expenseId;
+    private final String duplicateOfId;
+    private final Kind kind;
+    private final double similarity;
+
+    public DuplicateMatch(
+        String expenseId,
+        String duplicateOfId,
+        Kind kind,
+        double similarity
+    ) {
+        this.expenseId = expenseId;
+        this.duplicateOfId = duplicateOfId;
+        this.kind = kind;
+        this.similarity = similarity;
+    }
+
+    /**
+     * The later of the two expenses.
+     */
+    public String getExpenseId() {
+        return expenseId;
+    }
+
+    /**
+     * The earlier expense it repeats.
+     */
+    public String getDuplicateOfId() {
+        return duplicateOfId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the two descriptions' character trigrams, 1.0 for exact matches.
+     */
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    /**
+     * The expense on the other side of the match from {@code expenseId}.
+     */
+    public String otherThan(String id) {
+        return expenseId.equals(id) ? duplicateOfId : expenseId;
+    }
+}
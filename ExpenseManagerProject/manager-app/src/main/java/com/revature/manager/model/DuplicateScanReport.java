@@ -0,0 +1,49 @@
+package com.revature.manager.model;
+
+public class DuplicateScanReport {
+    private final long expensesSigned;
+    private final long exactMatches;
+    private final long similarMatches;
+    private final long newMatches;
+    private final long elapsedMillis;
+
+    public DuplicateScanReport(
+        long expensesSigned,
+        long exactMatches,
+        long similarMatches,
+        long newMatches,
+        long elapsedMillis
+    ) {
+        this.expensesSigned = expensesSigned;
+        this.exactMatches = exactMatches;
+        this.similarMatches = similarMatches;
+        this.newMatches = newMatches;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Expenses (hot and archived) signed by this scan: new or edited since the last check, or never signed before.
+     */
+    public long getExpensesSigned() {
+        return expensesSigned;
+    }
+
+    public long getExactMatches() {
+        return exactMatches;
+    }
+
+    public long getSimilarMatches() {
+        return similarMatches;
+    }
+
+    /**
+     * Matches not recorded before this scan.
+     */
+    public long getNewMatches() {
+        return newMatches;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,190 @@
+package com.revature.manager.model;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Any combination of filters over expenses plus a sort order and an optional row limit; unset filters match
+ * everything. Build one with {@link #builder()}.
+ */
+public final class ExpenseCriteria {
+    public enum Sort {
+        DATE_ASC(Comparator.comparing(Expense::getDate)),
+        DATE_DESC(Comparator.comparing(Expense::getDate).reversed()),
+        AMOUNT_ASC(Comparator.comparingDouble(Expense::getAmount).thenComparing(Expense::getDate)),
+        AMOUNT_DESC(Comparator.comparingDouble(Expense::getAmount).thenComparing(Expense::getDate).reversed());
+
+        private final Comparator<Expense> order;
+
+        Sort(Comparator<Expense> order) {
+            this.order = order;
+        }
+
+        /**
+         * The same order as the generated ORDER BY, for merging sorted results.
+         */
+        public Comparator<Expense> getOrder() {
+            return order;
+        }
+    }
+
+    private final String userId;
+    private final String status;
+    private final String category;
+    private final LocalDate dateFrom;
+    private final LocalDate dateTo;
+    private final Double minAmount;
+    private final Double maxAmount;
+    private final Sort sort;
+    private final int limit;
+
+    private ExpenseCriteria(Builder builder) {
+        this.userId = builder.userId;
+        this.status = builder.status;
+        this.category = builder.category;
+        this.dateFrom = builder.dateFrom;
+        this.dateTo = builder.dateTo;
+        this.minAmount = builder.minAmount;
+        this.maxAmount = builder.maxAmount;
+        this.sort = builder.sort;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Optional<String> getUserId() {
+        return Optional.ofNullable(userId);
+    }
+
+    public Optional<String> getStatus() {
+        return Optional.ofNullable(status);
+    }
+
+    /**
+     * Matched case-insensitively.
+     */
+    public Optional<String> getCategory() {
+        return Optional.ofNullable(category);
+    }
+
+    public Optional<LocalDate> getDateFrom() {
+        return Optional.ofNullable(dateFrom);
+    }
+
+    public Optional<LocalDate> getDateTo() {
+        return Optional.ofNullable(dateTo);
+    }
+
+    public Optional<Double> getMinAmount() {
+        return Optional.ofNullable(minAmount);
+    }
+
+    public Optional<Double> getMaxAmount() {
+        return Optional.ofNullable(maxAmount);
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    /**
+     * Maximum number of rows, or 0 for all of them.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ExpenseCriteria{");
+        getUserId().ifPresent(value -> builder.append("user=").append(value).append(", "));
+        getStatus().ifPresent(value -> builder.append("status=").append(value).append(", "));
+        getCategory().ifPresent(value -> builder.append("category=").append(value).append(", "));
+        getDateFrom().ifPresent(value -> builder.append("from=").append(value).append(", "));
+        getDateTo().ifPresent(value -> builder.append("to=").append(value).append(", "));
+        getMinAmount().ifPresent(value -> builder.append("min=").append(value).append(", "));
+        getMaxAmount().ifPresent(value -> builder.append("max=").append(value).append(", "));
+        if (limit > 0) {
+            builder.append("limit=").append(limit).append(", ");
+        }
+        return builder.append("sort=").append(sort).append('}').toString();
+    }
+
+    public static final class Builder {
+        private String userId;
+        private String status;
+        private String category;
+        private LocalDate dateFrom;
+        private LocalDate dateTo;
+        private Double minAmount;
+        private Double maxAmount;
+        private Sort sort = Sort.DATE_DESC;
+        private int limit;
+
+        private Builder() {
+        }
+
+        public Builder userId(String userId) {
+            this.userId = userId;
+            return this;
+        }
+
+        public Builder status(String status) {
+            this.status = status == null ? null : status.toLowerCase(Locale.ROOT);
+            return this;
+        }
+
+        public Builder category(String category) {
+            this.category = category;
+            return this;
+        }
+
+        /**
+         * Inclusive; either end may be left open.
+         */
+        public Builder dateRange(LocalDate from, LocalDate to) {
+            this.dateFrom = from;
+            this.dateTo = to;
+            return this;
+        }
+
+        /**
+         * Inclusive; either end may be left open.
+         */
+        public Builder amountRange(Double min, Double max) {
+            this.minAmount = min;
+            this.maxAmount = max;
+            return this;
+        }
+
+        public Builder sort(Sort sort) {
+            this.sort = sort;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public ExpenseCriteria build() {
+            if (dateFrom != null && dateTo != null && dateTo.isBefore(dateFrom)) {
+                throw new IllegalArgumentException("The end date is before the start date");
+            }
+            if (minAmount != null && maxAmount != null && maxAmount < minAmount) {
+                throw new IllegalArgumentException("The maximum amount is below the minimum");
+            }
+            if (limit < 0) {
+                throw new IllegalArgumentException("The limit cannot be negative");
+            }
+            if (sort == null) {
+                throw new IllegalArgumentException("A sort order is required");
+            }
+            return new ExpenseCriteria(this);
+        }
+    }
+}
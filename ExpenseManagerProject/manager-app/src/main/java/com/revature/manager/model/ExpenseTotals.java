@@ -0,0 +1,30 @@
+package com.revature.manager.model;
+
+public class ExpenseTotals {
+    private final String key;
+    private final long count;
+    private final double amount;
+
+    public ExpenseTotals(String key, long count, double amount) {
+        this.key = key;
+        this.count = count;
+        this.amount = amount;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return key + " | " + count + " | " + amount;
+    }
+}
@@ -0,0 +1,67 @@
+package com.revature.manager.model;
+
+public class ImportReport {
+    private final String source;
+    private final long imported;
+    private final long rejected;
+    private final long resumedFromLine;
+    private final boolean alreadyCompleted;
+    private final long elapsedMillis;
+    private final String quarantineFile;
+
+    public ImportReport(
+        String source,
+        long imported,
+        long rejected,
+        long resumedFromLine,
+        boolean alreadyCompleted,
+        long elapsedMillis,
+        String quarantineFile
+    ) {
+        this.source = source;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.resumedFromLine = resumedFromLine;
+        this.alreadyCompleted = alreadyCompleted;
+        this.elapsedMillis = elapsedMillis;
+        this.quarantineFile = quarantineFile;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Rows written by this run (not counting rows committed before a resume).
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Last input line that had already been committed when this run started, or 0 for a fresh import.
+     */
+    public long getResumedFromLine() {
+        return resumedFromLine;
+    }
+
+    public boolean isAlreadyCompleted() {
+        return alreadyCompleted;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+    }
+
+    public String getQuarantineFile() {
+        return quarantineFile;
+    }
+}
@@ -0,0 +1,52 @@
+package com.revature.manager.model;
+
+/**
+ * One step of a maintenance pass and how long it took.
+ */
+public class MaintenanceJob {
+    public enum Outcome {
+        DONE,
+        SKIPPED,
+        /**
+         * Stopped early because the app needed the database or the pass ran out of time; the next pass continues.
+         */
+        YIELDED,
+        FAILED
+    }
+
+    private final String name;
+    private final Outcome outcome;
+    private final String detail;
+    private final long elapsedMillis;
+
+    public MaintenanceJob(
+        String name,
+        Outcome outcome,
+        String detail,
+        long elapsedMillis
+    ) {
+        this.name = name;
+        this.outcome = outcome;
+        this.detail = detail;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * What the job did, or why it did nothing.
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
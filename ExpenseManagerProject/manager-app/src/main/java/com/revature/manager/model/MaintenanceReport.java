@@ -0,0 +1,100 @@
+package com.revature.manager.model;
+
+import java.util.List;
+
+public class MaintenanceReport {
+    private final String databasePath;
+    private final String startedAt;
+    private final long fileBytesBefore;
+    private final long fileBytes;
+    private final long walBytes;
+    private final int pageSize;
+    private final long freelistPagesBefore;
+    private final long freelistPages;
+    private final boolean conversionPending;
+    private final List<MaintenanceJob> jobs;
+    private final long elapsedMillis;
+
+    public MaintenanceReport(
+        String databasePath,
+        String startedAt,
+        long fileBytesBefore,
+        long fileBytes,
+        long walBytes,
+        int pageSize,
+        long freelistPagesBefore,
+        long freelistPages,
+        boolean conversionPending,
+        List<MaintenanceJob> jobs,
+        long elapsedMillis
+    ) {
+        this.databasePath = databasePath;
+        this.startedAt = startedAt;
+        this.fileBytesBefore = fileBytesBefore;
+        this.fileBytes = fileBytes;
+        this.walBytes = walBytes;
+        this.pageSize = pageSize;
+        this.freelistPagesBefore = freelistPagesBefore;
+        this.freelistPages = freelistPages;
+        this.conversionPending = conversionPending;
+        this.jobs = jobs;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getDatabasePath() {
+        return databasePath;
+    }
+
+    /**
+     * Local date and time the pass started, {@code yyyy-MM-dd HH:mm:ss}.
+     */
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Size of the main database file when the pass started, without the WAL.
+     */
+    public long getFileBytesBefore() {
+        return fileBytesBefore;
+    }
+
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    public long getWalBytes() {
+        return walBytes;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public long getFreelistPagesBefore() {
+        return freelistPagesBefore;
+    }
+
+    /**
+     * Unused pages still inside the file after the pass.
+     */
+    public long getFreelistPages() {
+        return freelistPages;
+    }
+
+    /**
+     * True while the file is not yet in incremental auto-vacuum mode, so free pages cannot be returned; a manual
+     * pass converts it.
+     */
+    public boolean isConversionPending() {
+        return conversionPending;
+    }
+
+    public List<MaintenanceJob> getJobs() {
+        return jobs;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,77 @@
+package com.revature.manager.model;
+
+import com.revature.manager.utils.KllSketch;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Approved spending for one month: an amount sketch per category and exact totals per user. Both parts merge, so
+ * months (and shards) combine without going back to the rows.
+ */
+public class MonthlySpend {
+    private final YearMonth month;
+    private final Map<String, KllSketch> sketchesByCategory;
+    private final Map<String, UserSpend> spendByUser;
+
+    public MonthlySpend(YearMonth month) {
+        this(month, new HashMap<>(), new HashMap<>());
+    }
+
+    public MonthlySpend(YearMonth month, Map<String, KllSketch> sketchesByCategory, Map<String, UserSpend> spendByUser) {
+        this.month = month;
+        this.sketchesByCategory = sketchesByCategory;
+        this.spendByUser = spendByUser;
+    }
+
+    public void add(String category, String userId, double amount) {
+        sketchesByCategory.computeIfAbsent(category, key -> new KllSketch()).update(amount);
+        spendByUser.computeIfAbsent(userId, key -> new UserSpend()).add(1, amount);
+    }
+
+    public void merge(MonthlySpend other) {
+        other.sketchesByCategory.forEach((category, sketch) ->
+            sketchesByCategory.computeIfAbsent(category, key -> new KllSketch()).merge(sketch));
+        other.spendByUser.forEach((userId, spend) ->
+            spendByUser.computeIfAbsent(userId, key -> new UserSpend()).add(spend.getCount(), spend.getAmount()));
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public Map<String, KllSketch> getSketchesByCategory() {
+        return sketchesByCategory;
+    }
+
+    public Map<String, UserSpend> getSpendByUser() {
+        return spendByUser;
+    }
+
+    public static final class UserSpend {
+        private long count;
+        private double amount;
+
+        public UserSpend() {
+        }
+
+        public UserSpend(long count, double amount) {
+            this.count = count;
+            this.amount = amount;
+        }
+
+        void add(long expenses, double total) {
+            count += expenses;
+            amount += total;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getAmount() {
+            return amount;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.revature.manager.model;
+
+public class ReviewerStats {
+    private final String reviewer;
+    private final long decisions;
+    private final long approved;
+    private final long denied;
+    private final long activeHours;
+    private final double medianHoursToReview;
+    private final String firstDecision;
+    private final String lastDecision;
+
+    public ReviewerStats(
+        String reviewer,
+        long decisions,
+        long approved,
+        long denied,
+        long activeHours,
+        double medianHoursToReview,
+        String firstDecision,
+        String lastDecision
+    ) {
+        this.reviewer = reviewer;
+        this.decisions = decisions;
+        this.approved = approved;
+        this.denied = denied;
+        this.activeHours = activeHours;
+        this.medianHoursToReview = medianHoursToReview;
+        this.firstDecision = firstDecision;
+        this.lastDecision = lastDecision;
+    }
+
+    public String getReviewer() {
+        return reviewer;
+    }
+
+    public long getDecisions() {
+        return decisions;
+    }
+
+    public long getApproved() {
+        return approved;
+    }
+
+    public long getDenied() {
+        return denied;
+    }
+
+    public long getActiveHours() {
+        return activeHours;
+    }
+
+    /**
+     * Decisions divided by the number of distinct clock hours in which the reviewer made at least one decision.
+     */
+    public double getDecisionsPerHour() {
+        return activeHours == 0 ? 0.0 : (double) decisions / activeHours;
+    }
+
+    public double getMedianHoursToReview() {
+        return medianHoursToReview;
+    }
+
+    public String getFirstDecision() {
+        return firstDecision;
+    }
+
+    public String getLastDecision() {
+        return lastDecision;
+    }
+}
@@ -0,0 +1,56 @@
+package com.revature.manager.model;
+
+/**
+ * Count, mean and sum of squared deviations of a series of amounts, as maintained by Welford's algorithm.
+ */
+public class RunningStats {
+    private final long count;
+    private final double mean;
+    private final double m2;
+
+    public RunningStats(long count, double mean, double m2) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    /**
+     * Combines the statistics of two disjoint series (Chan et al.), e.g. the same category on two shards.
+     */
+    public static RunningStats merge(RunningStats a, RunningStats b) {
+        if (a == null || a.count == 0) {
+            return b;
+        }
+        if (b == null || b.count == 0) {
+            return a;
+        }
+        long count = a.count + b.count;
+        double delta = b.mean - a.mean;
+        double mean = a.mean + delta * b.count / count;
+        double m2 = a.m2 + b.m2 + delta * delta * a.count * b.count / count;
+        return new RunningStats(count, mean, m2);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Sample variance, or 0 with fewer than two values.
+     */
+    public double getVariance() {
+        return count < 2 ? 0.0 : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getM2() {
+        return m2;
+    }
+}
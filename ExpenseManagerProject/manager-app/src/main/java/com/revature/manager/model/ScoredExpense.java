@@ -0,0 +1,33 @@
+package com.revature.manager.model;
+
+/**
+ * A pending expense with its priority score: the largest number of standard deviations its amount sits above the
+ * mean of any baseline with enough history (the submitter's, the category's, all reviewed expenses), and which
+ * baseline that was.
+ */
+public class ScoredExpense {
+    private final Expense expense;
+    private final double score;
+    private final String basis;
+
+    public ScoredExpense(Expense expense, double score, String basis) {
+        this.expense = expense;
+        this.score = score;
+        this.basis = basis;
+    }
+
+    public Expense getExpense() {
+        return expense;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Which baseline produced the score (user, category or all), or null when there was no usable history.
+     */
+    public String getBasis() {
+        return basis;
+    }
+}
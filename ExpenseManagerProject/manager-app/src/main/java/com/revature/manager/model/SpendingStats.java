@@ -0,0 +1,40 @@
+package com.revature.manager.model;
+
+import com.revature.manager.utils.SqliteText;
+
+import java.util.Map;
+
+/**
+ * Snapshot of the reviewed-amount statistics per user, per category (lower-cased by SQLite) and overall.
+ */
+public class SpendingStats {
+    private final Map<String, RunningStats> byUser;
+    private final Map<String, RunningStats> byCategory;
+    private final RunningStats overall;
+
+    public SpendingStats(Map<String, RunningStats> byUser, Map<String, RunningStats> byCategory, RunningStats overall) {
+        this.byUser = byUser;
+        this.byCategory = byCategory;
+        this.overall = overall;
+    }
+
+    public RunningStats forUser(String userId) {
+        return byUser.get(userId);
+    }
+
+    public RunningStats forCategory(String category) {
+        return category == null ? null : byCategory.get(SqliteText.lower(category));
+    }
+
+    public RunningStats getOverall() {
+        return overall;
+    }
+
+    public Map<String, RunningStats> getByUser() {
+        return byUser;
+    }
+
+    public Map<String, RunningStats> getByCategory() {
+        return byCategory;
+    }
+}
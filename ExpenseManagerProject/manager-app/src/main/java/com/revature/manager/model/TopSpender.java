@@ -0,0 +1,31 @@
+package com.revature.manager.model;
+
+public class TopSpender {
+    private final String userId;
+    private final String username;
+    private final long count;
+    private final double amount;
+
+    public TopSpender(String userId, String username, long count, double amount) {
+        this.userId = userId;
+        this.username = username;
+        this.count = count;
+        this.amount = amount;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+}
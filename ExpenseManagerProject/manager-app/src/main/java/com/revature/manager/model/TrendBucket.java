@@ -0,0 +1,40 @@
+package com.revature.manager.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Calendar period a trend is bucketed by. Weeks start on Monday; months on the first.
+ */
+public enum TrendBucket {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * First day of the period containing {@code date}.
+     */
+    public LocalDate start(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * First day of the period after the one starting on {@code start}.
+     */
+    public LocalDate next(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+        };
+    }
+
+    public LocalDate previous(LocalDate start) {
+        return start(start.minusDays(1));
+    }
+}
@@ -0,0 +1,102 @@
+package com.revature.manager.model;
+
+import java.time.LocalDate;
+
+/**
+ * One period of a trend: its totals, the totals of the period before it, and the trailing 7- and 30-day windows
+ * ending on the period's last day (or the report's end date, if that comes first).
+ */
+public class TrendPoint {
+    private final LocalDate periodStart;
+    private final LocalDate periodEnd;
+    private final long count;
+    private final double amount;
+    private final long previousCount;
+    private final double previousAmount;
+    private final long rolling7Count;
+    private final double rolling7Amount;
+    private final long rolling30Count;
+    private final double rolling30Amount;
+
+    public TrendPoint(
+        LocalDate periodStart,
+        LocalDate periodEnd,
+        long count,
+        double amount,
+        long previousCount,
+        double previousAmount,
+        long rolling7Count,
+        double rolling7Amount,
+        long rolling30Count,
+        double rolling30Amount
+    ) {
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.count = count;
+        this.amount = amount;
+        this.previousCount = previousCount;
+        this.previousAmount = previousAmount;
+        this.rolling7Count = rolling7Count;
+        this.rolling7Amount = rolling7Amount;
+        this.rolling30Count = rolling30Count;
+        this.rolling30Amount = rolling30Amount;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    /**
+     * Last day of the period, inclusive.
+     */
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public long getPreviousCount() {
+        return previousCount;
+    }
+
+    public double getPreviousAmount() {
+        return previousAmount;
+    }
+
+    public long getCountChange() {
+        return count - previousCount;
+    }
+
+    public double getAmountChange() {
+        return amount - previousAmount;
+    }
+
+    /**
+     * Change in amount against the previous period as a fraction (0.25 for +25%), or NaN when that period had none.
+     */
+    public double getAmountChangeRatio() {
+        return previousAmount == 0 ? Double.NaN : (amount - previousAmount) / previousAmount;
+    }
+
+    public long getRolling7Count() {
+        return rolling7Count;
+    }
+
+    public double getRolling7Amount() {
+        return rolling7Amount;
+    }
+
+    public long getRolling30Count() {
+        return rolling30Count;
+    }
+
+    public double getRolling30Amount() {
+        return rolling30Amount;
+    }
+}
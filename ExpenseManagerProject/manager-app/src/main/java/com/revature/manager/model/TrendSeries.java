@@ -0,0 +1,50 @@
+package com.revature.manager.model;
+
+import java.util.List;
+
+/**
+ * Trend of one status or category, or of all expenses together when the key is null.
+ */
+public class TrendSeries {
+    private final String key;
+    private final TrendBucket bucket;
+    private final List<TrendPoint> points;
+
+    public TrendSeries(String key, TrendBucket bucket, List<TrendPoint> points) {
+        this.key = key;
+        this.bucket = bucket;
+        this.points = points;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isTotal() {
+        return key == null;
+    }
+
+    public TrendBucket getBucket() {
+        return bucket;
+    }
+
+    public List<TrendPoint> getPoints() {
+        return points;
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (TrendPoint point : points) {
+            total += point.getCount();
+        }
+        return total;
+    }
+
+    public double getTotalAmount() {
+        double total = 0;
+        for (TrendPoint point : points) {
+            total += point.getAmount();
+        }
+        return total;
+    }
+}
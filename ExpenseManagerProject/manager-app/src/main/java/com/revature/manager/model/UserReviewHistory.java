@@ -0,0 +1,36 @@
+package com.revature.manager.model;
+
+/**
+ * How a user's past expenses were decided, across hot and archived storage.
+ */
+public class UserReviewHistory {
+    public static final UserReviewHistory NONE = new UserReviewHistory(0, 0);
+
+    private final long approved;
+    private final long denied;
+
+    public UserReviewHistory(long approved, long denied) {
+        this.approved = approved;
+        this.denied = denied;
+    }
+
+    public long getApproved() {
+        return approved;
+    }
+
+    public long getDenied() {
+        return denied;
+    }
+
+    public long getReviewed() {
+        return approved + denied;
+    }
+
+    /**
+     * Share of reviewed expenses that were denied, or 0 for a user with no reviewed expenses.
+     */
+    public double getDenialRate() {
+        long reviewed = getReviewed();
+        return reviewed == 0 ? 0.0 : (double) denied / reviewed;
+    }
+}
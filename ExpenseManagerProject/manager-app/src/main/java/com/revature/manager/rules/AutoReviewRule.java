@@ -0,0 +1,59 @@
+package com.revature.manager.rules;
+
+import com.revature.manager.model.Expense;
+import com.revature.manager.model.UserReviewHistory;
+
+import java.util.function.BiPredicate;
+
+/**
+ * One compiled line of the rules file: a name, the status to set, and the conjunction of its conditions.
+ */
+public class AutoReviewRule {
+    private final String name;
+    private final String status;
+    private final String source;
+    private final String comment;
+    private final BiPredicate<Expense, UserReviewHistory> condition;
+
+    AutoReviewRule(String name, String status, String source, BiPredicate<Expense, UserReviewHistory> condition) {
+        this.name = name;
+        this.status = status;
+        this.source = source;
+        this.comment = ("approved".equals(status) ? "Auto-approved" : "Auto-denied") + " by rule " + name;
+        this.condition = condition;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The status a matching expense moves to: approved or denied.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * The conditions as written in the rules file.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * The approvals comment recorded for every expense this rule decides.
+     */
+    public String getComment() {
+        return comment;
+    }
+
+    public boolean matches(Expense expense, UserReviewHistory history) {
+        return condition.test(expense, history);
+    }
+
+    @Override
+    public String toString() {
+        return name + " | " + status + " | " + source;
+    }
+}
@@ -0,0 +1,256 @@
+package com.revature.manager.rules;
+
+import com.revature.manager.exceptions.ValidationException;
+import com.revature.manager.model.Expense;
+import com.revature.manager.model.UserReviewHistory;
+import com.revature.manager.utils.InputValidator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.ToDoubleBiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a rules file into {@link AutoReviewRule}s. Each non-blank line that does not start with {@code #} reads
+ *
+ * <pre>name | approve or deny | condition and condition ...</pre>
+ *
+ * where a condition is {@code field operator value}. Fields are {@code amount}, {@code category}, {@code user},
+ * {@code date}, {@code age_days}, {@code history.approved}, {@code history.denied}, {@code history.reviewed} and
+ * {@code history.denial_rate}; operators are {@code = != < <= > >=} and, for category and user,
+ * {@code in (a, b, ...)}. All parsing and type checking happens here, so evaluating a rule is only a chain of
+ * field reads and comparisons.
+ */
+public final class RuleCompiler {
+    private static final Pattern CONDITION = Pattern.compile(
+        "^\\s*([a-z_.]+)\\s*(<=|>=|!=|=|<|>|(?i:in)\\b)\\s*(.*?)\\s*$");
+    private static final Pattern AND = Pattern.compile("\\s+(?i:and)\\s+");
+
+    private RuleCompiler() {
+        // Utility class; no instances required.
+    }
+
+    public static List<AutoReviewRule> compile(Path rulesFile) throws IOException {
+        return compile(Files.readAllLines(rulesFile, StandardCharsets.UTF_8), LocalDate.now());
+    }
+
+    /**
+     * Compiles the rules in file order; the first rule that matches an expense decides it. {@code today} anchors
+     * {@code age_days} conditions.
+     */
+    public static List<AutoReviewRule> compile(List<String> lines, LocalDate today) {
+        List<AutoReviewRule> rules = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                AutoReviewRule rule = compileRule(line, today);
+                if (!names.add(rule.getName().toLowerCase(Locale.ROOT))) {
+                    throw new ValidationException("rule " + rule.getName() + " is defined twice");
+                }
+                rules.add(rule);
+            } catch (ValidationException e) {
+                throw new ValidationException("Rules line " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    private static AutoReviewRule compileRule(String line, LocalDate today) {
+        String[] parts = line.split("\\|", 3);
+        if (parts.length != 3) {
+            throw new ValidationException("expected 'name | approve or deny | conditions'");
+        }
+        String name = parts[0].trim();
+        InputValidator.requireNonEmpty(name, "Rule name");
+        String status = switch (parts[1].trim().toLowerCase(Locale.ROOT)) {
+            case "approve", "approved" -> "approved";
+            case "deny", "denied" -> "denied";
+            default -> throw new ValidationException("action must be approve or deny");
+        };
+        String source = parts[2].trim();
+        InputValidator.requireNonEmpty(source, "Rule conditions");
+
+        BiPredicate<Expense, UserReviewHistory> condition = null;
+        for (String text : AND.split(source)) {
+            BiPredicate<Expense, UserReviewHistory> next = compileCondition(text, today);
+            condition = condition == null ? next : condition.and(next);
+        }
+        return new AutoReviewRule(name, status, source, condition);
+    }
+
+    private static BiPredicate<Expense, UserReviewHistory> compileCondition(String text, LocalDate today) {
+        Matcher matcher = CONDITION.matcher(text);
+        if (!matcher.matches()) {
+            throw new ValidationException("cannot read condition '" + text.trim() + "'");
+        }
+        String field = matcher.group(1);
+        Operator operator = Operator.of(matcher.group(2));
+        String value = unquote(matcher.group(3));
+        InputValidator.requireNonEmpty(value, "Value for " + field);
+
+        return switch (field) {
+            case "amount" -> numeric(operator, value, field, (expense, history) -> expense.getAmount());
+            case "category" -> text(operator, value, field, Expense::getCategory);
+            case "user" -> text(operator, value, field, Expense::getUsername);
+            case "date" -> date(operator, InputValidator.parseIsoDate(value, field).toString(), field);
+            case "age_days" -> ageDays(operator, value, today);
+            case "history.approved" -> numeric(operator, value, field, (expense, history) -> history.getApproved());
+            case "history.denied" -> numeric(operator, value, field, (expense, history) -> history.getDenied());
+            case "history.reviewed" -> numeric(operator, value, field, (expense, history) -> history.getReviewed());
+            case "history.denial_rate" ->
+                numeric(operator, value, field, (expense, history) -> history.getDenialRate());
+            default -> throw new ValidationException("unknown field '" + field + "'");
+        };
+    }
+
+    private static BiPredicate<Expense, UserReviewHistory> numeric(
+        Operator operator,
+        String value,
+        String field,
+        ToDoubleBiFunction<Expense, UserReviewHistory> reader
+    ) {
+        operator.requireOrdering(field);
+        double literal = parseNumber(value, field);
+        return (expense, history) -> operator.test(Double.compare(reader.applyAsDouble(expense, history), literal));
+    }
+
+    private static BiPredicate<Expense, UserReviewHistory> text(
+        Operator operator,
+        String value,
+        String field,
+        Function<Expense, String> reader
+    ) {
+        if (operator == Operator.IN) {
+            Set<String> allowed = new HashSet<>();
+            for (String item : parseList(value, field)) {
+                allowed.add(item.toLowerCase(Locale.ROOT));
+            }
+            return (expense, history) -> {
+                String actual = reader.apply(expense);
+                return actual != null && allowed.contains(actual.toLowerCase(Locale.ROOT));
+            };
+        }
+        if (operator != Operator.EQ && operator != Operator.NE) {
+            throw new ValidationException(field + " only supports =, != and in");
+        }
+        boolean equal = operator == Operator.EQ;
+        return (expense, history) -> value.equalsIgnoreCase(reader.apply(expense)) == equal;
+    }
+
+    /**
+     * Expense dates are stored as ISO strings, which sort the same way as the dates they spell.
+     */
+    private static BiPredicate<Expense, UserReviewHistory> date(Operator operator, String isoDate, String field) {
+        operator.requireOrdering(field);
+        return (expense, history) -> operator.test(expense.getDate().compareTo(isoDate));
+    }
+
+    /**
+     * {@code age_days op n} is rewritten to a comparison against the date n days before {@code today}, with the
+     * direction flipped because an older expense has an earlier date.
+     */
+    private static BiPredicate<Expense, UserReviewHistory> ageDays(Operator operator, String value, LocalDate today) {
+        operator.requireOrdering("age_days");
+        double days = parseNumber(value, "age_days");
+        if (days != Math.rint(days)) {
+            throw new ValidationException("age_days must be a whole number");
+        }
+        return date(operator.reversed(), today.minusDays((long) days).toString(), "age_days");
+    }
+
+    private static double parseNumber(String value, String field) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException(field + " must be compared with a number");
+        }
+    }
+
+    private static List<String> parseList(String value, String field) {
+        if (!value.startsWith("(") || !value.endsWith(")")) {
+            throw new ValidationException(field + " in needs a list like (a, b)");
+        }
+        List<String> items = new ArrayList<>();
+        for (String item : value.substring(1, value.length() - 1).split(",")) {
+            String trimmed = unquote(item);
+            if (!trimmed.isEmpty()) {
+                items.add(trimmed);
+            }
+        }
+        if (items.isEmpty()) {
+            throw new ValidationException(field + " in needs at least one value");
+        }
+        return items;
+    }
+
+    private static String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && (trimmed.startsWith("'") && trimmed.endsWith("'")
+            || trimmed.startsWith("\"") && trimmed.endsWith("\""))) {
+            return trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
+    private enum Operator {
+        EQ, NE, LT, LE, GT, GE, IN;
+
+        static Operator of(String symbol) {
+            return switch (symbol.toLowerCase(Locale.ROOT)) {
+                case "=" -> EQ;
+                case "!=" -> NE;
+                case "<" -> LT;
+                case "<=" -> LE;
+                case ">" -> GT;
+                case ">=" -> GE;
+                default -> IN;
+            };
+        }
+
+        void requireOrdering(String field) {
+            if (this == IN) {
+                throw new ValidationException(field + " does not support in");
+            }
+        }
+
+        /**
+         * Applies the operator to the sign of {@code actual.compareTo(literal)}.
+         */
+        boolean test(int comparison) {
+            return switch (this) {
+                case EQ -> comparison == 0;
+                case NE -> comparison != 0;
+                case LT -> comparison < 0;
+                case LE -> comparison <= 0;
+                case GT -> comparison > 0;
+                case GE -> comparison >= 0;
+                case IN -> throw new IllegalStateException("in is not an ordering");
+            };
+        }
+
+        Operator reversed() {
+            return switch (this) {
+                case LT -> GT;
+                case LE -> GE;
+                case GT -> LT;
+                case GE -> LE;
+                default -> this;
+            };
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.revature.manager.service;
+
+import com.revature.manager.dao.ArchiveDao;
+import com.revature.manager.dao.ExpenseRepository;
+import com.revature.manager.model.ArchiveReport;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves reviewed expenses older than a configurable age into cold storage on a background thread, one short
+ * transaction per chunk so employees and reviewers can write between chunks. With several databases, each one is
+ * archived into its own cold-storage file in turn.
+ */
+public class ArchiveService {
+    private static final Logger logger = Logger.getLogger(ArchiveService.class.getName());
+    public static final int DEFAULT_AGE_DAYS = 365;
+    private static final int CHUNK_SIZE = 2000;
+    private static final long PAUSE_BETWEEN_CHUNKS_MILLIS = 50;
+    private static final int RECENT_RANGE_DAYS = 90;
+
+    private final List<ArchiveDao> archiveDaos;
+    private final ExpenseRepository expenseDao;
+    private final int defaultAgeDays;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "expense-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ArchiveService(ArchiveDao archiveDao, ExpenseRepository expenseDao, int defaultAgeDays) {
+        this(List.of(archiveDao), expenseDao, defaultAgeDays);
+    }
+
+    /**
+     * One archive DAO per database; the expense DAO (sharded, with several) times the reports before and after.
+     */
+    public ArchiveService(List<ArchiveDao> archiveDaos, ExpenseRepository expenseDao, int defaultAgeDays) {
+        this.archiveDaos = List.copyOf(archiveDaos);
+        this.expenseDao = expenseDao;
+        this.defaultAgeDays = defaultAgeDays;
+    }
+
+    public int getDefaultAgeDays() {
+        return defaultAgeDays;
+    }
+
+    /**
+     * Starts archiving reviewed expenses dated more than {@code olderThanDays} days ago. Only one run executes at a
+     * time; further requests queue behind it.
+     */
+    public CompletableFuture<ArchiveReport> archiveAsync(int olderThanDays) {
+        return CompletableFuture.supplyAsync(() -> archive(olderThanDays), executor);
+    }
+
+    private ArchiveReport archive(int olderThanDays) {
+        LocalDate today = LocalDate.now();
+        String cutoff = today.minusDays(olderThanDays).toString();
+        String recentStart = today.minusDays(RECENT_RANGE_DAYS).toString();
+        String recentEnd = today.toString();
+
+        long pendingBefore = time(expenseDao::listPending);
+        long rangeBefore = time(() -> expenseDao.listByDateRange(recentStart, recentEnd));
+
+        long started = System.nanoTime();
+        long expensesMoved = 0;
+        long approvalsMoved = 0;
+        int chunks = 0;
+        try {
+            for (ArchiveDao archiveDao : archiveDaos) {
+                while (true) {
+                    ArchiveDao.Chunk chunk = archiveDao.moveChunk(cutoff, CHUNK_SIZE);
+                    if (chunk.expenses() == 0) {
+                        break;
+                    }
+                    chunks++;
+                    expensesMoved += chunk.expenses();
+                    approvalsMoved += chunk.approvals();
+                    Thread.sleep(PAUSE_BETWEEN_CHUNKS_MILLIS);
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Archiving stopped after " + chunks + " chunks", e);
+            throw new CompletionException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warning("Archiving interrupted after " + chunks + " chunks");
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        List<String> problems = new ArrayList<>();
+        for (int i = 0; i < archiveDaos.size(); i++) {
+            String shard = archiveDaos.size() == 1 ? "" : "database " + (i + 1) + ": ";
+            archiveDaos.get(i).verify().forEach(problem -> problems.add(shard + problem));
+        }
+        long pendingAfter = time(expenseDao::listPending);
+        long rangeAfter = time(() -> expenseDao.listByDateRange(recentStart, recentEnd));
+
+        long moved = expensesMoved;
+        logger.log(problems.isEmpty() ? Level.INFO : Level.SEVERE, () -> "Archived " + moved
+            + " expenses dated before " + cutoff + "; verification problems: " + problems);
+        return new ArchiveReport(cutoff, expensesMoved, approvalsMoved, chunks, elapsedMillis, problems,
+            pendingBefore, pendingAfter, rangeBefore, rangeAfter);
+    }
+
+    private static long time(Supplier<?> query) {
+        long started = System.nanoTime();
+        query.get();
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+}
@@ -0,0 +1,266 @@
+package com.revature.manager.service;
+
+import com.revature.manager.db.Database;
+import com.revature.manager.model.Approval;
+import com.revature.manager.model.ChangeSet;
+import com.revature.manager.model.Expense;
+import com.revature.manager.model.ExpenseCriteria;
+import com.revature.manager.model.ExpenseTotals;
+import com.revature.manager.model.ReviewerStats;
+import com.revature.manager.model.ScoredExpense;
+import com.revature.manager.model.TrendBucket;
+import com.revature.manager.model.TrendSeries;
+import com.revature.manager.model.User;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Non-blocking face of {@link ExpenseService}: every call returns at once with a {@link CompletableFuture} and runs
+ * on its own virtual thread. A fair semaphore sized to the connection pool lets only that many calls into SQLite at
+ * a time; the rest wait for a permit on their virtual threads, which costs no platform thread.
+ * <p>
+ * Every read fails with a {@link java.util.concurrent.TimeoutException} once the service's timeout passes. A read
+ * that is cancelled or times out interrupts its task: a call still waiting for a permit never runs, and a sharded
+ * merge stops. SQLite itself cannot be interrupted, so a statement already executing finishes and its result is
+ * dropped.
+ * <p>
+ * Reviews have no timeout and are never interrupted once they hold a permit, so a future never reports a failure for
+ * a decision that was committed. They are also safe to retry; see {@link #approveExpense}.
+ */
+public class AsyncExpenseService implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(AsyncExpenseService.class.getName());
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ExpenseService expenseService;
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+    private final Duration timeout;
+    private final ExecutorService executor;
+
+    /**
+     * Allows as many concurrent calls as {@code database} pools connections; with shards, pass the primary database
+     * (every shard pools the same number).
+     */
+    public AsyncExpenseService(ExpenseService expenseService, Database database) {
+        this(expenseService, database.getPoolSize(), DEFAULT_TIMEOUT);
+    }
+
+    public AsyncExpenseService(ExpenseService expenseService, Database database, Duration timeout) {
+        this(expenseService, database.getPoolSize(), timeout);
+    }
+
+    public AsyncExpenseService(ExpenseService expenseService, int maxConcurrentCalls) {
+        this(expenseService, maxConcurrentCalls, DEFAULT_TIMEOUT);
+    }
+
+    public AsyncExpenseService(ExpenseService expenseService, int maxConcurrentCalls, Duration timeout) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("At least one concurrent call is required");
+        }
+        this.expenseService = expenseService;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+        this.timeout = timeout;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("expense-async-", 0).factory());
+    }
+
+    public CompletableFuture<List<ScoredExpense>> getPendingByRisk(int limit) {
+        return submit(() -> expenseService.getPendingByRisk(limit));
+    }
+
+    /**
+     * Completes with true once the expense is approved by {@code reviewer}, including when an earlier call (one the
+     * caller gave up on, say) already approved it, and false when it is missing or someone else reviewed it.
+     */
+    public CompletableFuture<Boolean> approveExpense(String expenseId, User reviewer, String comment) {
+        return submitWrite(() -> expenseService.approveExpense(expenseId, reviewer, comment)
+            || isReviewed(expenseId, "approved", reviewer));
+    }
+
+    /**
+     * Like {@link #approveExpense}, for a denial.
+     */
+    public CompletableFuture<Boolean> denyExpense(String expenseId, User reviewer, String comment) {
+        return submitWrite(() -> expenseService.denyExpense(expenseId, reviewer, comment)
+            || isReviewed(expenseId, "denied", reviewer));
+    }
+
+    public CompletableFuture<List<Expense>> listExpenses(ExpenseCriteria criteria) {
+        return submit(() -> expenseService.listExpenses(criteria));
+    }
+
+    public CompletableFuture<List<Expense>> listExpensesByUser(String userId) {
+        return submit(() -> expenseService.listExpensesByUser(userId));
+    }
+
+    public CompletableFuture<List<Expense>> listExpensesByStatus(String status) {
+        return submit(() -> expenseService.listExpensesByStatus(status));
+    }
+
+    public CompletableFuture<List<Expense>> listExpensesByCategory(String category) {
+        return submit(() -> expenseService.listExpensesByCategory(category));
+    }
+
+    public CompletableFuture<List<Expense>> listExpensesByDateRange(String startDateInclusive,
+                                                                   String endDateInclusive) {
+        return submit(() -> expenseService.listExpensesByDateRange(startDateInclusive, endDateInclusive));
+    }
+
+    public CompletableFuture<List<ExpenseTotals>> getTotalsByStatus() {
+        return submit(expenseService::getTotalsByStatus);
+    }
+
+    public CompletableFuture<List<ExpenseTotals>> getTotalsByCategory() {
+        return submit(expenseService::getTotalsByCategory);
+    }
+
+    public CompletableFuture<List<TrendSeries>> getTrendByStatus(LocalDate from, LocalDate to, TrendBucket bucket) {
+        return submit(() -> expenseService.getTrendByStatus(from, to, bucket));
+    }
+
+    public CompletableFuture<List<TrendSeries>> getTrendByCategory(LocalDate from, LocalDate to, TrendBucket bucket) {
+        return submit(() -> expenseService.getTrendByCategory(from, to, bucket));
+    }
+
+    public CompletableFuture<Optional<User>> findUserByUsername(String username) {
+        return submit(() -> expenseService.findUserByUsername(username));
+    }
+
+    public CompletableFuture<List<Approval>> getExpenseHistory(String expenseIdPrefix) {
+        return submit(() -> expenseService.getExpenseHistory(expenseIdPrefix));
+    }
+
+    public CompletableFuture<Optional<ReviewerStats>> getReviewerStats(String reviewerId) {
+        return submit(() -> expenseService.getReviewerStats(reviewerId));
+    }
+
+    public CompletableFuture<ChangeSet> changesSince(long token) {
+        return submit(() -> expenseService.changesSince(token));
+    }
+
+    /**
+     * Runs any other blocking call against the service under the same permits, timeout and cancellation.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> run(call, future));
+        future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs a write under the same permits but without the timeout: the future completes only when the call is done,
+     * and cancelling it stops a call still waiting for a permit but never interrupts one that started.
+     */
+    private <T> CompletableFuture<T> submitWrite(Supplier<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.submit(() -> run(call, future));
+        return future;
+    }
+
+    private boolean isReviewed(String expenseId, String status, User reviewer) {
+        return expenseService.findExpenses(List.of(expenseId)).stream()
+            .anyMatch(expense -> status.equals(expense.getStatus()) && reviewer.getId().equals(expense.getReviewer()));
+    }
+
+    /**
+     * Completes with every result in order, or fails with the first failure and cancels the calls still running, so
+     * no work outlives the group.
+     */
+    public static <T> CompletableFuture<List<T>> allOrCancel(List<CompletableFuture<T>> futures) {
+        CompletableFuture<List<T>> group = new CompletableFuture<>();
+        for (CompletableFuture<T> future : futures) {
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    group.completeExceptionally(unwrap(error));
+                }
+            });
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            List<T> results = new ArrayList<>(futures.size());
+            futures.forEach(future -> results.add(future.join()));
+            group.complete(results);
+        });
+        group.whenComplete((results, error) -> {
+            if (error != null) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        });
+        return group;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * Number of calls currently inside SQLite.
+     */
+    public int getActiveCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    /**
+     * Interrupts running calls; pending futures are cancelled.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Async expense calls still running after shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> void run(Supplier<T> call, CompletableFuture<T> future) {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            return;
+        }
+        try {
+            if (!future.isDone()) {
+                future.complete(call.get());
+            }
+        } catch (CancellationException e) {
+            future.cancel(false);
+        } catch (RuntimeException | Error e) {
+            if (!future.completeExceptionally(e)) {
+                logger.log(Level.FINE, "Async call failed after its future completed", e);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
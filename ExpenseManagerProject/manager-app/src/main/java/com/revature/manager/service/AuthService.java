@@ -1,6 +1,6 @@
 package com.revature.manager.service;
 
-import com.revature.manager.dao.UserDao;
+import com.revature.manager.dao.UserRepository;
 import com.revature.manager.model.User;
 
 import java.util.Optional;
@@ -10,9 +10,9 @@ import java.util.logging.Logger;
 public class AuthService {
     private static final Logger logger = Logger.getLogger(AuthService.class.getName());
 
-    private final UserDao userDao;
+    private final UserRepository userDao;
 
-    public AuthService(UserDao userDao) {
+    public AuthService(UserRepository userDao) {
         this.userDao = userDao;
     }
 
@@ -0,0 +1,88 @@
+package com.revature.manager.service;
+
+import com.revature.manager.dao.ExpenseRepository.StatusChange;
+import com.revature.manager.model.Expense;
+import com.revature.manager.rules.AutoReviewRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of one pass of the rules over the pending queue: which expenses each rule would decide, and the fields each
+ * was decided on. Nothing is written until the plan is handed to {@link AutoReviewService#apply}, so a plan on its
+ * own is the dry run.
+ */
+public class AutoReviewPlan {
+    static final int SAMPLES_PER_RULE = 5;
+
+    private final List<AutoReviewRule> rules;
+    private final List<List<StatusChange>> changes;
+    private final List<List<Expense>> samples;
+    private long scanned;
+    private long elapsedMillis;
+
+    AutoReviewPlan(List<AutoReviewRule> rules) {
+        this.rules = List.copyOf(rules);
+        this.changes = new ArrayList<>(rules.size());
+        this.samples = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            changes.add(new ArrayList<>());
+            samples.add(new ArrayList<>(SAMPLES_PER_RULE));
+        }
+    }
+
+    void record(int ruleIndex, Expense expense) {
+        AutoReviewRule rule = rules.get(ruleIndex);
+        changes.get(ruleIndex).add(new StatusChange(expense.getId(), expense.getUserId(), expense.getCategory(),
+            expense.getAmount(), expense.getDate(), rule.getStatus(), rule.getComment()));
+        List<Expense> ruleSamples = samples.get(ruleIndex);
+        if (ruleSamples.size() < SAMPLES_PER_RULE) {
+            ruleSamples.add(expense);
+        }
+    }
+
+    void finish(long scanned, long elapsedMillis) {
+        this.scanned = scanned;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    List<StatusChange> changes(int ruleIndex) {
+        return changes.get(ruleIndex);
+    }
+
+    public List<AutoReviewRule> getRules() {
+        return rules;
+    }
+
+    public int getMatchCount(int ruleIndex) {
+        return changes.get(ruleIndex).size();
+    }
+
+    /**
+     * The first few expenses the rule matched, in pending-queue order.
+     */
+    public List<Expense> getSamples(int ruleIndex) {
+        return Collections.unmodifiableList(samples.get(ruleIndex));
+    }
+
+    public long getDecisionCount() {
+        long total = 0;
+        for (List<StatusChange> ruleChanges : changes) {
+            total += ruleChanges.size();
+        }
+        return total;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? scanned : scanned * 1000.0 / elapsedMillis;
+    }
+}
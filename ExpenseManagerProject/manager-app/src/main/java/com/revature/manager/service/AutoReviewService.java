@@ -0,0 +1,102 @@
+package com.revature.manager.service;
+
+import com.revature.manager.dao.ExpenseRepository;
+import com.revature.manager.model.AutoReviewReport;
+import com.revature.manager.model.Expense;
+import com.revature.manager.model.User;
+import com.revature.manager.model.UserReviewHistory;
+import com.revature.manager.rules.AutoReviewRule;
+import com.revature.manager.rules.RuleCompiler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Decides trivially approvable (or deniable) pending expenses with the rules from a rules file. Planning is one
+ * streaming pass over the pending queue; applying writes the planned decisions in batched transactions.
+ */
+public class AutoReviewService {
+    private static final Logger logger = Logger.getLogger(AutoReviewService.class.getName());
+    private static final int BATCH_SIZE = 5000;
+
+    private final ExpenseRepository expenseDao;
+    private final Path defaultRulesFile;
+
+    public AutoReviewService(ExpenseRepository expenseDao, Path defaultRulesFile) {
+        this.expenseDao = expenseDao;
+        this.defaultRulesFile = defaultRulesFile;
+    }
+
+    public Path getDefaultRulesFile() {
+        return defaultRulesFile;
+    }
+
+    public List<AutoReviewRule> loadRules(Path rulesFile) throws IOException {
+        return RuleCompiler.compile(rulesFile);
+    }
+
+    /**
+     * Runs every pending expense through the rules once, in queue order; the first matching rule wins. User history
+     * is loaded up front with one grouped query, so the pass itself does no further database work.
+     */
+    public AutoReviewPlan plan(List<AutoReviewRule> rules) {
+        long started = System.nanoTime();
+        Map<String, UserReviewHistory> histories = expenseDao.reviewHistoryByUser();
+        AutoReviewPlan plan = new AutoReviewPlan(rules);
+        AutoReviewRule[] ordered = rules.toArray(new AutoReviewRule[0]);
+        long[] scanned = new long[1];
+
+        expenseDao.streamPending(expense -> {
+            scanned[0]++;
+            UserReviewHistory history = histories.getOrDefault(expense.getUserId(), UserReviewHistory.NONE);
+            for (int i = 0; i < ordered.length; i++) {
+                if (ordered[i].matches(expense, history)) {
+                    plan.record(i, expense);
+                    return;
+                }
+            }
+        });
+
+        plan.finish(scanned[0], (System.nanoTime() - started) / 1_000_000);
+        logger.info("Auto-review matched " + plan.getDecisionCount() + " of " + scanned[0] + " pending expenses in "
+            + plan.getElapsedMillis() + " ms");
+        return plan;
+    }
+
+    /**
+     * Writes the plan's decisions, {@value #BATCH_SIZE} per transaction, with the reviewer recorded as the manager
+     * who ran it and the rule named in the approvals comment. Expenses reviewed since the dry run, or edited so the
+     * rule may no longer match, are skipped.
+     */
+    public AutoReviewReport apply(AutoReviewPlan plan, User reviewer) {
+        long started = System.nanoTime();
+        long approved = 0;
+        long denied = 0;
+        int batches = 0;
+        List<AutoReviewRule> rules = plan.getRules();
+        for (int i = 0; i < rules.size(); i++) {
+            AutoReviewRule rule = rules.get(i);
+            List<ExpenseRepository.StatusChange> changes = plan.changes(i);
+            for (int from = 0; from < changes.size(); from += BATCH_SIZE) {
+                List<ExpenseRepository.StatusChange> chunk =
+                    changes.subList(from, Math.min(changes.size(), from + BATCH_SIZE));
+                int updated = expenseDao.updateStatusBatch(chunk, reviewer.getId());
+                batches++;
+                if ("approved".equals(rule.getStatus())) {
+                    approved += updated;
+                } else {
+                    denied += updated;
+                }
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        long skipped = plan.getDecisionCount() - approved - denied;
+        logger.info("Auto-review by " + reviewer.getUsername() + " approved " + approved + " and denied " + denied
+            + " expenses (" + skipped + " skipped) in " + elapsedMillis + " ms");
+        return new AutoReviewReport(approved, denied, skipped, batches, elapsedMillis);
+    }
+}
@@ -0,0 +1,206 @@
+package com.revature.manager.service;
+
+import com.revature.manager.dao.BudgetDao;
+import com.revature.manager.dao.ChangeDao;
+import com.revature.manager.dao.UserCache;
+import com.revature.manager.model.BudgetStatus;
+import com.revature.manager.model.Expense;
+import com.revature.manager.model.User;
+import com.revature.manager.utils.SqliteText;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Monthly budgets per user and per category, checked against approved and pending totals held in memory. Each month
+ * is loaded from the trigger-maintained counters on first use and kept, so a lookup is a couple of hash probes
+ * however long a user's history. Reviews made through this service patch the affected counters in place;
+ * {@link #sync()} drops the cached months only when the change log shows writes from elsewhere. Limits live in the
+ * first (primary) database; with several region databases the counters of all of them are added up.
+ */
+public class BudgetService {
+    private static final Logger logger = Logger.getLogger(BudgetService.class.getName());
+    private static final Comparator<BudgetStatus> DISPLAY_ORDER = Comparator.comparing(BudgetStatus::getScope)
+        .reversed()
+        .thenComparing(BudgetStatus::getLabel, String.CASE_INSENSITIVE_ORDER);
+
+    private final List<BudgetDao> budgetDaos;
+    private final UserCache userCache;
+    private final Map<YearMonth, Map<BudgetDao.Key, BudgetDao.Counters>> countersByMonth = new HashMap<>();
+    private final Set<String> reviewedHere = new HashSet<>();
+    private final long[] sequences;
+    private Map<BudgetDao.Key, Double> limits;
+
+    public BudgetService(List<BudgetDao> budgetDaos, UserCache userCache) {
+        this.budgetDaos = List.copyOf(budgetDaos);
+        this.userCache = userCache;
+        this.sequences = new long[budgetDaos.size()];
+        Arrays.fill(sequences, -1);
+    }
+
+    /**
+     * Catches up with writes made by other processes (the employee app, imports, auto-review) since the last call.
+     * One change-log read per database; cached months are dropped only if some other expense changed.
+     */
+    public synchronized void sync() {
+        limits = budgetDaos.get(0).limits();
+        boolean stale = false;
+        for (int i = 0; i < budgetDaos.size(); i++) {
+            BudgetDao dao = budgetDaos.get(i);
+            long sequence = dao.changeSequence();
+            if (sequence == sequences[i]) {
+                continue;
+            }
+            if (sequences[i] < 0 || dao.isPruned(sequences[i])) {
+                stale = true;
+            } else {
+                Map<String, ChangeDao.Change> changes = dao.changesSince(sequences[i]);
+                // Archiving leaves the counters alone, so only other changes make them stale.
+                for (Map.Entry<String, ChangeDao.Change> change : changes.entrySet()) {
+                    stale |= !change.getValue().archived() && !reviewedHere.contains(change.getKey());
+                }
+                sequence = ChangeDao.lastSequence(changes, sequence);
+            }
+            sequences[i] = sequence;
+        }
+        reviewedHere.clear();
+        if (stale && !countersByMonth.isEmpty()) {
+            logger.fine("Budget counters changed elsewhere; reloading on next use");
+            countersByMonth.clear();
+        }
+    }
+
+    /**
+     * The budget (user's or category's) with the least left in the expense's month, if either has one.
+     */
+    public synchronized Optional<BudgetStatus> tightestFor(Expense expense) {
+        Optional<YearMonth> month = monthOf(expense);
+        if (month.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<BudgetStatus> user = status(userKey(expense.getUserId()), month.get());
+        Optional<BudgetStatus> category = status(categoryKey(expense.getCategory()), month.get());
+        if (user.isPresent() && category.isPresent()) {
+            return user.get().getRemaining() <= category.get().getRemaining() ? user : category;
+        }
+        return user.isPresent() ? user : category;
+    }
+
+    /**
+     * Every configured budget with its totals for the month, users first.
+     */
+    public synchronized List<BudgetStatus> budgets(YearMonth month) {
+        if (limits == null) {
+            sync();
+        }
+        List<BudgetStatus> result = new ArrayList<>(limits.size());
+        limits.keySet().forEach(key -> status(key, month).ifPresent(result::add));
+        result.sort(DISPLAY_ORDER);
+        return result;
+    }
+
+    /**
+     * Sets the user's monthly limit; zero or less removes it.
+     */
+    public synchronized boolean setUserBudget(String userId, double monthlyLimit) {
+        return setLimit(userKey(userId), monthlyLimit);
+    }
+
+    public synchronized boolean setCategoryBudget(String category, double monthlyLimit) {
+        return setLimit(categoryKey(category), monthlyLimit);
+    }
+
+    /**
+     * Called after this process changes an expense's status: re-reads its user and category counters for the month
+     * (already updated by the triggers in the review's transaction) if that month is cached.
+     */
+    public synchronized void onReviewed(Expense expense) {
+        reviewedHere.add(expense.getId());
+        Optional<YearMonth> month = monthOf(expense);
+        if (month.isEmpty()) {
+            return;
+        }
+        Map<BudgetDao.Key, BudgetDao.Counters> counters = countersByMonth.get(month.get());
+        if (counters == null) {
+            return;
+        }
+        for (BudgetDao.Key key : List.of(userKey(expense.getUserId()), categoryKey(expense.getCategory()))) {
+            BudgetDao.Counters total = BudgetDao.Counters.ZERO;
+            for (BudgetDao dao : budgetDaos) {
+                total = total.plus(dao.counters(key, month.get()));
+            }
+            counters.put(key, total);
+        }
+    }
+
+    private boolean setLimit(BudgetDao.Key key, double monthlyLimit) {
+        BudgetDao primary = budgetDaos.get(0);
+        boolean changed = monthlyLimit > 0 ? primary.setLimit(key, monthlyLimit) : primary.removeLimit(key);
+        if (changed) {
+            logger.info("Set the monthly budget for " + key.scope() + " " + key.key() + " to " + monthlyLimit);
+        }
+        limits = primary.limits();
+        return changed;
+    }
+
+    private Optional<BudgetStatus> status(BudgetDao.Key key, YearMonth month) {
+        if (limits == null) {
+            sync();
+        }
+        Double limit = limits.get(key);
+        if (limit == null) {
+            return Optional.empty();
+        }
+        BudgetDao.Counters counters = countersByMonth.computeIfAbsent(month, this::loadMonth)
+            .getOrDefault(key, BudgetDao.Counters.ZERO);
+        return Optional.of(new BudgetStatus(key.scope(), key.key(), labelOf(key), month, limit,
+            counters.approvedCount(), counters.approvedAmount(), counters.pendingCount(), counters.pendingAmount()));
+    }
+
+    private Map<BudgetDao.Key, BudgetDao.Counters> loadMonth(YearMonth month) {
+        Map<BudgetDao.Key, BudgetDao.Counters> merged = new HashMap<>();
+        for (BudgetDao dao : budgetDaos) {
+            dao.countersForMonth(month).forEach((key, counters) -> merged.merge(key, counters, BudgetDao.Counters::plus));
+        }
+        return merged;
+    }
+
+    private String labelOf(BudgetDao.Key key) {
+        if (BudgetStatus.USER.equals(key.scope())) {
+            return userCache.findById(key.key()).map(User::getUsername).orElse(key.key());
+        }
+        return key.key();
+    }
+
+    private static Optional<YearMonth> monthOf(Expense expense) {
+        try {
+            return Optional.of(YearMonth.parse(expense.getDate().substring(0, 7)));
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            logger.log(Level.FINE, "Expense " + expense.getId() + " has no usable date", e);
+            return Optional.empty();
+        }
+    }
+
+    private static BudgetDao.Key userKey(String userId) {
+        return new BudgetDao.Key(BudgetStatus.USER, userId);
+    }
+
+    /**
+     * Categories are matched case-insensitively, like the spending statistics, and folded the way the triggers'
+     * {@code lower(category)} folds them.
+     */
+    private static BudgetDao.Key categoryKey(String category) {
+        return new BudgetDao.Key(BudgetStatus.CATEGORY, SqliteText.lower(category));
+    }
+}
@@ -0,0 +1,99 @@
+package com.revature.manager.service;
+
+import com.revature.manager.dao.ChangeDao;
+import com.revature.manager.model.ChangeSet;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Background poller for the change feed. Each tick only checks {@code PRAGMA data_version} on a held connection;
+ * the change_log is read only after some connection has committed.
+ */
+public class ChangeFeedPoller implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ChangeFeedPoller.class.getName());
+
+    private final ChangeDao changeDao;
+    private final ExpenseService expenseService;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler;
+    private volatile ChangeDao.Watch watch;
+    private volatile long token;
+
+    ChangeFeedPoller(ChangeDao changeDao, ExpenseService expenseService, Duration interval) {
+        this.changeDao = changeDao;
+        this.expenseService = expenseService;
+        this.interval = interval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void start(long fromToken, Consumer<ChangeSet> listener) {
+        token = fromToken;
+        scheduler.execute(() -> {
+            try {
+                watch = changeDao.openWatch();
+                // Anything committed between the token and opening the watch would otherwise be missed.
+                deliver(listener);
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Unable to open change feed watch", e);
+                scheduler.shutdown();
+            }
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> poll(listener), millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll(Consumer<ChangeSet> listener) {
+        try {
+            if (watch != null && watch.hasChanged()) {
+                deliver(listener);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Change feed poll failed", e);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Change feed listener failed", e);
+        }
+    }
+
+    private void deliver(Consumer<ChangeSet> listener) {
+        ChangeSet changes = expenseService.changesSince(token);
+        token = changes.getToken();
+        if (!changes.isEmpty()) {
+            listener.accept(changes);
+        }
+    }
+
+    /**
+     * Token of the last change delivered; resume from it with {@link ExpenseService#tailChanges}.
+     */
+    public long getToken() {
+        return token;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(interval.toMillis() + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (watch != null) {
+            try {
+                watch.close();
+            } catch (SQLException e) {
+                logger.log(Level.FINE, "Error closing change feed watch", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.revature.manager.service;
+
+import com.revature.manager.dao.ChangeDao;
+import com.revature.manager.dao.DuplicateDao;
+import com.revature.manager.model.DuplicateMatch;
+import com.revature.manager.model.DuplicateScanReport;
+import com.revature.manager.model.Expense;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Flags expenses that look like a resubmission of an earlier one by the same user. Exact duplicates share a
+ * fingerprint over user, amount, date and normalized description, found with one index seek. Near duplicates share
+ * an LSH bucket of their amount and descriptions' MinHash values and are then confirmed: the same amount, dates at
+ * most {@value #MAX_DAYS_APART} day apart and an estimated description similarity of at least 0.5. Wider windows
+ * would flag recurring charges such as a daily commute.
+ * <p>
+ * {@link #sync()} signs whatever the change log shows was added or edited since the last call (including writes by
+ * the employee app) and records the matches; {@link #scanHistory()} signs and cross-checks everything else. With
+ * several region databases each is handled on its own, as a user's expenses all live in one of them.
+ */
+public class DuplicateService {
+    private static final Logger logger = Logger.getLogger(DuplicateService.class.getName());
+    static final double SIMILARITY_THRESHOLD = 0.5;
+    static final int MAX_DAYS_APART = 1;
+    private static final int SCAN_BATCH_SIZE = 5_000;
+    private static final Comparator<DuplicateMatch> DISPLAY_ORDER = Comparator
+        .comparing((DuplicateMatch match) -> match.getKind() != DuplicateMatch.Kind.EXACT)
+        .thenComparing(DuplicateMatch::getSimilarity, Comparator.reverseOrder());
+
+    private final List<DuplicateDao> duplicateDaos;
+
+    public DuplicateService(List<DuplicateDao> duplicateDaos) {
+        this.duplicateDaos = List.copyOf(duplicateDaos);
+    }
+
+    /**
+     * Signs and checks every expense inserted or edited since the last call; one change-log read per database plus
+     * a few index seeks per changed expense. The first call on a database signs its unsigned pending expenses instead.
+     * Returns the number of expenses checked.
+     */
+    public synchronized int sync() {
+        int checked = 0;
+        for (DuplicateDao dao : duplicateDaos) {
+            try {
+                checked += sync(dao);
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Unable to check new expenses for duplicates", e);
+            }
+        }
+        return checked;
+    }
+
+    /**
+     * Matches for an expense that need not be stored yet, such as one about to be imported. Read-only.
+     */
+    public List<DuplicateMatch> check(Expense expense) {
+        DuplicateDao.Row row = new DuplicateDao.Row(expense.getId(), expense.getUserId(), expense.getAmount(),
+            expense.getDate(), expense.getDescription());
+        DuplicateDao.Signature signature = DuplicateSignatures.of(row);
+        List<DuplicateMatch> matches = new ArrayList<>();
+        for (DuplicateDao dao : duplicateDaos) {
+            try (DuplicateDao.Batch batch = dao.openBatch()) {
+                matches.addAll(find(batch, signature));
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Unable to check expense " + expense.getId() + " for duplicates", e);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Recorded matches of the given expenses, on either side, strongest first.
+     */
+    public Map<String, List<DuplicateMatch>> matchesFor(Collection<String> expenseIds) {
+        Set<String> wanted = expenseIds instanceof Set<String> set ? set : new HashSet<>(expenseIds);
+        Map<String, List<DuplicateMatch>> result = new HashMap<>();
+        for (DuplicateDao dao : duplicateDaos) {
+            for (DuplicateMatch match : dao.matchesFor(wanted)) {
+                for (String id : List.of(match.getExpenseId(), match.getDuplicateOfId())) {
+                    if (wanted.contains(id)) {
+                        result.computeIfAbsent(id, key -> new ArrayList<>()).add(match);
+                    }
+                }
+            }
+        }
+        result.values().forEach(matches -> matches.sort(DISPLAY_ORDER));
+        return result;
+    }
+
+    /**
+     * Signs every expense without a signature, hot and archived, then finds all duplicate pairs from the signature
+     * index alone: one pass over the fingerprint index for exact copies and one over the shared LSH buckets for near
+     * ones. Safe to run again; known matches are kept.
+     */
+    public synchronized DuplicateScanReport scanHistory() {
+        long started = System.nanoTime();
+        long signed = sync();
+        long exact = 0;
+        long similar = 0;
+        long added = 0;
+        for (DuplicateDao dao : duplicateDaos) {
+            try {
+                signed += signUnsigned(dao);
+                List<DuplicateMatch> found = new ArrayList<>();
+                dao.streamFingerprintGroups(group -> {
+                    for (int i = 1; i < group.size(); i++) {
+                        found.add(new DuplicateMatch(group.get(i).expenseId(), group.get(0).expenseId(),
+                            DuplicateMatch.Kind.EXACT, 1.0));
+                    }
+                });
+                exact += found.size();
+                Set<String> seen = new HashSet<>();
+                dao.streamBucketGroups(group -> findSimilarInGroup(group, seen, found));
+                similar += found.size() - exact;
+                added += record(dao, found);
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Duplicate history scan failed", e);
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Duplicate scan signed " + signed + " expenses and found " + exact + " exact and " + similar
+            + " similar matches in " + elapsedMillis + " ms");
+        return new DuplicateScanReport(signed, exact, similar, added, elapsedMillis);
+    }
+
+    private int sync(DuplicateDao dao) throws SQLException {
+        long current = dao.changeSequence();
+        long signedThrough = dao.signedThrough();
+        if (signedThrough == current) {
+            return 0;
+        }
+        if (signedThrough < 0 || signedThrough > current) {
+            // First sync, or a recreated database: the log cannot say what is new, so sign what is waiting instead.
+            List<DuplicateDao.Row> pending = new ArrayList<>();
+            dao.streamUnsigned(true, pending::add);
+            try (DuplicateDao.Batch batch = dao.openBatch()) {
+                index(batch, pending, true);
+                batch.setSignedThrough(current);
+                batch.commit();
+            }
+            return pending.size();
+        }
+
+        Map<String, ChangeDao.Change> changes = dao.changesSince(signedThrough);
+        List<String> deleted = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        changes.forEach((id, change) -> {
+            // Archived expenses keep their signatures, so a move to cold storage needs no work.
+            if (!change.archived()) {
+                (change.deleted() ? deleted : changed).add(id);
+            }
+        });
+        List<DuplicateDao.Row> rows = dao.rows(changed);
+        Set<String> archived = dao.archived(deleted);
+        try (DuplicateDao.Batch batch = dao.openBatch()) {
+            for (DuplicateDao.Signature gone : batch.signatures(deleted).values()) {
+                if (!archived.contains(gone.expenseId())) {
+                    batch.remove(gone, DuplicateSignatures.buckets(gone));
+                }
+            }
+            index(batch, rows, true);
+            batch.setSignedThrough(ChangeDao.lastSequence(changes, signedThrough));
+            batch.commit();
+        }
+        return rows.size();
+    }
+
+    /**
+     * Stores the rows' signatures, replacing outdated ones, and (when {@code match} is set) records each row's
+     * matches against everything stored so far. Rows whose signature is unchanged, as after a review, are skipped.
+     */
+    private void index(DuplicateDao.Batch batch, List<DuplicateDao.Row> rows, boolean match) throws SQLException {
+        List<String> ids = new ArrayList<>(rows.size());
+        rows.forEach(row -> ids.add(row.id()));
+        Map<String, DuplicateDao.Signature> existing = match ? batch.signatures(ids) : Map.of();
+        for (DuplicateDao.Row row : rows) {
+            DuplicateDao.Signature signature = DuplicateSignatures.of(row);
+            DuplicateDao.Signature old = existing.get(row.id());
+            if (old != null) {
+                if (sameSignature(old, signature)) {
+                    continue;
+                }
+                batch.remove(old, DuplicateSignatures.buckets(old));
+            }
+            if (match) {
+                for (DuplicateMatch found : find(batch, signature)) {
+                    batch.addMatch(found);
+                }
+            }
+            batch.put(signature, DuplicateSignatures.buckets(signature));
+        }
+    }
+
+    private List<DuplicateMatch> find(DuplicateDao.Batch batch, DuplicateDao.Signature signature)
+        throws SQLException {
+        Set<String> exact = new LinkedHashSet<>(batch.withFingerprint(signature.fingerprint()));
+        Set<String> candidates = batch.inBuckets(signature.userId(), DuplicateSignatures.buckets(signature));
+        exact.remove(signature.expenseId());
+        candidates.remove(signature.expenseId());
+        candidates.removeAll(exact);
+
+        List<DuplicateMatch> matches = new ArrayList<>();
+        // The fingerprint covers the date, so exact copies are ordered by id alone.
+        exact.forEach(other -> matches.add(pair(signature, other, signature.date(), DuplicateMatch.Kind.EXACT, 1.0)));
+        for (DuplicateDao.Signature other : batch.signatures(candidates).values()) {
+            double similarity = similarity(signature, other);
+            if (similarity >= SIMILARITY_THRESHOLD) {
+                matches.add(pair(signature, other.expenseId(), other.date(), DuplicateMatch.Kind.SIMILAR, similarity));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Orients a match so that the later expense (by date, then id) is the one flagged as the duplicate.
+     */
+    private static DuplicateMatch pair(DuplicateDao.Signature signature, String otherId, String otherDate,
+                                       DuplicateMatch.Kind kind, double similarity) {
+        boolean signatureIsLater = signature.date().compareTo(otherDate) > 0
+            || signature.date().equals(otherDate) && signature.expenseId().compareTo(otherId) > 0;
+        return signatureIsLater
+            ? new DuplicateMatch(signature.expenseId(), otherId, kind, similarity)
+            : new DuplicateMatch(otherId, signature.expenseId(), kind, similarity);
+    }
+
+    /**
+     * Compares the members of one shared bucket (sorted by date) within a sliding window of
+     * {@value #MAX_DAYS_APART} day. {@code seen} keeps pairs already checked through another band. Members without a
+     * usable date are never paired.
+     */
+    private void findSimilarInGroup(List<DuplicateDao.Signature> group, Set<String> seen, List<DuplicateMatch> found) {
+        OptionalLong[] days = new OptionalLong[group.size()];
+        for (int i = 0; i < group.size(); i++) {
+            days[i] = epochDay(group.get(i).date());
+        }
+        for (int j = 1; j < group.size(); j++) {
+            if (days[j].isEmpty()) {
+                continue;
+            }
+            DuplicateDao.Signature later = group.get(j);
+            for (int i = j - 1; i >= 0; i--) {
+                if (days[i].isEmpty()) {
+                    continue;
+                }
+                if (days[j].getAsLong() - days[i].getAsLong() > MAX_DAYS_APART) {
+                    break;
+                }
+                DuplicateDao.Signature earlier = group.get(i);
+                if (earlier.fingerprint() == later.fingerprint()
+                    || !seen.add(earlier.expenseId() + '\u0000' + later.expenseId())) {
+                    continue;
+                }
+                double similarity = similarity(later, earlier);
+                if (similarity >= SIMILARITY_THRESHOLD) {
+                    found.add(new DuplicateMatch(later.expenseId(), earlier.expenseId(), DuplicateMatch.Kind.SIMILAR,
+                        similarity));
+                }
+            }
+        }
+    }
+
+    /**
+     * Signs, without matching, every expense that has none; the scan's group passes find the matches afterwards.
+     */
+    private long signUnsigned(DuplicateDao dao) throws SQLException {
+        List<DuplicateDao.Row> chunk = new ArrayList<>(SCAN_BATCH_SIZE);
+        long[] signed = {0};
+        SQLException[] failure = {null};
+        dao.streamUnsigned(false, row -> {
+            chunk.add(row);
+            if (chunk.size() == SCAN_BATCH_SIZE && failure[0] == null) {
+                failure[0] = writeSignatures(dao, chunk, signed);
+            }
+        });
+        if (failure[0] == null && !chunk.isEmpty()) {
+            failure[0] = writeSignatures(dao, chunk, signed);
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return signed[0];
+    }
+
+    private SQLException writeSignatures(DuplicateDao dao, List<DuplicateDao.Row> chunk, long[] signed) {
+        try (DuplicateDao.Batch batch = dao.openBatch()) {
+            index(batch, chunk, false);
+            batch.commit();
+            signed[0] += chunk.size();
+            return null;
+        } catch (SQLException e) {
+            return e;
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    private long record(DuplicateDao dao, List<DuplicateMatch> matches) throws SQLException {
+        long added = 0;
+        try (DuplicateDao.Batch batch = dao.openBatch()) {
+            for (DuplicateMatch match : matches) {
+                if (batch.addMatch(match)) {
+                    added++;
+                }
+            }
+            batch.commit();
+        }
+        return added;
+    }
+
+    /**
+     * Estimated description similarity when amount and date say it could be the same receipt, else 0.
+     */
+    static double similarity(DuplicateDao.Signature a, DuplicateDao.Signature b) {
+        if (a.amountCents() != b.amountCents() || !a.userId().equals(b.userId())) {
+            return 0;
+        }
+        OptionalLong dayA = epochDay(a.date());
+        OptionalLong dayB = epochDay(b.date());
+        if (dayA.isEmpty() || dayB.isEmpty() || Math.abs(dayA.getAsLong() - dayB.getAsLong()) > MAX_DAYS_APART) {
+            return 0;
+        }
+        return DuplicateSignatures.similarity(a.minhash(), b.minhash());
+    }
+
+    private static boolean sameSignature(DuplicateDao.Signature a, DuplicateDao.Signature b) {
+        return a.fingerprint() == b.fingerprint() && a.userId().equals(b.userId())
+            && Arrays.equals(a.minhash(), b.minhash());
+    }
+
+    /**
+     * Days since the epoch, or empty for a missing or unparseable date.
+     */
+    private static OptionalLong epochDay(String date) {
+        if (date == null) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(LocalDate.parse(date).toEpochDay());
+        } catch (DateTimeParseException e) {
+            return OptionalLong.empty();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.revature.manager.service;
+
+import com.revature.manager.dao.DuplicateDao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Signature arithmetic for duplicate detection. A description is normalized (lower case, punctuation and runs of
+ * spaces folded to one space) and cut into character trigrams; {@value #HASHES} MinHash values of that trigram set
+ * are kept as 16-bit numbers. The first {@value #BANDS} x {@value #ROWS} of them form the LSH bands: two descriptions
+ * share a band bucket with probability about 1 - (1 - s^2)^8 for trigram similarity s, so pairs at 0.5 collide 90% of
+ * the time and pairs at 0.7 99.6% of the time. Buckets also hash in the amount, since a resubmitted receipt keeps
+ * its amount; a user's bucket then rarely holds anything but the same charge.
+ */
+final class DuplicateSignatures {
+    static final int HASHES = 32;
+    static final int BANDS = 8;
+    static final int ROWS = 2;
+    private static final long[] SEEDS = new long[HASHES];
+    private static final long[] NO_BUCKETS = new long[0];
+    private static final byte[] NO_MINHASH = new byte[0];
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < HASHES; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed | 1;
+        }
+    }
+
+    private DuplicateSignatures() {
+    }
+
+    static DuplicateDao.Signature of(DuplicateDao.Row row) {
+        String normalized = normalize(row.description());
+        long cents = Math.round(row.amount() * 100);
+        String date = row.date() == null ? "" : row.date();
+        long fingerprint = hash(row.userId() + '\u0000' + cents + '\u0000' + date + '\u0000' + normalized);
+        return new DuplicateDao.Signature(row.id(), row.userId(), cents, date, fingerprint, minhash(normalized));
+    }
+
+    /**
+     * Lower case, letters and digits only, single spaces.
+     */
+    static String normalize(String description) {
+        if (description == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(description.length());
+        boolean space = true;
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int end = normalized.length();
+        if (end > 0 && normalized.charAt(end - 1) == ' ') {
+            normalized.setLength(end - 1);
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The signature's LSH buckets, each already mixed with its band number and amount, or none when it has no
+     * description.
+     */
+    static long[] buckets(DuplicateDao.Signature signature) {
+        byte[] minhash = signature.minhash();
+        if (minhash.length == 0) {
+            return NO_BUCKETS;
+        }
+        long[] buckets = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long bucket = mix(signature.amountCents() * BANDS + band);
+            for (int row = 0; row < ROWS; row++) {
+                bucket = mix(bucket * 31 + valueAt(minhash, band * ROWS + row));
+            }
+            buckets[band] = bucket;
+        }
+        return buckets;
+    }
+
+    /**
+     * Share of equal MinHash values, which estimates the trigram Jaccard similarity; 0 when either is empty.
+     */
+    static double similarity(byte[] a, byte[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return 0;
+        }
+        int equal = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (valueAt(a, i) == valueAt(b, i)) {
+                equal++;
+            }
+        }
+        return (double) equal / HASHES;
+    }
+
+    private static byte[] minhash(String normalized) {
+        if (normalized.isEmpty()) {
+            return NO_MINHASH;
+        }
+        String padded = " " + normalized + " ";
+        long[] minima = new long[HASHES];
+        Arrays.fill(minima, Long.MAX_VALUE);
+        int shingles = Math.max(1, padded.length() - 2);
+        for (int start = 0; start < shingles; start++) {
+            long shingle = hash(padded.substring(start, Math.min(padded.length(), start + 3)));
+            for (int i = 0; i < HASHES; i++) {
+                long value = mix(shingle * SEEDS[i]) >>> 1;
+                if (value < minima[i]) {
+                    minima[i] = value;
+                }
+            }
+        }
+        byte[] packed = new byte[HASHES * 2];
+        for (int i = 0; i < HASHES; i++) {
+            packed[2 * i] = (byte) (minima[i] >>> 8);
+            packed[2 * i + 1] = (byte) minima[i];
+        }
+        return packed;
+    }
+
+    private static int valueAt(byte[] minhash, int index) {
+        return ((minhash[2 * index] & 0xFF) << 8) | (minhash[2 * index + 1] & 0xFF);
+    }
+
+    /**
+     * 64-bit FNV-1a over UTF-8, finished with {@link #mix(long)}.
+     */
+    private static long hash(String text) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * MurmurHash3's 64-bit finalizer.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB93FE1A85EC3L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -1,33 +1,95 @@
 package com.revature.manager.service;
 
-import com.revature.manager.dao.ExpenseDao;
-import com.revature.manager.dao.UserDao;
+import com.revature.manager.dao.ApprovalDao;
+import com.revature.manager.dao.ChangeDao;
+import com.revature.manager.dao.ExpenseRepository;
+import com.revature.manager.dao.UserCache;
+import com.revature.manager.model.Approval;
+import com.revature.manager.model.ChangeSet;
+import com.revature.manager.model.DailyTotals;
 import com.revature.manager.model.Expense;
+import com.revature.manager.model.ExpenseCriteria;
+import com.revature.manager.model.ExpenseTotals;
+import com.revature.manager.model.ReviewerStats;
+import com.revature.manager.model.ScoredExpense;
+import com.revature.manager.model.TrendBucket;
+import com.revature.manager.model.TrendSeries;
 import com.revature.manager.model.User;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Logger;
 
 public class ExpenseService {
     private static final Logger logger = Logger.getLogger(ExpenseService.class.getName());
+    private static final Comparator<Approval> BY_EXPENSE =
+        Comparator.comparing(Approval::getExpenseId).thenComparing(Approval::getReviewDate);
+    private static final Comparator<Approval> NEWEST_FIRST =
+        Comparator.comparing(Approval::getReviewDate).reversed();
 
-    private final ExpenseDao expenseDao;
-    private final UserDao userDao;
+    private final ExpenseRepository expenseDao;
+    private final UserCache userCache;
+    private final List<ApprovalDao> approvalDaos;
+    private final ChangeDao changeDao;
+    private final BudgetService budgetService;
 
-    public ExpenseService(ExpenseDao expenseDao, UserDao userDao) {
+    public ExpenseService(ExpenseRepository expenseDao, UserCache userCache, ApprovalDao approvalDao,
+                          ChangeDao changeDao, BudgetService budgetService) {
+        this(expenseDao, userCache, List.of(approvalDao), changeDao, budgetService);
+    }
+
+    /**
+     * With several databases, pass one approvals DAO per database; the audit trail reads all of them. The change
+     * feed is not available then, as each database numbers its changes separately.
+     */
+    public ExpenseService(ExpenseRepository expenseDao, UserCache userCache, List<ApprovalDao> approvalDaos,
+                          ChangeDao changeDao, BudgetService budgetService) {
         this.expenseDao = expenseDao;
-        this.userDao = userDao;
+        this.userCache = userCache;
+        this.approvalDaos = List.copyOf(approvalDaos);
+        this.changeDao = changeDao;
+        this.budgetService = budgetService;
+    }
+
+    public int getShardCount() {
+        return approvalDaos.size();
     }
 
+    /**
+     * The pending queue in priority order, most anomalous amount first; see {@link #getPendingByRisk(int)}.
+     */
     public List<Expense> getPendingExpenses() {
-        return expenseDao.listPending();
+        List<ScoredExpense> scored = getPendingByRisk(0);
+        List<Expense> result = new ArrayList<>(scored.size());
+        scored.forEach(entry -> result.add(entry.getExpense()));
+        return result;
+    }
+
+    /**
+     * Scores every pending expense in one streaming pass against the stored running statistics. With a positive
+     * {@code limit} only the top entries are kept, in a bounded heap, so memory stays at {@code limit} rows however
+     * long the queue is; otherwise the whole queue is returned sorted.
+     */
+    public List<ScoredExpense> getPendingByRisk(int limit) {
+        return pendingByRisk(expenseDao, limit);
     }
 
     public boolean approveExpense(String expenseId, User reviewer, String comment) {
         boolean result = expenseDao.updateStatus(expenseId, "approved", reviewer.getId(), comment);
         if (result) {
             logger.info("Approved expense " + expenseId + " by " + reviewer.getUsername());
+            expenseDao.findByIds(List.of(expenseId)).forEach(budgetService::onReviewed);
         }
         return result;
     }
@@ -36,6 +98,7 @@ public class ExpenseService {
         boolean result = expenseDao.updateStatus(expenseId, "denied", reviewer.getId(), comment);
         if (result) {
             logger.info("Denied expense " + expenseId + " by " + reviewer.getUsername());
+            expenseDao.findByIds(List.of(expenseId)).forEach(budgetService::onReviewed);
         }
         return result;
     }
@@ -56,7 +119,198 @@ public class ExpenseService {
         return expenseDao.listByDateRange(startDateInclusive, endDateInclusive);
     }
 
+    /**
+     * Current state of the given expenses in hot storage; unknown or archived ids are skipped.
+     */
+    public List<Expense> findExpenses(Collection<String> expenseIds) {
+        return expenseDao.findByIds(expenseIds);
+    }
+
+    /**
+     * Expenses matching every filter set in the criteria, in its sort order, from a single query.
+     */
+    public List<Expense> listExpenses(ExpenseCriteria criteria) {
+        return expenseDao.listMatching(criteria);
+    }
+
+    public List<ExpenseTotals> getTotalsByStatus() {
+        return expenseDao.totalsByStatus();
+    }
+
+    public List<ExpenseTotals> getTotalsByCategory() {
+        return expenseDao.totalsByCategory();
+    }
+
+    /**
+     * Count and amount per status over whole periods from the one containing {@code from} to the one containing
+     * {@code to}, with previous-period totals and trailing 7- and 30-day windows. The total series comes first.
+     */
+    public List<TrendSeries> getTrendByStatus(LocalDate from, LocalDate to, TrendBucket bucket) {
+        return trend(expenseDao, from, to, bucket, "status", DailyTotals::getStatus);
+    }
+
+    public List<TrendSeries> getTrendByCategory(LocalDate from, LocalDate to, TrendBucket bucket) {
+        return trend(expenseDao, from, to, bucket, "category", DailyTotals::getCategory);
+    }
+
+    /**
+     * Opens a session whose reports all read one consistent snapshot, re-pinned once it is older than the default
+     * {@link ReportSession.Limits}. Close it when the reports are done.
+     */
+    public ReportSession openReportSession() throws SQLException {
+        return openReportSession(ReportSession.Limits.DEFAULT);
+    }
+
+    public ReportSession openReportSession(ReportSession.Limits limits) throws SQLException {
+        return new ReportSession(expenseDao, limits);
+    }
+
     public Optional<User> findUserByUsername(String username) {
-        return userDao.findByUsername(username);
+        return userCache.findByUsername(username);
+    }
+
+    public Optional<User> findUserById(String userId) {
+        return userCache.findById(userId);
+    }
+
+    /**
+     * Forgets cached users so edits made by the employee app are seen on the next lookup.
+     */
+    public void refreshUsers() {
+        userCache.invalidateAll();
+    }
+
+    /**
+     * Returns every approve/deny decision recorded for the expense (or expenses matching an id prefix), oldest first.
+     */
+    public List<Approval> getExpenseHistory(String expenseIdPrefix) {
+        List<Approval> history = new ArrayList<>();
+        approvalDaos.forEach(dao -> dao.streamByExpense(expenseIdPrefix, history::add));
+        if (approvalDaos.size() > 1) {
+            history.sort(BY_EXPENSE);
+        }
+        return history;
+    }
+
+    /**
+     * Feeds the reviewer's decisions in the date range to the sink, newest first. With one database they are not
+     * buffered; with several, every database's decisions are collected and merged first.
+     */
+    public void streamReviewerTimeline(String reviewerId, String startDateInclusive, String endDateInclusive,
+                                       Consumer<Approval> sink) {
+        if (approvalDaos.size() == 1) {
+            approvalDaos.get(0).streamByReviewer(reviewerId, startDateInclusive, endDateInclusive, sink);
+            return;
+        }
+        List<Approval> timeline = new ArrayList<>();
+        approvalDaos.forEach(dao -> dao.streamByReviewer(reviewerId, startDateInclusive, endDateInclusive,
+            timeline::add));
+        timeline.sort(NEWEST_FIRST);
+        timeline.forEach(sink);
+    }
+
+    public Optional<ReviewerStats> getReviewerStats(String reviewerId) {
+        return ApprovalDao.reviewerStats(approvalDaos, reviewerId);
+    }
+
+    static List<ScoredExpense> pendingByRisk(ExpenseRepository dao, int limit) {
+        RiskScorer scorer = new RiskScorer(dao.spendingStats());
+        List<ScoredExpense> result;
+        if (limit > 0) {
+            PriorityQueue<ScoredExpense> top = new PriorityQueue<>(limit + 1, RiskScorer.PRIORITY.reversed());
+            dao.streamPending(expense -> {
+                top.add(scorer.score(expense));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            });
+            result = new ArrayList<>(top);
+        } else {
+            List<ScoredExpense> all = new ArrayList<>();
+            dao.streamPending(expense -> all.add(scorer.score(expense)));
+            result = all;
+        }
+        result.sort(RiskScorer.PRIORITY);
+        return result;
+    }
+
+    /**
+     * Loads one grouped row per day, status and category for the whole range in a single query and derives every
+     * period and window from those in memory, rather than querying each bucket.
+     */
+    static List<TrendSeries> trend(ExpenseRepository dao, LocalDate from, LocalDate to, TrendBucket bucket,
+                                   String dimension, Function<DailyTotals, String> key) {
+        long started = System.nanoTime();
+        TrendBuilder builder = new TrendBuilder(from, to, bucket);
+        List<DailyTotals> rows = dao.dailyTotals(builder.getQueryStart().toString(),
+            builder.getQueryEnd().toString());
+        List<TrendSeries> series = builder.build(rows, key);
+        logger.info("Built " + bucket.name().toLowerCase() + " trend by " + dimension + " from " + rows.size()
+            + " daily rows in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+        return series;
+    }
+
+    /**
+     * Token that marks "now" in the change feed; pass it to {@link #changesSince(long)} later.
+     */
+    public long currentChangeToken() {
+        requireChangeFeed();
+        return changeDao.currentSequence();
+    }
+
+    /**
+     * Returns only the expenses inserted, updated, reviewed or deleted after the token, in change order. The log keeps
+     * the most recent changes only (see {@link MaintenanceScheduler}); a token older than that gets what is left, and
+     * a warning is logged.
+     */
+    public ChangeSet changesSince(long token) {
+        requireChangeFeed();
+        Map<String, ChangeDao.Change> changes = changeDao.changesSince(token);
+        if (changeDao.isPruned(token)) {
+            logger.warning("Change token " + token + " is older than the retained change log;"
+                + " some changes are missing");
+        }
+        if (changes.isEmpty()) {
+            return new ChangeSet(token, List.of(), List.of());
+        }
+
+        List<String> liveIds = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        changes.forEach((id, change) -> {
+            // An archived expense moved to cold storage as it was; there is nothing new to show for it.
+            if (!change.archived()) {
+                (change.deleted() ? deletedIds : liveIds).add(id);
+            }
+        });
+
+        Map<String, Expense> loaded = new HashMap<>();
+        for (Expense expense : expenseDao.findByIds(liveIds)) {
+            loaded.put(expense.getId(), expense);
+        }
+        List<Expense> changed = new ArrayList<>(loaded.size());
+        for (String id : liveIds) {
+            Expense expense = loaded.get(id);
+            if (expense != null) {
+                changed.add(expense);
+            }
+        }
+        return new ChangeSet(ChangeDao.lastSequence(changes, token), changed, deletedIds);
+    }
+
+    /**
+     * Starts a background poller that hands every non-empty {@link ChangeSet} after the token to the listener.
+     * Close the returned poller to stop it.
+     */
+    public ChangeFeedPoller tailChanges(long fromToken, Duration interval, Consumer<ChangeSet> listener) {
+        requireChangeFeed();
+        ChangeFeedPoller poller = new ChangeFeedPoller(changeDao, this, interval);
+        poller.start(fromToken, listener);
+        return poller;
+    }
+
+    private void requireChangeFeed() {
+        if (approvalDaos.size() > 1) {
+            throw new UnsupportedOperationException("The change feed needs a single database");
+        }
     }
 }
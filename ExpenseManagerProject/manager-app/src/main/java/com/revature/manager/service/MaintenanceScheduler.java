@@ -0,0 +1,460 @@
+package com.revature.manager.service;
+
+import com.revature.manager.dao.ChangeDao;
+import com.revature.manager.dao.MaintenanceDao;
+import com.revature.manager.model.MaintenanceJob;
+import com.revature.manager.model.MaintenanceReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the database files healthy in the background. Every {@value #TICK_SECONDS} seconds (or a quarter of the idle
+ * period, if that is shorter) it checks each database; once nothing has used it for the idle period (no pooled
+ * connection borrowed, no commit by any process), it runs one maintenance pass, and no other until the database has
+ * been used again. A pass runs, in order:
+ * <ol>
+ *     <li>{@code PRAGMA optimize}, and a sampled {@code ANALYZE} when enough has changed since the last one;</li>
+ *     <li>pruning of the change log down to the newest {@value #RETAINED_CHANGES} entries, keeping any that duplicate
+ *     detection has not signed yet;</li>
+ *     <li>incremental vacuum of the free pages, in short write transactions. A file not yet in incremental
+ *     auto-vacuum mode needs one full {@code VACUUM} first, which holds the write lock until the whole file is
+ *     rewritten: idle passes only run it on small files, and larger ones wait for {@link #runNow()};</li>
+ *     <li>a passive WAL checkpoint, then a truncating one when the WAL file has grown large;</li>
+ *     <li>an online backup once a day, throttled, from one read snapshot so that writers carry on meanwhile.</li>
+ * </ol>
+ * Pruning and vacuum stop at the pass's time box or as soon as the app touches the database; the next pass continues.
+ */
+public class MaintenanceScheduler implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(MaintenanceScheduler.class.getName());
+    public static final Duration DEFAULT_IDLE_AFTER = Duration.ofMinutes(2);
+    public static final Duration DEFAULT_TIME_BOX = Duration.ofSeconds(10);
+    private static final long TICK_SECONDS = 30;
+    private static final long MIN_TICK_MILLIS = 100;
+    private static final DateTimeFormatter STARTED_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int ANALYSIS_LIMIT = 1_000;
+    private static final long ANALYZE_MIN_CHANGES = 1_000;
+    private static final double ANALYZE_CHANGE_FRACTION = 0.1;
+    private static final long RETAINED_CHANGES = 100_000;
+    private static final int PRUNE_STEP_ENTRIES = 10_000;
+    private static final long VACUUM_MIN_FREE_PAGES = 256;
+    private static final int VACUUM_STEP_PAGES = 512;
+    private static final long VACUUM_PAUSE_MILLIS = 20;
+    private static final Duration CONVERSION_RETRY_INTERVAL = Duration.ofHours(1);
+    /** Small enough to rewrite well within the employee app's 5 second busy timeout. */
+    private static final long AUTO_CONVERSION_MAX_BYTES = 32L * 1024 * 1024;
+    private static final long WAL_TRUNCATE_BYTES = 4L * 1024 * 1024;
+    private static final int TRUNCATE_BUSY_TIMEOUT_MILLIS = 100;
+    private static final Duration BACKUP_INTERVAL = Duration.ofDays(1);
+    private static final int BACKUP_STEP_PAGES = 256;
+    private static final long BACKUP_PAUSE_MILLIS = 5;
+    private static final long BACKUP_BUSY_PAUSE_MILLIS = 50;
+
+    private final List<Target> targets;
+    private final Duration idleAfter;
+    private final Duration timeBox;
+    private final ScheduledExecutorService executor;
+
+    public MaintenanceScheduler(List<MaintenanceDao> maintenanceDaos) {
+        this(maintenanceDaos, DEFAULT_IDLE_AFTER, DEFAULT_TIME_BOX);
+    }
+
+    public MaintenanceScheduler(List<MaintenanceDao> maintenanceDaos, Duration idleAfter, Duration timeBox) {
+        List<Target> list = new ArrayList<>(maintenanceDaos.size());
+        maintenanceDaos.forEach(dao -> list.add(new Target(dao)));
+        this.targets = List.copyOf(list);
+        this.idleAfter = idleAfter;
+        this.timeBox = timeBox;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the idle checks. Without this call maintenance only runs through {@link #runNow()}.
+     */
+    public void start() {
+        long tickMillis = Math.max(MIN_TICK_MILLIS, Math.min(TICK_SECONDS * 1000, idleAfter.toMillis() / 4));
+        executor.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a pass on every database right away, busy or not, and waits for it. The daily backup is taken whatever its
+     * age, and a file still waiting for its conversion to incremental auto-vacuum is converted whatever its size.
+     * Passes never overlap: this waits for a background pass already running.
+     */
+    public List<MaintenanceReport> runNow() {
+        try {
+            return executor.submit(() -> {
+                List<MaintenanceReport> reports = new ArrayList<>(targets.size());
+                for (Target target : targets) {
+                    reports.add(runPass(target, true));
+                }
+                return reports;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (ExecutionException e) {
+            logger.log(Level.SEVERE, "Maintenance pass failed", e.getCause());
+            return List.of();
+        }
+    }
+
+    /**
+     * The most recent pass of each database that has had one.
+     */
+    public List<MaintenanceReport> getLastReports() {
+        List<MaintenanceReport> reports = new ArrayList<>();
+        for (Target target : targets) {
+            if (target.lastReport != null) {
+                reports.add(target.lastReport);
+            }
+        }
+        return reports;
+    }
+
+    private void tick() {
+        for (Target target : targets) {
+            try {
+                if (target.watch == null) {
+                    target.watch = target.dao.openWatch();
+                }
+                long now = System.nanoTime();
+                if (target.watch.hasChanged()) {
+                    target.lastActivityNanos = now;
+                }
+                long lastUsed = target.dao.lastUsedNanos();
+                if (lastUsed - target.lastActivityNanos > 0) {
+                    target.lastActivityNanos = lastUsed;
+                }
+                boolean usedSincePass = target.lastActivityNanos - target.lastPassNanos > 0;
+                if (usedSincePass && now - target.lastActivityNanos >= idleAfter.toNanos()) {
+                    runPass(target, false);
+                }
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Maintenance idle check failed for " + target.dao.getDatabasePath(), e);
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Maintenance idle check failed for " + target.dao.getDatabasePath(), e);
+            }
+        }
+    }
+
+    private MaintenanceReport runPass(Target target, boolean manual) {
+        MaintenanceDao dao = target.dao;
+        String startedAt = LocalDateTime.now().format(STARTED_AT);
+        long started = System.nanoTime();
+        long deadline = started + timeBox.toNanos();
+        List<MaintenanceJob> jobs = new ArrayList<>();
+        MaintenanceReport report;
+
+        jobs.add(timed("optimize", () -> {
+            dao.optimize(ANALYSIS_LIMIT);
+            return done("analysis limit " + ANALYSIS_LIMIT + " rows per index");
+        }));
+        // Anything the app does with the pool from here on makes the interruptible jobs stop.
+        long jobsStarted = System.nanoTime();
+        try (MaintenanceDao.Session session = dao.openSession()) {
+            MaintenanceDao.FileStats before = session.fileStats();
+            jobs.add(timed("analyze", () -> analyze(session)));
+            jobs.add(timed("change log", () -> pruneChangeLog(dao, session, jobsStarted, deadline)));
+            jobs.add(timed("incremental vacuum", () -> vacuum(dao, session, jobsStarted, deadline, manual)));
+            jobs.add(timed("wal checkpoint", () -> checkpoint(dao, session, jobsStarted)));
+            jobs.add(timed("backup", () -> backup(dao, session, jobsStarted, deadline, manual)));
+            MaintenanceDao.FileStats after = session.fileStats();
+            report = new MaintenanceReport(dao.getDatabasePath().toString(), startedAt, before.fileBytes(),
+                after.fileBytes(), after.walBytes(), after.pageSize(), before.freelistPages(), after.freelistPages(),
+                after.autoVacuum() != 2, List.copyOf(jobs), (System.nanoTime() - started) / 1_000_000);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Maintenance pass failed for " + dao.getDatabasePath(), e);
+            jobs.add(new MaintenanceJob("session", MaintenanceJob.Outcome.FAILED, e.getMessage(), 0));
+            report = new MaintenanceReport(dao.getDatabasePath().toString(), startedAt, 0, 0, 0, 0, 0, 0, false,
+                List.copyOf(jobs), (System.nanoTime() - started) / 1_000_000);
+        }
+        // The pass's own commits would otherwise look like activity at the next tick.
+        try {
+            if (target.watch != null) {
+                target.watch.hasChanged();
+            }
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Unable to reset the maintenance watch", e);
+        }
+        target.lastPassNanos = System.nanoTime();
+        target.lastReport = report;
+        logger.info(summary(report, manual));
+        return report;
+    }
+
+    private Result analyze(MaintenanceDao.Session session) throws SQLException {
+        long changes = session.changeCount();
+        long analyzedThrough = session.analyzedThrough();
+        long rows = session.analyzedExpenseRows();
+        long since = analyzedThrough < 0 ? changes : changes - analyzedThrough;
+        long threshold = Math.max(ANALYZE_MIN_CHANGES, (long) (rows * ANALYZE_CHANGE_FRACTION));
+        if (analyzedThrough >= 0 && since < threshold) {
+            return skipped(since + " changes since the last ANALYZE, threshold " + threshold);
+        }
+        session.analyze(ANALYSIS_LIMIT, changes);
+        return done(analyzedThrough < 0 ? "first ANALYZE" : "ANALYZE after " + since + " changes");
+    }
+
+    private Result pruneChangeLog(MaintenanceDao dao, MaintenanceDao.Session session, long jobsStarted,
+                                  long deadline) throws SQLException {
+        long floor = session.changeLogPruneFloor(RETAINED_CHANGES);
+        long pruned = 0;
+        while (true) {
+            if (System.nanoTime() - deadline > 0) {
+                return yielded("pruned " + pruned + " entries; time box used up");
+            }
+            if (appActiveSince(dao, jobsStarted)) {
+                return yielded("pruned " + pruned + " entries; the app needed the database");
+            }
+            int step = session.pruneChangeLog(floor, PRUNE_STEP_ENTRIES);
+            pruned += step;
+            if (step < PRUNE_STEP_ENTRIES) {
+                break;
+            }
+            pause(VACUUM_PAUSE_MILLIS);
+        }
+        return pruned == 0 ? skipped("nothing older than the retained changes") : done("pruned " + pruned + " entries");
+    }
+
+    private Result vacuum(MaintenanceDao dao, MaintenanceDao.Session session, long jobsStarted, long deadline,
+                          boolean manual) throws SQLException {
+        MaintenanceDao.FileStats stats = session.fileStats();
+        if (stats.autoVacuum() != 2) {
+            return convert(dao, session, jobsStarted, deadline, manual, stats);
+        }
+        if (stats.freelistPages() < VACUUM_MIN_FREE_PAGES) {
+            return skipped(stats.freelistPages() + " free pages");
+        }
+        long freed = 0;
+        long remaining = stats.freelistPages();
+        while (remaining > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return yielded("freed " + pages(freed, stats.pageSize()) + "; time box used up, "
+                    + remaining + " free pages left");
+            }
+            if (appActiveSince(dao, jobsStarted)) {
+                return yielded("freed " + pages(freed, stats.pageSize()) + "; the app needed the database");
+            }
+            long step = session.incrementalVacuum(VACUUM_STEP_PAGES);
+            if (step == 0) {
+                break;
+            }
+            freed += step;
+            remaining -= step;
+            // Lets a waiting writer in between the short write transactions.
+            pause(VACUUM_PAUSE_MILLIS);
+        }
+        return done("freed " + pages(freed, stats.pageSize()));
+    }
+
+    /**
+     * SQLite only switches an existing file to incremental auto-vacuum by rebuilding it, and that {@code VACUUM}
+     * cannot be stopped half way: other connections, the employee app's included, cannot write until it ends. An idle
+     * pass therefore only converts a file of at most {@value #AUTO_CONVERSION_MAX_BYTES} bytes, inside the time box
+     * and while the app leaves the database alone, and waits {@link #CONVERSION_RETRY_INTERVAL} after a failure.
+     * Larger files are left to a manual pass; the report says the conversion is pending.
+     */
+    private Result convert(MaintenanceDao dao, MaintenanceDao.Session session, long jobsStarted, long deadline,
+                           boolean manual, MaintenanceDao.FileStats stats) throws SQLException {
+        if (!manual) {
+            if (stats.fileBytes() > AUTO_CONVERSION_MAX_BYTES) {
+                return skipped("auto_vacuum is not incremental; converting the " + megabytes(stats.fileBytes())
+                    + " file blocks writers, so it waits for a manual pass");
+            }
+            long failedAt = session.incrementalConversionFailedAt();
+            if (failedAt >= 0 && System.currentTimeMillis() - failedAt < CONVERSION_RETRY_INTERVAL.toMillis()) {
+                return skipped("auto_vacuum is not incremental; the last conversion failed "
+                    + (System.currentTimeMillis() - failedAt) / 60_000 + " min ago");
+            }
+            if (System.nanoTime() - deadline > 0) {
+                return skipped("auto_vacuum is not incremental; time box used up, next idle period converts");
+            }
+            if (appActiveSince(dao, jobsStarted)) {
+                return yielded("auto_vacuum is not incremental; the app needed the database");
+            }
+        }
+        session.convertToIncrementalVacuum();
+        return done("converted to incremental auto-vacuum, rewrote " + megabytes(stats.fileBytes()));
+    }
+
+    /**
+     * Runs whatever the time box says: a passive checkpoint never waits, and the truncating one waits at most
+     * {@value #TRUNCATE_BUSY_TIMEOUT_MILLIS} ms, and only once the passive one found nothing left to copy.
+     */
+    private Result checkpoint(MaintenanceDao dao, MaintenanceDao.Session session, long jobsStarted)
+        throws SQLException {
+        long walBytes = session.fileStats().walBytes();
+        if (walBytes == 0) {
+            return skipped("no WAL file");
+        }
+        MaintenanceDao.Checkpoint passive = session.checkpoint(MaintenanceDao.CheckpointMode.PASSIVE, 0);
+        String detail = passive.walFrames() < 0 ? "passive checkpoint could not start"
+            : "passive: " + passive.checkpointedFrames() + " of " + passive.walFrames() + " frames";
+        if (walBytes < WAL_TRUNCATE_BYTES) {
+            return done(detail + ", WAL " + megabytes(walBytes));
+        }
+        if (!passive.isComplete() || appActiveSince(dao, jobsStarted)) {
+            return yielded(detail + "; WAL " + megabytes(walBytes) + " left for the next pass");
+        }
+        MaintenanceDao.Checkpoint truncate = session.checkpoint(MaintenanceDao.CheckpointMode.TRUNCATE,
+            TRUNCATE_BUSY_TIMEOUT_MILLIS);
+        if (!truncate.isComplete()) {
+            return yielded(detail + "; truncate was busy, WAL " + megabytes(walBytes) + " left");
+        }
+        return done(detail + ", truncated a " + megabytes(walBytes) + " WAL");
+    }
+
+    /**
+     * The backup cannot be stopped half way, so it only starts inside the time box; after that it is throttled
+     * instead. Between steps of {@value #BACKUP_STEP_PAGES} pages it sleeps {@value #BACKUP_PAUSE_MILLIS} ms, or
+     * {@value #BACKUP_BUSY_PAUSE_MILLIS} ms while the app is using the database.
+     */
+    private Result backup(MaintenanceDao dao, MaintenanceDao.Session session, long jobsStarted, long deadline,
+                          boolean manual) throws SQLException {
+        if (dao.getBackupPath() == null) {
+            return skipped("no backup location");
+        }
+        if (!manual) {
+            try {
+                if (Files.exists(dao.getBackupPath())) {
+                    FileTime modified = Files.getLastModifiedTime(dao.getBackupPath());
+                    Duration age = Duration.ofMillis(System.currentTimeMillis() - modified.toMillis());
+                    if (age.compareTo(BACKUP_INTERVAL) < 0) {
+                        return skipped("last backup " + age.toHours() + " h ago");
+                    }
+                }
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Unable to read the age of " + dao.getBackupPath(), e);
+            }
+        }
+        if (!manual && System.nanoTime() - deadline > 0) {
+            return skipped("time box used up; next idle period");
+        }
+        int pages = session.backup(BACKUP_STEP_PAGES, (remaining, total) -> {
+            if (remaining > 0) {
+                pause(appActiveSince(dao, jobsStarted) ? BACKUP_BUSY_PAUSE_MILLIS : BACKUP_PAUSE_MILLIS);
+            }
+        });
+        return done(pages(pages, session.fileStats().pageSize()) + " to " + dao.getBackupPath());
+    }
+
+    /**
+     * True while a pooled connection is borrowed, or when one has been since {@code sinceNanos}.
+     */
+    private static boolean appActiveSince(MaintenanceDao dao, long sinceNanos) {
+        return dao.lastUsedNanos() - sinceNanos > 0;
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static MaintenanceJob timed(String name, Job job) {
+        long started = System.nanoTime();
+        Result result;
+        try {
+            result = job.run();
+        } catch (SQLException | RuntimeException e) {
+            logger.log(Level.WARNING, "Maintenance job " + name + " failed", e);
+            result = new Result(MaintenanceJob.Outcome.FAILED, e.getMessage());
+        }
+        return new MaintenanceJob(name, result.outcome(), result.detail(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static Result done(String detail) {
+        return new Result(MaintenanceJob.Outcome.DONE, detail);
+    }
+
+    private static Result skipped(String detail) {
+        return new Result(MaintenanceJob.Outcome.SKIPPED, detail);
+    }
+
+    private static Result yielded(String detail) {
+        return new Result(MaintenanceJob.Outcome.YIELDED, detail);
+    }
+
+    private static String pages(long pages, long pageSize) {
+        return pages + " pages (" + megabytes(pages * pageSize) + ")";
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static String summary(MaintenanceReport report, boolean manual) {
+        StringBuilder summary = new StringBuilder(manual ? "Manual" : "Idle")
+            .append(" maintenance of ").append(report.getDatabasePath())
+            .append(" took ").append(report.getElapsedMillis()).append(" ms:");
+        for (MaintenanceJob job : report.getJobs()) {
+            summary.append(' ').append(job.getName()).append('=').append(job.getOutcome())
+                .append('/').append(job.getElapsedMillis()).append("ms");
+        }
+        return summary.toString();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Target target : targets) {
+            if (target.watch != null) {
+                try {
+                    target.watch.close();
+                } catch (SQLException e) {
+                    logger.log(Level.FINE, "Error closing maintenance watch", e);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Job {
+        Result run() throws SQLException;
+    }
+
+    private record Result(MaintenanceJob.Outcome outcome, String detail) {
+    }
+
+    /**
+     * Per-database idle tracking; only touched on the scheduler thread.
+     */
+    private static final class Target {
+        private final MaintenanceDao dao;
+        private ChangeDao.Watch watch;
+        private long lastActivityNanos = System.nanoTime();
+        private long lastPassNanos = lastActivityNanos - 1;
+        private volatile MaintenanceReport lastReport;
+
+        private Target(MaintenanceDao dao) {
+            this.dao = dao;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.revature.manager.service;
+
+import com.revature.manager.dao.SpendRollupDao;
+import com.revature.manager.dao.UserCache;
+import com.revature.manager.model.AmountPercentiles;
+import com.revature.manager.model.MonthlySpend;
+import com.revature.manager.model.TopSpender;
+import com.revature.manager.utils.KllSketch;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Percentile and top-spender reports over approved expenses, answered from mergeable monthly rollups: quantiles
+ * from KLL sketches, top spenders from exact per-user totals through a bounded heap. With several region databases
+ * each keeps its own rollups and the results are merged here.
+ */
+public class ReportService {
+    public static final int DEFAULT_TOP_SPENDERS = 20;
+    public static final String ALL_CATEGORIES = "All categories";
+    private static final Comparator<TopSpender> BY_AMOUNT = Comparator.comparingDouble(TopSpender::getAmount)
+        .thenComparing(TopSpender::getUserId, Comparator.reverseOrder());
+
+    private final List<SpendRollupDao> rollupDaos;
+    private final UserCache userCache;
+
+    public ReportService(List<SpendRollupDao> rollupDaos, UserCache userCache) {
+        this.rollupDaos = List.copyOf(rollupDaos);
+        this.userCache = userCache;
+    }
+
+    /**
+     * p50, p90 and p99 of approved amounts per category over the months from {@code from} to {@code to}, followed
+     * by a row for all categories together.
+     */
+    public List<AmountPercentiles> amountPercentiles(YearMonth from, YearMonth to) {
+        Map<String, KllSketch> byCategory = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        KllSketch overall = new KllSketch();
+        for (MonthlySpend spend : monthlySpend(from, to).values()) {
+            spend.getSketchesByCategory().forEach((category, sketch) -> {
+                byCategory.computeIfAbsent(category, key -> new KllSketch()).merge(sketch);
+                overall.merge(sketch);
+            });
+        }
+
+        List<AmountPercentiles> result = new ArrayList<>(byCategory.size() + 1);
+        byCategory.forEach((category, sketch) -> result.add(percentiles(category, sketch)));
+        if (overall.getCount() > 0) {
+            result.add(percentiles(ALL_CATEGORIES, overall));
+        }
+        return result;
+    }
+
+    /**
+     * The {@code limit} largest approved spenders of every month in the range, largest first.
+     */
+    public Map<YearMonth, List<TopSpender>> topSpendersByMonth(YearMonth from, YearMonth to, int limit) {
+        Map<YearMonth, List<TopSpender>> result = new LinkedHashMap<>();
+        monthlySpend(from, to).forEach((month, spend) -> result.put(month, topSpenders(spend, limit)));
+        return result;
+    }
+
+    private Map<YearMonth, MonthlySpend> monthlySpend(YearMonth from, YearMonth to) {
+        Map<YearMonth, MonthlySpend> merged = new TreeMap<>();
+        for (SpendRollupDao rollupDao : rollupDaos) {
+            for (MonthlySpend spend : rollupDao.monthlySpend(from, to)) {
+                MonthlySpend existing = merged.putIfAbsent(spend.getMonth(), spend);
+                if (existing != null) {
+                    existing.merge(spend);
+                }
+            }
+        }
+        return merged;
+    }
+
+    private List<TopSpender> topSpenders(MonthlySpend spend, int limit) {
+        PriorityQueue<TopSpender> top = new PriorityQueue<>(limit + 1, BY_AMOUNT);
+        spend.getSpendByUser().forEach((userId, userSpend) -> {
+            top.add(new TopSpender(userId, userCache.usernameOf(userId), userSpend.getCount(), userSpend.getAmount()));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<TopSpender> result = new ArrayList<>(top);
+        result.sort(BY_AMOUNT.reversed());
+        return result;
+    }
+
+    private static AmountPercentiles percentiles(String category, KllSketch sketch) {
+        return new AmountPercentiles(category, sketch.getCount(), sketch.quantile(0.5), sketch.quantile(0.9),
+            sketch.quantile(0.99), sketch.getMax());
+    }
+}
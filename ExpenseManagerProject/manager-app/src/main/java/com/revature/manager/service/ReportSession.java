@@ -0,0 +1,139 @@
+package com.revature.manager.service;
+
+import com.revature.manager.dao.ExpenseRepository;
+import com.revature.manager.dao.ExpenseSnapshot;
+import com.revature.manager.model.DailyTotals;
+import com.revature.manager.model.Expense;
+import com.revature.manager.model.ExpenseCriteria;
+import com.revature.manager.model.ExpenseTotals;
+import com.revature.manager.model.ScoredExpense;
+import com.revature.manager.model.TrendBucket;
+import com.revature.manager.model.TrendSeries;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A group of reports that agree with each other: every report in the session reads the same snapshot of the
+ * database, so totals by status and by category add up to the same amount and a pending list matches the pending
+ * count, however much the employee app writes meanwhile. The snapshot is taken again (between reports, never during
+ * one) once it breaks the session's {@link Limits}. A session is for one thread at a time.
+ */
+public class ReportSession implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ReportSession.class.getName());
+
+    /**
+     * How stale the snapshot may get before the next report re-pins it: older than {@code maxAge}, or more than
+     * {@code maxChangesBehind} expense changes committed since it was taken. Zero or less disables a limit.
+     */
+    public record Limits(Duration maxAge, long maxChangesBehind) {
+        public static final Limits DEFAULT = new Limits(Duration.ofMinutes(5), 10_000);
+        public static final Limits UNLIMITED = new Limits(Duration.ZERO, 0);
+    }
+
+    private final ExpenseRepository expenseDao;
+    private final Limits limits;
+    private ExpenseSnapshot snapshot;
+    private int refreshCount;
+
+    ReportSession(ExpenseRepository expenseDao, Limits limits) throws SQLException {
+        this.expenseDao = expenseDao;
+        this.limits = limits;
+        this.snapshot = expenseDao.openSnapshot();
+    }
+
+    public List<ScoredExpense> getPendingByRisk(int limit) {
+        return ExpenseService.pendingByRisk(view(), limit);
+    }
+
+    public List<Expense> listExpensesByUser(String userId) {
+        return view().listByUser(userId);
+    }
+
+    public List<Expense> listExpensesByStatus(String status) {
+        return view().listByStatus(status);
+    }
+
+    public List<Expense> listExpensesByCategory(String category) {
+        return view().listByCategory(category);
+    }
+
+    public List<Expense> listExpensesByDateRange(String startDateInclusive, String endDateInclusive) {
+        return view().listByDateRange(startDateInclusive, endDateInclusive);
+    }
+
+    public List<Expense> listExpenses(ExpenseCriteria criteria) {
+        return view().listMatching(criteria);
+    }
+
+    public List<ExpenseTotals> getTotalsByStatus() {
+        return view().totalsByStatus();
+    }
+
+    public List<ExpenseTotals> getTotalsByCategory() {
+        return view().totalsByCategory();
+    }
+
+    public List<TrendSeries> getTrendByStatus(LocalDate from, LocalDate to, TrendBucket bucket) {
+        return ExpenseService.trend(view(), from, to, bucket, "status", DailyTotals::getStatus);
+    }
+
+    public List<TrendSeries> getTrendByCategory(LocalDate from, LocalDate to, TrendBucket bucket) {
+        return ExpenseService.trend(view(), from, to, bucket, "category", DailyTotals::getCategory);
+    }
+
+    /**
+     * When the reports in the session were read from.
+     */
+    public LocalDateTime getSnapshotTime() {
+        return snapshot.getOpenedAt();
+    }
+
+    public int getRefreshCount() {
+        return refreshCount;
+    }
+
+    /**
+     * Moves the session to the current state of the database. If a new snapshot cannot be opened the session keeps
+     * the one it has and returns false.
+     */
+    public boolean refresh() {
+        ExpenseSnapshot next;
+        try {
+            next = expenseDao.openSnapshot();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Unable to refresh the report snapshot; keeping the one from "
+                + snapshot.getOpenedAt(), e);
+            return false;
+        }
+        snapshot.close();
+        snapshot = next;
+        refreshCount++;
+        return true;
+    }
+
+    @Override
+    public void close() {
+        snapshot.close();
+    }
+
+    private ExpenseRepository view() {
+        if (isStale()) {
+            refresh();
+        }
+        return snapshot.getDao();
+    }
+
+    private boolean isStale() {
+        Duration maxAge = limits.maxAge();
+        if (maxAge != null && !maxAge.isZero() && !maxAge.isNegative() && snapshot.getAge().compareTo(maxAge) > 0) {
+            return true;
+        }
+        return limits.maxChangesBehind() > 0 && snapshot.changesBehind() > limits.maxChangesBehind();
+    }
+}
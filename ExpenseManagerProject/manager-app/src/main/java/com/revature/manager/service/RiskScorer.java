@@ -0,0 +1,56 @@
+package com.revature.manager.service;
+
+import com.revature.manager.model.Expense;
+import com.revature.manager.model.RunningStats;
+import com.revature.manager.model.ScoredExpense;
+import com.revature.manager.model.SpendingStats;
+
+import java.util.Comparator;
+
+/**
+ * Scores pending expenses against the running amount statistics. The score is the largest z-score of the amount
+ * against the user, category and overall baselines that have enough history; amounts at or below the mean score 0.
+ */
+final class RiskScorer {
+    /** Highest score first; equal scores keep the oldest-first order of the plain pending list. */
+    static final Comparator<ScoredExpense> PRIORITY = Comparator.comparingDouble(ScoredExpense::getScore).reversed()
+        .thenComparing(scored -> scored.getExpense().getDate())
+        .thenComparing(scored -> scored.getExpense().getId());
+
+    private static final String[] BASES = {"user", "category", "all"};
+    private static final long MIN_SAMPLES = 5;
+    /** Keeps a near-constant history (every lunch exactly $12) from turning a $13 lunch into an outlier. */
+    private static final double MIN_DEVIATION_FRACTION = 0.1;
+    private static final double MIN_DEVIATION = 1.0;
+
+    private final SpendingStats stats;
+
+    RiskScorer(SpendingStats stats) {
+        this.stats = stats;
+    }
+
+    ScoredExpense score(Expense expense) {
+        RunningStats[] baselines = {
+            stats.forUser(expense.getUserId()), stats.forCategory(expense.getCategory()), stats.getOverall()
+        };
+        double best = Double.NaN;
+        String basis = null;
+        for (int i = 0; i < baselines.length; i++) {
+            double z = zScore(baselines[i], expense.getAmount());
+            if (!Double.isNaN(z) && (basis == null || z > best)) {
+                best = z;
+                basis = BASES[i];
+            }
+        }
+        return new ScoredExpense(expense, basis == null ? 0.0 : Math.max(best, 0.0), basis);
+    }
+
+    private static double zScore(RunningStats baseline, double amount) {
+        if (baseline == null || baseline.getCount() < MIN_SAMPLES) {
+            return Double.NaN;
+        }
+        double deviation = Math.max(baseline.getStandardDeviation(),
+            Math.max(MIN_DEVIATION, Math.abs(baseline.getMean()) * MIN_DEVIATION_FRACTION));
+        return (amount - baseline.getMean()) / deviation;
+    }
+}
@@ -0,0 +1,153 @@
+package com.revature.manager.service;
+
+import com.revature.manager.model.DailyTotals;
+import com.revature.manager.model.TrendBucket;
+import com.revature.manager.model.TrendPoint;
+import com.revature.manager.model.TrendSeries;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Turns per-day totals into bucketed trend series. Each key's days are laid out in a dense array with prefix sums,
+ * so every bucket total, previous-period total and rolling window is a difference of two prefix entries; the cost is
+ * one pass over the days however wide the windows or buckets are.
+ */
+final class TrendBuilder {
+    private static final int SHORT_WINDOW_DAYS = 7;
+    private static final int LONG_WINDOW_DAYS = 30;
+
+    private final TrendBucket bucket;
+    private final LocalDate to;
+    private final LocalDate firstPeriod;
+    private final LocalDate endExclusive;
+    private final LocalDate queryStart;
+    private final int days;
+
+    /**
+     * The report covers whole periods from the one containing {@code from} to the one containing {@code to}.
+     */
+    TrendBuilder(LocalDate from, LocalDate to, TrendBucket bucket) {
+        this.bucket = bucket;
+        this.to = to;
+        this.firstPeriod = bucket.start(from);
+        this.endExclusive = bucket.next(bucket.start(to));
+        // Reach back far enough for the first period's predecessor and its trailing 30-day window.
+        LocalDate previousPeriod = bucket.previous(firstPeriod);
+        LocalDate windowStart = firstPeriod.minusDays(LONG_WINDOW_DAYS - 1);
+        this.queryStart = previousPeriod.isBefore(windowStart) ? previousPeriod : windowStart;
+        this.days = (int) ChronoUnit.DAYS.between(queryStart, endExclusive);
+    }
+
+    /**
+     * First day whose totals the series need.
+     */
+    LocalDate getQueryStart() {
+        return queryStart;
+    }
+
+    /**
+     * Last day whose totals the series need, inclusive.
+     */
+    LocalDate getQueryEnd() {
+        return endExclusive.minusDays(1);
+    }
+
+    /**
+     * Returns the total series first, then one series per key in key order. Rows that share a day and key (other
+     * columns, shards, or hot and cold storage) are added together.
+     */
+    List<TrendSeries> build(List<DailyTotals> rows, Function<DailyTotals, String> keyOf) {
+        Daily total = new Daily(days);
+        Map<String, Daily> byKey = new TreeMap<>();
+        for (DailyTotals row : rows) {
+            int day = (int) ChronoUnit.DAYS.between(queryStart, LocalDate.parse(row.getDate()));
+            if (day < 0 || day >= days) {
+                continue;
+            }
+            String key = keyOf.apply(row);
+            byKey.computeIfAbsent(key, k -> new Daily(days)).add(day, row.getCount(), row.getAmount());
+            total.add(day, row.getCount(), row.getAmount());
+        }
+
+        List<TrendSeries> result = new ArrayList<>(byKey.size() + 1);
+        result.add(series(null, total));
+        byKey.forEach((key, daily) -> result.add(series(key, daily)));
+        return result;
+    }
+
+    private TrendSeries series(String key, Daily daily) {
+        daily.accumulate();
+        List<TrendPoint> points = new ArrayList<>();
+        LocalDate previousStart = bucket.previous(firstPeriod);
+        for (LocalDate start = firstPeriod; start.isBefore(endExclusive); start = bucket.next(start)) {
+            LocalDate next = bucket.next(start);
+            int from = index(start);
+            int until = index(next);
+            int previousFrom = index(previousStart);
+            // Windows end on the period's last day, but never after the report's end date.
+            int windowEnd = Math.min(until, index(to) + 1);
+            points.add(new TrendPoint(
+                start,
+                next.minusDays(1),
+                daily.count(from, until),
+                daily.amount(from, until),
+                daily.count(previousFrom, from),
+                daily.amount(previousFrom, from),
+                daily.count(windowEnd - SHORT_WINDOW_DAYS, windowEnd),
+                daily.amount(windowEnd - SHORT_WINDOW_DAYS, windowEnd),
+                daily.count(windowEnd - LONG_WINDOW_DAYS, windowEnd),
+                daily.amount(windowEnd - LONG_WINDOW_DAYS, windowEnd)
+            ));
+            previousStart = start;
+        }
+        return new TrendSeries(key, bucket, points);
+    }
+
+    private int index(LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(queryStart, date);
+    }
+
+    /**
+     * Day-indexed counts and amounts; after {@link #accumulate()} entry i holds the sum of days before i.
+     */
+    private static final class Daily {
+        private final long[] counts;
+        private final double[] amounts;
+
+        private Daily(int days) {
+            counts = new long[days + 1];
+            amounts = new double[days + 1];
+        }
+
+        private void add(int day, long count, double amount) {
+            counts[day + 1] += count;
+            amounts[day + 1] += amount;
+        }
+
+        private void accumulate() {
+            for (int i = 1; i < counts.length; i++) {
+                counts[i] += counts[i - 1];
+                amounts[i] += amounts[i - 1];
+            }
+        }
+
+        /** Sum over days [from, until); the range is clipped to the loaded days. */
+        private long count(int from, int until) {
+            return counts[clip(until)] - counts[clip(from)];
+        }
+
+        private double amount(int from, int until) {
+            return amounts[clip(until)] - amounts[clip(from)];
+        }
+
+        private int clip(int index) {
+            return Math.max(0, Math.min(counts.length - 1, index));
+        }
+    }
+}
@@ -1,27 +1,93 @@
 package com.revature.manager.ui;
 
 import com.revature.manager.exceptions.ValidationException;
+import com.revature.manager.importer.ExpenseImporter;
+import com.revature.manager.model.AmountPercentiles;
+import com.revature.manager.model.Approval;
+import com.revature.manager.model.AutoReviewReport;
+import com.revature.manager.model.BudgetStatus;
+import com.revature.manager.model.DuplicateMatch;
+import com.revature.manager.model.DuplicateScanReport;
 import com.revature.manager.model.Expense;
+import com.revature.manager.model.ExpenseCriteria;
+import com.revature.manager.model.ExpenseTotals;
+import com.revature.manager.model.ImportReport;
+import com.revature.manager.model.MaintenanceJob;
+import com.revature.manager.model.MaintenanceReport;
+import com.revature.manager.model.ReviewerStats;
+import com.revature.manager.model.ScoredExpense;
+import com.revature.manager.model.TopSpender;
+import com.revature.manager.model.TrendBucket;
+import com.revature.manager.model.TrendPoint;
+import com.revature.manager.model.TrendSeries;
 import com.revature.manager.model.User;
+import com.revature.manager.rules.AutoReviewRule;
+import com.revature.manager.service.ArchiveService;
 import com.revature.manager.service.AuthService;
+import com.revature.manager.service.AutoReviewPlan;
+import com.revature.manager.service.AutoReviewService;
+import com.revature.manager.service.BudgetService;
+import com.revature.manager.service.ChangeFeedPoller;
+import com.revature.manager.service.DuplicateService;
 import com.revature.manager.service.ExpenseService;
+import com.revature.manager.service.MaintenanceScheduler;
+import com.revature.manager.service.ReportService;
+import com.revature.manager.service.ReportSession;
 import com.revature.manager.utils.InputValidator;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
 import java.util.logging.Logger;
 
 public class Menu {
     private static final Logger logger = Logger.getLogger(Menu.class.getName());
+    private static final Duration LIVE_TAIL_INTERVAL = Duration.ofSeconds(1);
+    private static final int TREND_BAR_WIDTH = 30;
+    private static final int TREND_CHART_WIDTH = 52;
+    private static final String SPARK_LEVELS = " .:-=+*#";
 
     private final AuthService authService;
     private final ExpenseService expenseService;
+    private final ArchiveService archiveService;
+    private final ExpenseImporter expenseImporter;
+    private final AutoReviewService autoReviewService;
+    private final ReportService reportService;
+    private final BudgetService budgetService;
+    private final DuplicateService duplicateService;
+    private final MaintenanceScheduler maintenanceScheduler;
 
-    public Menu(AuthService authService, ExpenseService expenseService) {
+    public Menu(
+        AuthService authService,
+        ExpenseService expenseService,
+        ArchiveService archiveService,
+        ExpenseImporter expenseImporter,
+        AutoReviewService autoReviewService,
+        ReportService reportService,
+        BudgetService budgetService,
+        DuplicateService duplicateService,
+        MaintenanceScheduler maintenanceScheduler
+    ) {
         this.authService = authService;
         this.expenseService = expenseService;
+        this.archiveService = archiveService;
+        this.expenseImporter = expenseImporter;
+        this.autoReviewService = autoReviewService;
+        this.reportService = reportService;
+        this.budgetService = budgetService;
+        this.duplicateService = duplicateService;
+        this.maintenanceScheduler = maintenanceScheduler;
     }
 
     /**
@@ -52,14 +118,26 @@ public class Menu {
         System.out.println("5. Report by Status");
         System.out.println("6. Report by Category");
         System.out.println("7. Report by Date Range");
-        System.out.println("8. Exit");
+        System.out.println("8. Audit Trail");
+        System.out.println("9. Live Tail Pending Submissions");
+        System.out.println("10. Archive Reviewed Expenses");
+        System.out.println("11. Totals by Status and Category");
+        System.out.println("12. Bulk Import Expenses");
+        System.out.println("13. Auto-Review Pending Expenses");
+        System.out.println("14. Spending Percentiles and Top Spenders");
+        System.out.println("15. Spending Trends");
+        System.out.println("16. Monthly Budgets");
+        System.out.println("17. Filter Expenses");
+        System.out.println("18. Find Duplicate Expenses");
+        System.out.println("19. Database Maintenance");
+        System.out.println("20. Exit");
         System.out.print("Enter a number: ");
     }
 
     private boolean handleOption(String option, Scanner scanner, User manager) {
         switch (option) {
             case "1" -> {
-                printExpenses(expenseService.getPendingExpenses(), true);
+                printPendingQueue(expenseService.getPendingByRisk(0));
                 return true;
             }
             case "2" -> {
@@ -87,6 +165,54 @@ public class Menu {
                 return true;
             }
             case "8" -> {
+                auditTrail(scanner, manager);
+                return true;
+            }
+            case "9" -> {
+                liveTailPending(scanner);
+                return true;
+            }
+            case "10" -> {
+                archiveReviewed(scanner);
+                return true;
+            }
+            case "11" -> {
+                printAllTotals();
+                return true;
+            }
+            case "12" -> {
+                bulkImport(scanner);
+                return true;
+            }
+            case "13" -> {
+                autoReview(scanner, manager);
+                return true;
+            }
+            case "14" -> {
+                spendingReport(scanner);
+                return true;
+            }
+            case "15" -> {
+                spendingTrends(scanner);
+                return true;
+            }
+            case "16" -> {
+                manageBudgets(scanner);
+                return true;
+            }
+            case "17" -> {
+                filterExpenses(scanner);
+                return true;
+            }
+            case "18" -> {
+                findDuplicates();
+                return true;
+            }
+            case "19" -> {
+                databaseMaintenance(scanner);
+                return true;
+            }
+            case "20" -> {
                 System.out.println("Goodbye.");
                 return false;
             }
@@ -98,13 +224,13 @@ public class Menu {
     }
 
     private void reviewExpense(Scanner scanner, User manager, boolean approve) {
-        List<Expense> pending = expenseService.getPendingExpenses();
+        List<ScoredExpense> pending = expenseService.getPendingByRisk(0);
         if (pending.isEmpty()) {
             System.out.println("No pending expenses.");
             return;
         }
 
-        printExpenses(pending, true);
+        printPendingQueue(pending);
         System.out.print("Enter the number of the expense to " + (approve ? "approve" : "deny") + ": ");
         String input = scanner.nextLine().trim();
 
@@ -121,7 +247,11 @@ public class Menu {
             return;
         }
 
-        Expense target = pending.get(selection - 1);
+        Expense target = pending.get(selection - 1).getExpense();
+        if (approve && !confirmNotDuplicate(scanner, target)) {
+            System.out.println("Expense " + target.getId() + " left pending.");
+            return;
+        }
         System.out.print("Add a comment (optional): ");
         String comment = scanner.nextLine().trim();
 
@@ -136,6 +266,36 @@ public class Menu {
         }
     }
 
+    /**
+     * Shows the expenses the target looks like a resubmission of (or that resubmit it) and asks before approving.
+     * Returns true when there are none or the manager approves anyway.
+     */
+    private boolean confirmNotDuplicate(Scanner scanner, Expense target) {
+        List<DuplicateMatch> matches = duplicateService.matchesFor(List.of(target.getId()))
+            .getOrDefault(target.getId(), List.of());
+        if (matches.isEmpty()) {
+            return true;
+        }
+        List<String> otherIds = new ArrayList<>();
+        matches.forEach(match -> otherIds.add(match.otherThan(target.getId())));
+        Map<String, Expense> others = new HashMap<>();
+        expenseService.findExpenses(otherIds).forEach(other -> others.put(other.getId(), other));
+
+        System.out.println("Possible duplicate of:");
+        for (DuplicateMatch match : matches) {
+            String otherId = match.otherThan(target.getId());
+            Expense other = others.get(otherId);
+            String kind = match.getKind() == DuplicateMatch.Kind.EXACT
+                ? "exact"
+                : String.format("%.0f%% similar", match.getSimilarity() * 100);
+            System.out.println("  (" + kind + ") " + (other == null
+                ? shrink(otherId, 8) + " | archived"
+                : buildExpenseLine(false, 0, other)));
+        }
+        System.out.print("Approve anyway? (y/N): ");
+        return scanner.nextLine().trim().equalsIgnoreCase("y");
+    }
+
     private void reportByUser(Scanner scanner) {
         System.out.print("Enter username to report on: ");
         String username = scanner.nextLine().trim();
@@ -195,11 +355,771 @@ public class Menu {
         }
     }
 
+    /**
+     * Ad-hoc report: any mix of filters, each left blank to match everything, run as a single query.
+     */
+    private void filterExpenses(Scanner scanner) {
+        System.out.println("\n--- Filter Expenses (leave a field blank to match everything) ---");
+        ExpenseCriteria criteria;
+        try {
+            ExpenseCriteria.Builder builder = ExpenseCriteria.builder();
+            System.out.print("Username: ");
+            String username = scanner.nextLine().trim();
+            if (!username.isEmpty()) {
+                Optional<User> userOpt = expenseService.findUserByUsername(username);
+                if (userOpt.isEmpty()) {
+                    System.out.println("User not found.");
+                    return;
+                }
+                builder.userId(userOpt.get().getId());
+            }
+            System.out.print("Status (pending/approved/denied): ");
+            String status = scanner.nextLine().trim().toLowerCase();
+            if (!status.isEmpty()) {
+                InputValidator.requireStatus(status);
+                builder.status(status);
+            }
+            System.out.print("Category: ");
+            String category = scanner.nextLine().trim();
+            if (!category.isEmpty()) {
+                builder.category(category);
+            }
+            System.out.print("From date (YYYY-MM-DD): ");
+            LocalDate from = optionalDate(scanner.nextLine().trim(), "From date");
+            System.out.print("To date (YYYY-MM-DD): ");
+            LocalDate to = optionalDate(scanner.nextLine().trim(), "To date");
+            builder.dateRange(from, to);
+            System.out.print("Minimum amount: ");
+            Double min = optionalAmount(scanner.nextLine().trim(), "Minimum amount");
+            System.out.print("Maximum amount: ");
+            Double max = optionalAmount(scanner.nextLine().trim(), "Maximum amount");
+            builder.amountRange(min, max);
+            System.out.print("Sort by (1) newest, (2) oldest, (3) largest or (4) smallest amount [1]: ");
+            builder.sort(switch (scanner.nextLine().trim()) {
+                case "", "1" -> ExpenseCriteria.Sort.DATE_DESC;
+                case "2" -> ExpenseCriteria.Sort.DATE_ASC;
+                case "3" -> ExpenseCriteria.Sort.AMOUNT_DESC;
+                case "4" -> ExpenseCriteria.Sort.AMOUNT_ASC;
+                default -> throw new ValidationException("Sort must be 1, 2, 3 or 4");
+            });
+            System.out.print("Maximum rows (blank for all): ");
+            String limit = scanner.nextLine().trim();
+            if (!limit.isEmpty()) {
+                try {
+                    builder.limit(Integer.parseInt(limit));
+                } catch (NumberFormatException e) {
+                    throw new ValidationException("Maximum rows must be a whole number");
+                }
+            }
+            criteria = builder.build();
+        } catch (ValidationException | IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        List<Expense> expenses = expenseService.listExpenses(criteria);
+        printExpenses(expenses, false);
+        double total = 0;
+        for (Expense expense : expenses) {
+            total += expense.getAmount();
+        }
+        System.out.println(String.format("%d expenses, $%.2f in total", expenses.size(), total));
+        logger.info("Ran ad-hoc filter " + criteria);
+    }
+
+    private LocalDate optionalDate(String value, String fieldName) {
+        return value.isEmpty() ? null : InputValidator.parseIsoDate(value, fieldName);
+    }
+
+    private Double optionalAmount(String value, String fieldName) {
+        return value.isEmpty() ? null : InputValidator.parsePositiveAmount(value, fieldName);
+    }
+
+    private void liveTailPending(Scanner scanner) {
+        if (expenseService.getShardCount() > 1) {
+            System.out.println("Live tail follows a single database. Start the app on one region's database"
+                + " (EXPENSE_DB_FILE only) to watch it.");
+            return;
+        }
+        System.out.println("\nWatching for new pending expenses. Press Enter to stop.");
+        long token = expenseService.currentChangeToken();
+        try (ChangeFeedPoller poller = expenseService.tailChanges(token, LIVE_TAIL_INTERVAL, changes -> {
+            for (Expense expense : changes.getChanged()) {
+                if ("pending".equalsIgnoreCase(expense.getStatus())) {
+                    System.out.println(buildExpenseLine(false, 0, expense));
+                }
+            }
+        })) {
+            scanner.nextLine();
+        }
+        System.out.println("Stopped watching.");
+    }
+
+    private void archiveReviewed(Scanner scanner) {
+        System.out.print("Archive reviewed expenses older than how many days? [" + archiveService.getDefaultAgeDays() + "]: ");
+        String input = scanner.nextLine().trim();
+        int days;
+        try {
+            days = input.isEmpty() ? archiveService.getDefaultAgeDays() : Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            System.out.println("Please enter a number.");
+            return;
+        }
+        if (days < 0) {
+            System.out.println("Days cannot be negative.");
+            return;
+        }
+
+        System.out.println("Archiving in the background; the summary will print when it finishes.");
+        archiveService.archiveAsync(days).whenComplete((report, error) -> {
+            if (error != null) {
+                System.out.println("\nArchiving failed: " + error.getMessage());
+                return;
+            }
+            System.out.println("\n--- Archive Summary ---");
+            System.out.println("Cutoff date:       " + report.getCutoffDate());
+            System.out.println("Expenses moved:    " + report.getExpensesMoved()
+                + " (" + report.getApprovalsMoved() + " approvals rows) in " + report.getChunks() + " chunks, "
+                + report.getElapsedMillis() + " ms");
+            System.out.println("Verification:      " + (report.isVerified() ? "OK" : String.join("; ", report.getProblems())));
+            System.out.println("Pending list:      " + report.getPendingQueryMillisBefore() + " ms -> "
+                + report.getPendingQueryMillisAfter() + " ms");
+            System.out.println("Last 90 days:      " + report.getRecentRangeMillisBefore() + " ms -> "
+                + report.getRecentRangeMillisAfter() + " ms");
+        });
+    }
+
+    private void bulkImport(Scanner scanner) {
+        if (expenseService.getShardCount() > 1) {
+            System.out.println("Bulk import writes to a single database. Start the app on the database of the region"
+                + " the expenses belong to (EXPENSE_DB_FILE only) and import there.");
+            return;
+        }
+        System.out.print("Path to a CSV or JSON Lines file: ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            System.out.println("No file given.");
+            return;
+        }
+        Path path = Path.of(input);
+        if (!Files.isRegularFile(path)) {
+            System.out.println("File not found: " + input);
+            return;
+        }
+
+        ImportReport report;
+        try {
+            report = expenseImporter.importFile(path, false);
+            if (report.isAlreadyCompleted()) {
+                System.out.print("This file was already imported. Import it again? (y/n): ");
+                if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                    return;
+                }
+                report = expenseImporter.importFile(path, true);
+            }
+        } catch (IOException | SQLException e) {
+            logger.warning("Bulk import of " + input + " failed: " + e.getMessage());
+            System.out.println("Import stopped: " + e.getMessage());
+            System.out.println("Run the import again on the same file to resume from the last committed line.");
+            return;
+        }
+
+        System.out.println("\n--- Import Summary ---");
+        if (report.getResumedFromLine() > 0) {
+            System.out.println("Resumed after line: " + report.getResumedFromLine());
+        }
+        System.out.println("Imported:          " + report.getImported() + " expenses in " + report.getElapsedMillis()
+            + " ms (" + String.format("%.0f", report.getRowsPerSecond()) + " rows/s)");
+        System.out.println("Rejected:          " + report.getRejected()
+            + (report.getRejected() > 0 ? " (see " + report.getQuarantineFile() + ")" : ""));
+    }
+
+    private void autoReview(Scanner scanner, User manager) {
+        Path defaultFile = autoReviewService.getDefaultRulesFile();
+        System.out.print("Rules file [" + defaultFile + "]: ");
+        String input = scanner.nextLine().trim();
+        Path rulesFile = input.isEmpty() ? defaultFile : Path.of(input);
+
+        List<AutoReviewRule> rules;
+        try {
+            rules = autoReviewService.loadRules(rulesFile);
+        } catch (IOException e) {
+            System.out.println("Could not read " + rulesFile + ": " + e.getMessage());
+            return;
+        } catch (ValidationException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        if (rules.isEmpty()) {
+            System.out.println("The rules file has no rules.");
+            return;
+        }
+
+        AutoReviewPlan plan = autoReviewService.plan(rules);
+        System.out.println("\n--- Auto-Review Dry Run ---");
+        System.out.println("Scanned " + plan.getScanned() + " pending expenses in " + plan.getElapsedMillis() + " ms ("
+            + String.format("%.0f", plan.getRowsPerSecond()) + " rows/s)");
+        for (int i = 0; i < rules.size(); i++) {
+            AutoReviewRule rule = rules.get(i);
+            System.out.println(rule.getName() + " -> " + rule.getStatus() + ": " + plan.getMatchCount(i)
+                + " (" + rule.getSource() + ")");
+            for (Expense sample : plan.getSamples(i)) {
+                System.out.println("    " + buildExpenseLine(false, 0, sample));
+            }
+        }
+        if (plan.getDecisionCount() == 0) {
+            System.out.println("No pending expenses match the rules.");
+            return;
+        }
+
+        System.out.print("Apply these " + plan.getDecisionCount() + " decisions? (y/n): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            System.out.println("Dry run only; nothing was changed.");
+            return;
+        }
+        AutoReviewReport report = autoReviewService.apply(plan, manager);
+        System.out.println("Approved " + report.getApproved() + ", denied " + report.getDenied() + " in "
+            + report.getBatches() + " batches, " + report.getElapsedMillis() + " ms ("
+            + String.format("%.0f", report.getRowsPerSecond()) + " rows/s)");
+        if (report.getSkipped() > 0) {
+            System.out.println(report.getSkipped()
+                + " expenses were reviewed or edited since the dry run and were left as they are.");
+        }
+    }
+
+    private void spendingReport(Scanner scanner) {
+        YearMonth thisMonth = YearMonth.now();
+        YearMonth from = promptMonth(scanner, "From month (YYYY-MM) [" + thisMonth.minusMonths(11) + "]: ",
+            thisMonth.minusMonths(11));
+        if (from == null) {
+            return;
+        }
+        YearMonth to = promptMonth(scanner, "To month (YYYY-MM) [" + thisMonth + "]: ", thisMonth);
+        if (to == null) {
+            return;
+        }
+        if (to.isBefore(from)) {
+            System.out.println("The end month is before the start month.");
+            return;
+        }
+        System.out.print("Top spenders per month [" + ReportService.DEFAULT_TOP_SPENDERS + "]: ");
+        String input = scanner.nextLine().trim();
+        int limit;
+        try {
+            limit = input.isEmpty() ? ReportService.DEFAULT_TOP_SPENDERS : Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            System.out.println("Please enter a number.");
+            return;
+        }
+        if (limit < 1) {
+            System.out.println("Enter at least 1.");
+            return;
+        }
+
+        List<AmountPercentiles> percentiles = reportService.amountPercentiles(from, to);
+        System.out.println("\n--- Approved Amount Percentiles " + from + " to " + to + " ---");
+        if (percentiles.isEmpty()) {
+            System.out.println("No approved expenses in this range.");
+            return;
+        }
+        System.out.println(String.format("%-15s | %8s | %10s | %10s | %10s | %10s",
+            "Category", "Count", "p50", "p90", "p99", "Max"));
+        for (AmountPercentiles row : percentiles) {
+            System.out.println(String.format("%-15s | %8d | %10.2f | %10.2f | %10.2f | %10.2f",
+                shrink(row.getCategory(), 15), row.getCount(), row.getP50(), row.getP90(), row.getP99(), row.getMax()));
+        }
+
+        System.out.println("\n--- Top " + limit + " Spenders per Month ---");
+        for (Map.Entry<YearMonth, List<TopSpender>> entry : reportService.topSpendersByMonth(from, to, limit).entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            System.out.println(entry.getKey() + ":");
+            int rank = 1;
+            for (TopSpender spender : entry.getValue()) {
+                String name = spender.getUsername() == null ? spender.getUserId() : spender.getUsername();
+                System.out.println(String.format("  %2d. %-12s $%10.2f (%d expenses)",
+                    rank++, shrink(name, 12), spender.getAmount(), spender.getCount()));
+            }
+        }
+    }
+
+    private void spendingTrends(Scanner scanner) {
+        System.out.print("Bucket by (day/week/month) [month]: ");
+        String bucketInput = scanner.nextLine().trim().toLowerCase();
+        TrendBucket bucket;
+        switch (bucketInput) {
+            case "", "month" -> bucket = TrendBucket.MONTH;
+            case "week" -> bucket = TrendBucket.WEEK;
+            case "day" -> bucket = TrendBucket.DAY;
+            default -> {
+                System.out.println("Enter day, week or month.");
+                return;
+            }
+        }
+        System.out.print("Split by (status/category) [status]: ");
+        String dimension = scanner.nextLine().trim().toLowerCase();
+        if (dimension.isEmpty()) {
+            dimension = "status";
+        }
+        if (!dimension.equals("status") && !dimension.equals("category")) {
+            System.out.println("Enter status or category.");
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate defaultStart = switch (bucket) {
+            case DAY -> today.minusDays(29);
+            case WEEK -> today.minusWeeks(25);
+            case MONTH -> today.minusMonths(11);
+        };
+        try {
+            System.out.print("Start date (YYYY-MM-DD) [" + defaultStart + "]: ");
+            String start = scanner.nextLine().trim();
+            LocalDate from = start.isEmpty() ? defaultStart : InputValidator.parseIsoDate(start, "Start date");
+            System.out.print("End date (YYYY-MM-DD) [" + today + "]: ");
+            String end = scanner.nextLine().trim();
+            LocalDate to = end.isEmpty() ? today : InputValidator.parseIsoDate(end, "End date");
+            if (to.isBefore(from)) {
+                System.out.println("End date cannot be before start date.");
+                return;
+            }
+
+            List<TrendSeries> trend = dimension.equals("status")
+                ? expenseService.getTrendByStatus(from, to, bucket)
+                : expenseService.getTrendByCategory(from, to, bucket);
+            printTrendChart(trend.get(0));
+            printTrendSparklines(trend.subList(1, trend.size()), dimension);
+        } catch (ValidationException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * One row per period with a bar scaled to the largest period amount. The change column compares each period's
+     * amount with the one before it; the rolling columns are the trailing 7 and 30 days as of the period's end.
+     */
+    private void printTrendChart(TrendSeries series) {
+        List<TrendPoint> points = series.getPoints();
+        double peak = 0;
+        for (TrendPoint point : points) {
+            peak = Math.max(peak, point.getAmount());
+        }
+
+        System.out.println("\n--- All Expenses by " + series.getBucket().name().toLowerCase() + " ---");
+        System.out.println("----------------------------------------------------------------------------------------------------");
+        System.out.println(String.format("%-10s | %7s | %12s | %7s | %12s | %12s | %s",
+            "Period", "Count", "Amount", "Change", "Last 7 days", "Last 30 days", ""));
+        System.out.println("----------------------------------------------------------------------------------------------------");
+        for (TrendPoint point : points) {
+            int width = peak == 0 ? 0 : (int) Math.round(point.getAmount() / peak * TREND_BAR_WIDTH);
+            System.out.println(String.format("%-10s | %7d | $%11.2f | %7s | $%11.2f | $%11.2f | %s",
+                periodLabel(series.getBucket(), point.getPeriodStart()),
+                point.getCount(),
+                point.getAmount(),
+                percentChange(point.getAmountChangeRatio()),
+                point.getRolling7Amount(),
+                point.getRolling30Amount(),
+                "#".repeat(width)));
+        }
+        System.out.println("----------------------------------------------------------------------------------------------------");
+        System.out.println(String.format("Total: %d expenses, $%.2f", series.getTotalCount(), series.getTotalAmount()));
+    }
+
+    /**
+     * One line per status or category: totals plus a sparkline of period amounts, each series scaled to its own peak.
+     * Long series are squeezed to {@value #TREND_CHART_WIDTH} characters by summing neighbouring periods.
+     */
+    private void printTrendSparklines(List<TrendSeries> series, String dimension) {
+        if (series.isEmpty()) {
+            System.out.println("No expenses in this range.");
+            return;
+        }
+        System.out.println("\nBy " + dimension + ":");
+        for (TrendSeries entry : series) {
+            List<TrendPoint> points = entry.getPoints();
+            int width = Math.min(points.size(), TREND_CHART_WIDTH);
+            double[] columns = new double[width];
+            for (int i = 0; i < points.size(); i++) {
+                columns[(int) ((long) i * width / points.size())] += points.get(i).getAmount();
+            }
+            double peak = 0;
+            for (double column : columns) {
+                peak = Math.max(peak, column);
+            }
+            StringBuilder line = new StringBuilder(width);
+            for (double column : columns) {
+                int level = peak == 0 ? 0 : (int) Math.ceil(column / peak * (SPARK_LEVELS.length() - 1));
+                line.append(SPARK_LEVELS.charAt(level));
+            }
+            System.out.println(String.format("%-15s | %7d | $%11.2f | %s",
+                shrink(entry.getKey(), 15), entry.getTotalCount(), entry.getTotalAmount(), line));
+        }
+    }
+
+    private String periodLabel(TrendBucket bucket, LocalDate start) {
+        return bucket == TrendBucket.MONTH ? YearMonth.from(start).toString() : start.toString();
+    }
+
+    private String percentChange(double ratio) {
+        if (Double.isNaN(ratio)) {
+            return "new";
+        }
+        return String.format("%+d%%", Math.round(ratio * 100));
+    }
+
+    private YearMonth promptMonth(Scanner scanner, String prompt, YearMonth defaultMonth) {
+        System.out.print(prompt);
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            return defaultMonth;
+        }
+        try {
+            return YearMonth.parse(input);
+        } catch (DateTimeParseException e) {
+            System.out.println("Months must be in YYYY-MM format.");
+            return null;
+        }
+    }
+
+    private void auditTrail(Scanner scanner, User manager) {
+        System.out.println("\n--- Audit Trail ---");
+        System.out.println("1. Decision history for an expense");
+        System.out.println("2. Reviewer timeline");
+        System.out.println("3. Reviewer throughput");
+        System.out.print("Enter a number: ");
+        String option = scanner.nextLine().trim();
+        switch (option) {
+            case "1" -> expenseHistory(scanner);
+            case "2" -> reviewerTimeline(scanner, manager);
+            case "3" -> reviewerThroughput(scanner, manager);
+            default -> System.out.println("Not a valid option.");
+        }
+    }
+
+    private void expenseHistory(Scanner scanner) {
+        System.out.print("Enter expense ID (the first characters are enough): ");
+        String expenseId = scanner.nextLine().trim();
+        try {
+            InputValidator.requireNonEmpty(expenseId, "Expense ID");
+            List<Approval> history = expenseService.getExpenseHistory(expenseId);
+            System.out.println("\nDecision history for " + expenseId);
+            printApprovalHeader();
+            history.forEach(approval -> System.out.println(buildApprovalLine(approval)));
+            printApprovalFooter(history.size());
+        } catch (ValidationException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    private void reviewerTimeline(Scanner scanner, User manager) {
+        Optional<User> reviewer = promptReviewer(scanner, manager);
+        if (reviewer.isEmpty()) {
+            return;
+        }
+        System.out.print("Enter start date (YYYY-MM-DD): ");
+        String start = scanner.nextLine().trim();
+        System.out.print("Enter end date (YYYY-MM-DD): ");
+        String end = scanner.nextLine().trim();
+        try {
+            LocalDate startDate = InputValidator.parseIsoDate(start, "Start date");
+            LocalDate endDate = InputValidator.parseIsoDate(end, "End date");
+            if (endDate.isBefore(startDate)) {
+                System.out.println("End date cannot be before start date.");
+                return;
+            }
+            System.out.println("\nTimeline for " + reviewer.get().getUsername() + ": " + start + " to " + end);
+            printApprovalHeader();
+            int[] rows = {0};
+            expenseService.streamReviewerTimeline(reviewer.get().getId(), startDate.toString(), endDate.toString(),
+                approval -> {
+                    System.out.println(buildApprovalLine(approval));
+                    rows[0]++;
+                });
+            printApprovalFooter(rows[0]);
+        } catch (ValidationException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    private void reviewerThroughput(Scanner scanner, User manager) {
+        Optional<User> reviewer = promptReviewer(scanner, manager);
+        if (reviewer.isEmpty()) {
+            return;
+        }
+        Optional<ReviewerStats> statsOpt = expenseService.getReviewerStats(reviewer.get().getId());
+        if (statsOpt.isEmpty()) {
+            System.out.println("No decisions recorded for " + reviewer.get().getUsername() + ".");
+            return;
+        }
+        ReviewerStats stats = statsOpt.get();
+        System.out.println("\nThroughput for " + reviewer.get().getUsername());
+        System.out.println("Decisions:            " + stats.getDecisions()
+            + " (" + stats.getApproved() + " approved, " + stats.getDenied() + " denied)");
+        System.out.println("First / last:         " + stats.getFirstDecision() + " / " + stats.getLastDecision());
+        System.out.printf("Decisions per hour:   %.2f over %d active hours%n",
+            stats.getDecisionsPerHour(), stats.getActiveHours());
+        if (Double.isNaN(stats.getMedianHoursToReview())) {
+            System.out.println("Median time to review: -");
+        } else {
+            System.out.printf("Median time to review: %.1f hours%n", stats.getMedianHoursToReview());
+        }
+    }
+
+    private Optional<User> promptReviewer(Scanner scanner, User manager) {
+        System.out.print("Enter reviewer username (blank for yourself): ");
+        String username = scanner.nextLine().trim();
+        if (username.isEmpty()) {
+            return Optional.of(manager);
+        }
+        Optional<User> userOpt = expenseService.findUserByUsername(username);
+        if (userOpt.isEmpty()) {
+            System.out.println("User not found.");
+        }
+        return userOpt;
+    }
+
+    private void printApprovalHeader() {
+        System.out.println("-----------------------------------------------------------------------------------------------");
+        System.out.println("Reviewed            | Expense  | Status    | Reviewer | Comment");
+        System.out.println("-----------------------------------------------------------------------------------------------");
+    }
+
+    private void printApprovalFooter(int rows) {
+        if (rows == 0) {
+            System.out.println("No decisions to show.");
+        }
+        System.out.println("-----------------------------------------------------------------------------------------------\n");
+        logger.info("Displayed " + rows + " audit rows in menu");
+    }
+
+    private String buildApprovalLine(Approval approval) {
+        return String.format(
+            "%-19s | %-8s | %-9s | %-8s | %s",
+            shrink(approval.getReviewDate(), 19),
+            shrink(approval.getExpenseId(), 8),
+            shrink(approval.getStatus(), 9),
+            shrink(reviewerName(approval.getReviewer()), 8),
+            shrink(approval.getComment(), 40)
+        );
+    }
+
+    private String reviewerName(String reviewerId) {
+        return expenseService.findUserById(reviewerId).map(User::getUsername).orElse(reviewerId);
+    }
+
+    /**
+     * Shows this month's budgets, then optionally sets or removes one.
+     */
+    private void manageBudgets(Scanner scanner) {
+        budgetService.sync();
+        YearMonth month = YearMonth.now();
+        List<BudgetStatus> budgets = budgetService.budgets(month);
+        System.out.println("\n--- Monthly Budgets for " + month + " ---");
+        if (budgets.isEmpty()) {
+            System.out.println("No budgets set.");
+        } else {
+            System.out.println(String.format("%-8s | %-15s | %10s | %10s | %10s | %10s",
+                "Scope", "Name", "Limit", "Approved", "Pending", "Remaining"));
+            for (BudgetStatus budget : budgets) {
+                System.out.println(String.format("%-8s | %-15s | %10.2f | %10.2f | %10.2f | %10.2f",
+                    budget.getScope(), shrink(budget.getLabel(), 15), budget.getLimit(), budget.getApprovedAmount(),
+                    budget.getPendingAmount(), budget.getRemaining()));
+            }
+        }
+
+        System.out.print("Set a budget for a (u)ser or a (c)ategory, or press Enter to return: ");
+        String scope = scanner.nextLine().trim().toLowerCase();
+        if (scope.isEmpty()) {
+            return;
+        }
+        if (!scope.equals("u") && !scope.equals("c")) {
+            System.out.println("Please enter u or c.");
+            return;
+        }
+        System.out.print(scope.equals("u") ? "Username: " : "Category: ");
+        String name = scanner.nextLine().trim();
+        if (name.isEmpty()) {
+            System.out.println("A name is required.");
+            return;
+        }
+        System.out.print("Monthly limit (0 to remove): ");
+        double limit;
+        try {
+            limit = Double.parseDouble(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Please enter an amount.");
+            return;
+        }
+
+        boolean changed;
+        if (scope.equals("u")) {
+            Optional<User> user = expenseService.findUserByUsername(name);
+            if (user.isEmpty()) {
+                System.out.println("No user named " + name + ".");
+                return;
+            }
+            changed = budgetService.setUserBudget(user.get().getId(), limit);
+        } else {
+            changed = budgetService.setCategoryBudget(name, limit);
+        }
+        if (!changed) {
+            System.out.println("No budget was changed.");
+        } else {
+            System.out.println(limit > 0 ? "Budget saved." : "Budget removed.");
+        }
+    }
+
+    /**
+     * Signs and cross-checks every expense not scanned before (the first run reads the whole history), then lists the
+     * pending expenses involved in a match.
+     */
+    private void findDuplicates() {
+        System.out.println("Scanning expense history for duplicates...");
+        DuplicateScanReport report = duplicateService.scanHistory();
+        System.out.println("\n--- Duplicate Scan ---");
+        System.out.println("Newly signed:      " + report.getExpensesSigned() + " expenses in "
+            + report.getElapsedMillis() + " ms");
+        System.out.println("Matches:           " + report.getExactMatches() + " exact, " + report.getSimilarMatches()
+            + " similar (" + report.getNewMatches() + " new)");
+
+        List<ScoredExpense> pending = expenseService.getPendingByRisk(0);
+        List<String> ids = new ArrayList<>(pending.size());
+        pending.forEach(scored -> ids.add(scored.getExpense().getId()));
+        Map<String, List<DuplicateMatch>> flagged = duplicateService.matchesFor(ids);
+        List<ScoredExpense> suspects = pending.stream()
+            .filter(scored -> flagged.containsKey(scored.getExpense().getId()))
+            .toList();
+        System.out.println("Pending suspects:  " + suspects.size());
+        if (!suspects.isEmpty()) {
+            printPendingQueue(suspects);
+        }
+    }
+
+    /**
+     * Shows the last background pass of each database and offers to run one now, backup included.
+     */
+    private void databaseMaintenance(Scanner scanner) {
+        List<MaintenanceReport> reports = maintenanceScheduler.getLastReports();
+        if (reports.isEmpty()) {
+            System.out.println("No maintenance has run yet; it starts once the database has been idle for "
+                + MaintenanceScheduler.DEFAULT_IDLE_AFTER.toMinutes() + " minutes.");
+        } else {
+            reports.forEach(this::printMaintenanceReport);
+        }
+        System.out.print("Run maintenance now, including a backup? (y/N): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            return;
+        }
+        System.out.println("Running maintenance...");
+        List<MaintenanceReport> results = maintenanceScheduler.runNow();
+        if (results.isEmpty()) {
+            System.out.println("Maintenance did not run; see the log for details.");
+        }
+        results.forEach(this::printMaintenanceReport);
+    }
+
+    private void printMaintenanceReport(MaintenanceReport report) {
+        double megabyte = 1024.0 * 1024.0;
+        System.out.println("\n--- Maintenance of " + report.getDatabasePath() + " at " + report.getStartedAt() + " ---");
+        System.out.println(String.format("File size:         %.1f MB (was %.1f MB), WAL %.1f MB",
+            report.getFileBytes() / megabyte, report.getFileBytesBefore() / megabyte, report.getWalBytes() / megabyte));
+        System.out.println("Free pages:        " + report.getFreelistPages() + " (was " + report.getFreelistPagesBefore()
+            + "), " + report.getPageSize() + " bytes each");
+        if (report.isConversionPending()) {
+            System.out.println("Vacuum mode:       not incremental yet. Running maintenance now converts the file"
+                + " with a one-time VACUUM; the employee app cannot save anything until it finishes.");
+        }
+        System.out.println("---------------------------------------------------------------------------------------------");
+        System.out.println(String.format("%-18s | %-8s | %7s | %s", "Job", "Outcome", "ms", "Detail"));
+        System.out.println("---------------------------------------------------------------------------------------------");
+        for (MaintenanceJob job : report.getJobs()) {
+            System.out.println(String.format("%-18s | %-8s | %7d | %s", job.getName(), job.getOutcome(),
+                job.getElapsedMillis(), job.getDetail()));
+        }
+        System.out.println("---------------------------------------------------------------------------------------------");
+        System.out.println("Total:             " + report.getElapsedMillis() + " ms");
+    }
+
+    /**
+     * Both tables come from one report session, so they always add up to the same grand total.
+     */
+    private void printAllTotals() {
+        try (ReportSession session = expenseService.openReportSession()) {
+            printTotals("Status", session.getTotalsByStatus());
+            printTotals("Category", session.getTotalsByCategory());
+        } catch (SQLException e) {
+            logger.warning("Unable to open a report session: " + e.getMessage());
+            System.out.println("Totals are unavailable right now: " + e.getMessage());
+        }
+    }
+
+    private void printTotals(String label, List<ExpenseTotals> totals) {
+        System.out.println("\nTotals by " + label);
+        System.out.println("-----------------------------------------------");
+        System.out.println(String.format("%-15s | %8s | %12s", label, "Count", "Amount"));
+        System.out.println("-----------------------------------------------");
+        for (ExpenseTotals row : totals) {
+            System.out.println(String.format("%-15s | %8d | $%11.2f", shrink(row.getKey(), 15), row.getCount(), row.getAmount()));
+        }
+        System.out.println("-----------------------------------------------");
+    }
+
     private void printReport(List<Expense> expenses, String label, String value) {
         System.out.println("\nReport for " + label + ": " + value);
         printExpenses(expenses, false);
     }
 
+    /**
+     * Pending expenses in priority order with their risk score (standard deviations above the baseline named after
+     * it: u = the user's history, c = the category's, a = all reviewed expenses). Left is what the tighter of the
+     * user's and the category's budgets for the expense's month would have left once it is approved; negative means
+     * over budget. Dup names the strongest suspected duplicate: = for an exact copy, ~ for a similar one.
+     */
+    private void printPendingQueue(List<ScoredExpense> pending) {
+        if (pending.isEmpty()) {
+            System.out.println("No expenses to show.");
+            return;
+        }
+
+        budgetService.sync();
+        duplicateService.sync();
+        List<String> ids = new ArrayList<>(pending.size());
+        pending.forEach(scored -> ids.add(scored.getExpense().getId()));
+        Map<String, List<DuplicateMatch>> duplicates = duplicateService.matchesFor(ids);
+        System.out.println("----------------------------------------------------------------------------------------------------------------------------");
+        System.out.println("NUM | Risk   | Left     | Dup       | ID       | User       | Category    | Amount  | Date       | Status    | Description");
+        System.out.println("----------------------------------------------------------------------------------------------------------------------------");
+        for (int i = 0; i < pending.size(); i++) {
+            ScoredExpense scored = pending.get(i);
+            String basis = scored.getBasis() == null ? " " : scored.getBasis().substring(0, 1);
+            String left = budgetService.tightestFor(scored.getExpense())
+                .map(budget -> formatBudgetLeft(budget, scored.getExpense().getAmount()))
+                .orElse("-");
+            String dup = formatDuplicate(scored.getExpense().getId(), duplicates);
+            String line = buildExpenseLine(false, 0, scored.getExpense());
+            System.out.println(String.format("%3d | %5.1f%s | %8s | %-9s | ", i + 1, scored.getScore(), basis, left,
+                dup) + line);
+        }
+        System.out.println("----------------------------------------------------------------------------------------------------------------------------\n");
+        logger.info("Displayed " + pending.size() + " pending rows in menu");
+    }
+
+    private String formatDuplicate(String expenseId, Map<String, List<DuplicateMatch>> duplicates) {
+        List<DuplicateMatch> matches = duplicates.get(expenseId);
+        if (matches == null) {
+            return "-";
+        }
+        DuplicateMatch strongest = matches.get(0);
+        String marker = strongest.getKind() == DuplicateMatch.Kind.EXACT ? "=" : "~";
+        return marker + shrink(strongest.otherThan(expenseId), 8);
+    }
+
+    private String formatBudgetLeft(BudgetStatus budget, double amount) {
+        double left = budget.getRemaining() - amount;
+        return String.format("%s$%.0f%s", left < 0 ? "-" : "", Math.abs(left), budget.getScope().substring(0, 1));
+    }
+
     private void printExpenses(List<Expense> expenses, boolean showIndex) {
         if (expenses.isEmpty()) {
             System.out.println("No expenses to show.");
@@ -40,4 +40,21 @@ public final class InputValidator {
             throw new ValidationException(fieldName + " must be in YYYY-MM-DD format");
         }
     }
+
+    /**
+     * Parses a money amount and requires it to be a finite number greater than zero.
+     */
+    public static double parsePositiveAmount(String value, String fieldName) {
+        requireNonEmpty(value, fieldName);
+        double amount;
+        try {
+            amount = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException(fieldName + " must be a number");
+        }
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            throw new ValidationException(fieldName + " must be greater than zero");
+        }
+        return amount;
+    }
 }
@@ -0,0 +1,261 @@
+package com.revature.manager.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * KLL quantile sketch (Karnin, Lang and Liberty) over doubles. It keeps a few hundred values in levels of
+ * compactors, where a value on level h stands for 2^h inputs, so memory stays small however many values are added.
+ * Sketches of disjoint inputs merge into a sketch of the combined input with the same error bound, which is what lets
+ * monthly sketches be cached and combined over any range of months. With the default k of 200 the rank error is
+ * typically 1-2%; min, max and count are exact.
+ */
+public final class KllSketch {
+    public static final int DEFAULT_K = 200;
+    private static final double LEVEL_SHRINK = 2.0 / 3.0;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final int k;
+    private final List<Level> levels = new ArrayList<>();
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private int retained;
+    private int maxRetained;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k must be at least 8");
+        }
+        this.k = k;
+        grow();
+    }
+
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        count++;
+        levels.get(0).add(value);
+        retained++;
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Folds another sketch into this one; the other sketch is not changed.
+     */
+    public void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        while (levels.size() < other.levels.size()) {
+            grow();
+        }
+        for (int h = 0; h < other.levels.size(); h++) {
+            Level source = other.levels.get(h);
+            levels.get(h).addAll(source.values, source.size);
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        retained = retainedNow();
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Approximate value at the given rank fraction (0.5 for the median), or NaN for an empty sketch.
+     */
+    public double quantile(double fraction) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (fraction <= 0) {
+            return min;
+        }
+        if (fraction >= 1) {
+            return max;
+        }
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        Integer[] order = new Integer[retained];
+        int index = 0;
+        long totalWeight = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            Level level = levels.get(h);
+            for (int i = 0; i < level.size; i++) {
+                values[index] = level.values[i];
+                weights[index] = 1L << h;
+                order[index] = index;
+                totalWeight += weights[index];
+                index++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        double target = fraction * totalWeight;
+        long cumulative = 0;
+        for (Integer i : order) {
+            cumulative += weights[i];
+            if (cumulative >= target) {
+                return values[i];
+            }
+        }
+        return max;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + retained * Double.BYTES);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(k);
+            out.writeLong(count);
+            out.writeDouble(min);
+            out.writeDouble(max);
+            out.writeInt(levels.size());
+            for (Level level : levels) {
+                out.writeInt(level.size);
+                for (int i = 0; i < level.size; i++) {
+                    out.writeDouble(level.values[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static KllSketch fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported sketch format " + version);
+            }
+            KllSketch sketch = new KllSketch(in.readInt());
+            sketch.count = in.readLong();
+            sketch.min = in.readDouble();
+            sketch.max = in.readDouble();
+            int height = in.readInt();
+            while (sketch.levels.size() < height) {
+                sketch.grow();
+            }
+            for (int h = 0; h < height; h++) {
+                int size = in.readInt();
+                Level level = sketch.levels.get(h);
+                for (int i = 0; i < size; i++) {
+                    level.add(in.readDouble());
+                }
+            }
+            sketch.retained = sketch.retainedNow();
+            return sketch;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt sketch data", e);
+        }
+    }
+
+    private void grow() {
+        levels.add(new Level());
+        maxRetained = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            maxRetained += capacity(h);
+        }
+    }
+
+    /**
+     * The top level holds about k values; each level below holds two thirds of the one above it.
+     */
+    private int capacity(int level) {
+        int depth = levels.size() - level - 1;
+        return (int) Math.ceil(k * Math.pow(LEVEL_SHRINK, depth)) + 1;
+    }
+
+    private void compress() {
+        for (int h = 0; h < levels.size(); h++) {
+            if (levels.get(h).size >= capacity(h)) {
+                if (h + 1 == levels.size()) {
+                    grow();
+                }
+                levels.get(h).compactInto(levels.get(h + 1));
+                retained = retainedNow();
+                if (retained < maxRetained) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private int retainedNow() {
+        int total = 0;
+        for (Level level : levels) {
+            total += level.size;
+        }
+        return total;
+    }
+
+    private static final class Level {
+        private double[] values = new double[16];
+        private int size;
+
+        private void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void addAll(double[] source, int length) {
+            if (size + length > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + length));
+            }
+            System.arraycopy(source, 0, values, size, length);
+            size += length;
+        }
+
+        /**
+         * Sorts the level and promotes every other value (starting at a random offset) to the next level, where it
+         * counts double. With an odd size the smallest value stays behind so only pairs are compacted.
+         */
+        private void compactInto(Level next) {
+            Arrays.sort(values, 0, size);
+            int keep = size % 2;
+            int start = keep + (ThreadLocalRandom.current().nextBoolean() ? 1 : 0);
+            for (int i = start; i < size; i += 2) {
+                next.add(values[i]);
+            }
+            size = keep;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.revature.manager.utils;
+
+/**
+ * Text folding that matches SQLite's built-in functions, for keys the triggers compute in SQL and the app looks up
+ * in Java.
+ */
+public final class SqliteText {
+    private SqliteText() {
+        // Utility class; no instances required.
+    }
+
+    /**
+     * Lower-cases like SQLite's {@code lower()}: ASCII letters only, so "ÉDUCATION" becomes "Éducation" on both
+     * sides, where {@link String#toLowerCase} would give "éducation" and miss the row.
+     */
+    public static String lower(String value) {
+        if (value == null) {
+            return null;
+        }
+        char[] chars = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (chars == null) {
+                    chars = value.toCharArray();
+                }
+                chars[i] = (char) (c + ('a' - 'A'));
+            }
+        }
+        return chars == null ? value : new String(chars);
+    }
+}
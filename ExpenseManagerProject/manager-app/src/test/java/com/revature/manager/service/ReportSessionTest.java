@@ -0,0 +1,208 @@
+package com.revature.manager.service;
+
+import com.revature.manager.dao.ApprovalDao;
+import com.revature.manager.dao.ArchiveDao;
+import com.revature.manager.dao.BudgetDao;
+import com.revature.manager.dao.ChangeDao;
+import com.revature.manager.dao.ExpenseDao;
+import com.revature.manager.dao.UserCache;
+import com.revature.manager.dao.UserDao;
+import com.revature.manager.db.Database;
+import com.revature.manager.model.ExpenseTotals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Report sessions against a writer thread that keeps inserting and approving expenses on its own connection, the way
+ * the employee app does.
+ */
+class ReportSessionTest {
+    private static final String[] CATEGORIES = {"Travel", "Meals", "Lodging", "Supplies", "Training"};
+    private static final String[] STATUSES = {"pending", "approved", "denied"};
+    private static final int USERS = 20;
+    private static final int ROWS = 5_000;
+    private static final int MIN_WRITES = 20;
+    private static final long WRITE_WAIT_NANOS = 30_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    private Database database;
+    private ExpenseService service;
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicReference<Throwable> writerFailure = new AtomicReference<>();
+    private Thread writer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new Database(dir.resolve("expenses.db"));
+        database.initSchema();
+        seed();
+
+        UserCache userCache = new UserCache(new UserDao(database));
+        ArchiveDao archiveDao = new ArchiveDao(database);
+        service = new ExpenseService(new ExpenseDao(database, userCache, archiveDao), userCache,
+            new ApprovalDao(database, archiveDao), new ChangeDao(database),
+            new BudgetService(List.of(new BudgetDao(database)), userCache));
+
+        writer = new Thread(this::write, "test-writer");
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        running.set(false);
+        writer.join();
+        database.close();
+        assertNull(writerFailure.get(), "writer failed");
+    }
+
+    @Test
+    void totalsAgreeWithinSessionWhileWriterCommits() throws SQLException, InterruptedException {
+        long writesBefore = written.get();
+        try (ReportSession session = service.openReportSession(ReportSession.Limits.UNLIMITED)) {
+            Round first = round(session);
+            assertTrue(first.consistent(), () -> "first round inconsistent: " + first);
+            long deadline = System.nanoTime() + WRITE_WAIT_NANOS;
+            int rounds = 0;
+            while (rounds < 5 || written.get() - writesBefore < MIN_WRITES) {
+                assertTrue(System.nanoTime() < deadline, "writer made no progress");
+                Round round = round(session);
+                assertEquals(first, round, "round " + rounds + " moved within the session");
+                rounds++;
+                Thread.sleep(5);
+            }
+            assertEquals(0, session.getRefreshCount());
+        }
+
+        try (ReportSession later = service.openReportSession(ReportSession.Limits.UNLIMITED)) {
+            Round round = round(later);
+            assertTrue(round.consistent(), () -> "later round inconsistent: " + round);
+            assertTrue(round.count() >= ROWS + MIN_WRITES, () -> "a new session did not see the writes: " + round);
+        }
+    }
+
+    @Test
+    void refreshMovesSessionForwardConsistently() throws SQLException, InterruptedException {
+        try (ReportSession session = service.openReportSession(ReportSession.Limits.UNLIMITED)) {
+            Round before = round(session);
+            long writesBefore = written.get();
+            long deadline = System.nanoTime() + WRITE_WAIT_NANOS;
+            while (written.get() - writesBefore < MIN_WRITES) {
+                assertTrue(System.nanoTime() < deadline, "writer made no progress");
+                Thread.sleep(5);
+            }
+            assertTrue(session.refresh());
+            Round after = round(session);
+            assertTrue(after.consistent(), () -> "refreshed round inconsistent: " + after);
+            assertTrue(after.count() > before.count(), () -> "refresh did not move: " + before + " -> " + after);
+            assertEquals(1, session.getRefreshCount());
+        }
+    }
+
+    private static Round round(ReportSession session) {
+        return new Round(session.getTotalsByStatus(), session.getTotalsByCategory(),
+            session.getPendingByRisk(0).size());
+    }
+
+    private static long countOf(List<ExpenseTotals> totals) {
+        return totals.stream().mapToLong(ExpenseTotals::getCount).sum();
+    }
+
+    /**
+     * Inserts a pending expense and approves the oldest pending one per transaction, until told to stop.
+     */
+    private void write() {
+        Random random = new Random(11);
+        try (Connection conn = database.newConnection();
+             PreparedStatement insert = conn.prepareStatement(
+                 "INSERT INTO expenses (id, user_id, category, amount, description, date, status) "
+                     + "VALUES (?, ?, ?, ?, 'test', ?, 'pending')");
+             PreparedStatement approve = conn.prepareStatement(
+                 "UPDATE expenses SET status = 'approved' WHERE id = (SELECT id FROM expenses "
+                     + "WHERE status = 'pending' ORDER BY date LIMIT 1)")) {
+            conn.setAutoCommit(false);
+            while (running.get()) {
+                insert.setString(1, UUID.randomUUID().toString());
+                insert.setString(2, "u" + random.nextInt(USERS));
+                insert.setString(3, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                insert.setDouble(4, 5 + random.nextInt(500));
+                insert.setString(5, LocalDate.now().toString());
+                insert.executeUpdate();
+                approve.executeUpdate();
+                conn.commit();
+                written.incrementAndGet();
+                Thread.sleep(1);
+            }
+        } catch (SQLException | InterruptedException | RuntimeException e) {
+            writerFailure.set(e);
+        }
+    }
+
+    private void seed() throws SQLException {
+        Random random = new Random(7);
+        LocalDate firstDay = LocalDate.now().minusDays(400);
+        try (Connection conn = database.newConnection();
+             PreparedStatement users = conn.prepareStatement("INSERT INTO users VALUES (?, ?, 'pw', 'Employee')");
+             PreparedStatement expenses = conn.prepareStatement(
+                 "INSERT INTO expenses (id, user_id, category, amount, description, date, status) "
+                     + "VALUES (?, ?, ?, ?, 'seed', ?, ?)")) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < USERS; i++) {
+                users.setString(1, "u" + i);
+                users.setString(2, "user" + i);
+                users.executeUpdate();
+            }
+            for (int i = 0; i < ROWS; i++) {
+                expenses.setString(1, "s" + i);
+                expenses.setString(2, "u" + random.nextInt(USERS));
+                expenses.setString(3, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                expenses.setDouble(4, 5 + random.nextInt(500));
+                expenses.setString(5, firstDay.plusDays(random.nextInt(400)).toString());
+                expenses.setString(6, STATUSES[random.nextInt(STATUSES.length)]);
+                expenses.addBatch();
+            }
+            expenses.executeBatch();
+            conn.commit();
+        }
+    }
+
+    /**
+     * The grand totals of one round's two tables and its pending list length. Amounts are whole dollars, so the sums
+     * compare exactly.
+     */
+    private record Round(long count, long categoryCount, long amount, long categoryAmount, long pending,
+                         long listed) {
+        Round(List<ExpenseTotals> byStatus, List<ExpenseTotals> byCategory, int listed) {
+            this(countOf(byStatus), countOf(byCategory),
+                Math.round(byStatus.stream().mapToDouble(ExpenseTotals::getAmount).sum()),
+                Math.round(byCategory.stream().mapToDouble(ExpenseTotals::getAmount).sum()),
+                byStatus.stream().filter(row -> "pending".equals(row.getKey()))
+                    .mapToLong(ExpenseTotals::getCount).sum(),
+                listed);
+        }
+
+        boolean consistent() {
+            return count == categoryCount && amount == categoryAmount && pending == listed;
+        }
+    }
+}